@@ -0,0 +1,91 @@
+package com.livingcostcheck.home_repair.repository;
+
+import com.livingcostcheck.home_repair.domain.EventLog;
+import com.livingcostcheck.home_repair.util.MpscRingBuffer;
+import com.livingcostcheck.home_repair.web.ClickCounters;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-thread cost of /track: click counter + enqueue for the event_log
+ * writer, with four producer threads. The previous ArrayBlockingQueue
+ * (one lock for producers and consumer) vs the lock-free ring buffer, with the
+ * writer draining or stalled (database down: the buffer is full, clicks are
+ * rejected).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+public class ClickIngestBenchmark {
+
+    private static final int CAPACITY = 16_384;
+
+    @Param({ "array_blocking", "mpsc_ring" })
+    public String buffer;
+
+    @Param({ "draining", "stalled" })
+    public String writer;
+
+    private ArrayBlockingQueue<EventLog> queue;
+    private MpscRingBuffer<EventLog> ring;
+    private ClickCounters counters;
+    private UUID[] verdicts;
+    private Thread consumer;
+    private volatile boolean running;
+
+    @Setup
+    public void setup() {
+        queue = new ArrayBlockingQueue<>(CAPACITY);
+        ring = new MpscRingBuffer<>(CAPACITY);
+        counters = new ClickCounters(ClickCounters.DEFAULT_MAX_KEYS);
+        verdicts = new UUID[256];
+        for (int i = 0; i < verdicts.length; i++) {
+            verdicts[i] = UUID.randomUUID();
+        }
+        running = true;
+        if (writer.equals("draining")) {
+            boolean lockFree = buffer.equals("mpsc_ring");
+            consumer = new Thread(() -> {
+                List<EventLog> batch = new ArrayList<>(500);
+                while (running) {
+                    if (lockFree) {
+                        ring.drain(batch::add, 500);
+                    } else {
+                        queue.drainTo(batch, 500);
+                    }
+                    batch.clear();
+                    Thread.onSpinWait();
+                }
+            }, "bench-writer");
+            consumer.setDaemon(true);
+            consumer.start();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        running = false;
+        if (consumer != null) {
+            consumer.join();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+        int next;
+    }
+
+    @Benchmark
+    public boolean track(Producer producer) {
+        UUID verdict = verdicts[producer.next++ & (verdicts.length - 1)];
+        counters.record(verdict, EventLog.EventType.CLICK_AFFILIATE, "https://example.com/affiliate");
+        EventLog event = new EventLog(verdict, EventLog.EventType.CLICK_AFFILIATE, "https://example.com/affiliate");
+        return buffer.equals("mpsc_ring") ? ring.offer(event) : queue.offer(event);
+    }
+}
@@ -0,0 +1,206 @@
+package com.livingcostcheck.home_repair.repository;
+
+import com.livingcostcheck.home_repair.util.TimeOrderedUuid;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput of one write-behind batch (ROWS histories + ROWS events in
+ * one transaction) for the old id strategy (random v4 history ids, identity
+ * event ids) vs the new one (time-ordered v7 ids, pooled event_log sequence),
+ * written row by row (JPA without batching) or as JDBC batches.
+ *
+ * Runs against a file-based H2 database by default; point it at Postgres with
+ * -Dbench.jdbc.url=jdbc:postgresql://localhost:5432/homerepair -Dbench.jdbc.user=...
+ * -Dbench.jdbc.password=... After each iteration the storage per row is printed
+ * (H2: DISK_SPACE_USED of the table with its indexes, Postgres: pg_relation_size
+ * of the primary key index).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class IdStrategyBenchmark {
+
+    private static final int ROWS = 500;
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Param({ "identity_v4", "sequence_v7" })
+    public String strategy;
+
+    @Param({ "row", "batch" })
+    public String writes;
+
+    private Path h2Dir;
+    private Connection connection;
+    private boolean postgres;
+    private PreparedStatement insertHistory;
+    private PreparedStatement insertEvent;
+    private PreparedStatement nextSequence;
+    private boolean timeOrdered;
+    private boolean batched;
+    private long nextEventId = 1;
+    private long eventIdHi;
+
+    @Setup
+    public void setup() throws Exception {
+        String url = System.getProperty("bench.jdbc.url");
+        if (url == null) {
+            h2Dir = Files.createTempDirectory("id-bench");
+            url = "jdbc:h2:" + h2Dir.resolve("bench").toAbsolutePath();
+        }
+        connection = DriverManager.getConnection(url, System.getProperty("bench.jdbc.user", "sa"),
+                System.getProperty("bench.jdbc.password", ""));
+        postgres = connection.getMetaData().getDatabaseProductName().equals("PostgreSQL");
+        timeOrdered = strategy.equals("sequence_v7");
+        batched = writes.equals("batch");
+    }
+
+    /** Every iteration starts from empty tables. */
+    @Setup(Level.Iteration)
+    public void createTables() throws SQLException {
+        connection.setAutoCommit(true);
+        nextEventId = 1;
+        eventIdHi = 0;
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS bench_event");
+            ddl.execute("DROP TABLE IF EXISTS bench_history");
+            ddl.execute("DROP SEQUENCE IF EXISTS bench_event_seq");
+            ddl.execute("CREATE TABLE bench_history (id UUID PRIMARY KEY, zip_code VARCHAR(16) NOT NULL, "
+                    + "decade VARCHAR(16) NOT NULL, verdict_code VARCHAR(32) NOT NULL, created_at TIMESTAMP)");
+            if (timeOrdered) {
+                ddl.execute("CREATE SEQUENCE bench_event_seq START WITH 1 INCREMENT BY " + ALLOCATION_SIZE);
+                ddl.execute("CREATE TABLE bench_event (id BIGINT PRIMARY KEY, verdict_id UUID NOT NULL, "
+                        + "event_type VARCHAR(32) NOT NULL, target VARCHAR(255) NOT NULL, created_at TIMESTAMP)");
+            } else {
+                ddl.execute("CREATE TABLE bench_event (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                        + "verdict_id UUID NOT NULL, event_type VARCHAR(32) NOT NULL, target VARCHAR(255) NOT NULL, "
+                        + "created_at TIMESTAMP)");
+            }
+        }
+        connection.setAutoCommit(false);
+
+        insertHistory = connection.prepareStatement(
+                "INSERT INTO bench_history (id, zip_code, decade, verdict_code, created_at) VALUES (?, ?, ?, ?, ?)");
+        if (timeOrdered) {
+            insertEvent = connection.prepareStatement("INSERT INTO bench_event "
+                    + "(id, verdict_id, event_type, target, created_at) VALUES (?, ?, ?, ?, ?)");
+            nextSequence = connection.prepareStatement(postgres ? "SELECT nextval('bench_event_seq')"
+                    : "VALUES NEXT VALUE FOR bench_event_seq");
+        } else {
+            // Identity: the id is read back per row, which is what keeps Hibernate from batching
+            insertEvent = connection.prepareStatement("INSERT INTO bench_event "
+                    + "(verdict_id, event_type, target, created_at) VALUES (?, ?, ?, ?)", new String[] { "id" });
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS * 2)
+    public long writeBatch() throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        long checksum = 0;
+        for (int i = 0; i < ROWS; i++) {
+            UUID id = timeOrdered ? TimeOrderedUuid.next() : UUID.randomUUID();
+            insertHistory.setObject(1, id);
+            insertHistory.setString(2, "78701");
+            insertHistory.setString(3, "1970_1980");
+            insertHistory.setString(4, "LOW_RISK");
+            insertHistory.setTimestamp(5, now);
+            checksum += execute(insertHistory);
+
+            int column = 1;
+            if (timeOrdered) {
+                insertEvent.setLong(column++, nextEventId());
+            }
+            insertEvent.setObject(column++, id);
+            insertEvent.setString(column++, "CLICK_AFFILIATE");
+            insertEvent.setString(column++, "https://example.com/affiliate");
+            insertEvent.setTimestamp(column, now);
+            checksum += execute(insertEvent);
+            if (!timeOrdered) {
+                try (ResultSet keys = insertEvent.getGeneratedKeys()) {
+                    keys.next();
+                    checksum += keys.getLong(1);
+                }
+            }
+        }
+        if (batched) {
+            checksum += insertHistory.executeBatch().length;
+            if (timeOrdered) {
+                checksum += insertEvent.executeBatch().length;
+            }
+        }
+        connection.commit();
+        return checksum;
+    }
+
+    private int execute(PreparedStatement statement) throws SQLException {
+        // Identity event inserts stay row by row: their generated keys are needed
+        if (batched && (statement == insertHistory || timeOrdered)) {
+            statement.addBatch();
+            return 0;
+        }
+        return statement.executeUpdate();
+    }
+
+    private long nextEventId() throws SQLException {
+        if (nextEventId > eventIdHi) {
+            try (ResultSet value = nextSequence.executeQuery()) {
+                value.next();
+                eventIdHi = value.getLong(1);
+            }
+            nextEventId = Math.max(eventIdHi - ALLOCATION_SIZE + 1, 1);
+        }
+        return nextEventId++;
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() throws SQLException {
+        insertHistory.close();
+        insertEvent.close();
+        if (nextSequence != null) {
+            nextSequence.close();
+        }
+        try (Statement query = connection.createStatement()) {
+            if (!postgres) {
+                // Write out the open chunk so DISK_SPACE_USED counts every page
+                query.execute("CHECKPOINT");
+            }
+            long rows = count(query, "SELECT COUNT(*) FROM bench_history");
+            long historyBytes = count(query, postgres ? "SELECT pg_relation_size('bench_history_pkey')"
+                    : "SELECT DISK_SPACE_USED('BENCH_HISTORY')");
+            long eventBytes = count(query, postgres ? "SELECT pg_relation_size('bench_event_pkey')"
+                    : "SELECT DISK_SPACE_USED('BENCH_EVENT')");
+            System.out.printf("%n[%s/%s] %d rows: verdict_history %.1f B/row, event_log %.1f B/row%n", strategy,
+                    writes, rows, (double) historyBytes / rows, (double) eventBytes / rows);
+        }
+    }
+
+    @TearDown
+    public void close() throws Exception {
+        connection.close();
+        if (h2Dir != null) {
+            try (var files = Files.walk(h2Dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static long count(Statement query, String sql) throws SQLException {
+        try (ResultSet result = query.executeQuery(sql)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+}
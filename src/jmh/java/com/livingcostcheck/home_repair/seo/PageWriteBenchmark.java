@@ -0,0 +1,124 @@
+package com.livingcostcheck.home_repair.seo;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.livingcostcheck.home_repair.service.VerdictEngineService;
+import gg.jte.ContentType;
+import gg.jte.TemplateEngine;
+import gg.jte.output.StringOutput;
+import gg.jte.resolve.DirectoryCodeResolver;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Render + minify + write of every verdict page (702) on one thread, template
+ * models prepared up front. regex_string: StringOutput, the former three regex
+ * passes, String to UTF-8 bytes. streaming: MinifyingHtmlOutput into a reused
+ * page buffer. The title changes every invocation so every page is written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@OperationsPerInvocation(702)
+public class PageWriteBenchmark {
+
+    private static final String[] ERAS = { "PRE_1950", "1950_1970", "1970_1980", "1980_1995", "1995_2010",
+            "2010_PRESENT" };
+    private static final String TEMPLATE = "seo/static-verdict.jte";
+
+    @Param({ "regex_string", "streaming" })
+    public String output;
+
+    private TemplateEngine templateEngine;
+    private final List<Map<String, Object>> models = new ArrayList<>();
+    private final List<String> titles = new ArrayList<>();
+    private final List<Path> targets = new ArrayList<>();
+    private final GenerationScheduler.PageBuffer page = new GenerationScheduler.PageBuffer(64 * 1024);
+    private Path dir;
+    private int run;
+
+    @Setup
+    public void setup() throws IOException {
+        // Per-verdict INFO logging would dominate the measurement
+        ((Logger) LoggerFactory.getLogger("com.livingcostcheck")).setLevel(Level.WARN);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        VerdictEngineService engine = new VerdictEngineService(new DefaultResourceLoader(), objectMapper);
+        engine.loadData();
+        templateEngine = TemplateEngine.create(new DirectoryCodeResolver(Paths.get("src/main/jte")),
+                ContentType.Html);
+        StaticPageGeneratorService generator = new StaticPageGeneratorService(engine, new InternalLinkBuilder(),
+                templateEngine, new VerdictSeoService());
+
+        dir = Files.createTempDirectory("page-write-bench");
+        for (String metroCode : engine.getMetroMasterData().getData().keySet()) {
+            for (String era : ERAS) {
+                Map<String, Object> model = generator.verdictTemplateData(metroCode, era, "Oct 2026");
+                models.add(model);
+                titles.add((String) model.get("title"));
+                targets.add(dir.resolve(metroCode + "-" + era + ".html"));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public int writeAllPages() throws IOException {
+        // Fresh manifest and a new title each time: nothing is skipped as unchanged
+        GenerationManifest manifest = GenerationManifest.empty();
+        String suffix = " #" + run++;
+        int written = 0;
+        for (int i = 0; i < models.size(); i++) {
+            Map<String, Object> model = models.get(i);
+            model.put("title", titles.get(i) + suffix);
+            Path target = targets.get(i);
+            String sitePath = "/" + target.getFileName();
+            boolean changed;
+            if (output.equals("streaming")) {
+                page.reset();
+                MinifyingHtmlOutput html = new MinifyingHtmlOutput(page);
+                templateEngine.render(TEMPLATE, model, html);
+                html.finish();
+                changed = manifest.write(sitePath, target, page.bytes(), page.size(), "bench", "bench");
+            } else {
+                StringOutput html = new StringOutput();
+                templateEngine.render(TEMPLATE, model, html);
+                changed = manifest.write(sitePath, target, regexMinify(html.toString()), "bench", "bench");
+            }
+            written += changed ? 1 : 0;
+        }
+        return written;
+    }
+
+    // The minification StaticPageGeneratorService used before MinifyingHtmlOutput
+    private static String regexMinify(String html) {
+        return html
+                .replaceAll("(?s)<!--.*?-->", "")
+                .replaceAll(">\\s+<", "><")
+                .replaceAll("\\s{2,}", " ")
+                .trim();
+    }
+}
@@ -0,0 +1,64 @@
+package com.livingcostcheck.home_repair.service;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * generateVerdicts (grouped + parallel) vs a generateVerdict loop over the same
+ * contexts. Traffic mix: random metro / era / relationship, 80% metro-average sqft.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BatchVerdictBenchmark {
+
+    private static final String[] ERAS = { "PRE_1950", "1950_1970", "1970_1980", "1980_1995", "1995_2010",
+            "2010_PRESENT" };
+
+    @Param({ "1000", "10000", "100000" })
+    public int contexts;
+
+    private VerdictEngineService engine;
+    private List<UserContext> batch;
+
+    @Setup
+    public void setup() {
+        engine = BenchmarkEngines.loaded();
+
+        List<String> metros = new ArrayList<>(engine.getMetroMasterData().getData().keySet());
+        Random random = new Random(42);
+        batch = new ArrayList<>(contexts);
+        for (int i = 0; i < contexts; i++) {
+            batch.add(UserContext.builder()
+                    .metroCode(metros.get(random.nextInt(metros.size())))
+                    .era(ERAS[random.nextInt(ERAS.length)])
+                    .budget(random.nextBoolean() ? -1.0 : 10000.0 + random.nextInt(90000))
+                    .sqft(random.nextInt(5) == 0 ? 1200 + random.nextInt(3000) : null)
+                    .relationship(RelationshipToHouse.values()[random.nextInt(3)])
+                    .isFpePanel(random.nextInt(10) == 0 ? true : null)
+                    .coreSystemHistory(random.nextInt(4) == 0 ? Arrays.asList("ROOFING", "HVAC") : null)
+                    .build());
+        }
+    }
+
+    // Both variants return every verdict in input order (same retention / GC profile)
+    @Benchmark
+    public List<Verdict> singleCallLoop() {
+        List<Verdict> verdicts = new ArrayList<>(batch.size());
+        for (UserContext context : batch) {
+            verdicts.add(engine.generateVerdict(context));
+        }
+        return verdicts;
+    }
+
+    @Benchmark
+    public List<Verdict> batch() {
+        return engine.generateVerdicts(batch);
+    }
+}
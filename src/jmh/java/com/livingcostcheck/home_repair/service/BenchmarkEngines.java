@@ -0,0 +1,28 @@
+package com.livingcostcheck.home_repair.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.DefaultResourceLoader;
+
+/**
+ * Engine wiring shared by the benchmarks (same setup as VerdictEngineTest).
+ */
+final class BenchmarkEngines {
+
+    private BenchmarkEngines() {
+    }
+
+    static VerdictEngineService loaded() {
+        // Per-verdict INFO logging would dominate the measurement
+        ((Logger) LoggerFactory.getLogger("com.livingcostcheck")).setLevel(Level.WARN);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        VerdictEngineService engine = new VerdictEngineService(new DefaultResourceLoader(), objectMapper);
+        engine.loadData();
+        return engine;
+    }
+}
@@ -0,0 +1,101 @@
+package com.livingcostcheck.home_repair.service;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.*;
+import com.livingcostcheck.home_repair.service.engine.EngineDataSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-stage cost of the verdict pipeline. Each benchmark feeds a stage the
+ * precomputed output of the previous one, bypassing the costing cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PipelineStageBenchmark {
+
+    @Param({ "PRE_1950", "1980_1995", "2010_PRESENT" })
+    public String era;
+
+    private VerdictEngineService engine;
+    private EngineDataSnapshot data;
+    private UserContext context;
+    private UserContext customScaleContext;
+    private List<BaseCostItem> candidates;
+    private EstimatedScale scale;
+    private List<BaseCostItem> costedItems;
+    private List<RiskAdjustedItem> riskAdjustedItems;
+
+    @Setup
+    public void setup() {
+        engine = BenchmarkEngines.loaded();
+        data = engine.currentData();
+        context = context(null);
+        customScaleContext = context(3200);
+
+        candidates = engine.step0_candidateGenerator(data, context);
+        scale = engine.step2_autoScale(data, context);
+        costedItems = engine.step3_preliminaryCosting(data, candidates, scale, context.getMetroCode());
+        riskAdjustedItems = engine.step4_riskFilter(data, costedItems, context, new ArrayList<>());
+    }
+
+    private UserContext context(Integer sqft) {
+        return UserContext.builder()
+                .metroCode("AUSTIN_ROUND_ROCK_TX")
+                .era(era)
+                .sqft(sqft)
+                .budget(45000.0)
+                .relationship(RelationshipToHouse.LIVING)
+                .isFpePanel(true)
+                .build();
+    }
+
+    @Benchmark
+    public List<BaseCostItem> step0_candidateGenerator() {
+        return engine.step0_candidateGenerator(data, context);
+    }
+
+    @Benchmark
+    public EstimatedScale step2_autoScale() {
+        return engine.step2_autoScale(data, context);
+    }
+
+    @Benchmark
+    public List<BaseCostItem> step3_preliminaryCosting() {
+        return engine.step3_preliminaryCosting(data, candidates, scale, context.getMetroCode());
+    }
+
+    /** Pre-matrix step 3 on the same input, for comparison with the row above. */
+    @Benchmark
+    public List<BaseCostItem> step3_preliminaryCosting_legacy() {
+        return LegacyCosting.cost(candidates, scale);
+    }
+
+    @Benchmark
+    public List<RiskAdjustedItem> step4_riskFilter() {
+        return engine.step4_riskFilter(data, costedItems, context, new ArrayList<>());
+    }
+
+    @Benchmark
+    public SortedPlan step5_strategicFiltering() {
+        return engine.step5_strategicFiltering(riskAdjustedItems, context, StrategyType.STANDARD_LIVING);
+    }
+
+    @Benchmark
+    public StrategyOption generateStrategyOption() {
+        return engine.generateStrategyOption(StrategyType.STANDARD_LIVING, riskAdjustedItems, context);
+    }
+
+    @Benchmark
+    public ComparisonData calculateComparisonData_metroAverage() {
+        return engine.calculateComparisonData(data, context, 30000.0, StrategyType.STANDARD_LIVING);
+    }
+
+    @Benchmark
+    public ComparisonData calculateComparisonData_customSqft() {
+        return engine.calculateComparisonData(data, customScaleContext, 30000.0, StrategyType.STANDARD_LIVING);
+    }
+}
@@ -0,0 +1,58 @@
+package com.livingcostcheck.home_repair.service;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end generateVerdict across representative contexts: every era, each
+ * relationship, and three input profiles (metro average, forensic flags, custom
+ * scale). Steps 0-3 are served from the costing cache after the first call, as
+ * in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VerdictEngineBenchmark {
+
+    @Param({ "PRE_1950", "1950_1970", "1970_1980", "1980_1995", "1995_2010", "2010_PRESENT" })
+    public String era;
+
+    @Param({ "LIVING", "BUYING", "INVESTING" })
+    public RelationshipToHouse relationship;
+
+    @Param({ "METRO_AVERAGE", "FORENSIC", "CUSTOM_SCALE" })
+    public String profile;
+
+    private VerdictEngineService engine;
+    private UserContext context;
+
+    @Setup
+    public void setup() {
+        engine = BenchmarkEngines.loaded();
+
+        UserContext.UserContextBuilder builder = UserContext.builder()
+                .metroCode("AUSTIN_ROUND_ROCK_TX")
+                .era(era)
+                .budget(45000.0)
+                .relationship(relationship);
+
+        switch (profile) {
+            case "FORENSIC":
+                builder.isFpePanel(true).isPolyB(true).isAluminum(true);
+                break;
+            case "CUSTOM_SCALE":
+                builder.sqft(3200).stories(2).bathrooms(3).roofType("METAL");
+                break;
+            default:
+                break;
+        }
+        context = builder.build();
+    }
+
+    @Benchmark
+    public Verdict generateVerdict() {
+        return engine.generateVerdict(context);
+    }
+}
@@ -0,0 +1,62 @@
+package com.livingcostcheck.home_repair.service;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result page what-ifs on a staged verdict (budget slider, relationship toggle,
+ * custom sqft) against a full generateVerdict of the same changed context.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WhatIfBenchmark {
+
+    @Param({ "PRE_1950", "1980_1995" })
+    public String era;
+
+    private VerdictEngineService engine;
+    private StagedVerdict base;
+    private UserContext budgetContext;
+    private int sqft;
+
+    @Setup
+    public void setup() {
+        engine = BenchmarkEngines.loaded();
+        UserContext context = UserContext.builder()
+                .metroCode("AUSTIN_ROUND_ROCK_TX")
+                .era(era)
+                .budget(45000.0)
+                .relationship(RelationshipToHouse.LIVING)
+                .coreSystemHistory(List.of())
+                .livingSpaceHistory(List.of())
+                .build();
+        base = engine.stageVerdict(context);
+        budgetContext = context.toBuilder().budget(30000.0).build();
+    }
+
+    @Benchmark
+    public Verdict fullVerdict_budget() {
+        return engine.generateVerdict(budgetContext);
+    }
+
+    @Benchmark
+    public StagedVerdict whatIf_budget() {
+        return engine.whatIf(base, 30000.0, null, null);
+    }
+
+    @Benchmark
+    public StagedVerdict whatIf_relationship() {
+        return engine.whatIf(base, null, RelationshipToHouse.INVESTING, null);
+    }
+
+    @Benchmark
+    public StagedVerdict whatIf_sqft() {
+        // Varying size, so Steps 2-3 miss the costing cache most of the time
+        sqft = sqft >= 4000 ? 1200 : sqft + 10;
+        return engine.whatIf(base, null, null, sqft);
+    }
+}
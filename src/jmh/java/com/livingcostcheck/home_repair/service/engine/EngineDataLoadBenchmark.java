@@ -0,0 +1,62 @@
+package com.livingcostcheck.home_repair.service.engine;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.livingcostcheck.home_repair.service.VerdictEngineService;
+import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping.*;
+import com.livingcostcheck.home_repair.service.dto.verdict.LifespanData;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Engine data load: Jackson over the four JSON files vs decoding the compiled
+ * engine-data.bin (steady state; the cold, first-load time is logged by
+ * VerdictEngineService on every load).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EngineDataLoadBenchmark {
+
+    private ObjectMapper objectMapper;
+    private List<byte[]> sources;
+    private ByteBuffer compiled;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = new ObjectMapper();
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        sources = new ArrayList<>();
+        for (String fileName : VerdictEngineService.DATA_FILES) {
+            sources.add(read(fileName));
+        }
+        compiled = ByteBuffer.wrap(read(EngineDataBinary.FILE_NAME));
+    }
+
+    private static byte[] read(String fileName) throws IOException {
+        try (InputStream in = new ClassPathResource("data/" + fileName).getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    public Object[] jsonParse() throws IOException {
+        return new Object[] {
+                objectMapper.readValue(sources.get(0), MetroMasterData.class),
+                objectMapper.readValue(sources.get(1), RiskFactorsData.class),
+                objectMapper.readValue(sources.get(2), CostLibraryData.class),
+                objectMapper.readValue(sources.get(3), LifespanData.class) };
+    }
+
+    @Benchmark
+    public EngineDataBinary.Contents binaryDecode() {
+        return EngineDataBinary.read(compiled);
+    }
+}
@@ -0,0 +1,155 @@
+package com.livingcostcheck.home_repair.service.engine;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping.*;
+import com.livingcostcheck.home_repair.service.dto.verdict.LifespanData;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Step 4 item classification: compiled {@link RiskDecisionTable} vs the former
+ * per-request string scan (risk x item keyword chain, category/subsystem chains,
+ * era re-parse). The cost library is inflated to simulate catalog growth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RiskFilterBenchmark {
+
+    @Param({ "18", "1000", "5000" })
+    public int librarySize;
+
+    @Param({ "1970_1980", "1980_1995" })
+    public String era;
+
+    private List<String> itemCodes;
+    private List<String> itemCategories;
+    private RiskFactorsData riskFactorsData;
+    private LifespanData lifespanData;
+    private RiskDecisionTable table;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        riskFactorsData = read(objectMapper, "data/risk_factors_by_year.json", RiskFactorsData.class);
+        lifespanData = read(objectMapper, "data/item_lifespan_db.json", LifespanData.class);
+        CostLibraryData library = read(objectMapper, "data/2026_Integrated_Construction_Cost_Library.json",
+                CostLibraryData.class);
+
+        // Inflate the library: clone real items under suffixed codes until librarySize
+        Map<String, Map<String, ConstructionItem>> inflated = new LinkedHashMap<>();
+        itemCodes = new ArrayList<>();
+        itemCategories = new ArrayList<>();
+        int variant = 0;
+        while (itemCodes.size() < librarySize) {
+            for (var category : library.getConstructionItemLibrary().entrySet()) {
+                for (var item : category.getValue().entrySet()) {
+                    if (itemCodes.size() >= librarySize)
+                        break;
+                    String code = variant == 0 ? item.getKey() : item.getKey() + "_V" + variant;
+                    inflated.computeIfAbsent(category.getKey(), k -> new LinkedHashMap<>()).put(code, item.getValue());
+                    itemCodes.add(code);
+                    itemCategories.add(category.getKey());
+                }
+            }
+            variant++;
+        }
+        library.setConstructionItemLibrary(inflated);
+
+        table = RiskDecisionTable.compile(riskFactorsData, library, lifespanData);
+    }
+
+    @Benchmark
+    public void decisionTable(Blackhole bh) {
+        int age = table.effectiveAge(era);
+        for (int i = 0; i < itemCodes.size(); i++) {
+            RiskDecisionTable.ItemRule rule = table.rule(itemCodes.get(i), itemCategories.get(i));
+            bh.consume(rule.risksFor(era).size());
+            bh.consume(rule.getBaseCategory());
+            bh.consume(rule.getLifespan());
+            bh.consume(age);
+        }
+    }
+
+    @Benchmark
+    public void legacyStringScan(Blackhole bh) {
+        EraData eraData = riskFactorsData.getEras().getOrDefault(era, new EraData());
+        List<RiskItem> eraRisks = eraData.getCriticalRisks() != null ? eraData.getCriticalRisks()
+                : Collections.emptyList();
+
+        for (String code : itemCodes) {
+            int matches = 0;
+            for (RiskItem risk : eraRisks) {
+                boolean isRiskMatch = false;
+                if ("POLYBUTYLENE_PLUMBING".equals(risk.getItem()) && code.contains("PLUMBING"))
+                    isRiskMatch = true;
+                if ("KNOB_AND_TUBE_WIRING".equals(risk.getItem()) && code.contains("ELECTRICAL"))
+                    isRiskMatch = true;
+                if ("ALUMINUM_WIRING".equals(risk.getItem()) && code.contains("ELECTRICAL"))
+                    isRiskMatch = true;
+                if ("LP_INNER_SEAL_SIDING".equals(risk.getItem()) && code.contains("SIDING"))
+                    isRiskMatch = true;
+                if ("SYNTHETIC_STUCCO_EIFS".equals(risk.getItem()) && code.contains("STUCCO"))
+                    isRiskMatch = true;
+                if ("FEDERAL_PACIFIC_PANELS".equals(risk.getItem()) && code.contains("ELECTRICAL_PANEL"))
+                    isRiskMatch = true;
+                if ("CHINESE_DRYWALL".equals(risk.getItem()) && code.contains("DRYWALL"))
+                    isRiskMatch = true;
+                if ("PEX_A_FITTING_RECALLS".equals(risk.getItem()) && code.contains("PLUMBING"))
+                    isRiskMatch = true;
+                if ("HVAC_REFRIGERANT_PHASE_OUT".equals(risk.getItem()) && code.contains("HVAC"))
+                    isRiskMatch = true;
+                if (isRiskMatch)
+                    matches++;
+            }
+            bh.consume(matches);
+
+            String category = "COSMETIC";
+            if (code.contains("ROOF") || code.contains("FOUNDATION") || code.contains("SEWER")) {
+                category = "STRUCTURAL";
+            } else if (code.contains("HVAC") || code.contains("PLUMBING") || code.contains("ELECTRICAL")) {
+                category = "MECHANICAL";
+            }
+            bh.consume(category);
+
+            String itemSubsystem = null;
+            if (code.contains("ROOF"))
+                itemSubsystem = "ROOFING";
+            else if (code.contains("HVAC"))
+                itemSubsystem = "HVAC";
+            else if (code.contains("PLUMBING"))
+                itemSubsystem = "PLUMBING";
+            else if (code.contains("PANEL") || code.contains("ELECTRICAL"))
+                itemSubsystem = "ELECTRICAL";
+            else if (code.contains("WINDOW"))
+                itemSubsystem = "WINDOWS";
+            else if (code.contains("WATER_HEATER"))
+                itemSubsystem = "WATER_HEATER";
+
+            if (itemSubsystem != null && lifespanData.getItems().containsKey(itemSubsystem)) {
+                bh.consume(lifespanData.getItems().get(itemSubsystem));
+                int startYear = 1900;
+                try {
+                    String startYearStr = era.split("_")[0];
+                    startYear = "PRE".equals(startYearStr) ? 1920 : Integer.parseInt(startYearStr);
+                } catch (Exception e) {
+                }
+                bh.consume(2026 - startYear);
+            }
+        }
+    }
+
+    private static <T> T read(ObjectMapper objectMapper, String path, Class<T> type) throws IOException {
+        try (InputStream in = new DefaultResourceLoader().getResource("classpath:" + path).getInputStream()) {
+            return objectMapper.readValue(in, type);
+        }
+    }
+}
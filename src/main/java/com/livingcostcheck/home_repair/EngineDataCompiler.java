@@ -0,0 +1,56 @@
+package com.livingcostcheck.home_repair;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.livingcostcheck.home_repair.service.VerdictEngineService;
+import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping.*;
+import com.livingcostcheck.home_repair.service.dto.verdict.LifespanData;
+import com.livingcostcheck.home_repair.service.engine.EngineDataBinary;
+import com.livingcostcheck.home_repair.service.engine.EngineDataSnapshot;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles the engine data JSON files into {@link EngineDataBinary#FILE_NAME}
+ * next to them. Re-run after editing any of the JSON files (a stale binary is
+ * ignored at load time and the JSON is parsed instead).
+ * Run with: ./gradlew compileEngineData
+ */
+public class EngineDataCompiler {
+
+    public static void main(String[] args) {
+        Path dataDir = Paths.get(args.length > 0 ? args[0] : "src/main/resources/data");
+
+        try {
+            ObjectMapper objectMapper = new ObjectMapper();
+            objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+            List<byte[]> sources = new ArrayList<>();
+            for (String fileName : VerdictEngineService.DATA_FILES) {
+                sources.add(Files.readAllBytes(dataDir.resolve(fileName)));
+            }
+            String version = EngineDataSnapshot.digest(sources);
+
+            byte[] compiled = EngineDataBinary.write(version,
+                    objectMapper.readValue(sources.get(0), MetroMasterData.class),
+                    objectMapper.readValue(sources.get(1), RiskFactorsData.class),
+                    objectMapper.readValue(sources.get(2), CostLibraryData.class),
+                    objectMapper.readValue(sources.get(3), LifespanData.class));
+
+            Path output = dataDir.resolve(EngineDataBinary.FILE_NAME);
+            Files.write(output, compiled);
+
+            int jsonBytes = sources.stream().mapToInt(source -> source.length).sum();
+            System.out.println("✓ Compiled engine data version " + version + ": " + jsonBytes + " bytes of JSON -> "
+                    + compiled.length + " bytes (" + output + ")");
+        } catch (Exception e) {
+            System.err.println("Engine data compilation failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
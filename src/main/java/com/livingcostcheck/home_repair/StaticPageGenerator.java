@@ -2,7 +2,10 @@ package com.livingcostcheck.home_repair;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.livingcostcheck.home_repair.seo.GeneratedFiles;
+import com.livingcostcheck.home_repair.seo.GenerationManifest;
 import com.livingcostcheck.home_repair.seo.InternalLinkBuilder;
+import com.livingcostcheck.home_repair.seo.PageDependencyGraph;
 import com.livingcostcheck.home_repair.seo.SitemapGenerator;
 import com.livingcostcheck.home_repair.seo.StaticPageGeneratorService;
 import com.livingcostcheck.home_repair.service.VerdictEngineService;
@@ -14,10 +17,13 @@ import org.springframework.core.io.ResourceLoader;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.TreeSet;
 
 /**
  * Standalone executable to generate all pSEO static pages
  * Run with: ./gradlew generateStaticPages
+ * Only the pages affected by data changes since the last run: ./gradlew generateStaticPages --args=--changed
  */
 public class StaticPageGenerator {
 
@@ -67,11 +73,29 @@ public class StaticPageGenerator {
 
             // Generate all pages
             String outputPath = "src/main/resources/static/home-repair/verdicts";
-            java.util.List<String> allUrls = pageGenerator.generateAllPages(outputPath);
+            // Pages whose content did not change since the last run are not rewritten
+            GenerationManifest manifest = GenerationManifest.load(Paths.get(GenerationManifest.DEFAULT_PATH));
+            PageDependencyGraph graph = PageDependencyGraph.load(Paths.get(PageDependencyGraph.DEFAULT_PATH));
+            java.util.List<String> allUrls;
+            if (Arrays.asList(args).contains("--changed")) {
+                StaticPageGeneratorService.Regeneration result = pageGenerator.regenerateChanged(outputPath,
+                        manifest, graph);
+                allUrls = result.urls();
+                if (result.changedEntities() != null) {
+                    System.out.println("✓ Data " + result.previousVersion() + " -> " + result.dataVersion() + ": "
+                            + result.changedEntities().size() + " entities changed " + new TreeSet<>(
+                                    result.changedEntities()));
+                }
+                System.out.println("✓ Rebuilt " + result.rebuilt().size() + " pages, removed "
+                        + result.removed().size());
+            } else {
+                allUrls = pageGenerator.generateAllPages(outputPath, manifest, graph);
+            }
             int pageCount = allUrls.size();
 
             System.out.println();
-            System.out.println("✓ Generated " + pageCount + " pages to: " + outputPath);
+            System.out.println("✓ Generated " + pageCount + " pages to: " + outputPath + " (" + manifest.written()
+                    + " written, " + manifest.unchanged() + " unchanged)");
 
             System.out.println();
             System.out.println("────────────────────────────────────────────────────────────");
@@ -81,10 +105,16 @@ public class StaticPageGenerator {
 
             // Generate sitemap
             String sitemapPath = "src/main/resources/static/sitemap.xml";
-            int urlCount = sitemapGenerator.generateSitemap(sitemapPath, allUrls);
+            int urlCount = sitemapGenerator.generateSitemap(sitemapPath, allUrls, manifest);
+            manifest.save();
+            graph.save();
 
             System.out.println("✓ Sitemap generated with " + urlCount + " URLs: " + sitemapPath);
 
+            // Precompressed siblings for anything not written by the generators (CSS)
+            int precompressed = GeneratedFiles.precompressTree(Paths.get("src/main/resources/static"));
+            System.out.println("✓ Precompressed " + precompressed + " static resources (.gz)");
+
             System.out.println();
             System.out.println("╔════════════════════════════════════════════════════════════╗");
             System.out.println("║                    ✓ SUCCESS!                              ║");
@@ -14,8 +14,14 @@ import java.util.UUID;
 @NoArgsConstructor
 public class EventLog {
 
+    public static final String ID_SEQUENCE = "event_log_seq";
+
+    /** Ids reserved per sequence call (Hibernate pooled optimizer, EventLogIdAllocator). */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "verdict_id", nullable = false)
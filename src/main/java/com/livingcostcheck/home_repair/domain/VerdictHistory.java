@@ -1,5 +1,7 @@
 package com.livingcostcheck.home_repair.domain;
 
+import com.livingcostcheck.home_repair.util.ContentHash;
+import com.livingcostcheck.home_repair.util.TimeOrderedUuid;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
@@ -17,6 +19,8 @@ import java.util.UUID;
 @NoArgsConstructor
 public class VerdictHistory {
 
+    // Time-ordered (v7) for new rows: inserts append to the primary key index.
+    // Rows created before keep their random (v4) ids, which are in shared result URLs.
     @Id
     private UUID id;
 
@@ -63,13 +67,37 @@ public class VerdictHistory {
     @Column(name = "is_chinese_drywall")
     private Boolean isChineseDrywall;
 
+    // Scale inputs (part of the verdict context since Step 2 uses them)
+    @Column(name = "sqft")
+    private Integer sqft;
+
+    @Column(name = "stories")
+    private Integer stories;
+
+    @Column(name = "bathrooms")
+    private Integer bathrooms;
+
+    @Column(name = "roof_type")
+    private String roofType;
+
+    // Computed verdict (VerdictSnapshotCodec) and the engine data version it was computed from
+    @Column(name = "verdict_snapshot", length = 65536)
+    private byte[] verdictSnapshot;
+
+    @Column(name = "data_version")
+    private String dataVersion;
+
+    // Content hash of the snapshot (result page ETag)
+    @Column(name = "snapshot_hash")
+    private String snapshotHash;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
     public VerdictHistory(String zipCode, String budget, String purpose, String decade, String verdictCode,
             String verdictVersion, String decisionContextHash) {
-        this.id = UUID.randomUUID();
+        this.id = TimeOrderedUuid.next();
         this.zipCode = zipCode;
         this.budget = budget;
         this.purpose = purpose;
@@ -84,6 +112,19 @@ public class VerdictHistory {
         this.houseCondition = houseCondition;
     }
 
+    public void setScale(Integer sqft, Integer stories, Integer bathrooms, String roofType) {
+        this.sqft = sqft;
+        this.stories = stories;
+        this.bathrooms = bathrooms;
+        this.roofType = roofType;
+    }
+
+    public void setVerdictSnapshot(byte[] verdictSnapshot, String dataVersion) {
+        this.verdictSnapshot = verdictSnapshot;
+        this.snapshotHash = ContentHash.of(verdictSnapshot);
+        this.dataVersion = dataVersion;
+    }
+
     public void setForensicClues(Boolean isFpePanel, Boolean isPolyB, Boolean isAluminum, Boolean isChineseDrywall) {
         this.isFpePanel = isFpePanel;
         this.isPolyB = isPolyB;
@@ -0,0 +1,562 @@
+package com.livingcostcheck.home_repair.repository;
+
+import com.livingcostcheck.home_repair.domain.EventLog;
+import com.livingcostcheck.home_repair.domain.VerdictHistory;
+import com.livingcostcheck.home_repair.util.MpscRingBuffer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind persistence for VerdictHistory and EventLog.
+ *
+ * Writes are queued (bounded) and a single background writer turns whatever is
+ * queued into JDBC batches: history inserts first, then snapshot/email updates,
+ * then event inserts, in one transaction. Event ids come from the pooled
+ * {@link EventLogIdAllocator}, so event inserts batch too. Queued histories stay readable through
+ * {@link #pendingHistory(UUID)} until inserted (the /result redirect).
+ *
+ * Click events skip the queue: they go into a lock-free ring buffer
+ * (click-capacity) that the same writer drains, so /track never blocks or
+ * waits on the database.
+ *
+ * Backpressure when the queue is full:
+ * - critical writes (history inserts, lead emails) wait up to offer-timeout,
+ * then are written on the calling thread once every write queued before them
+ * is written (so a lead email never lands ahead of its history insert); if
+ * those are still not written after another offer-timeout, the caller waits
+ * for a queue slot instead;
+ * - snapshot refreshes are dropped (counted);
+ * - clicks are dropped once the ring is full (newest first, counted in
+ * clicksDropped; ClickCounters still counts them).
+ *
+ * Durability: on a transient database failure the batch is retried with backoff
+ * (nothing is dropped, the queue fills and backpressure applies); other failures
+ * are retried row by row, each row again retried while the failure is transient,
+ * and only rows failing permanently are dropped. A dropped or lost write is
+ * counted in failed and its history leaves {@link #pendingHistory}. On shutdown
+ * the queue is drained for up to shutdown-timeout. A crash loses what was queued.
+ */
+@Slf4j
+@Component
+public class WriteBehindQueue {
+
+    public static final int DEFAULT_CAPACITY = 10_000;
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_CLICK_CAPACITY = 16_384;
+
+    static final String INSERT_HISTORY = "INSERT INTO verdict_history (id, user_email, zip_code, budget, purpose, "
+            + "decade, verdict_code, verdict_version, decision_context_hash, repair_history, house_condition, "
+            + "is_fpe_panel, is_poly_b, is_aluminum, is_chinese_drywall, sqft, stories, bathrooms, roof_type, "
+            + "verdict_snapshot, data_version, snapshot_hash, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String UPDATE_SNAPSHOT = "UPDATE verdict_history SET verdict_snapshot = ?, data_version = ?, "
+            + "snapshot_hash = ? WHERE id = ?";
+    static final String UPDATE_EMAIL = "UPDATE verdict_history SET user_email = ? WHERE id = ?";
+    static final String INSERT_EVENT = "INSERT INTO event_log (id, verdict_id, event_type, target, created_at) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EventLogIdAllocator eventIds;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration offerTimeout;
+    private final Duration shutdownTimeout;
+
+    private final BlockingQueue<Queued> queue;
+    private final MpscRingBuffer<EventLog> clicks;
+    // Sequence numbers of queued writes not written (or failed) yet; the writer notifies progress
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentSkipListSet<Long> unwritten = new ConcurrentSkipListSet<>();
+    private final Object progress = new Object();
+    // Flushes waiting for clicks offered before them (writer thread only)
+    private final List<Barrier> waiting = new ArrayList<>();
+    private final Map<UUID, VerdictHistory> pending = new ConcurrentHashMap<>();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder clicksDropped = new LongAdder();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @Autowired
+    public WriteBehindQueue(JdbcTemplate jdbcTemplate, EventLogIdAllocator eventIds,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.persistence.write-behind.capacity:" + DEFAULT_CAPACITY + "}") int capacity,
+            @Value("${app.persistence.write-behind.batch-size:" + DEFAULT_BATCH_SIZE + "}") int batchSize,
+            @Value("${app.persistence.write-behind.click-capacity:" + DEFAULT_CLICK_CAPACITY + "}") int clickCapacity,
+            @Value("${app.persistence.write-behind.offer-timeout:2s}") Duration offerTimeout,
+            @Value("${app.persistence.write-behind.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        if (capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("capacity and batchSize must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventIds = eventIds;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.offerTimeout = offerTimeout;
+        this.shutdownTimeout = shutdownTimeout;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.clicks = new MpscRingBuffer<>(clickCapacity);
+        this.writer = new Thread(this::drain, "write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // -------------------------------------------------------------------------
+    // Writes
+    // -------------------------------------------------------------------------
+
+    /** Queues the insert; the history is readable via {@link #pendingHistory} until written. */
+    public void saveHistory(VerdictHistory history) {
+        if (history.getCreatedAt() == null) {
+            history.setCreatedAt(LocalDateTime.now());
+        }
+        pending.put(history.getId(), history);
+        enqueueCritical(new InsertHistory(history));
+    }
+
+    /**
+     * Refreshed verdict snapshot; dropped under overload (the next view recomputes it).
+     * Queued by id: a history still waiting for its insert is not modified.
+     */
+    public void updateSnapshot(UUID historyId, byte[] snapshot, String dataVersion, String snapshotHash) {
+        enqueueDroppable(new UpdateSnapshot(historyId, snapshot, dataVersion, snapshotHash));
+    }
+
+    public void updateEmail(UUID historyId, String email) {
+        enqueueCritical(new UpdateEmail(historyId, email));
+    }
+
+    /**
+     * Email submissions are critical writes; clicks go to the ring buffer and
+     * are dropped when it is full. Never blocks for clicks.
+     */
+    public void logEvent(EventLog event) {
+        if (event.getCreatedAt() == null) {
+            event.setCreatedAt(LocalDateTime.now());
+        }
+        if (event.getEventType() == EventLog.EventType.SUBMIT_EMAIL) {
+            enqueueCritical(new InsertEvent(event));
+            return;
+        }
+        enqueued.increment();
+        if (closed || !clicks.offer(event)) {
+            // No logging per drop: under overload that would be the bottleneck
+            clicksDropped.increment();
+        }
+    }
+
+    public Optional<VerdictHistory> pendingHistory(UUID id) {
+        return Optional.ofNullable(pending.get(id));
+    }
+
+    /**
+     * Blocks until everything queued before the call is written.
+     */
+    public void flush(Duration timeout) throws TimeoutException {
+        if (closed) {
+            return;
+        }
+        Barrier barrier = new Barrier(new CompletableFuture<>(), clicks.produced());
+        try {
+            if (!offer(barrier, timeout.toMillis())) {
+                throw new TimeoutException("Write-behind queue full");
+            }
+            barrier.done().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void enqueueCritical(Write write) {
+        enqueued.increment();
+        try {
+            if (offer(write, offerTimeout.toMillis())) {
+                return;
+            }
+            // Queue full for offer-timeout (or shutting down): write on the calling thread, after
+            // everything queued before it
+            if (!awaitWritten(sequence.get(), closed ? shutdownTimeout : offerTimeout) && !closed) {
+                // Writer still behind: keep the order and wait for a slot
+                long seq = sequence.incrementAndGet();
+                unwritten.add(seq);
+                queue.put(new Queued(seq, write));
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        callerRuns.incrementAndGet();
+        try {
+            writeBatch(List.of(write));
+        } catch (RuntimeException e) {
+            fail(write, e);
+            throw e;
+        }
+    }
+
+    private void enqueueDroppable(Write write) {
+        enqueued.increment();
+        if (!offer(write, 0)) {
+            dropped.incrementAndGet();
+            log.warn("Write-behind queue full, dropped {}", write);
+        }
+    }
+
+    private boolean offer(Write write, long timeoutMillis) {
+        long seq = sequence.incrementAndGet();
+        unwritten.add(seq);
+        try {
+            if (!closed && queue.offer(new Queued(seq, write), timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        unwritten.remove(seq);
+        return false;
+    }
+
+    /**
+     * Waits until every write queued with a sequence number up to mark is written
+     * (or failed); true when they are, or when the writer has stopped.
+     */
+    private boolean awaitWritten(long mark, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (progress) {
+            while (true) {
+                Long oldest = unwritten.ceiling(0L);
+                if (oldest == null || oldest > mark || !writer.isAlive()) {
+                    return true;
+                }
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                progress.wait(remaining);
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Writer
+    // -------------------------------------------------------------------------
+
+    private void drain() {
+        List<Write> batch = new ArrayList<>(batchSize);
+        List<Queued> taken = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty() || !clicks.isEmpty() || !waiting.isEmpty()) {
+            try {
+                clicks.drain(click -> batch.add(new InsertEvent(click)), batchSize);
+                Queued first = batch.isEmpty() ? queue.poll(100, TimeUnit.MILLISECONDS) : queue.poll();
+                if (first != null) {
+                    taken.add(first);
+                    queue.drainTo(taken, Math.max(0, batchSize - batch.size() - 1));
+                    taken.forEach(queued -> batch.add(queued.write()));
+                }
+                if (!batch.isEmpty()) {
+                    writeWithRetry(batch);
+                }
+            } catch (InterruptedException e) {
+                // Shutdown timed out: the batch in hand and whatever is still queued are lost
+                log.error("Write-behind writer interrupted with {} writes queued", queue.size());
+                batch.forEach(write -> fail(write, e));
+                return;
+            } catch (RuntimeException e) {
+                log.error("Write-behind batch failed", e);
+                batch.forEach(write -> fail(write, e));
+            } finally {
+                for (Write write : batch) {
+                    if (write instanceof Barrier barrier) {
+                        waiting.add(barrier);
+                    }
+                }
+                batch.clear();
+                taken.forEach(queued -> unwritten.remove(queued.sequence()));
+                taken.clear();
+                synchronized (progress) {
+                    progress.notifyAll();
+                }
+                // Drained clicks are written (or failed) by now
+                long clicksWritten = clicks.consumed();
+                waiting.removeIf(barrier -> {
+                    if (barrier.clickMark() > clicksWritten) {
+                        return false;
+                    }
+                    barrier.done().complete(null);
+                    return true;
+                });
+            }
+        }
+    }
+
+    /**
+     * Writes the batch, or as much of it as can be written. Rows written or
+     * dropped while isolating a failure are removed from the batch (barriers
+     * stay), so on an interrupt the batch holds exactly the writes still unwritten.
+     */
+    private void writeWithRetry(List<Write> batch) throws InterruptedException {
+        try {
+            retryTransient(batch);
+        } catch (RuntimeException e) {
+            // Isolate the bad rows (a failing row binding or any other non-transient failure)
+            log.warn("Write-behind batch of {} failed ({}), writing row by row", batch.size(), e.getMessage());
+            for (Iterator<Write> rows = batch.iterator(); rows.hasNext();) {
+                Write write = rows.next();
+                if (write instanceof Barrier) {
+                    continue;
+                }
+                try {
+                    retryTransient(List.of(write));
+                } catch (RuntimeException rowFailure) {
+                    fail(write, rowFailure);
+                }
+                rows.remove();
+            }
+        }
+    }
+
+    /**
+     * Retries with backoff while the database is unavailable; other failures are thrown.
+     */
+    private void retryTransient(List<Write> batch) throws InterruptedException {
+        long backoff = 100;
+        while (true) {
+            try {
+                writeBatch(batch);
+                return;
+            } catch (TransientDataAccessException | DataAccessResourceFailureException
+                    | CannotCreateTransactionException e) {
+                // Database unavailable: keep the batch and retry (backpressure builds up in the queue)
+                retries.incrementAndGet();
+                log.warn("Write-behind batch of {} deferred ({}), retrying in {} ms", batch.size(),
+                        e.getMessage(), backoff);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private void writeBatch(List<Write> batch) {
+        List<VerdictHistory> inserts = new ArrayList<>();
+        List<UpdateSnapshot> snapshots = new ArrayList<>();
+        List<UpdateEmail> emails = new ArrayList<>();
+        List<EventLog> events = new ArrayList<>();
+        for (Write write : batch) {
+            switch (write) {
+                case InsertHistory insert -> inserts.add(insert.history());
+                case UpdateSnapshot snapshot -> snapshots.add(snapshot);
+                case UpdateEmail email -> emails.add(email);
+                case InsertEvent event -> events.add(event.event());
+                case Barrier barrier -> {
+                }
+            }
+        }
+        if (inserts.isEmpty() && snapshots.isEmpty() && emails.isEmpty() && events.isEmpty()) {
+            return;
+        }
+        for (EventLog event : events) {
+            if (event.getId() == null) {
+                event.setId(eventIds.nextId());
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_HISTORY, inserts, batchSize, WriteBehindQueue::bindHistory);
+            }
+            if (!snapshots.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SNAPSHOT, snapshots, batchSize, (ps, update) -> {
+                    ps.setBytes(1, update.snapshot());
+                    ps.setString(2, update.dataVersion());
+                    ps.setString(3, update.snapshotHash());
+                    ps.setObject(4, update.id());
+                });
+            }
+            if (!emails.isEmpty()) {
+                int[][] counts = jdbcTemplate.batchUpdate(UPDATE_EMAIL, emails, batchSize, (ps, update) -> {
+                    ps.setString(1, update.email());
+                    ps.setObject(2, update.id());
+                });
+                int row = 0;
+                for (int[] chunk : counts) {
+                    for (int count : chunk) {
+                        if (count == 0) {
+                            log.warn("Lead email for unknown verdict {}", emails.get(row).id());
+                        }
+                        row++;
+                    }
+                }
+            }
+            if (!events.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_EVENT, events, batchSize, (ps, event) -> {
+                    ps.setLong(1, event.getId());
+                    ps.setObject(2, event.getVerdictId());
+                    ps.setString(3, event.getEventType().name());
+                    ps.setString(4, event.getTarget());
+                    ps.setObject(5, event.getCreatedAt());
+                });
+            }
+        });
+
+        inserts.forEach(history -> pending.remove(history.getId(), history));
+        written.addAndGet(inserts.size() + snapshots.size() + emails.size() + events.size());
+        batches.incrementAndGet();
+    }
+
+    /**
+     * A write that will never be written: counted, and its history no longer served as pending.
+     */
+    private void fail(Write write, Exception cause) {
+        if (write instanceof Barrier) {
+            return;
+        }
+        failed.incrementAndGet();
+        if (write instanceof InsertHistory insert) {
+            pending.remove(insert.history().getId(), insert.history());
+        }
+        log.error("Write-behind dropped {}: {}", write, cause.getMessage());
+    }
+
+    private static void bindHistory(PreparedStatement ps, VerdictHistory history) throws SQLException {
+        ps.setObject(1, history.getId());
+        ps.setString(2, history.getUserEmail());
+        ps.setString(3, history.getZipCode());
+        ps.setString(4, history.getBudget());
+        ps.setString(5, history.getPurpose());
+        ps.setString(6, history.getDecade());
+        ps.setString(7, history.getVerdictCode());
+        ps.setString(8, history.getVerdictVersion());
+        ps.setString(9, history.getDecisionContextHash());
+        ps.setString(10, history.getRepairHistory());
+        ps.setString(11, history.getHouseCondition());
+        ps.setObject(12, history.getIsFpePanel(), Types.BOOLEAN);
+        ps.setObject(13, history.getIsPolyB(), Types.BOOLEAN);
+        ps.setObject(14, history.getIsAluminum(), Types.BOOLEAN);
+        ps.setObject(15, history.getIsChineseDrywall(), Types.BOOLEAN);
+        ps.setObject(16, history.getSqft(), Types.INTEGER);
+        ps.setObject(17, history.getStories(), Types.INTEGER);
+        ps.setObject(18, history.getBathrooms(), Types.INTEGER);
+        ps.setString(19, history.getRoofType());
+        ps.setBytes(20, history.getVerdictSnapshot());
+        ps.setString(21, history.getDataVersion());
+        ps.setString(22, history.getSnapshotHash());
+        ps.setObject(23, history.getCreatedAt());
+    }
+
+    /**
+     * Stops accepting writes (later writes run on the caller) and drains the
+     * queue for up to shutdown-timeout.
+     */
+    @PreDestroy
+    public void close() {
+        closed = true;
+        try {
+            writer.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            writer.interrupt();
+        }
+        // Lost with the writer: nothing to wait for
+        unwritten.clear();
+        Stats stats = stats();
+        log.info("Write-behind closed: written={} dropped={} clicksDropped={} failed={} lost={}", stats.written(),
+                stats.dropped(), stats.clicksDropped(), stats.failed(), stats.queued() + stats.clicks());
+    }
+
+    public Stats stats() {
+        return new Stats(enqueued.sum(), written.get(), batches.get(), retries.get(), dropped.get(),
+                clicksDropped.sum(), callerRuns.get(), failed.get(), queue.size(), clicks.size(), pending.size());
+    }
+
+    /**
+     * @param queued writes in the queue
+     * @param clicks clicks in the ring buffer
+     */
+    public record Stats(long enqueued, long written, long batches, long retries, long dropped, long clicksDropped,
+            long callerRuns, long failed, int queued, int clicks, int pending) {
+    }
+
+    private record Queued(long sequence, Write write) {
+    }
+
+    private sealed interface Write permits InsertHistory, UpdateSnapshot, UpdateEmail, InsertEvent, Barrier {
+    }
+
+    private record InsertHistory(VerdictHistory history) implements Write {
+        @Override
+        public String toString() {
+            return "InsertHistory[" + history.getId() + "]";
+        }
+    }
+
+    private record UpdateSnapshot(UUID id, byte[] snapshot, String dataVersion, String snapshotHash)
+            implements Write {
+        @Override
+        public String toString() {
+            return "UpdateSnapshot[" + id + "]";
+        }
+    }
+
+    private record UpdateEmail(UUID id, String email) implements Write {
+        @Override
+        public String toString() {
+            return "UpdateEmail[" + id + "]";
+        }
+    }
+
+    private record InsertEvent(EventLog event) implements Write {
+        @Override
+        public String toString() {
+            return "InsertEvent[" + event.getVerdictId() + ", " + event.getEventType() + "]";
+        }
+    }
+
+    /**
+     * @param clickMark clicks offered before the flush
+     */
+    private record Barrier(CompletableFuture<Void> done, long clickMark) implements Write {
+    }
+}
@@ -1,5 +1,7 @@
 package com.livingcostcheck.home_repair.seo;
 
+import com.livingcostcheck.home_repair.util.ContentHash;
+
 import java.util.*;
 
 /**
@@ -82,6 +84,19 @@ public class FragmentLibrary {
                         "The competitive labor market demands strategic timing of major projects to optimize costs.",
                         "Above-average construction costs make material selection and contractor vetting especially critical.");
 
+        /**
+         * Hash of every fragment pool (in a stable order), recorded as the
+         * "fragments" dependency of generated pages
+         */
+        public static String fingerprint() {
+                List<String> parts = new ArrayList<>();
+                new TreeMap<>(CLIMATE_FRAGMENTS).forEach((zone, fragments) -> parts.add(zone + fragments));
+                new TreeMap<>(ERA_FRAGMENTS).forEach((era, fragments) -> parts.add(era + fragments));
+                parts.add("low" + LOW_COST_FRAGMENTS);
+                parts.add("high" + HIGH_COST_FRAGMENTS);
+                return ContentHash.of(parts.toArray(String[]::new));
+        }
+
         /**
          * Select a climate-appropriate fragment based on climate zone
          */
@@ -0,0 +1,151 @@
+package com.livingcostcheck.home_repair.seo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes for generated pages. Unchanged files are left untouched so their
+ * modification time (Last-Modified) and content ETag survive a regeneration.
+ *
+ * Every written file gets a precompressed ".gz" sibling, served instead of the
+ * file by the EncodedResourceResolver when the client accepts gzip (no Brotli:
+ * there is no pure-Java encoder on the classpath).
+ */
+public final class GeneratedFiles {
+
+    public static final String GZIP_SUFFIX = ".gz";
+
+    /** Static resources worth precompressing. */
+    public static final Set<String> COMPRESSIBLE = Set.of("html", "css", "js", "xml", "svg", "txt");
+
+    /** Below this the gzip framing outweighs the savings. */
+    public static final int MIN_COMPRESS_BYTES = 1024;
+
+    private GeneratedFiles() {
+    }
+
+    /**
+     * @return true when the file was created or its content changed
+     */
+    public static boolean writeIfChanged(Path path, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return writeIfChanged(path, bytes, bytes.length);
+    }
+
+    /**
+     * The first {@code length} bytes of {@code content}, written through a
+     * file channel (no copy of the page buffer).
+     *
+     * @return true when the file was created or its content changed
+     */
+    public static boolean writeIfChanged(Path path, byte[] content, int length) throws IOException {
+        if (Files.isRegularFile(path) && Files.size(path) == length) {
+            byte[] existing = Files.readAllBytes(path);
+            if (Arrays.equals(existing, 0, existing.length, content, 0, length)) {
+                if (!Files.exists(gzipSibling(path))) {
+                    writeGzipSibling(path, content, length);
+                }
+                return false;
+            }
+        }
+        Files.createDirectories(path.getParent());
+        write(path, content, 0, length);
+        writeGzipSibling(path, content, length);
+        return true;
+    }
+
+    /**
+     * Creates or refreshes the ".gz" sibling of every compressible file under
+     * the root that is missing one or is newer than it (e.g. hand-edited CSS).
+     *
+     * @return number of siblings written
+     */
+    public static int precompressTree(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile).filter(GeneratedFiles::isCompressible).toList();
+        }
+        int written = 0;
+        for (Path file : files) {
+            Path sibling = gzipSibling(file);
+            if (Files.exists(sibling)
+                    && Files.getLastModifiedTime(sibling).compareTo(Files.getLastModifiedTime(file)) >= 0) {
+                continue;
+            }
+            byte[] content = Files.readAllBytes(file);
+            if (writeGzipSibling(file, content, content.length)) {
+                written++;
+            }
+        }
+        return written;
+    }
+
+    public static Path gzipSibling(Path path) {
+        return path.resolveSibling(path.getFileName() + GZIP_SUFFIX);
+    }
+
+    public static boolean isCompressible(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && COMPRESSIBLE.contains(name.substring(dot + 1));
+    }
+
+    /**
+     * Deterministic gzip (no timestamp in the header), so unchanged pages
+     * produce byte-identical siblings.
+     */
+    public static byte[] gzip(byte[] content) {
+        return gzip(content, content.length);
+    }
+
+    private static byte[] gzip(byte[] content, int length) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(length / 4 + 64);
+        try (OutputStream gzip = new GZIPOutputStream(bytes) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(content, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static boolean writeGzipSibling(Path path, byte[] content, int length) throws IOException {
+        Path sibling = gzipSibling(path);
+        if (!isCompressible(path) || length < MIN_COMPRESS_BYTES) {
+            Files.deleteIfExists(sibling);
+            return false;
+        }
+        Files.write(sibling, gzip(content, length));
+        return true;
+    }
+
+    private static void write(Path path, byte[] content, int offset, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content, offset, length);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.livingcostcheck.home_repair.seo;
+
+import com.livingcostcheck.home_repair.seo.GenerationProgress.PageResult;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One static generation run started from the admin API (see
+ * GenerationJobService), with its state, final report and event log.
+ *
+ * The event log keeps every event of the job (started, one per page, finished)
+ * so a stream that connects late, or reconnects with Last-Event-ID, replays
+ * from any point; the generator threads only append to it and never wait on
+ * a client.
+ */
+public final class GenerationJob implements GenerationProgress.Listener {
+
+    public enum Mode {
+        /** Every page (generateAllPages). */
+        FULL,
+        /** Pages that read changed data (regenerateChanged). */
+        CHANGED,
+        /** The verdict pages of one metro (regenerateMetro). */
+        METRO
+    }
+
+    public enum State {
+        QUEUED, RUNNING, DONE, FAILED, CANCELLED
+    }
+
+    /** Event type (started, page, finished), sequence number from 0 and payload. */
+    public record Event(int id, String type, Object data) {
+    }
+
+    public record PageEvent(String path, double renderMs, double writeMs, boolean written, String error,
+            int completed, int total) {
+    }
+
+    public record Status(long id, Mode mode, String metroCode, State state, Instant createdAt, Instant finishedAt,
+            GenerationProgress.Snapshot progress, String report) {
+    }
+
+    private final long id;
+    private final Mode mode;
+    private final String metroCode;
+    private final Instant createdAt = Instant.now();
+    private volatile State state = State.QUEUED;
+    private volatile Instant finishedAt;
+    private volatile String report;
+    private volatile GenerationProgress progress;
+    private volatile boolean cancelRequested;
+    private final List<Event> events = new ArrayList<>();
+
+    GenerationJob(long id, Mode mode, String metroCode) {
+        this.id = id;
+        this.mode = mode;
+        this.metroCode = metroCode;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public String metroCode() {
+        return metroCode;
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public boolean isFinished() {
+        return state == State.DONE || state == State.FAILED || state == State.CANCELLED;
+    }
+
+    /** Cancel was requested, before or during its generation run. */
+    public boolean isCancelled() {
+        GenerationProgress running = progress;
+        return cancelRequested || running != null && running.isCancelled();
+    }
+
+    /** Stops the job after the pages in flight; false when it already finished. */
+    public boolean cancel() {
+        if (isFinished()) {
+            return false;
+        }
+        cancelRequested = true;
+        GenerationProgress running = progress;
+        if (running != null) {
+            running.cancel();
+        }
+        return true;
+    }
+
+    public Status status() {
+        GenerationProgress running = progress;
+        return new Status(id, mode, metroCode, state, createdAt, finishedAt,
+                running == null ? null : running.snapshot(), report);
+    }
+
+    @Override
+    public void started(GenerationProgress progress) {
+        this.progress = progress;
+        if (cancelRequested) {
+            progress.cancel();
+        }
+        append("started", status());
+    }
+
+    @Override
+    public void page(GenerationProgress progress, PageResult result) {
+        GenerationProgress.Snapshot snapshot = progress.snapshot();
+        append("page", new PageEvent(result.sitePath(), result.renderNanos() / 1e6, result.writeNanos() / 1e6,
+                result.written(), result.error(), snapshot.completed(), snapshot.total()));
+    }
+
+    void running() {
+        state = State.RUNNING;
+    }
+
+    // Under the event lock: a stream that sees the job finished has the finished event too
+    synchronized void finish(State finalState, String report) {
+        this.report = report;
+        this.finishedAt = Instant.now();
+        this.state = finalState;
+        append("finished", status());
+    }
+
+    private synchronized void append(String type, Object data) {
+        events.add(new Event(events.size(), type, data));
+        notifyAll();
+    }
+
+    /**
+     * Events from the given sequence number on, waiting up to timeoutMillis for
+     * one when there are none yet. Empty once the job finished and every event
+     * was read, or on timeout.
+     */
+    public synchronized List<Event> events(int from, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (events.size() <= from && !isFinished()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return List.of();
+            }
+            wait(remaining);
+        }
+        return from >= events.size() ? List.of() : List.copyOf(events.subList(Math.max(0, from), events.size()));
+    }
+}
@@ -0,0 +1,203 @@
+package com.livingcostcheck.home_repair.seo;
+
+import com.livingcostcheck.home_repair.seo.GenerationJob.Mode;
+import com.livingcostcheck.home_repair.seo.GenerationJob.State;
+import com.livingcostcheck.home_repair.service.VerdictEngineService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs static generation (pages, manifest, dependency graph, sitemap,
+ * precompressed siblings) as a background job, one at a time.
+ *
+ * Starting a job while one is queued or running is rejected: the generators
+ * share the manifest, the graph and the output tree. Only the latest job is
+ * kept; its status, report and event log stay readable until the next start.
+ */
+@Slf4j
+@Service
+public class GenerationJobService {
+
+    // Paths relative to the project root
+    private static final String OUTPUT_PATH = "src/main/resources/static/home-repair/verdicts";
+    private static final String SITEMAP_PATH = "src/main/resources/static/sitemap.xml";
+    private static final String STATIC_ROOT = "src/main/resources/static";
+
+    private final StaticPageGeneratorService staticPageGeneratorService;
+    private final VerdictEngineService verdictEngineService;
+    private final SitemapGenerator sitemapGenerator;
+    private final RiskDetailPageCache riskDetailPageCache;
+    private final ExecutorService runner;
+    private final AtomicLong ids = new AtomicLong();
+    private volatile GenerationJob latest;
+
+    @Autowired
+    public GenerationJobService(StaticPageGeneratorService staticPageGeneratorService,
+            VerdictEngineService verdictEngineService, SitemapGenerator sitemapGenerator,
+            RiskDetailPageCache riskDetailPageCache) {
+        this(staticPageGeneratorService, verdictEngineService, sitemapGenerator, riskDetailPageCache,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "generation-job");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    GenerationJobService(StaticPageGeneratorService staticPageGeneratorService,
+            VerdictEngineService verdictEngineService, SitemapGenerator sitemapGenerator,
+            RiskDetailPageCache riskDetailPageCache, ExecutorService runner) {
+        this.staticPageGeneratorService = staticPageGeneratorService;
+        this.verdictEngineService = verdictEngineService;
+        this.sitemapGenerator = sitemapGenerator;
+        this.riskDetailPageCache = riskDetailPageCache;
+        this.runner = runner;
+    }
+
+    /**
+     * Queues a job.
+     *
+     * @param metroCode the metro of a METRO job, ignored otherwise
+     * @throws IllegalStateException    when a job is queued or running
+     * @throws IllegalArgumentException when a METRO job names no known metro
+     */
+    public synchronized GenerationJob start(Mode mode, String metroCode) {
+        GenerationJob running = latest;
+        if (running != null && !running.isFinished()) {
+            throw new IllegalStateException("Generation job " + running.id() + " (" + running.mode()
+                    + ") is still " + running.state());
+        }
+        if (mode == Mode.METRO && (metroCode == null
+                || !verdictEngineService.getMetroMasterData().getData().containsKey(metroCode))) {
+            throw new IllegalArgumentException("Unknown metro: " + metroCode);
+        }
+        GenerationJob job = new GenerationJob(ids.incrementAndGet(), mode, mode == Mode.METRO ? metroCode : null);
+        latest = job;
+        runner.execute(() -> run(job));
+        log.info("Generation job {} ({}{}) queued", job.id(), mode, job.metroCode() == null ? "" : " " + metroCode);
+        return job;
+    }
+
+    /** The job with this id, if it is the latest one. */
+    public Optional<GenerationJob> job(long id) {
+        GenerationJob job = latest;
+        return job != null && job.id() == id ? Optional.of(job) : Optional.empty();
+    }
+
+    public Optional<GenerationJob> latest() {
+        return Optional.ofNullable(latest);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        latest().ifPresent(GenerationJob::cancel);
+        runner.shutdown();
+    }
+
+    private void run(GenerationJob job) {
+        if (job.isCancelled()) {
+            job.finish(State.CANCELLED, "Cancelled before it started");
+            return;
+        }
+        job.running();
+        try {
+            String report = switch (job.mode()) {
+                case FULL -> generateAll(job);
+                case CHANGED, METRO -> regenerate(job);
+            };
+            job.finish(job.isCancelled() ? State.CANCELLED
+                    : report.startsWith("FAILED") ? State.FAILED : State.DONE, report);
+        } catch (Exception e) {
+            log.error("Generation job {} failed", job.id(), e);
+            job.finish(State.FAILED, "FAILED: " + e.getMessage());
+        }
+        log.info("Generation job {} {}", job.id(), job.state());
+    }
+
+    private String generateAll(GenerationJob job) throws IOException {
+        GenerationManifest manifest = GenerationManifest.load(Paths.get(GenerationManifest.DEFAULT_PATH));
+        PageDependencyGraph graph = PageDependencyGraph.load(Paths.get(PageDependencyGraph.DEFAULT_PATH));
+        List<String> results = staticPageGeneratorService.generateAllPages(OUTPUT_PATH, manifest, graph, job);
+        // Record what is on disk now, even if some pages failed or the job was cancelled
+        manifest.save();
+        graph.save();
+
+        if (job.isCancelled()) {
+            return "CANCELLED after " + results.size() + " pages (written: " + manifest.written()
+                    + ", unchanged: " + manifest.unchanged() + "). Sitemap not updated.";
+        }
+        long errorCount = results.stream().filter(s -> s.startsWith("ERROR")).count();
+        if (errorCount > 0) {
+            String firstError = results.stream().filter(s -> s.startsWith("ERROR")).findFirst().orElse("Unknown Error");
+            return "FAILED: " + errorCount + " errors. First Error: " + firstError;
+        }
+
+        try {
+            int sitemapCount = sitemapGenerator.generateSitemap(SITEMAP_PATH, results, manifest);
+            // Precompressed siblings for anything not written by the generators (CSS)
+            GeneratedFiles.precompressTree(Paths.get(STATIC_ROOT));
+            return "Generated " + results.size() + " pages to " + OUTPUT_PATH + " (Metro Count: "
+                    + verdictEngineService.getMetroMasterData().getData().size() + ", written: "
+                    + manifest.written() + ", unchanged: " + manifest.unchanged() + ").\n" + "Sitemap updated: "
+                    + sitemapCount + " URLs.";
+        } catch (Exception e) {
+            log.error("Sitemap generation failed", e);
+            return "Generated pages but Sitemap FAILED: " + e.getMessage();
+        }
+    }
+
+    private String regenerate(GenerationJob job) throws IOException {
+        GenerationManifest manifest = GenerationManifest.load(Paths.get(GenerationManifest.DEFAULT_PATH));
+        PageDependencyGraph graph = PageDependencyGraph.load(Paths.get(PageDependencyGraph.DEFAULT_PATH));
+        var result = job.mode() == Mode.METRO
+                ? staticPageGeneratorService.regenerateMetro(job.metroCode(), OUTPUT_PATH, manifest, graph, job)
+                : staticPageGeneratorService.regenerateChanged(OUTPUT_PATH, manifest, graph, job);
+        manifest.save();
+        graph.save();
+
+        if (result.cancelled()) {
+            return "CANCELLED after rebuilding " + result.rebuilt().size() + " pages (written: " + manifest.written()
+                    + "). Sitemap and L2 cache not updated; the next run rebuilds the rest.";
+        }
+        // A metro rebuild does not advance the data version: the other metros' L2 pages stay as tagged
+        int cachedKept = job.mode() == Mode.METRO || result.previousVersion() == null ? 0
+                : riskDetailPageCache.revalidate(result.previousVersion(), result.dataVersion(), result::affects);
+
+        long errorCount = result.urls().stream().filter(s -> s.startsWith("ERROR")).count();
+        if (errorCount > 0) {
+            return "FAILED: " + errorCount + " errors. First Error: "
+                    + result.urls().stream().filter(s -> s.startsWith("ERROR")).findFirst().orElse("Unknown Error");
+        }
+
+        StringBuilder report = new StringBuilder(job.mode() == Mode.METRO
+                ? "Metro " + job.metroCode() + " rebuilt"
+                : result.changedEntities() == null
+                        ? "No dependency graph recorded: generated all pages"
+                        : "Data " + result.previousVersion() + " -> " + result.dataVersion() + ": "
+                                + result.changedEntities().size() + " entities changed "
+                                + new TreeSet<>(result.changedEntities()));
+        report.append(String.format("%nRebuilt %d pages (written: %d, unchanged: %d), removed %d, "
+                + "L2 cache pages kept: %d", result.rebuilt().size(), manifest.written(), manifest.unchanged(),
+                result.removed().size(), cachedKept));
+        try {
+            int sitemapCount = sitemapGenerator.generateSitemap(SITEMAP_PATH, result.urls(), manifest);
+            GeneratedFiles.precompressTree(Paths.get(STATIC_ROOT));
+            report.append("\nSitemap updated: ").append(sitemapCount).append(" URLs.");
+        } catch (Exception e) {
+            log.error("Sitemap generation failed", e);
+            report.append("\nSitemap FAILED: ").append(e.getMessage());
+        }
+        result.rebuilt().forEach(path -> report.append('\n').append(path));
+        return report.toString();
+    }
+}
@@ -0,0 +1,168 @@
+package com.livingcostcheck.home_repair.seo;
+
+import com.livingcostcheck.home_repair.util.ContentHash;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * What the static generators last wrote, per page (site path, e.g.
+ * /home-repair/verdicts/austin-tx/1970-1980.html): content hash, engine data
+ * version, template hash and the date the content last changed.
+ *
+ * Pages whose rendered content hashes the same as in the manifest are not
+ * written again, and keep their lastmod in the sitemap. Persisted as a sorted
+ * TSV (diff-friendly) outside the served static directory.
+ */
+@Slf4j
+public final class GenerationManifest {
+
+    public static final String DEFAULT_PATH = "src/main/resources/generation-manifest.tsv";
+
+    private static final String HEADER = "# path\tcontent_hash\tdata_version\ttemplate_hash\tlast_modified";
+    private static final Pattern TEMPLATE_CALL = Pattern.compile("@template\\.([\\w.]+)\\(");
+
+    private final Path file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger unchanged = new AtomicInteger();
+
+    private GenerationManifest(Path file) {
+        this.file = file;
+    }
+
+    /** Manifest at the file, empty when it does not exist yet. */
+    public static GenerationManifest load(Path file) throws IOException {
+        GenerationManifest manifest = new GenerationManifest(file);
+        if (Files.isRegularFile(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t");
+                if (fields.length != 5) {
+                    throw new IOException("Malformed manifest line in " + file + ": " + line);
+                }
+                manifest.entries.put(fields[0],
+                        new Entry(fields[1], fields[2], fields[3], LocalDate.parse(fields[4])));
+            }
+        }
+        return manifest;
+    }
+
+    /** Manifest that is never saved (every page counts as changed today). */
+    public static GenerationManifest empty() {
+        return new GenerationManifest(null);
+    }
+
+    /**
+     * Writes the page unless its content hash matches the manifest (and the
+     * file exists). Thread-safe; pages are generated in parallel.
+     *
+     * @return true when the file was written
+     */
+    public boolean write(String sitePath, Path target, String content, String dataVersion, String templateHash)
+            throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return write(sitePath, target, bytes, bytes.length, dataVersion, templateHash);
+    }
+
+    /**
+     * Same as {@link #write(String, Path, String, String, String)} for a page
+     * already encoded as UTF-8 (the first {@code length} bytes of {@code content}).
+     */
+    public boolean write(String sitePath, Path target, byte[] content, int length, String dataVersion,
+            String templateHash) throws IOException {
+        String contentHash = ContentHash.of(content, 0, length);
+        Entry previous = entries.get(sitePath);
+        boolean changed = previous == null || !previous.contentHash().equals(contentHash);
+
+        boolean wrote = (changed || !Files.isRegularFile(target))
+                && GeneratedFiles.writeIfChanged(target, content, length);
+        entries.put(sitePath, new Entry(contentHash, dataVersion, templateHash,
+                changed ? LocalDate.now() : previous.lastModified()));
+        (wrote ? written : unchanged).incrementAndGet();
+        return wrote;
+    }
+
+    public Optional<LocalDate> lastModified(String sitePath) {
+        return Optional.ofNullable(entries.get(sitePath)).map(Entry::lastModified);
+    }
+
+    /** Most recent content change of any page. */
+    public Optional<LocalDate> newest() {
+        return entries.values().stream().map(Entry::lastModified).max(LocalDate::compareTo);
+    }
+
+    public Optional<Entry> entry(String sitePath) {
+        return Optional.ofNullable(entries.get(sitePath));
+    }
+
+    public int written() {
+        return written.get();
+    }
+
+    public int unchanged() {
+        return unchanged.get();
+    }
+
+    public void save() throws IOException {
+        if (file == null) {
+            return;
+        }
+        StringBuilder tsv = new StringBuilder(HEADER).append('\n');
+        new TreeMap<>(entries).forEach((path, entry) -> tsv.append(path).append('\t')
+                .append(entry.contentHash()).append('\t')
+                .append(entry.dataVersion()).append('\t')
+                .append(entry.templateHash()).append('\t')
+                .append(entry.lastModified()).append('\n'));
+        GeneratedFiles.writeIfChanged(file, tsv.toString());
+        log.info("Generation manifest {}: {} pages written, {} unchanged", file, written.get(), unchanged.get());
+    }
+
+    /**
+     * Hash of a template source and every template it calls (@template.x.y),
+     * or "precompiled" when the sources are not available (JAR mode).
+     *
+     * @param template name relative to the root, e.g. seo/static-verdict.jte
+     */
+    public static String templateHash(Path templateRoot, String template) {
+        List<String> sources = new ArrayList<>();
+        try {
+            collectTemplate(templateRoot, template, new TreeMap<>()).values().forEach(sources::add);
+        } catch (IOException e) {
+            return "precompiled";
+        }
+        return ContentHash.of(sources.toArray(String[]::new));
+    }
+
+    private static Map<String, String> collectTemplate(Path root, String template, Map<String, String> seen)
+            throws IOException {
+        if (seen.containsKey(template)) {
+            return seen;
+        }
+        String source = Files.readString(root.resolve(template), StandardCharsets.UTF_8);
+        seen.put(template, template + "\n" + source);
+        Matcher calls = TEMPLATE_CALL.matcher(source);
+        while (calls.find()) {
+            collectTemplate(root, calls.group(1).replace('.', '/') + ".jte", seen);
+        }
+        return seen;
+    }
+
+    public record Entry(String contentHash, String dataVersion, String templateHash, LocalDate lastModified) {
+    }
+}
@@ -0,0 +1,177 @@
+package com.livingcostcheck.home_repair.seo;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live state of one generation run: pages done, written, failed, throughput and
+ * ETA, plus the render/write time of every page (slowest-pages report).
+ *
+ * Updated by the GenerationScheduler threads, read from anywhere (admin
+ * endpoints, logs). A progress line is logged at most every LOG_INTERVAL and
+ * every page is passed to the Listener (generation job event streams).
+ * Cancelling stops the scheduler from starting new pages; pages already
+ * rendering are finished and written.
+ */
+@Slf4j
+public final class GenerationProgress {
+
+    private static final long LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * Callbacks of one run. page() is called on the generator threads, once per
+     * page, and should only hand the result off; failures are logged and ignored.
+     */
+    public interface Listener {
+
+        Listener NONE = new Listener() {
+        };
+
+        /** The run is about to start (it can already be cancelled here). */
+        default void started(GenerationProgress progress) {
+        }
+
+        default void page(GenerationProgress progress, PageResult result) {
+        }
+    }
+
+    /** Outcome of one page. Times in nanoseconds; writeNanos is 0 when rendering failed. */
+    public record PageResult(String sitePath, long renderNanos, long writeNanos, boolean written, String error) {
+
+        public boolean failed() {
+            return error != null;
+        }
+
+        public long totalNanos() {
+            return renderNanos + writeNanos;
+        }
+    }
+
+    public record Snapshot(String name, int total, int completed, int written, int failed, boolean cancelled,
+            boolean done, Duration elapsed, double pagesPerSecond, Duration eta) {
+
+        @Override
+        public String toString() {
+            String state = done ? (cancelled ? "cancelled" : "done") : (cancelled ? "cancelling" : "running");
+            return String.format("Generation %s (%s): %d/%d pages, %d written, %d failed, %.1f pages/s, "
+                    + "elapsed %ds, ETA %s", name, state, completed, total, written, failed, pagesPerSecond,
+                    elapsed.toSeconds(), eta == null ? "-" : eta.toSeconds() + "s");
+        }
+    }
+
+    private final String name;
+    private final int total;
+    private final Listener listener;
+    private final long startNanos = System.nanoTime();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final Queue<PageResult> results = new ConcurrentLinkedQueue<>();
+    private final AtomicLong lastLogNanos = new AtomicLong(startNanos);
+    private volatile boolean cancelled;
+    private volatile long endNanos;
+
+    public GenerationProgress(String name, int total) {
+        this(name, total, Listener.NONE);
+    }
+
+    public GenerationProgress(String name, int total, Listener listener) {
+        this.name = name;
+        this.total = total;
+        this.listener = listener;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int total() {
+        return total;
+    }
+
+    /** Stops the run after the pages in flight. */
+    public void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+            log.info("Generation {} cancelled at {}/{} pages", name, completed.get(), total);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isDone() {
+        return endNanos != 0;
+    }
+
+    void record(PageResult result) {
+        results.add(result);
+        if (result.failed()) {
+            failed.incrementAndGet();
+        } else if (result.written()) {
+            written.incrementAndGet();
+        }
+        completed.incrementAndGet();
+        long now = System.nanoTime();
+        long last = lastLogNanos.get();
+        if (now - last >= LOG_INTERVAL_NANOS && lastLogNanos.compareAndSet(last, now)) {
+            log.info("{}", snapshot());
+        }
+        try {
+            listener.page(this, result);
+        } catch (RuntimeException e) {
+            log.warn("Generation listener failed on {}: {}", result.sitePath(), e.getMessage());
+        }
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+    }
+
+    public Snapshot snapshot() {
+        long end = endNanos;
+        long elapsedNanos = (end != 0 ? end : System.nanoTime()) - startNanos;
+        int done = completed.get();
+        double rate = elapsedNanos == 0 ? 0 : done * 1e9 / elapsedNanos;
+        Duration eta = end != 0 ? Duration.ZERO
+                : rate == 0 ? null : Duration.ofMillis((long) ((total - done) * 1000 / rate));
+        return new Snapshot(name, total, done, written.get(), failed.get(), cancelled, end != 0,
+                Duration.ofNanos(elapsedNanos), rate, eta);
+    }
+
+    /** The n pages that took longest (render + write), slowest first. */
+    public List<PageResult> slowest(int n) {
+        List<PageResult> all = new ArrayList<>(results);
+        all.sort(Comparator.comparingLong(PageResult::totalNanos).reversed());
+        return all.subList(0, Math.min(n, all.size()));
+    }
+
+    /** Summary line plus the n slowest pages with their render and write times. */
+    public String report(int n) {
+        StringBuilder report = new StringBuilder(snapshot().toString());
+        List<PageResult> all = new ArrayList<>(results);
+        if (!all.isEmpty()) {
+            long render = all.stream().mapToLong(PageResult::renderNanos).sum();
+            long write = all.stream().mapToLong(PageResult::writeNanos).sum();
+            report.append(String.format("%nAverage per page: render %.2f ms, write %.2f ms", render / 1e6 / all.size(),
+                    write / 1e6 / all.size()));
+        }
+        report.append(String.format("%nSlowest pages:"));
+        for (PageResult page : slowest(n)) {
+            report.append(String.format("%n  %8.2f ms  (render %.2f, write %.2f)  %s%s", page.totalNanos() / 1e6,
+                    page.renderNanos() / 1e6, page.writeNanos() / 1e6, page.sitePath(),
+                    page.failed() ? "  FAILED: " + page.error() : ""));
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,169 @@
+package com.livingcostcheck.home_repair.seo;
+
+import com.livingcostcheck.home_repair.seo.GenerationProgress.PageResult;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs page generation tasks on a dedicated executor pair instead of the common
+ * ForkJoinPool.
+ *
+ * A bounded pool of render threads (CPU: verdict, template, minification) takes
+ * tasks off a shared work queue and renders each page into a pooled page
+ * buffer; the buffer is handed to a virtual thread that writes it (hash
+ * compare, file and .gz I/O) and returns it to the pool. With
+ * BUFFERS_PER_THREAD buffers per render thread, at most that many pages per
+ * thread are waiting to be written, so slow disks hold the renderers back
+ * instead of growing memory.
+ *
+ * Every page is timed (render, write) and recorded in the GenerationProgress,
+ * which also carries cancellation: no new task is started once it is
+ * cancelled.
+ */
+public final class GenerationScheduler {
+
+    /** Render threads when none are configured: one per core. */
+    public static final int DEFAULT_RENDER_THREADS = Runtime.getRuntime().availableProcessors();
+
+    private static final int BUFFERS_PER_THREAD = 2;
+    private static final int BUFFER_SIZE = 64 * 1024; // a minified verdict page is ~30 KB
+
+    /** One unit of work; the site path identifies it in results and reports. */
+    public interface Task {
+        String sitePath();
+    }
+
+    @FunctionalInterface
+    public interface Renderer<T extends Task> {
+        /** Renders the page into the (empty) buffer. */
+        void render(T task, PageBuffer page) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Writer<T extends Task> {
+        /** Writes the rendered page; true when the file changed. */
+        boolean write(T task, PageBuffer page) throws Exception;
+    }
+
+    /** Page content as UTF-8, reused across pages. */
+    public static final class PageBuffer extends ByteArrayOutputStream {
+
+        public PageBuffer(int size) {
+            super(size);
+        }
+
+        /** Backing array; the content is the first size() bytes. */
+        public byte[] bytes() {
+            return buf;
+        }
+    }
+
+    private final int renderThreads;
+
+    /** renderThreads <= 0 means DEFAULT_RENDER_THREADS. */
+    public GenerationScheduler(int renderThreads) {
+        this.renderThreads = renderThreads > 0 ? renderThreads : DEFAULT_RENDER_THREADS;
+    }
+
+    public int renderThreads() {
+        return renderThreads;
+    }
+
+    /**
+     * Renders and writes every task, unless the progress is cancelled first, and
+     * waits for all of them. Failures are recorded per page, not thrown.
+     *
+     * @return the result of every task that ran, in task order
+     */
+    public <T extends Task> List<PageResult> run(List<T> tasks, Renderer<T> renderer, Writer<T> writer,
+            GenerationProgress progress) {
+        int threads = Math.max(1, Math.min(renderThreads, tasks.size()));
+        BlockingQueue<PageBuffer> buffers = new ArrayBlockingQueue<>(threads * BUFFERS_PER_THREAD);
+        for (int i = 0; i < threads * BUFFERS_PER_THREAD; i++) {
+            buffers.add(new PageBuffer(BUFFER_SIZE));
+        }
+        // Work queue: tasks are taken in order through a shared cursor
+        AtomicInteger next = new AtomicInteger();
+        PageResult[] results = new PageResult[tasks.size()];
+        AtomicInteger renderThreadIds = new AtomicInteger();
+
+        // Closed in reverse order: renderers finish (and stop submitting) before the writers are awaited
+        try (ExecutorService io = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("page-write-", 0)
+                .factory());
+                ExecutorService render = Executors.newFixedThreadPool(threads, runnable -> {
+                    Thread thread = new Thread(runnable, "page-render-" + renderThreadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                })) {
+            for (int t = 0; t < threads; t++) {
+                render.execute(() -> {
+                    int i;
+                    while (!progress.isCancelled() && (i = next.getAndIncrement()) < tasks.size()) {
+                        PageBuffer page;
+                        try {
+                            page = buffers.take();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            progress.cancel();
+                            return;
+                        }
+                        renderAndWrite(i, tasks.get(i), page, renderer, writer, buffers, io, results, progress);
+                    }
+                });
+            }
+        }
+        progress.finish();
+        List<PageResult> ran = new ArrayList<>(tasks.size());
+        Arrays.stream(results).filter(Objects::nonNull).forEach(ran::add);
+        return ran;
+    }
+
+    private static <T extends Task> void renderAndWrite(int index, T task, PageBuffer page, Renderer<T> renderer,
+            Writer<T> writer, BlockingQueue<PageBuffer> buffers, ExecutorService io, PageResult[] results,
+            GenerationProgress progress) {
+        long start = System.nanoTime();
+        page.reset();
+        try {
+            renderer.render(task, page);
+        } catch (Exception e) {
+            buffers.add(page);
+            complete(index, new PageResult(task.sitePath(), System.nanoTime() - start, 0, false, message(e)),
+                    results, progress);
+            return;
+        }
+        long renderNanos = System.nanoTime() - start;
+        io.execute(() -> {
+            long writeStart = System.nanoTime();
+            PageResult result;
+            try {
+                boolean written = writer.write(task, page);
+                result = new PageResult(task.sitePath(), renderNanos, System.nanoTime() - writeStart, written, null);
+            } catch (Exception e) {
+                result = new PageResult(task.sitePath(), renderNanos, System.nanoTime() - writeStart, false,
+                        message(e));
+            } finally {
+                buffers.add(page);
+            }
+            complete(index, result, results, progress);
+        });
+    }
+
+    private static void complete(int index, PageResult result, PageResult[] results, GenerationProgress progress) {
+        // Each slot is written by one thread; the executors' close() publishes them to the caller
+        results[index] = result;
+        progress.record(result);
+    }
+
+    private static String message(Exception e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+}
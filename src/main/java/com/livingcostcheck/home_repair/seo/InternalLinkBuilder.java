@@ -1,5 +1,6 @@
 package com.livingcostcheck.home_repair.seo;
 
+import com.livingcostcheck.home_repair.service.engine.RegionIndex;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -13,6 +14,9 @@ import java.util.stream.Collectors;
 @Component
 public class InternalLinkBuilder {
 
+        /** Links in the "Nearby Cities" list of a verdict page. */
+        public static final int NEARBY_METROS = 5;
+
         private static final List<String> ALL_ERAS = Arrays.asList(
                         "PRE_1950", "1950_1970", "1970_1980", "1980_1995", "1995_2010", "2010_PRESENT");
 
@@ -54,18 +58,22 @@ public class InternalLinkBuilder {
                                 .collect(Collectors.toList());
         }
 
-        // Smart Regional Mapping: Use State-based matching instead of manual map
-        public List<InternalLink> getNearbyMetrosInEra(String currentMetro, String currentEra,
-                        Map<String, ?> allMetros) {
-                String state = extractStateCode(currentMetro);
-                if (state == null)
-                        return getDefaultNearbyMetros(currentMetro, currentEra);
+        // Nearest metros by distance, across state lines; state matching when the metro has no coordinates
+        public List<InternalLink> getNearbyMetrosInEra(String currentMetro, String currentEra, RegionIndex regions) {
+                List<RegionIndex.Metro> nearby = regions.nearest(currentMetro, NEARBY_METROS);
+                if (nearby.isEmpty()) {
+                        String state = regions.stateOf(currentMetro);
+                        if (state == null)
+                                return getDefaultNearbyMetros(currentMetro, currentEra);
+                        nearby = regions.metrosInState(state).stream()
+                                        .filter(metro -> !metro.code().equals(currentMetro))
+                                        .limit(NEARBY_METROS)
+                                        .toList();
+                }
 
-                return allMetros.keySet().stream()
-                                .filter(m -> m.endsWith("_" + state) && !m.equals(currentMetro))
-                                .limit(5)
+                return nearby.stream()
                                 .map(metro -> new InternalLink(
-                                                "Local Comp: " + formatMetroName(metro) + " ("
+                                                "Local Comp: " + linkName(metro) + " ("
                                                                 + formatEraText(currentEra) + ")",
                                                 buildVerdictUrl(metro, currentEra)))
                                 .collect(Collectors.toList());
@@ -91,6 +99,15 @@ public class InternalLinkBuilder {
                                 + era.toLowerCase().replace("_", "-") + ".html";
         }
 
+        private String buildVerdictUrl(RegionIndex.Metro metro, String era) {
+                return "/home-repair/verdicts/" + metro.slug() + "/" + era.toLowerCase().replace("_", "-") + ".html";
+        }
+
+        // Same text as formatMetroName, from the names compiled into the index
+        private String linkName(RegionIndex.Metro metro) {
+                return metro.stateCode() == null ? metro.cityName() : metro.cityName() + " " + metro.stateCode();
+        }
+
         private String buildRiskUrl(String metro, String era, String riskCode) {
                 return "/home-repair/verdicts/" + metro.toLowerCase().replace("_", "-") + "/"
                                 + era.toLowerCase().replace("_", "-") + "/" + riskCode.toLowerCase().replace("_", "-")
@@ -132,32 +149,17 @@ public class InternalLinkBuilder {
                 }
         }
 
-        public List<InternalLink> getRelatedCitiesInState(String currentMetro, String era, Set<String> allMetroCodes) {
-                String state = extractStateCode(currentMetro);
-                if (state == null)
-                        return Collections.emptyList();
-
-                return allMetroCodes.stream()
-                                .filter(metro -> metro.endsWith("_" + state))
-                                .filter(metro -> !metro.equals(currentMetro))
+        public List<InternalLink> getRelatedCitiesInState(String currentMetro, String era, RegionIndex regions) {
+                return regions.metrosInState(regions.stateOf(currentMetro)).stream()
+                                .filter(metro -> !metro.code().equals(currentMetro))
                                 .limit(8)
                                 .map(metro -> new InternalLink(
-                                                "Regional Data: " + formatMetroName(metro) + " (" + formatEraText(era)
+                                                "Regional Data: " + linkName(metro) + " (" + formatEraText(era)
                                                                 + ")",
                                                 buildVerdictUrl(metro, era)))
                                 .collect(Collectors.toList());
         }
 
-        private String extractStateCode(String metroCode) {
-                String[] parts = metroCode.split("_");
-                if (parts.length > 0) {
-                        String lastPart = parts[parts.length - 1];
-                        if (lastPart.length() == 2 && lastPart.matches("[A-Z]{2}"))
-                                return lastPart;
-                }
-                return null;
-        }
-
         public static class InternalLink {
                 public final String text;
                 public final String href;
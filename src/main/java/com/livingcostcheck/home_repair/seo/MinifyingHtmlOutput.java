@@ -0,0 +1,212 @@
+package com.livingcostcheck.home_repair.seo;
+
+import gg.jte.TemplateOutput;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+
+/**
+ * JTE output that minifies the HTML as it is rendered and writes it as UTF-8 to
+ * a stream (file channel, response, page buffer) in one pass.
+ *
+ * Outside raw elements: comments are removed, whitespace between tags is
+ * dropped, runs of two or more whitespace characters become one space and the
+ * document is trimmed (the result the previous regex passes produced). The
+ * content of script (including JSON-LD), style, pre and textarea is written
+ * unchanged. Call {@link #finish()} after rendering.
+ */
+public final class MinifyingHtmlOutput implements TemplateOutput {
+
+    private static final String[] RAW_ELEMENTS = { "script", "style", "pre", "textarea" };
+    private static final String COMMENT_START = "<!--";
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[8192];
+    private int buffered;
+    private char highSurrogate;
+
+    // Markup after a '<' until it is known to start a comment or a raw element
+    private final StringBuilder lookahead = new StringBuilder(16);
+    private boolean inComment;
+    private int commentDashes;
+    private String rawElement;
+    private boolean inRaw;
+    private int rawEndMatched;
+
+    private int pendingWhitespace;
+    private char firstWhitespace;
+    private char last;
+
+    public MinifyingHtmlOutput(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void writeContent(String value) {
+        writeContent(value, 0, value.length());
+    }
+
+    @Override
+    public void writeContent(String value, int beginIndex, int endIndex) {
+        for (int i = beginIndex; i < endIndex; i++) {
+            accept(value.charAt(i));
+        }
+    }
+
+    /** Writes what is still held back (trailing whitespace is dropped) and flushes the stream. */
+    public void finish() {
+        if (!lookahead.isEmpty()) {
+            String held = lookahead.toString();
+            lookahead.setLength(0);
+            for (int i = 0; i < held.length(); i++) {
+                emit(held.charAt(i));
+            }
+        }
+        pendingWhitespace = 0;
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            write('?');
+        }
+        flushBuffer();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void accept(char c) {
+        if (inRaw) {
+            write(c);
+            matchRawEnd(c);
+        } else if (inComment) {
+            if (c == '>' && commentDashes >= 2) {
+                inComment = false;
+            }
+            commentDashes = c == '-' ? commentDashes + 1 : 0;
+        } else if (!lookahead.isEmpty()) {
+            lookahead.append(c);
+            resolveLookahead();
+        } else if (c == '<') {
+            lookahead.append(c);
+        } else {
+            emit(c);
+        }
+    }
+
+    private void resolveLookahead() {
+        String held = lookahead.toString();
+        if (held.equals(COMMENT_START)) {
+            // Whitespace around the comment stays pending, as if the comment was never there
+            lookahead.setLength(0);
+            inComment = true;
+            commentDashes = 0;
+            return;
+        }
+        if (COMMENT_START.startsWith(held)) {
+            return;
+        }
+        String name = held.substring(1, held.length() - 1).toLowerCase(Locale.ROOT);
+        char next = held.charAt(held.length() - 1);
+        if (Character.isLetter(next)) {
+            String prefix = name + Character.toLowerCase(next);
+            for (String element : RAW_ELEMENTS) {
+                if (element.startsWith(prefix)) {
+                    return;
+                }
+            }
+        } else {
+            for (String element : RAW_ELEMENTS) {
+                if (element.equals(name)) {
+                    rawElement = element;
+                }
+            }
+        }
+        lookahead.setLength(0);
+        emit('<');
+        for (int i = 1; i < held.length(); i++) {
+            accept(held.charAt(i));
+        }
+    }
+
+    private void emit(char c) {
+        if (c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f' || c == '\u000B') {
+            if (pendingWhitespace++ == 0) {
+                firstWhitespace = c;
+            }
+            return;
+        }
+        if (pendingWhitespace > 0) {
+            // Leading whitespace and whitespace between tags are dropped
+            if (last != 0 && !(last == '>' && c == '<')) {
+                write(pendingWhitespace == 1 ? firstWhitespace : ' ');
+            }
+            pendingWhitespace = 0;
+        }
+        write(c);
+        if (c == '>' && rawElement != null) {
+            inRaw = true;
+            rawEndMatched = 0;
+        }
+    }
+
+    // Raw content ends at "</element" (case-insensitive); the rest of the end tag is markup again
+    private void matchRawEnd(char c) {
+        int expected = rawEndMatched < 2 ? "</".charAt(rawEndMatched) : rawElement.charAt(rawEndMatched - 2);
+        if (Character.toLowerCase(c) == expected) {
+            if (++rawEndMatched == rawElement.length() + 2) {
+                inRaw = false;
+                rawElement = null;
+            }
+        } else {
+            rawEndMatched = c == '<' ? 1 : 0;
+        }
+    }
+
+    private void write(char c) {
+        last = c;
+        if (buffered + 5 > buffer.length) {
+            flushBuffer();
+        }
+        if (highSurrogate != 0 && !Character.isLowSurrogate(c)) {
+            // Unpaired surrogate: replaced like String.getBytes(UTF_8) does
+            buffer[buffered++] = '?';
+            highSurrogate = 0;
+        }
+        if (c < 0x80) {
+            buffer[buffered++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[buffered++] = (byte) (0xC0 | (c >> 6));
+            buffer[buffered++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c) && highSurrogate != 0) {
+            int codePoint = Character.toCodePoint(highSurrogate, c);
+            highSurrogate = 0;
+            buffer[buffered++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[buffered++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[buffered++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[buffered++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (Character.isLowSurrogate(c)) {
+            buffer[buffered++] = '?';
+        } else {
+            buffer[buffered++] = (byte) (0xE0 | (c >> 12));
+            buffer[buffered++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[buffered++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    private void flushBuffer() {
+        if (buffered == 0) {
+            return;
+        }
+        try {
+            out.write(buffer, 0, buffered);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffered = 0;
+    }
+}
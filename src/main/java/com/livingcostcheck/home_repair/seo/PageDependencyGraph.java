@@ -0,0 +1,208 @@
+package com.livingcostcheck.home_repair.seo;
+
+import com.livingcostcheck.home_repair.service.engine.DataDependencies;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which data entities each generated page read (site path -> entity names, see
+ * DataDependencies), plus the fingerprints of those entities when the pages were
+ * last generated.
+ *
+ * Besides the engine data, pages depend on the metro list of their state
+ * (state:TX: state links, state hubs) and on the FragmentLibrary pools
+ * (fragments). Given the current fingerprints, the graph tells which entities
+ * changed and which pages read one of them.
+ *
+ * Persisted as a sorted TSV (type, key, value) next to the generation manifest.
+ * Most of a verdict page's entities are shared with every page of its era, so
+ * identical sets of non-local entities are stored once as a group (@g1).
+ */
+@Slf4j
+public final class PageDependencyGraph {
+
+    public static final String DEFAULT_PATH = "src/main/resources/page-dependencies.tsv";
+
+    public static final String STATE = "state:";
+    public static final String FRAGMENTS = "fragments";
+
+    private static final String HEADER = "# type\tkey\tvalue";
+    private static final String GROUP_PREFIX = "@g";
+    // Entities specific to one page; everything else is interned into groups
+    private static final Set<String> LOCAL_PREFIXES = Set.of(DataDependencies.METRO, STATE);
+
+    private final Path file;
+    private final Map<String, Set<String>> pages = new ConcurrentHashMap<>();
+    private volatile Map<String, String> fingerprints = Map.of();
+    private volatile String dataVersion;
+
+    private PageDependencyGraph(Path file) {
+        this.file = file;
+    }
+
+    /** Graph at the file, empty when it does not exist yet. */
+    public static PageDependencyGraph load(Path file) throws IOException {
+        PageDependencyGraph graph = new PageDependencyGraph(file);
+        if (!Files.isRegularFile(file)) {
+            return graph;
+        }
+        Map<String, String> fingerprints = new TreeMap<>();
+        Map<String, Set<String>> groups = new HashMap<>();
+        Map<String, String> pageLines = new HashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            if (fields.length != 3) {
+                throw new IOException("Malformed dependency line in " + file + ": " + line);
+            }
+            switch (fields[0]) {
+                case "version" -> graph.dataVersion = fields[2];
+                case "entity" -> fingerprints.put(fields[1], fields[2]);
+                case "group" -> groups.put(fields[1], entities(fields[2]));
+                case "page" -> pageLines.put(fields[1], fields[2]);
+                default -> throw new IOException("Unknown dependency line type in " + file + ": " + line);
+            }
+        }
+        for (Map.Entry<String, String> page : pageLines.entrySet()) {
+            Set<String> entities = new TreeSet<>();
+            for (String entity : entities(page.getValue())) {
+                if (entity.startsWith(GROUP_PREFIX)) {
+                    Set<String> group = groups.get(entity);
+                    if (group == null) {
+                        throw new IOException("Unknown dependency group " + entity + " in " + file);
+                    }
+                    entities.addAll(group);
+                } else {
+                    entities.add(entity);
+                }
+            }
+            graph.pages.put(page.getKey(), Collections.unmodifiableSet(entities));
+        }
+        graph.fingerprints = Collections.unmodifiableMap(fingerprints);
+        return graph;
+    }
+
+    /** Graph that is never saved. */
+    public static PageDependencyGraph empty() {
+        return new PageDependencyGraph(null);
+    }
+
+    public static String state(String stateCode) {
+        return STATE + stateCode;
+    }
+
+    /** Replaces the entities recorded for the page. Thread-safe. */
+    public void record(String sitePath, Collection<String> entities) {
+        pages.put(sitePath, Collections.unmodifiableSet(new TreeSet<>(entities)));
+    }
+
+    public void remove(String sitePath) {
+        pages.remove(sitePath);
+    }
+
+    public boolean contains(String sitePath) {
+        return pages.containsKey(sitePath);
+    }
+
+    /** Entities the page read when it was last generated (empty when unknown). */
+    public Set<String> dependencies(String sitePath) {
+        return pages.getOrDefault(sitePath, Set.of());
+    }
+
+    public Set<String> pages() {
+        return Collections.unmodifiableSet(pages.keySet());
+    }
+
+    /** Engine data version the pages were last generated from (null before the first run). */
+    public String dataVersion() {
+        return dataVersion;
+    }
+
+    /** Records the data the pages now reflect. */
+    public void update(String dataVersion, Map<String, String> fingerprints) {
+        this.dataVersion = dataVersion;
+        this.fingerprints = Collections.unmodifiableMap(new TreeMap<>(fingerprints));
+    }
+
+    /**
+     * Entities added, removed or changed since the pages were generated, or empty
+     * when no fingerprints were recorded yet (every page has to be generated).
+     */
+    public Optional<Set<String>> changedSince(Map<String, String> current) {
+        if (fingerprints.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(DataDependencies.changed(fingerprints, current));
+    }
+
+    /** Recorded pages that read at least one of the entities. */
+    public Set<String> pagesReading(Set<String> entities) {
+        Set<String> reading = new TreeSet<>();
+        pages.forEach((page, read) -> {
+            if (!Collections.disjoint(read, entities)) {
+                reading.add(page);
+            }
+        });
+        return reading;
+    }
+
+    public void save() throws IOException {
+        if (file == null) {
+            return;
+        }
+        // Group numbers follow the sorted pages, so unchanged data saves an identical file
+        Map<Set<String>, String> groups = new LinkedHashMap<>();
+        StringBuilder pageRows = new StringBuilder();
+        new TreeMap<>(pages).forEach((page, entities) -> {
+            Set<String> local = new TreeSet<>();
+            Set<String> shared = new TreeSet<>();
+            for (String entity : entities) {
+                (isLocal(entity) ? local : shared).add(entity);
+            }
+            StringBuilder row = new StringBuilder(String.join(" ", local));
+            if (!shared.isEmpty()) {
+                String group = groups.computeIfAbsent(shared, s -> GROUP_PREFIX + (groups.size() + 1));
+                row.append(row.isEmpty() ? "" : " ").append(group);
+            }
+            pageRows.append("page\t").append(page).append('\t').append(row).append('\n');
+        });
+
+        StringBuilder tsv = new StringBuilder(HEADER).append('\n');
+        if (dataVersion != null) {
+            tsv.append("version\t-\t").append(dataVersion).append('\n');
+        }
+        fingerprints.forEach((entity, fingerprint) -> tsv.append("entity\t").append(entity).append('\t')
+                .append(fingerprint).append('\n'));
+        groups.forEach((entities, group) -> tsv.append("group\t").append(group).append('\t')
+                .append(String.join(" ", entities)).append('\n'));
+        tsv.append(pageRows);
+        GeneratedFiles.writeIfChanged(file, tsv.toString());
+        log.info("Page dependency graph {}: {} pages, {} entities, {} groups", file, pages.size(),
+                fingerprints.size(), groups.size());
+    }
+
+    private static boolean isLocal(String entity) {
+        return LOCAL_PREFIXES.stream().anyMatch(entity::startsWith);
+    }
+
+    private static Set<String> entities(String field) {
+        return field.isEmpty() ? Set.of() : new TreeSet<>(Arrays.asList(field.split(" ")));
+    }
+}
@@ -0,0 +1,318 @@
+package com.livingcostcheck.home_repair.seo;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.RiskAdjustedItem;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.Verdict;
+import com.livingcostcheck.home_repair.util.ContentHash;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Rendered HTML of the dynamic L2 risk pages (/home-repair/verdicts/{metro}/{era}/{riskItem}).
+ *
+ * Pages are tagged with the engine data version they were rendered from. A page
+ * from an older version is still served (stale-while-revalidate) while a single
+ * background render replaces it; concurrent misses on the same page share one render.
+ *
+ * With precompression only the gzip bytes are kept (~3.5 KB vs ~19 KB per page),
+ * so the default budget holds every L2 page; clients without gzip get them inflated.
+ * Bounded by the total number of cached bytes, evicting the least recently used
+ * page first. The per-metro/era slug index is bounded by entries.
+ */
+@Slf4j
+@Component
+public class RiskDetailPageCache {
+
+    public static final long DEFAULT_MAX_BYTES = 128L * 1024 * 1024;
+    public static final int DEFAULT_MAX_INDEXES = 1024;
+
+    private final long maxBytes;
+    private final boolean precompress;
+    private final Executor refresher;
+
+    private final LinkedHashMap<Key, Page> pages = new LinkedHashMap<>(256, 0.75f, true);
+    private long weight;
+    private final Map<Key, CompletableFuture<Page>> rendering = new ConcurrentHashMap<>();
+    private final Set<Key> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final Map<IndexKey, SlugIndex> indexes = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<IndexKey, SlugIndex> eldest) {
+                    return size() > DEFAULT_MAX_INDEXES;
+                }
+            });
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public RiskDetailPageCache(@Value("${app.seo.risk-page-cache.max-bytes:" + DEFAULT_MAX_BYTES + "}") long maxBytes,
+            @Value("${app.seo.risk-page-cache.precompress:true}") boolean precompress) {
+        this(maxBytes, precompress, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "risk-page-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    RiskDetailPageCache(long maxBytes, boolean precompress, Executor refresher) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.precompress = precompress;
+        this.refresher = refresher;
+    }
+
+    /**
+     * Cached page for the key, rendering it on a miss. Exceptions from the
+     * renderer (e.g. unknown risk item) are propagated and not cached.
+     *
+     * @param dataVersion engine data version the renderer would render from
+     */
+    public Page get(Key key, String dataVersion, Supplier<byte[]> renderer) {
+        Page cached;
+        synchronized (this) {
+            cached = pages.get(key);
+        }
+        if (cached != null) {
+            if (cached.dataVersion().equals(dataVersion)) {
+                hits.incrementAndGet();
+            } else {
+                staleHits.incrementAndGet();
+                refresh(key, dataVersion, renderer);
+            }
+            return cached;
+        }
+
+        misses.incrementAndGet();
+        CompletableFuture<Page> mine = new CompletableFuture<>();
+        CompletableFuture<Page> inFlight = rendering.putIfAbsent(key, mine);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            Page page = render(key, dataVersion, renderer);
+            mine.complete(page);
+            return page;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            rendering.remove(key, mine);
+        }
+    }
+
+    private void refresh(Key key, String dataVersion, Supplier<byte[]> renderer) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    render(key, dataVersion, renderer);
+                } catch (RuntimeException e) {
+                    // Page no longer renders with the new data: stop serving the stale copy
+                    log.warn("Dropping stale risk page {}: {}", key, e.getMessage());
+                    remove(key);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.remove(key);
+            log.warn("Risk page refresh not scheduled for {}", key, e);
+        }
+    }
+
+    private Page render(Key key, String dataVersion, Supplier<byte[]> renderer) {
+        byte[] html = renderer.get();
+        String contentHash = ContentHash.of(html);
+        Page page = precompress
+                ? new Page(gzip(html), true, contentHash, dataVersion)
+                : new Page(html, false, contentHash, dataVersion);
+        synchronized (this) {
+            Page previous = pages.put(key, page);
+            if (previous != null) {
+                weight -= previous.weight();
+            }
+            weight += page.weight();
+            evictToBudget();
+        }
+        return page;
+    }
+
+    private synchronized void remove(Key key) {
+        Page removed = pages.remove(key);
+        if (removed != null) {
+            weight -= removed.weight();
+        }
+    }
+
+    private void evictToBudget() {
+        Iterator<Map.Entry<Key, Page>> eldest = pages.entrySet().iterator();
+        while (weight > maxBytes && eldest.hasNext()) {
+            weight -= eldest.next().getValue().weight();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Risk items of the metro/era verdict by URL slug, built once per data version
+     * (every risk page of a metro/era shares the same verdict).
+     */
+    public SlugIndex slugIndex(String metroCode, String era, String dataVersion, Supplier<Verdict> verdict) {
+        IndexKey key = new IndexKey(metroCode, era, dataVersion);
+        SlugIndex index = indexes.get(key);
+        if (index == null) {
+            index = SlugIndex.of(verdict.get());
+            indexes.put(key, index);
+        }
+        return index;
+    }
+
+    public synchronized void clear() {
+        pages.clear();
+        weight = 0;
+        indexes.clear();
+    }
+
+    /**
+     * Applies a data change that only touched some metro/eras: pages rendered from
+     * {@code fromVersion} whose metro/era is not affected would render the same
+     * HTML, so they are re-tagged as {@code toVersion}; affected pages are dropped
+     * and rendered again on their next request. Pages from other versions are left
+     * to the stale-while-revalidate refresh.
+     *
+     * @param affected (metro code, era) of the pages to drop
+     * @return number of pages kept
+     */
+    public synchronized int revalidate(String fromVersion, String toVersion, BiPredicate<String, String> affected) {
+        int kept = 0;
+        Iterator<Map.Entry<Key, Page>> entries = pages.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Key, Page> entry = entries.next();
+            Page page = entry.getValue();
+            if (!page.dataVersion().equals(fromVersion)) {
+                continue;
+            }
+            if (affected.test(entry.getKey().metroCode(), entry.getKey().eraCode())) {
+                weight -= page.weight();
+                entries.remove();
+            } else {
+                entry.setValue(new Page(page.body(), page.gzipped(), page.contentHash(), toVersion));
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits.get(), staleHits.get(), misses.get(), evictions.get(), pages.size(), weight, maxBytes,
+                indexes.size());
+    }
+
+    public static String slugOf(RiskAdjustedItem item) {
+        return item.getItemCode().toLowerCase().replace("_", "-");
+    }
+
+    private static byte[] gzip(byte[] html) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(html.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(html);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Page as requested (raw path segments, which also appear in the rendered URLs). */
+    public record Key(String metro, String era, String riskItem) {
+
+        public String metroCode() {
+            return metro.replace("-", "_").toUpperCase();
+        }
+
+        public String eraCode() {
+            return era.replace("-", "_").toUpperCase();
+        }
+    }
+
+    private record IndexKey(String metroCode, String era, String dataVersion) {
+    }
+
+    /**
+     * @param body        the HTML, gzipped when {@code gzipped}
+     * @param contentHash hash of the HTML (ETag)
+     */
+    public record Page(byte[] body, boolean gzipped, String contentHash, String dataVersion) {
+
+        public byte[] html() {
+            if (!gzipped) {
+                return body;
+            }
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                return gzip.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        long weight() {
+            return body.length;
+        }
+    }
+
+    public record SlugIndex(Verdict verdict, Map<String, RiskAdjustedItem> items) {
+
+        static SlugIndex of(Verdict verdict) {
+            Map<String, RiskAdjustedItem> items = new LinkedHashMap<>();
+            for (RiskAdjustedItem item : verdict.getPlan().getMustDo()) {
+                items.putIfAbsent(slugOf(item), item);
+            }
+            return new SlugIndex(verdict, Collections.unmodifiableMap(items));
+        }
+
+        public RiskAdjustedItem item(String slug) {
+            return items.get(slug);
+        }
+    }
+
+    public record Stats(long hits, long staleHits, long misses, long evictions, int pages, long cachedBytes,
+            long maxBytes, int slugIndexes) {
+
+        public double hitRate() {
+            long total = hits + staleHits + misses;
+            return total == 0 ? 0.0 : (double) (hits + staleHits) / total;
+        }
+    }
+}
@@ -1,23 +1,68 @@
 package com.livingcostcheck.home_repair.seo;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDate;
+import java.nio.file.StandardCopyOption;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Generates Strategic Seed Sitemap for pSEO
+ *
+ * Written as a sitemap index (the output path, e.g. sitemap.xml) over shard
+ * files next to it: one per state (sitemap-tx.xml, core pages in
+ * sitemap-core.xml) or one per page level (core, states, verdicts, risks),
+ * split into numbered parts (sitemap-tx-2.xml) at the protocol limits of
+ * 50,000 URLs / 50 MB. Optionally the shards are written gzipped
+ * (sitemap-tx.xml.gz).
+ *
+ * Entries are streamed to the shard files as they come, so memory does not
+ * grow with the number of URLs; the input is expected to list each page once
+ * (as the generators return them). A shard whose content did not change keeps
+ * its file (and modification time); shard files no longer in the index are
+ * deleted.
  */
 @Slf4j
 @Service
 public class SitemapGenerator {
 
+    public enum Sharding {
+        /** One shard per state (verdict pages and the state hub), plus core. */
+        STATE,
+        /** One shard per page level: core, states (hubs), verdicts (L1), risks (L2). */
+        LEVEL
+    }
+
+    /** Sitemap protocol limits per file. */
+    public static final int MAX_URLS_PER_FILE = 50_000;
+    public static final long MAX_BYTES_PER_FILE = 50L * 1024 * 1024;
+
+    private static final String NAMESPACE = "http://www.sitemaps.org/schemas/sitemap/0.9";
+    private static final String URLSET_START = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<urlset xmlns=\""
+            + NAMESPACE + "\">\n";
+    private static final String URLSET_END = "</urlset>";
+    private static final String SHARD_PREFIX = "sitemap-";
+    // Files this generator writes (sitemap-tx.xml, sitemap-verdicts-2.xml.gz) and their .gz siblings
+    private static final Pattern SHARD_FILE = Pattern.compile("sitemap-[a-z0-9]+(-\\d+)?\\.xml(\\.gz)?(\\.gz)?");
+    private static final String VERDICTS_PATH = "/home-repair/verdicts/";
+    private static final String STATES_PATH = VERDICTS_PATH + "states/";
+
     private static final List<String> ALL_ERAS = Arrays.asList(
             "PRE_1950", "1950_1970", "1970_1980", "1980_1995", "1995_2010", "2010_PRESENT");
 
@@ -30,51 +75,246 @@ public class SitemapGenerator {
 
     private static final String BASE_URL = "https://lifeverdict.com";
 
-    public int generateSitemap(String outputPath, List<String> extraUrls) throws IOException {
-        log.info("Generating Strategic Seed Sitemap...");
+    private final Sharding sharding;
+    private final boolean gzip;
+
+    public SitemapGenerator() {
+        this(Sharding.STATE.name(), false);
+    }
 
-        StringBuilder xml = new StringBuilder();
-        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-        xml.append("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+    @Autowired
+    public SitemapGenerator(@Value("${app.seo.sitemap.shard-by:state}") String sharding,
+            @Value("${app.seo.sitemap.gzip:false}") boolean gzip) {
+        this.sharding = Sharding.valueOf(sharding.trim().toUpperCase(Locale.ROOT));
+        this.gzip = gzip;
+    }
+
+    public int generateSitemap(String outputPath, Iterable<String> extraUrls) throws IOException {
+        return generateSitemap(outputPath, extraUrls, GenerationManifest.empty());
+    }
 
-        String lastMod = LocalDate.now().format(DateTimeFormatter.ISO_DATE);
+    /**
+     * Writes the shards and the index at outputPath.
+     *
+     * Each page's lastmod is the date its content last changed (from the
+     * manifest's content hash history); pages the manifest does not know get
+     * none. The core pages, and each shard in the index, get the most recent
+     * change they cover.
+     *
+     * @param extraUrls generated page URLs (state hubs, verdict pages); entries
+     *                  that are not URLs (generation ERROR lines) are skipped
+     * @return number of URLs in the sitemap
+     */
+    public int generateSitemap(String outputPath, Iterable<String> extraUrls, GenerationManifest manifest)
+            throws IOException {
+        log.info("Generating Strategic Seed Sitemap...");
+        Path index = Paths.get(outputPath);
+        Path dir = index.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+
+        Map<String, Shard> shards = new TreeMap<>();
         int urlCount = 0;
+        try {
+            // 1. Core Pages (Seed)
+            String lastMod = manifest.newest().map(DateTimeFormatter.ISO_DATE::format).orElse(null);
+            Shard core = shard(shards, "core", dir);
+            core.add(BASE_URL + "/", lastMod, "daily", "1.0");
+            core.add(BASE_URL + "/home-repair", lastMod, "weekly", "0.9");
+            core.add(BASE_URL + "/methodology", lastMod, "monthly", "0.8");
+            core.add(BASE_URL + "/about", lastMod, "monthly", "0.7");
+            core.add(BASE_URL + "/editorial-policy", lastMod, "monthly", "0.7");
+            urlCount += 5;
 
-        // 1. Core Pages (Seed)
-        xml.append(buildUrlEntry(BASE_URL + "/", lastMod, "daily", "1.0"));
-        xml.append(buildUrlEntry(BASE_URL + "/home-repair", lastMod, "weekly", "0.9"));
-        xml.append(buildUrlEntry(BASE_URL + "/methodology", lastMod, "monthly", "0.8"));
-        xml.append(buildUrlEntry(BASE_URL + "/about", lastMod, "monthly", "0.7"));
-        xml.append(buildUrlEntry(BASE_URL + "/editorial-policy", lastMod, "monthly", "0.7"));
-        urlCount += 5;
-
-        // 2. Generated Pages (All Static Seed Pages)
-        // Includes State Hubs and Verdict Pages (L1)
-        if (extraUrls != null) {
-            Set<String> uniqueUrls = new HashSet<>(extraUrls); // Deduplicate just in case
-            for (String url : uniqueUrls) {
-                // Determine priority based on type
-                String priority = "0.8";
-                String freq = "monthly";
-
-                if (url.contains("/states/")) {
-                    priority = "0.9";
-                    freq = "weekly";
+            // 2. Generated Pages (All Static Seed Pages)
+            // Includes State Hubs and Verdict Pages (L1)
+            if (extraUrls != null) {
+                for (String url : extraUrls) {
+                    if (!url.startsWith(BASE_URL + "/")) {
+                        continue;
+                    }
+                    String sitePath = StaticPageGeneratorService.sitePath(url);
+                    boolean stateHub = sitePath.startsWith(STATES_PATH);
+                    String pageLastMod = manifest.lastModified(sitePath).map(DateTimeFormatter.ISO_DATE::format)
+                            .orElse(null);
+                    shard(shards, shardName(sitePath), dir).add(url, pageLastMod, stateHub ? "weekly" : "monthly",
+                            stateHub ? "0.9" : "0.8");
+                    urlCount++;
                 }
+            }
 
-                xml.append(buildUrlEntry(url, lastMod, freq, priority));
-                urlCount++;
+            List<Path> files = new ArrayList<>();
+            StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            xml.append("<sitemapindex xmlns=\"").append(NAMESPACE).append("\">\n");
+            for (Shard shard : shards.values()) {
+                for (Part part : shard.finish()) {
+                    files.add(part.file());
+                    xml.append("  <sitemap>\n    <loc>").append(BASE_URL).append('/').append(part.file().getFileName())
+                            .append("</loc>\n");
+                    if (part.newest() != null) {
+                        xml.append("    <lastmod>").append(part.newest()).append("</lastmod>\n");
+                    }
+                    xml.append("  </sitemap>\n");
+                }
+            }
+            xml.append("</sitemapindex>");
+            GeneratedFiles.writeIfChanged(index, xml.toString());
+            deleteStaleShards(dir, files);
+            log.info("Sitemap generated successfully: {} URLs in {} files (Seed Strategy applied)", urlCount,
+                    files.size());
+        } finally {
+            for (Shard shard : shards.values()) {
+                shard.discard();
             }
         }
+        return urlCount;
+    }
 
-        xml.append("</urlset>");
+    private Shard shard(Map<String, Shard> shards, String name, Path dir) {
+        return shards.computeIfAbsent(name, n -> new Shard(dir, n, gzip));
+    }
 
-        Path path = Paths.get(outputPath);
-        Files.createDirectories(path.getParent());
-        Files.writeString(path, xml.toString());
+    /** Shard of a page by its site path ("other" for pages outside the generated tree). */
+    String shardName(String sitePath) {
+        boolean stateHub = sitePath.startsWith(STATES_PATH);
+        boolean verdict = !stateHub && sitePath.startsWith(VERDICTS_PATH);
+        if (sharding == Sharding.LEVEL) {
+            if (stateHub) {
+                return "states";
+            }
+            if (verdict) {
+                // /verdicts/{metro}/{era}.html is L1, /verdicts/{metro}/{era}/{risk}.html is L2
+                long depth = sitePath.substring(VERDICTS_PATH.length()).chars().filter(c -> c == '/').count();
+                return depth == 1 ? "verdicts" : depth == 2 ? "risks" : "other";
+            }
+            return "other";
+        }
+        String state = null;
+        if (stateHub) {
+            state = sitePath.substring(STATES_PATH.length()).replace(".html", "");
+        } else if (verdict) {
+            int end = sitePath.indexOf('/', VERDICTS_PATH.length());
+            String metroSlug = sitePath.substring(VERDICTS_PATH.length(), end < 0 ? sitePath.length() : end);
+            int dash = metroSlug.lastIndexOf('-');
+            state = dash < 0 ? null : metroSlug.substring(dash + 1);
+        }
+        return state != null && state.matches("[a-z]{2}") ? state : "other";
+    }
 
-        log.info("Sitemap generated successfully: {} URLs (Seed Strategy applied)", urlCount);
-        return urlCount;
+    private static void deleteStaleShards(Path dir, List<Path> written) throws IOException {
+        Set<Path> keep = new HashSet<>();
+        for (Path file : written) {
+            keep.add(file.getFileName());
+            keep.add(GeneratedFiles.gzipSibling(file).getFileName());
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, SHARD_PREFIX + "*")) {
+            for (Path file : files) {
+                if (SHARD_FILE.matcher(file.getFileName().toString()).matches()
+                        && !keep.contains(file.getFileName())) {
+                    log.info("Removing stale sitemap shard {}", file);
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private record Part(Path file, String newest) {
+    }
+
+    /**
+     * The open part of one shard: entries go straight to a temp file, which
+     * replaces the shard file on finish() only if the content differs.
+     */
+    private static final class Shard {
+
+        private final Path dir;
+        private final String name;
+        private final boolean gzip;
+        private final List<Part> parts = new ArrayList<>();
+        private Path temp;
+        private Writer out;
+        private int urls;
+        private long bytes;
+        private String newest;
+
+        Shard(Path dir, String name, boolean gzip) {
+            this.dir = dir;
+            this.name = name;
+            this.gzip = gzip;
+        }
+
+        void add(String loc, String lastMod, String changeFreq, String priority) throws IOException {
+            String entry = "  <url>\n    <loc>" + escape(loc) + "</loc>\n"
+                    + (lastMod == null ? "" : "    <lastmod>" + lastMod + "</lastmod>\n")
+                    + "    <changefreq>" + changeFreq + "</changefreq>\n    <priority>" + priority
+                    + "</priority>\n  </url>\n";
+            // URLs are ASCII: one byte per char
+            if (out != null && (urls == MAX_URLS_PER_FILE
+                    || bytes + entry.length() + URLSET_END.length() > MAX_BYTES_PER_FILE)) {
+                closePart();
+            }
+            if (out == null) {
+                openPart();
+            }
+            out.write(entry);
+            urls++;
+            bytes += entry.length();
+            if (lastMod != null && (newest == null || lastMod.compareTo(newest) > 0)) {
+                newest = lastMod;
+            }
+        }
+
+        List<Part> finish() throws IOException {
+            if (out != null) {
+                closePart();
+            }
+            return parts;
+        }
+
+        /** Drops a part left open by a failure. */
+        void discard() throws IOException {
+            if (out != null) {
+                out.close();
+                out = null;
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private void openPart() throws IOException {
+            temp = Files.createTempFile(dir, SHARD_PREFIX + name, ".tmp");
+            OutputStream stream = Files.newOutputStream(temp);
+            if (gzip) {
+                stream = new GZIPOutputStream(stream, 8192) {
+                    {
+                        def.setLevel(Deflater.BEST_COMPRESSION);
+                    }
+                };
+            }
+            out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+            out.write(URLSET_START);
+            urls = 0;
+            bytes = URLSET_START.length();
+            newest = null;
+        }
+
+        private void closePart() throws IOException {
+            out.write(URLSET_END);
+            out.close();
+            out = null;
+            int number = parts.size() + 1;
+            Path file = dir.resolve(SHARD_PREFIX + name + (number == 1 ? "" : "-" + number) + ".xml"
+                    + (gzip ? GeneratedFiles.GZIP_SUFFIX : ""));
+            if (Files.isRegularFile(file) && Files.mismatch(file, temp) == -1) {
+                Files.delete(temp);
+            } else {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            parts.add(new Part(file, newest));
+        }
+
+        private static String escape(String loc) {
+            return loc.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;")
+                    .replace("'", "&apos;");
+        }
     }
 
     private boolean isTier1Url(String url) {
@@ -90,10 +330,4 @@ public class SitemapGenerator {
         String eraSlug = era.toLowerCase().replace("_", "-");
         return BASE_URL + "/home-repair/verdicts/" + metroSlug + "/" + eraSlug + ".html";
     }
-
-    private String buildUrlEntry(String loc, String lastMod, String changeFreq, String priority) {
-        return String.format(
-                "  <url>\n    <loc>%s</loc>\n    <lastmod>%s</lastmod>\n    <changefreq>%s</changefreq>\n    <priority>%s</priority>\n  </url>\n",
-                loc, lastMod, changeFreq, priority);
-    }
 }
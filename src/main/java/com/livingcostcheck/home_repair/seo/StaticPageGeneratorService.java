@@ -1,15 +1,21 @@
 package com.livingcostcheck.home_repair.seo;
 
 import com.livingcostcheck.home_repair.service.VerdictEngineService;
+import com.livingcostcheck.home_repair.service.engine.DataDependencies;
+import com.livingcostcheck.home_repair.service.engine.RegionIndex;
 import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs;
 import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.*;
 import com.livingcostcheck.home_repair.service.dto.verdict.StateHubPage;
 import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping;
+import com.livingcostcheck.home_repair.seo.GenerationProgress.PageResult;
+import com.livingcostcheck.home_repair.seo.GenerationScheduler.PageBuffer;
+import com.livingcostcheck.home_repair.util.ContentHash;
 import com.livingcostcheck.home_repair.util.TextUtil;
 import gg.jte.TemplateEngine;
 import gg.jte.output.StringOutput;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -19,6 +25,7 @@ import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @Service
@@ -33,53 +40,345 @@ public class StaticPageGeneratorService {
         private static final List<String> ALL_ERAS = Arrays.asList(
                         "PRE_1950", "1950_1970", "1970_1980", "1980_1995", "1995_2010", "2010_PRESENT");
 
-        private static final double DEFAULT_BUDGET = -1.0;
-        private static final String DEFAULT_PURPOSE = "LIVING";
+        // Template sources, hashed into the generation manifest (same location as the CLI resolver)
+        private static final Path TEMPLATE_ROOT = Paths.get("src/main/jte");
+        private static final String VERDICT_TEMPLATE = "seo/static-verdict.jte";
+        private static final String STATE_HUB_TEMPLATE = "seo/static-state-hub.jte";
+
+        private static final String SITE_URL = "https://lifeverdict.com";
+        // Pages listed in the report logged after each run
+        private static final int SLOWEST_PAGES = 10;
+
+        // Verdict page render threads (0 = one per core); writes run on virtual threads
+        @Value("${app.seo.generation.render-threads:0}")
+        private int renderThreads;
+
+        // The running generation, or the last finished one
+        private final AtomicReference<GenerationProgress> lastRun = new AtomicReference<>();
+
+        /** Progress of the running generation, or of the last one. */
+        public Optional<GenerationProgress> lastRun() {
+                return Optional.ofNullable(lastRun.get());
+        }
 
         public List<String> generateAllPages(String outputBasePath) {
-                log.info("Starting Parallel pSEO static page generation for {} cities...",
+                return generateAllPages(outputBasePath, GenerationManifest.empty());
+        }
+
+        public List<String> generateAllPages(String outputBasePath, GenerationManifest manifest) {
+                return generateAllPages(outputBasePath, manifest, PageDependencyGraph.empty());
+        }
+
+        /**
+         * Renders every page and writes only those whose content changed since
+         * the manifest was recorded; records what each page read in the graph
+         * (the caller saves the manifest and the graph).
+         */
+        public List<String> generateAllPages(String outputBasePath, GenerationManifest manifest,
+                        PageDependencyGraph graph) {
+                return generateAllPages(outputBasePath, manifest, graph, GenerationProgress.Listener.NONE);
+        }
+
+        public List<String> generateAllPages(String outputBasePath, GenerationManifest manifest,
+                        PageDependencyGraph graph, GenerationProgress.Listener listener) {
+                log.info("Starting pSEO static page generation for {} cities...",
                                 verdictEngineService.getMetroMasterData().getData().size());
-                Map<String, DataMapping.MetroCityData> allMetros = verdictEngineService.getMetroMasterData().getData();
-                List<String> metroCodes = new ArrayList<>(allMetros.keySet());
+                String dataVersion = verdictEngineService.getDataVersion();
+                RegionIndex regions = verdictEngineService.getRegionIndex();
+                List<String> metroCodes = new ArrayList<>(
+                                verdictEngineService.getMetroMasterData().getData().keySet());
+
+                List<VerdictPage> pages = new ArrayList<>();
+                Set<String> current = new HashSet<>();
+                for (String metroCode : metroCodes) {
+                        for (String era : ALL_ERAS) {
+                                pages.add(new VerdictPage(metroCode, era));
+                                current.add(sitePath(buildCanonicalUrl(metroCode, era)));
+                        }
+                }
+                GenerationProgress progress = startRun("full", pages.size(), listener);
+                List<String> allGeneratedUrls = generatePages(pages, outputBasePath, manifest, graph, dataVersion,
+                                progress);
+                if (progress.isCancelled()) {
+                        // Graph keeps the old fingerprints: pages not reached are still stale
+                        log.warn("Static generation cancelled: {} pages written, {} unchanged", manifest.written(),
+                                        manifest.unchanged());
+                        return allGeneratedUrls;
+                }
 
-                List<String> allGeneratedUrls = Collections.synchronizedList(new ArrayList<>());
-                String currentMonthYear = LocalDate.now()
-                                .format(DateTimeFormatter.ofPattern("MMMM yyyy", Locale.ENGLISH));
+                try {
+                        generateStateHubPages(regions, regions.states(), outputBasePath, manifest, graph, dataVersion);
+                        for (String state : regions.states()) {
+                                allGeneratedUrls.add(buildStateHubUrl(state));
+                                current.add(sitePath(buildStateHubUrl(state)));
+                        }
+                } catch (Exception e) {
+                        log.error("Post-generation State Hub failed: {}", e.getMessage());
+                }
+                // Pages of metros no longer in the data
+                graph.pages().stream().filter(path -> !current.contains(path)).toList().forEach(graph::remove);
+                graph.update(dataVersion, currentFingerprints(regions));
+
+                log.info("Static generation done: {} pages written, {} unchanged", manifest.written(),
+                                manifest.unchanged());
+                return allGeneratedUrls;
+        }
+
+        /**
+         * Rebuilds only the pages that read a data entity changed since the graph
+         * was recorded (or whose template changed, or that are new), and drops
+         * pages of removed metros from the graph. Falls back to generateAllPages
+         * when the graph has no fingerprints yet.
+         *
+         * @return every current page URL (for the sitemap) and what was rebuilt
+         */
+        public Regeneration regenerateChanged(String outputBasePath, GenerationManifest manifest,
+                        PageDependencyGraph graph) {
+                return regenerateChanged(outputBasePath, manifest, graph, GenerationProgress.Listener.NONE);
+        }
 
-                // Use parallelStream for 5-10x performance boost
-                metroCodes.parallelStream().forEach(metroCode -> {
+        public Regeneration regenerateChanged(String outputBasePath, GenerationManifest manifest,
+                        PageDependencyGraph graph, GenerationProgress.Listener listener) {
+                String previousVersion = graph.dataVersion();
+                String dataVersion = verdictEngineService.getDataVersion();
+                RegionIndex regions = verdictEngineService.getRegionIndex();
+                List<String> metroCodes = new ArrayList<>(
+                                verdictEngineService.getMetroMasterData().getData().keySet());
+                Map<String, String> fingerprints = currentFingerprints(regions);
+                Optional<Set<String>> changedSince = graph.changedSince(fingerprints);
+                if (changedSince.isEmpty()) {
+                        List<String> urls = generateAllPages(outputBasePath, manifest, graph, listener);
+                        return new Regeneration(previousVersion, dataVersion, null, urls,
+                                        urls.stream().filter(url -> !url.startsWith("ERROR"))
+                                                        .map(StaticPageGeneratorService::sitePath).toList(), List.of(),
+                                        lastRun.get().isCancelled());
+                }
+                Set<String> changed = changedSince.get();
+                String verdictTemplateHash = GenerationManifest.templateHash(TEMPLATE_ROOT, VERDICT_TEMPLATE);
+                String hubTemplateHash = GenerationManifest.templateHash(TEMPLATE_ROOT, STATE_HUB_TEMPLATE);
+
+                List<String> urls = new ArrayList<>();
+                Set<String> current = new HashSet<>();
+                List<VerdictPage> stalePages = new ArrayList<>();
+                for (String metroCode : metroCodes) {
                         for (String era : ALL_ERAS) {
-                                try {
-                                        List<String> pageUrls = generateSinglePage(metroCode, era, outputBasePath,
-                                                        currentMonthYear);
-                                        allGeneratedUrls.addAll(pageUrls);
-                                } catch (Exception e) {
-                                        log.error("Failed to generate: {}/{} - {}", metroCode, era, e.getMessage());
-                                        allGeneratedUrls.add("ERROR: " + metroCode + "/" + era + ": " + e.getMessage());
+                                String url = buildCanonicalUrl(metroCode, era);
+                                String path = sitePath(url);
+                                urls.add(url);
+                                current.add(path);
+                                // Old reads catch changed/removed entities, new reads catch added ones
+                                if (isStale(path, graph, manifest, changed, verdictTemplateHash)
+                                                || !Collections.disjoint(pageDependencies(metroCode, era), changed)) {
+                                        stalePages.add(new VerdictPage(metroCode, era));
                                 }
                         }
-                });
+                }
+                Set<String> staleStates = new TreeSet<>();
+                for (String state : regions.states()) {
+                        String url = buildStateHubUrl(state);
+                        urls.add(url);
+                        current.add(sitePath(url));
+                        if (isStale(sitePath(url), graph, manifest, changed, hubTemplateHash)
+                                        || changed.contains(PageDependencyGraph.state(state))) {
+                                staleStates.add(state);
+                        }
+                }
 
-                try {
-                        generateStateHubPages(metroCodes, outputBasePath);
-                        for (String state : getAllStates(metroCodes)) {
-                                allGeneratedUrls
-                                                .add("https://lifeverdict.com/home-repair/verdicts/states/"
-                                                                + state.toLowerCase() + ".html");
+                log.info("Data {} -> {}: {} entities changed, rebuilding {} verdict pages and {} state hubs",
+                                previousVersion, dataVersion, changed.size(), stalePages.size(), staleStates.size());
+                List<String> rebuilt = new ArrayList<>();
+                GenerationProgress progress = startRun("changed", stalePages.size(), listener);
+                for (String url : generatePages(stalePages, outputBasePath, manifest, graph, dataVersion, progress)) {
+                        if (url.startsWith("ERROR")) {
+                                urls.add(url);
+                        } else {
+                                rebuilt.add(sitePath(url));
                         }
+                }
+                if (progress.isCancelled()) {
+                        // Graph keeps the old fingerprints: pages not reached are still stale
+                        return new Regeneration(previousVersion, dataVersion, changed, urls, rebuilt, List.of(), true);
+                }
+                try {
+                        generateStateHubPages(regions, staleStates, outputBasePath, manifest, graph, dataVersion);
+                        staleStates.forEach(state -> rebuilt.add(sitePath(buildStateHubUrl(state))));
                 } catch (Exception e) {
                         log.error("Post-generation State Hub failed: {}", e.getMessage());
                 }
 
+                List<String> removed = graph.pages().stream().filter(path -> !current.contains(path)).sorted()
+                                .toList();
+                removed.forEach(graph::remove);
+                graph.update(dataVersion, fingerprints);
+                return new Regeneration(previousVersion, dataVersion, changed, urls, rebuilt, removed, false);
+        }
+
+        private static boolean isStale(String sitePath, PageDependencyGraph graph, GenerationManifest manifest,
+                        Set<String> changed, String templateHash) {
+                return !graph.contains(sitePath)
+                                || !Collections.disjoint(graph.dependencies(sitePath), changed)
+                                || manifest.entry(sitePath).map(entry -> !entry.templateHash().equals(templateHash))
+                                                .orElse(true);
+        }
+
+        /**
+         * Everything a verdict page reads: the engine data of its verdict, the
+         * metro list of its state (state links), the metros it links as nearby
+         * (their coordinates) and the fragment pools.
+         */
+        private Set<String> pageDependencies(String metroCode, String era) {
+                Set<String> entities = new TreeSet<>(verdictEngineService.dataDependencies(metroCode, era));
+                RegionIndex regions = verdictEngineService.getRegionIndex();
+                String stateCode = regions.stateOf(metroCode);
+                if (stateCode != null) {
+                        entities.add(PageDependencyGraph.state(stateCode));
+                }
+                // A moved, added or removed neighbor is a changed metro entity in the old or new reads
+                regions.nearest(metroCode, InternalLinkBuilder.NEARBY_METROS)
+                                .forEach(metro -> entities.add(DataDependencies.metro(metro.code())));
+                entities.add(PageDependencyGraph.FRAGMENTS);
+                return entities;
+        }
+
+        /** Engine data fingerprints plus the page-level entities (state metro lists, fragment pools). */
+        private Map<String, String> currentFingerprints(RegionIndex regions) {
+                Map<String, String> fingerprints = new TreeMap<>(verdictEngineService.dataFingerprints());
+                for (String state : regions.states()) {
+                        fingerprints.put(PageDependencyGraph.state(state), ContentHash.of(regions.metrosInState(state)
+                                        .stream().map(RegionIndex.Metro::code).toArray(String[]::new)));
+                }
+                fingerprints.put(PageDependencyGraph.FRAGMENTS, FragmentLibrary.fingerprint());
+                return fingerprints;
+        }
+
+        /**
+         * Rebuilds the verdict pages of one metro, whatever changed. The graph
+         * records what they read but keeps its data version and fingerprints,
+         * so other pages stale against the current data are still rebuilt by
+         * the next regenerateChanged.
+         *
+         * @return every current page URL (for the sitemap) and the rebuilt pages;
+         *         changedEntities is empty
+         * @throws IllegalArgumentException when the metro is not in the data
+         */
+        public Regeneration regenerateMetro(String metroCode, String outputBasePath, GenerationManifest manifest,
+                        PageDependencyGraph graph, GenerationProgress.Listener listener) {
+                List<String> metroCodes = new ArrayList<>(
+                                verdictEngineService.getMetroMasterData().getData().keySet());
+                if (!metroCodes.contains(metroCode)) {
+                        throw new IllegalArgumentException("Unknown metro: " + metroCode);
+                }
+                String dataVersion = verdictEngineService.getDataVersion();
+                List<String> urls = new ArrayList<>();
+                for (String code : metroCodes) {
+                        for (String era : ALL_ERAS) {
+                                urls.add(buildCanonicalUrl(code, era));
+                        }
+                }
+                verdictEngineService.getRegionIndex().states().forEach(state -> urls.add(buildStateHubUrl(state)));
+
+                List<VerdictPage> pages = ALL_ERAS.stream().map(era -> new VerdictPage(metroCode, era)).toList();
+                GenerationProgress progress = startRun("metro " + metroCode, pages.size(), listener);
+                List<String> rebuilt = new ArrayList<>();
+                for (String url : generatePages(pages, outputBasePath, manifest, graph, dataVersion, progress)) {
+                        if (url.startsWith("ERROR")) {
+                                urls.add(url);
+                        } else {
+                                rebuilt.add(sitePath(url));
+                        }
+                }
+                return new Regeneration(graph.dataVersion(), dataVersion, Set.of(), urls, rebuilt, List.of(),
+                                progress.isCancelled());
+        }
+
+        private GenerationProgress startRun(String name, int pages, GenerationProgress.Listener listener) {
+                GenerationProgress progress = new GenerationProgress(name, pages, listener);
+                lastRun.set(progress);
+                listener.started(progress);
+                return progress;
+        }
+
+        /**
+         * Renders and writes the verdict pages on a GenerationScheduler and logs
+         * the slowest pages.
+         *
+         * @return canonical URL of every generated page (in page order), "ERROR: ..." per failed page
+         */
+        private List<String> generatePages(List<VerdictPage> pages, String outputBasePath, GenerationManifest manifest,
+                        PageDependencyGraph graph, String dataVersion, GenerationProgress progress) {
+                String verdictTemplateHash = GenerationManifest.templateHash(TEMPLATE_ROOT, VERDICT_TEMPLATE);
+                String currentMonthYear = LocalDate.now()
+                                .format(DateTimeFormatter.ofPattern("MMMM yyyy", Locale.ENGLISH));
+
+                GenerationScheduler scheduler = new GenerationScheduler(renderThreads);
+                log.info("Generating {} verdict pages on {} render threads", pages.size(), scheduler.renderThreads());
+                List<PageResult> results = scheduler.run(pages,
+                                (page, buffer) -> renderPage(page.metroCode(), page.era(), currentMonthYear, buffer),
+                                (page, buffer) -> {
+                                        boolean written = manifest.write(page.sitePath(),
+                                                        buildFilePath(outputBasePath, page.metroCode(), page.era()),
+                                                        buffer.bytes(), buffer.size(), dataVersion,
+                                                        verdictTemplateHash);
+                                        graph.record(page.sitePath(), pageDependencies(page.metroCode(), page.era()));
+                                        return written;
+                                },
+                                progress);
+
+                List<String> allGeneratedUrls = new ArrayList<>(results.size());
+                for (PageResult result : results) {
+                        if (result.failed()) {
+                                log.error("Failed to generate: {} - {}", result.sitePath(), result.error());
+                                allGeneratedUrls.add("ERROR: " + result.sitePath() + ": " + result.error());
+                        } else {
+                                allGeneratedUrls.add(SITE_URL + result.sitePath());
+                        }
+                }
+                log.info("{}", progress.report(SLOWEST_PAGES));
                 return allGeneratedUrls;
         }
 
         private List<String> generateSinglePage(String metroCode, String era, String outputBasePath, String dateString)
                         throws IOException {
+                return generateSinglePage(metroCode, era, outputBasePath, dateString, GenerationManifest.empty(),
+                                verdictEngineService.getDataVersion(),
+                                GenerationManifest.templateHash(TEMPLATE_ROOT, VERDICT_TEMPLATE));
+        }
+
+        private List<String> generateSinglePage(String metroCode, String era, String outputBasePath, String dateString,
+                        GenerationManifest manifest, String dataVersion, String templateHash) throws IOException {
                 List<String> generatedUrls = new ArrayList<>();
-                VerdictDTOs.UserContext context = VerdictDTOs.UserContext.builder().metroCode(metroCode).era(era)
-                                .budget(DEFAULT_BUDGET).purpose(DEFAULT_PURPOSE).build();
-                VerdictDTOs.Verdict verdict = verdictEngineService.generateVerdict(context);
+                PageBuffer page = new PageBuffer(64 * 1024);
+                renderPage(metroCode, era, dateString, page);
+                Path filePath = buildFilePath(outputBasePath, metroCode, era);
+                manifest.write(sitePath(buildCanonicalUrl(metroCode, era)), filePath, page.bytes(), page.size(),
+                                dataVersion, templateHash);
+
+                generatedUrls.add(buildCanonicalUrl(metroCode, era));
+
+                // STRATEGY UPDATE:
+                // L2 Detail Pages (Risk Items) are now handled DYNAMICALLY by
+                // HomeRepairController.
+                // We only pre-generate the L1 Verdict Pages (Seed Strategy) to keep build times
+                // fast and file count low (~400).
+                // The controller listens for .html requests and renders them on-the-fly.
+
+                return generatedUrls;
+        }
+
+        /** Renders the verdict page, minified while rendering, into the page buffer (UTF-8). */
+        private void renderPage(String metroCode, String era, String dateString, PageBuffer page) {
+                MinifyingHtmlOutput output = new MinifyingHtmlOutput(page);
+                templateEngine.render(VERDICT_TEMPLATE, verdictTemplateData(metroCode, era, dateString), output);
+                output.finish();
+        }
+
+        /**
+         * Model of the verdict template for one page. Package-private so the JMH
+         * benchmarks (src/jmh) can measure rendering and writing in isolation.
+         */
+        Map<String, Object> verdictTemplateData(String metroCode, String era, String dateString) {
+                // Benchmark mode, no relationship (copied from the engine's verdict cube)
+                VerdictDTOs.Verdict verdict = verdictEngineService.benchmarkVerdict(metroCode, era, null);
 
                 String metroName = TextUtil.formatMetroName(metroCode);
                 String eraName = TextUtil.formatEraName(era);
@@ -98,7 +397,8 @@ public class StaticPageGeneratorService {
                 templateData.put("canonicalUrl", buildCanonicalUrl(metroCode, era));
                 templateData.put("dateString", dateString);
 
-                String stateCode = extractStateCode(metroCode);
+                RegionIndex regions = verdictEngineService.getRegionIndex();
+                String stateCode = regions.stateOf(metroCode);
 
                 // templateData.put("faqSchema", generateFAQSchema(metroName, eraName,
                 // verdict)); // Replaced by dynamic schema below
@@ -111,17 +411,13 @@ public class StaticPageGeneratorService {
                 templateData.put("productSchema", generateProductSchema(metroName, eraName, verdict));
 
                 // Updated InternalLinkBuilder Calls
-                templateData.put("stateLinks", internalLinkBuilder.getRelatedCitiesInState(metroCode, era,
-                                verdictEngineService.getMetroMasterData().getData().keySet()));
+                List<InternalLinkBuilder.InternalLink> stateLinks = internalLinkBuilder.getRelatedCitiesInState(
+                                metroCode, era, regions);
+                templateData.put("stateLinks", stateLinks);
                 templateData.put("eraLinks", internalLinkBuilder.getOtherErasInCity(metroCode, era));
 
-                // Logic for Nearby Cities (Same State, different metros)
-                // Re-using getRelatedCitiesInState which logically provides "Nearby" in a pSEO
-                // context (State-level relevance)
-                // If distinctive "Nearby" logic is needed beyond state, it would require
-                // lat/lon data, but state-level is sufficient for SEO mesh.
-                templateData.put("cityLinks", internalLinkBuilder.getRelatedCitiesInState(metroCode, era,
-                                verdictEngineService.getMetroMasterData().getData().keySet()));
+                // Nearby Cities: closest metros by distance, whatever their state
+                templateData.put("cityLinks", internalLinkBuilder.getNearbyMetrosInEra(metroCode, era, regions));
 
                 if (stateCode != null) {
                         templateData.put("stateHubUrl",
@@ -158,22 +454,7 @@ public class StaticPageGeneratorService {
                                 verdict.getPlan().getMustDo().stream().mapToDouble(RiskAdjustedItem::getAdjustedCost)
                                                 .sum()));
 
-                StringOutput output = new StringOutput();
-                templateEngine.render("seo/static-verdict.jte", templateData, output);
-                Path filePath = buildFilePath(outputBasePath, metroCode, era);
-                Files.createDirectories(filePath.getParent());
-                Files.writeString(filePath, minifyHtml(output.toString()));
-
-                generatedUrls.add((String) templateData.get("canonicalUrl"));
-
-                // STRATEGY UPDATE:
-                // L2 Detail Pages (Risk Items) are now handled DYNAMICALLY by
-                // HomeRepairController.
-                // We only pre-generate the L1 Verdict Pages (Seed Strategy) to keep build times
-                // fast and file count low (~400).
-                // The controller listens for .html requests and renders them on-the-fly.
-
-                return generatedUrls;
+                return templateData;
         }
 
         private String generateComparisonInsight(DataMapping.MetroCityData mData, String metroName, long seed) {
@@ -341,21 +622,6 @@ public class StaticPageGeneratorService {
                                 e, m, e, m, low, high, rating, reviewCount);
         }
 
-        private String minifyHtml(String html) {
-                if (html == null)
-                        return "";
-                return html
-                                .replaceAll("(?s)<!--.*?-->", "") // Remove HTML comments
-                                .replaceAll(">\\s+<", "><") // Remove whitespace between tags
-                                .replaceAll("\\s{2,}", " ") // Collapse multiple spaces
-                                .trim();
-        }
-
-        private String extractStateCode(String m) {
-                String[] p = m.split("_");
-                return (p.length > 0 && p[p.length - 1].length() == 2) ? p[p.length - 1] : null;
-        }
-
         private Path buildFilePath(String b, String m, String e) {
                 return Paths.get(b, m.toLowerCase().replace("_", "-"), e.toLowerCase().replace("_", "-") + ".html");
         }
@@ -365,55 +631,39 @@ public class StaticPageGeneratorService {
                                 i.toLowerCase().replace("_", "-") + ".html");
         }
 
-        private String buildCanonicalUrl(String m, String e) {
-                return "https://lifeverdict.com/home-repair/verdicts/" + m.toLowerCase().replace("_", "-") + "/"
+        /** Manifest / sitemap key of a page: its URL without the host. */
+        public static String sitePath(String url) {
+                return url.replaceFirst("^https?://[^/]+", "");
+        }
+
+        private String buildStateHubUrl(String stateCode) {
+                return "https://lifeverdict.com/home-repair/verdicts/states/" + stateCode.toLowerCase() + ".html";
+        }
+
+        private static String buildCanonicalUrl(String m, String e) {
+                return SITE_URL + "/home-repair/verdicts/" + m.toLowerCase().replace("_", "-") + "/"
                                 + e.toLowerCase().replace("_", "-") + ".html";
         }
 
-        private static final Map<String, String> STATE_NAMES = Map.ofEntries(
-                        Map.entry("AL", "Alabama"), Map.entry("AK", "Alaska"), Map.entry("AZ", "Arizona"),
-                        Map.entry("AR", "Arkansas"),
-                        Map.entry("CA", "California"), Map.entry("CO", "Colorado"), Map.entry("CT", "Connecticut"),
-                        Map.entry("DE", "Delaware"), Map.entry("FL", "Florida"), Map.entry("GA", "Georgia"),
-                        Map.entry("HI", "Hawaii"),
-                        Map.entry("ID", "Idaho"), Map.entry("IL", "Illinois"), Map.entry("IN", "Indiana"),
-                        Map.entry("IA", "Iowa"),
-                        Map.entry("KS", "Kansas"), Map.entry("KY", "Kentucky"), Map.entry("LA", "Louisiana"),
-                        Map.entry("ME", "Maine"),
-                        Map.entry("MD", "Maryland"), Map.entry("MA", "Massachusetts"), Map.entry("MI", "Michigan"),
-                        Map.entry("MN", "Minnesota"), Map.entry("MS", "Mississippi"), Map.entry("MO", "Missouri"),
-                        Map.entry("MT", "Montana"), Map.entry("NE", "Nebraska"), Map.entry("NV", "Nevada"),
-                        Map.entry("NH", "New Hampshire"), Map.entry("NJ", "New Jersey"), Map.entry("NM", "New Mexico"),
-                        Map.entry("NY", "New York"), Map.entry("NC", "North Carolina"), Map.entry("ND", "North Dakota"),
-                        Map.entry("OH", "Ohio"), Map.entry("OK", "Oklahoma"), Map.entry("OR", "Oregon"),
-                        Map.entry("PA", "Pennsylvania"), Map.entry("RI", "Rhode Island"),
-                        Map.entry("SC", "South Carolina"),
-                        Map.entry("SD", "South Dakota"), Map.entry("TN", "Tennessee"), Map.entry("TX", "Texas"),
-                        Map.entry("UT", "Utah"), Map.entry("VT", "Vermont"), Map.entry("VA", "Virginia"),
-                        Map.entry("WA", "Washington"), Map.entry("WV", "West Virginia"), Map.entry("WI", "Wisconsin"),
-                        Map.entry("WY", "Wyoming"), Map.entry("DC", "District of Columbia"));
-
-        private void generateStateHubPages(List<String> codes, String outputBasePath) throws IOException {
-                Map<String, List<String>> byState = new HashMap<>();
-                for (String c : codes) {
-                        String s = extractStateCode(c);
-                        if (s != null)
-                                byState.computeIfAbsent(s, k -> new ArrayList<>()).add(c);
-                }
-                for (var entry : byState.entrySet()) {
-                        String stateCode = entry.getKey();
-                        String fullStateName = STATE_NAMES.getOrDefault(stateCode, stateCode);
-                        String url = "https://lifeverdict.com/home-repair/verdicts/states/" + stateCode.toLowerCase()
-                                        + ".html";
+        private void generateStateHubPages(RegionIndex regions, Set<String> states, String outputBasePath,
+                        GenerationManifest manifest, PageDependencyGraph graph, String dataVersion) throws IOException {
+                String templateHash = GenerationManifest.templateHash(TEMPLATE_ROOT, STATE_HUB_TEMPLATE);
+                for (String stateCode : states) {
+                        List<RegionIndex.Metro> metros = regions.metrosInState(stateCode);
+                        if (metros.isEmpty()) {
+                                continue;
+                        }
+                        String fullStateName = RegionIndex.stateName(stateCode);
+                        String url = buildStateHubUrl(stateCode);
 
                         List<StateHubPage.CityData> cities = new ArrayList<>();
-                        for (String cityCode : entry.getValue()) {
+                        for (RegionIndex.Metro metro : metros) {
                                 List<InternalLinkBuilder.InternalLink> links = new ArrayList<>();
                                 for (String era : ALL_ERAS)
                                         links.add(new InternalLinkBuilder.InternalLink(TextUtil.formatEraText(era),
-                                                        buildCanonicalUrl(cityCode, era)
+                                                        buildCanonicalUrl(metro.code(), era)
                                                                         .replace("https://lifeverdict.com", "")));
-                                cities.add(new StateHubPage.CityData(TextUtil.formatMetroName(cityCode), links));
+                                cities.add(new StateHubPage.CityData(metro.name(), links));
                         }
 
                         String breadcrumbSchema = String.format(
@@ -433,22 +683,40 @@ public class StaticPageGeneratorService {
                         StateHubPage page = new StateHubPage(stateCode, fullStateName, url, breadcrumbSchema, cities);
 
                         StringOutput output = new StringOutput();
-                        templateEngine.render("seo/static-state-hub.jte", Collections.singletonMap("page", page),
+                        templateEngine.render(STATE_HUB_TEMPLATE, Collections.singletonMap("page", page),
                                         output);
                         Path path = Paths.get(outputBasePath.replace("verdicts", "verdicts/states"),
                                         stateCode.toLowerCase() + ".html");
-                        Files.createDirectories(path.getParent());
-                        Files.writeString(path, output.toString());
+                        manifest.write(sitePath(url), path, output.toString(), dataVersion, templateHash);
+                        graph.record(sitePath(url), Set.of(PageDependencyGraph.state(stateCode)));
+                }
+        }
+
+        private record VerdictPage(String metroCode, String era) implements GenerationScheduler.Task {
+
+                @Override
+                public String sitePath() {
+                        return StaticPageGeneratorService.sitePath(buildCanonicalUrl(metroCode, era));
                 }
         }
 
-        private Set<String> getAllStates(List<String> codes) {
-                Set<String> states = new HashSet<>();
-                for (String m : codes) {
-                        String s = extractStateCode(m);
-                        if (s != null)
-                                states.add(s);
+        /**
+         * Outcome of a targeted regeneration.
+         *
+         * @param changedEntities data entities changed since the previous run, null
+         *                        when every page was generated (no recorded graph)
+         * @param urls            every current page URL (sitemap input), plus ERROR entries
+         * @param rebuilt         site paths of the pages rendered again
+         * @param removed         site paths of pages whose metro no longer exists
+         * @param cancelled       stopped before every stale page was rebuilt
+         */
+        public record Regeneration(String previousVersion, String dataVersion, Set<String> changedEntities,
+                        List<String> urls, List<String> rebuilt, List<String> removed, boolean cancelled) {
+
+                /** Whether the L1 page of the metro/era (and so its L2 pages) was rebuilt. */
+                public boolean affects(String metroCode, String era) {
+                        return rebuilt.contains("/home-repair/verdicts/" + metroCode.toLowerCase().replace("_", "-")
+                                        + "/" + era.toLowerCase().replace("_", "-") + ".html");
                 }
-                return states;
         }
 }
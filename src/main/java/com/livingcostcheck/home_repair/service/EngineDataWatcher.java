@@ -0,0 +1,114 @@
+package com.livingcostcheck.home_repair.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads the engine data when a file in {@code app.engine.data-dir} changes.
+ *
+ * Events are debounced (editors and deploy tools write in several steps), then
+ * the new snapshot is built on this thread while verdicts keep using the current
+ * one. A failed reload is logged and the current snapshot stays active.
+ * Disabled when no data directory is configured.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EngineDataWatcher {
+
+    private static final long DEBOUNCE_MILLIS = 500;
+
+    private final VerdictEngineService verdictEngineService;
+
+    @Value("${app.engine.data-dir:}")
+    private String dataDir;
+
+    private WatchService watchService;
+    private Thread thread;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (dataDir == null || dataDir.isBlank()) {
+            return;
+        }
+        Path dir = Path.of(dataDir);
+        if (!Files.isDirectory(dir)) {
+            log.warn("Engine data dir {} does not exist, hot reload disabled", dir);
+            return;
+        }
+
+        watchService = FileSystems.getDefault().newWatchService();
+        dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        thread = new Thread(this::watch, "engine-data-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Watching engine data dir {}", dir.toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean relevant = drain(key);
+
+                // Wait for the writes to settle before reading
+                while ((key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= drain(key);
+                }
+
+                if (relevant) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Shutdown
+        }
+    }
+
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || VerdictEngineService.DATA_FILES.contains(String.valueOf(event.context()))) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    private void reload() {
+        try {
+            var data = verdictEngineService.reload();
+            log.info("Engine data reloaded from {} (version {})", dataDir, data.getVersion());
+        } catch (Exception e) {
+            log.error("Engine data reload failed, keeping version {}: {}",
+                    verdictEngineService.getDataVersion(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.livingcostcheck.home_repair.service;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.BaseCostItem;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.ContextBriefing;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.RiskAdjustedItem;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.StrategyEligibility;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.StrategyType;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.UserContext;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.Verdict;
+import com.livingcostcheck.home_repair.service.engine.EngineDataSnapshot;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A verdict together with the pipeline stages it was computed from, so a
+ * what-if ({@link VerdictEngineService#whatIf}) reruns only the stages the
+ * changed input invalidates:
+ * <ul>
+ * <li>budget: Phase 3 only</li>
+ * <li>relationship: Step 5 onward (from Step 4 when the user gave repair
+ * history, which Step 4 applies to owner-occupants only)</li>
+ * <li>sqft: Step 2 onward (the Step 0 candidates are kept)</li>
+ * </ul>
+ *
+ * Stages are shared between a staged verdict and its what-ifs: read-only. The
+ * verdict itself has its own plan lists and briefing.
+ */
+public final class StagedVerdict {
+
+    /**
+     * Pipeline stages, in order; {@link #getRecomputedFrom()} names the first one
+     * a what-if had to run again.
+     */
+    public enum Stage {
+        ELIGIBILITY, CANDIDATES, COSTING, RISK_FILTER, STRATEGY, DECISION
+    }
+
+    final EngineDataSnapshot data;
+    final UserContext context;
+    final List<StrategyEligibility> eligibilities;
+    final ContextBriefing briefing;
+    // Step 0 and Steps 2-3, null when no strategy is eligible
+    final List<BaseCostItem> candidates;
+    final List<BaseCostItem> costedItems;
+    // Step 4
+    final List<String> exclusionNotes;
+    final List<RiskAdjustedItem> riskAdjustedItems;
+    // Step 5
+    final StrategyEligibility chosenEligibility;
+    final VerdictEngineService.StrategyPlans plans;
+    // 2010+ benchmark totals per strategy at this scale (comparison data), filled as needed
+    final Map<StrategyType, Double> modernCosts;
+
+    private final Verdict verdict;
+    private final Stage recomputedFrom;
+
+    StagedVerdict(EngineDataSnapshot data, UserContext context, List<StrategyEligibility> eligibilities,
+            ContextBriefing briefing, List<BaseCostItem> candidates, List<BaseCostItem> costedItems,
+            List<String> exclusionNotes, List<RiskAdjustedItem> riskAdjustedItems,
+            StrategyEligibility chosenEligibility, VerdictEngineService.StrategyPlans plans,
+            Map<StrategyType, Double> modernCosts, Verdict verdict, Stage recomputedFrom) {
+        this.data = data;
+        this.context = context;
+        this.eligibilities = eligibilities;
+        this.briefing = briefing;
+        this.candidates = candidates;
+        this.costedItems = costedItems;
+        this.exclusionNotes = exclusionNotes;
+        this.riskAdjustedItems = riskAdjustedItems;
+        this.chosenEligibility = chosenEligibility;
+        this.plans = plans;
+        this.modernCosts = modernCosts;
+        this.verdict = verdict;
+        this.recomputedFrom = recomputedFrom;
+    }
+
+    public Verdict getVerdict() {
+        return verdict;
+    }
+
+    public UserContext getContext() {
+        return context;
+    }
+
+    /** Engine data version the stages were computed from. */
+    public String getDataVersion() {
+        return data.getVersion();
+    }
+
+    public Stage getRecomputedFrom() {
+        return recomputedFrom;
+    }
+}
@@ -0,0 +1,73 @@
+package com.livingcostcheck.home_repair.service;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.UserContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Staged verdicts ({@link StagedVerdict}) of recent result page what-ifs, per
+ * verdict id, least recently used evicted first.
+ *
+ * A staged verdict holds the engine data snapshot it was computed from (with the
+ * snapshot's costing cache and verdict cube), so the cache is cleared whenever the
+ * data is reloaded instead of keeping old snapshots alive until their entries are
+ * used again.
+ */
+@Component
+public class StagedVerdictCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private final VerdictEngineService verdictEngineService;
+    private final Map<UUID, StagedVerdict> staged;
+
+    @Autowired
+    public StagedVerdictCache(VerdictEngineService verdictEngineService,
+            @Value("${app.engine.staged-verdicts.max-entries:" + DEFAULT_MAX_ENTRIES + "}") int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.verdictEngineService = verdictEngineService;
+        this.staged = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, StagedVerdict> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        verdictEngineService.onReload(data -> staged.clear());
+    }
+
+    /**
+     * Staged verdict of the id on the current engine data, staging the loaded
+     * context on a miss; empty when the loader finds no context (unknown verdict).
+     */
+    public Optional<StagedVerdict> get(UUID id, Function<UUID, Optional<UserContext>> contextLoader) {
+        StagedVerdict base = staged.get(id);
+        if (base != null && base.getDataVersion().equals(verdictEngineService.getDataVersion())) {
+            return Optional.of(base);
+        }
+        Optional<UserContext> context = contextLoader.apply(id);
+        if (context.isEmpty()) {
+            return Optional.empty();
+        }
+        StagedVerdict restaged = verdictEngineService.stageVerdict(context.get());
+        staged.put(id, restaged);
+        // Staged on a snapshot a concurrent reload just replaced: do not keep it
+        if (!restaged.getDataVersion().equals(verdictEngineService.getDataVersion())) {
+            staged.remove(id, restaged);
+        }
+        return Optional.of(restaged);
+    }
+
+    public int size() {
+        return staged.size();
+    }
+}
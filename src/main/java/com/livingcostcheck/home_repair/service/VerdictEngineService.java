@@ -5,15 +5,38 @@ import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping.*;
 import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs;
 import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.*;
 import com.livingcostcheck.home_repair.service.dto.verdict.LifespanData;
+import com.livingcostcheck.home_repair.service.StagedVerdict.Stage;
+import com.livingcostcheck.home_repair.service.engine.CostingCache;
+import com.livingcostcheck.home_repair.service.engine.DataDependencies;
+import com.livingcostcheck.home_repair.service.engine.EngineDataBinary;
+import com.livingcostcheck.home_repair.service.engine.EngineDataSnapshot;
+import com.livingcostcheck.home_repair.service.engine.ModernBaselineTable;
+import com.livingcostcheck.home_repair.service.engine.RegionIndex;
+import com.livingcostcheck.home_repair.service.engine.RiskDecisionTable;
+import com.livingcostcheck.home_repair.service.engine.UnitCostMatrix;
+import com.livingcostcheck.home_repair.service.engine.VerdictCube;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,44 +47,456 @@ public class VerdictEngineService {
     private final ResourceLoader resourceLoader;
     private final ObjectMapper objectMapper;
 
-    private MetroMasterData metroMasterData;
-    private RiskFactorsData riskFactorsData;
-    private CostLibraryData costLibraryData;
-    private LifespanData lifespanData;
+    /**
+     * Engine data files, in digest order. Each is read from the external data
+     * directory when present there, otherwise from the classpath.
+     */
+    public static final List<String> DATA_FILES = List.of(
+            "2026_US_Metro_Master_Data.json",
+            "risk_factors_by_year.json",
+            "2026_Integrated_Construction_Cost_Library.json",
+            "item_lifespan_db.json");
+
+    // Optional override directory for DATA_FILES (hot-reloadable, see EngineDataWatcher)
+    @Value("${app.engine.data-dir:}")
+    private String dataDir;
+
+    // Memory budget of the benchmark verdict cube (0 = no cube, always compute)
+    @Value("${app.engine.verdict-cube.max-bytes:" + VerdictCube.DEFAULT_MAX_BYTES + "}")
+    private long verdictCubeMaxBytes = VerdictCube.DEFAULT_MAX_BYTES;
+
+    // Current data generation (raw data plus derived tables and caches). Each verdict
+    // reads it once, so a reload never mixes generations within one verdict.
+    private final AtomicReference<EngineDataSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong snapshotSequence = new AtomicLong();
+    private final List<Consumer<EngineDataSnapshot>> reloadListeners = new CopyOnWriteArrayList<>();
 
     public MetroMasterData getMetroMasterData() {
-        return metroMasterData;
+        return currentData().getMetroMasterData();
+    }
+
+    /** States, metros per state, names and slugs of the current metro data. */
+    public RegionIndex getRegionIndex() {
+        return currentData().getRegionIndex();
+    }
+
+    public CostingCache.Stats getCostingCacheStats() {
+        return currentData().getCostingCache().stats();
+    }
+
+    /**
+     * Stats of the current snapshot's verdict cube, or null until a benchmark
+     * verdict has been asked for.
+     */
+    public VerdictCube.Stats getVerdictCubeStats() {
+        VerdictCube cube = currentData().peekVerdictCube();
+        return cube != null ? cube.stats() : null;
+    }
+
+    public String getDataVersion() {
+        return currentData().getVersion();
+    }
+
+    /**
+     * The snapshot verdicts are currently generated from.
+     */
+    public EngineDataSnapshot currentData() {
+        EngineDataSnapshot data = snapshot.get();
+        if (data == null) {
+            throw new IllegalStateException("Engine data not loaded");
+        }
+        return data;
+    }
+
+    /**
+     * Data entities (see DataDependencies) a metro-average verdict for the
+     * metro/era reads from the current snapshot: the metro, the era's risk
+     * factors, every step0 candidate with its lifespan entry, and the same for
+     * the 2010+ baseline the comparison data is computed from.
+     */
+    public Set<String> dataDependencies(String metroCode, String era) {
+        EngineDataSnapshot data = currentData();
+        Set<String> entities = new TreeSet<>();
+        entities.add(DataDependencies.metro(metroCode));
+        for (String readEra : "2010_PRESENT".equals(era) ? List.of(era) : List.of(era, "2010_PRESENT")) {
+            entities.add(DataDependencies.era(readEra));
+            UserContext context = UserContext.builder().metroCode(metroCode).era(readEra).build();
+            for (BaseCostItem candidate : step0_candidateGenerator(data, context)) {
+                entities.add(DataDependencies.cost(candidate.getItemCode()));
+                String subsystem = data.getRiskDecisionTable()
+                        .rule(candidate.getItemCode(), candidate.getCategory()).getSubsystem();
+                if (subsystem != null) {
+                    entities.add(DataDependencies.lifespan(subsystem));
+                }
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * Fingerprints of the data entities in the current snapshot.
+     */
+    public Map<String, String> dataFingerprints() {
+        return DataDependencies.fingerprints(currentData());
     }
 
     @PostConstruct
     public void loadData() {
         try {
-            metroMasterData = loadJson("classpath:data/2026_US_Metro_Master_Data.json", MetroMasterData.class);
-            riskFactorsData = loadJson("classpath:data/risk_factors_by_year.json", RiskFactorsData.class);
-            costLibraryData = loadJson("classpath:data/2026_Integrated_Construction_Cost_Library.json",
-                    CostLibraryData.class);
-            lifespanData = loadJson("classpath:data/item_lifespan_db.json", LifespanData.class);
-            log.info("VerdictEngine Data Loaded Successfully.");
+            reload();
         } catch (Exception e) {
             log.error("Failed to load VerdictEngine Data", e);
             throw new RuntimeException("Engine Data Load Failure", e);
         }
     }
 
-    private <T> T loadJson(String path, Class<T> clazz) throws IOException {
-        Resource resource = resourceLoader.getResource(path);
-        return objectMapper.readValue(resource.getInputStream(), clazz);
+    /**
+     * Reads, validates and compiles the data files into a new snapshot and swaps it
+     * in. Verdicts already running finish on the snapshot they started with.
+     * Unchanged content (same digest) keeps the current snapshot and its warm caches.
+     *
+     * @throws IOException           when a data file cannot be read or parsed
+     * @throws IllegalStateException when the data fails validation
+     *                               (the current snapshot stays active in both cases)
+     */
+    public synchronized EngineDataSnapshot reload() throws IOException {
+        List<byte[]> sources = new ArrayList<>(DATA_FILES.size());
+        List<String> origins = new ArrayList<>(DATA_FILES.size());
+        for (String fileName : DATA_FILES) {
+            Path external = externalDataFile(fileName);
+            if (external != null) {
+                sources.add(Files.readAllBytes(external));
+                origins.add(external.toString());
+            } else {
+                try (InputStream in = resourceLoader.getResource("classpath:data/" + fileName).getInputStream()) {
+                    sources.add(in.readAllBytes());
+                }
+                origins.add("classpath:data/" + fileName);
+            }
+        }
+
+        String version = EngineDataSnapshot.digest(sources);
+        EngineDataSnapshot current = snapshot.get();
+        if (current != null && current.getVersion().equals(version)) {
+            log.info("VerdictEngine data unchanged (version {}), keeping current snapshot", version);
+            return current;
+        }
+
+        // Decode the compiled form when it matches the JSON content, parse the JSON otherwise
+        String source = String.join(", ", origins);
+        long decodeStart = System.nanoTime();
+        EngineDataBinary.Contents contents = loadCompiled(version);
+        if (contents != null) {
+            source += " (compiled " + EngineDataBinary.FILE_NAME + ")";
+        } else {
+            contents = new EngineDataBinary.Contents(version,
+                    objectMapper.readValue(sources.get(0), MetroMasterData.class),
+                    objectMapper.readValue(sources.get(1), RiskFactorsData.class),
+                    objectMapper.readValue(sources.get(2), CostLibraryData.class),
+                    objectMapper.readValue(sources.get(3), LifespanData.class));
+        }
+        long decodeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - decodeStart);
+
+        EngineDataSnapshot loaded = EngineDataSnapshot.build(version, snapshotSequence.incrementAndGet(),
+                source, contents.metroMasterData(), contents.riskFactorsData(),
+                contents.costLibraryData(), contents.lifespanData(),
+                data -> ModernBaselineTable.compute(data.getMetroMasterData().getData().keySet(),
+                        (metroCode, strategyType) -> computeModernBenchmarkCost(data, metroCode, null,
+                                strategyType)));
+        snapshot.set(loaded);
+
+        log.info(
+                "VerdictEngine Data Loaded Successfully. (version {} #{}, read in {} ms from {}, {} item rules compiled, {}x{} unit cost matrix, {} modern baselines, {} states)",
+                loaded.getVersion(), loaded.getSequence(), decodeMillis, loaded.getSource(),
+                loaded.getRiskDecisionTable().size(),
+                loaded.getUnitCostMatrix().metroCount(), loaded.getUnitCostMatrix().itemCount(),
+                loaded.getModernBaselineTable().size(), loaded.getRegionIndex().states().size());
+        reloadListeners.forEach(listener -> listener.accept(loaded));
+        return loaded;
+    }
+
+    /**
+     * Called with each new snapshot once it is swapped in (not when a reload finds
+     * the data unchanged), e.g. to drop state computed from the previous one.
+     */
+    public void onReload(Consumer<EngineDataSnapshot> listener) {
+        reloadListeners.add(listener);
+    }
+
+    /**
+     * Compiled engine data (see EngineDataCompiler) if present and built from the
+     * given content version; memory-mapped when the classpath entry is a plain file.
+     */
+    private EngineDataBinary.Contents loadCompiled(String version) {
+        Resource resource = resourceLoader.getResource("classpath:data/" + EngineDataBinary.FILE_NAME);
+        if (!resource.exists()) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer;
+            if (resource.isFile()) {
+                buffer = EngineDataBinary.map(resource.getFile().toPath());
+            } else {
+                try (InputStream in = resource.getInputStream()) {
+                    buffer = ByteBuffer.wrap(in.readAllBytes());
+                }
+            }
+
+            String compiledVersion = EngineDataBinary.version(buffer);
+            if (!compiledVersion.equals(version)) {
+                log.warn("Compiled engine data is stale ({} != data version {}), parsing JSON. Run compileEngineData.",
+                        compiledVersion, version);
+                return null;
+            }
+            return EngineDataBinary.read(buffer);
+        } catch (IOException | IllegalStateException e) {
+            log.warn("Compiled engine data unusable, parsing JSON: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Path externalDataFile(String fileName) {
+        if (dataDir == null || dataDir.isBlank()) {
+            return null;
+        }
+        Path file = Path.of(dataDir, fileName);
+        return Files.isRegularFile(file) ? file : null;
     }
 
     public Verdict generateVerdict(UserContext context) {
+        EngineDataSnapshot data = currentData();
+
         // === PHASE 1: STRATEGY ELIGIBILITY CHECK (NEW) ===
         // Check eligibility BEFORE cost calculation to prevent $0 verdicts
+        List<StrategyEligibility> allEligibilities = evaluateEligibilities(data, context);
+
+        return generateVerdict(data, context, allEligibilities,
+                isAnyEligible(allEligibilities) ? costedItems(data, context) : null,
+                () -> buildContextBriefing(data, context), null);
+    }
 
-        List<StrategyEligibility> allEligibilities = Arrays.asList(
-                evaluateEligibility(StrategyType.SAFETY_FLIP, context),
-                evaluateEligibility(StrategyType.STANDARD_LIVING, context),
-                evaluateEligibility(StrategyType.FOREVER_HOME, context));
+    /**
+     * Benchmark-mode verdict (see {@link VerdictCube#context}) for the metro, era
+     * and relationship (null for none), read from the current snapshot's verdict
+     * cube, which is built on the first call. Each call gets its own copy. Cells
+     * the cube does not hold are computed.
+     */
+    public Verdict benchmarkVerdict(String metroCode, String era, RelationshipToHouse relationship) {
+        EngineDataSnapshot data = currentData();
+        Verdict verdict = verdictCube(data).get(metroCode, era, relationship);
+        return verdict != null ? verdict : generateVerdict(VerdictCube.context(metroCode, era, relationship));
+    }
+
+    private VerdictCube verdictCube(EngineDataSnapshot data) {
+        return data.getVerdictCube(d -> {
+            List<String> metroCodes = List.copyOf(d.getMetroMasterData().getData().keySet());
+            List<String> eras = List.copyOf(d.getRiskFactorsData().getEras().keySet());
+            if (verdictCubeMaxBytes <= 0) {
+                return VerdictCube.build(List.of(), eras, 0, contexts -> List.of());
+            }
+            VerdictCube cube = VerdictCube.build(metroCodes, eras, verdictCubeMaxBytes,
+                    contexts -> generateVerdicts(d, contexts));
+            VerdictCube.Stats stats = cube.stats();
+            if (stats.retained()) {
+                log.info("Verdict cube built (version {}): {}/{} cells in {} ms, ~{} KB",
+                        d.getVersion(), stats.builtCells(), stats.cells(), stats.buildMillis(),
+                        stats.footprintBytes() / 1024);
+            } else {
+                log.warn("Verdict cube over budget (version {}): ~{} KB > {} KB, computing benchmark verdicts per request",
+                        d.getVersion(), stats.footprintBytes() / 1024, stats.maxBytes() / 1024);
+            }
+            return cube;
+        });
+    }
 
+    /**
+     * Batch entry point: verdicts for many contexts, in input order.
+     *
+     * Contexts are grouped by their shared prefixes so eligibility and the context
+     * briefing (metro, era) and Steps 0-3 (metro, era, scale) run once per group.
+     * Steps 4-5 run once per distinct user profile within a group (everything but
+     * the budget), so verdicts of one batch may share plan items: treat them as
+     * read-only.
+     * Groups are evaluated in parallel. Each verdict is identical to
+     * {@link #generateVerdict(UserContext)} for the same context.
+     */
+    public List<Verdict> generateVerdicts(List<UserContext> contexts) {
+        return generateVerdicts(currentData(), contexts);
+    }
+
+    private List<Verdict> generateVerdicts(EngineDataSnapshot data, List<UserContext> contexts) {
+        Verdict[] verdicts = new Verdict[contexts.size()];
+
+        // Group by costing key (metro, era, normalized scale), keeping input indexes
+        Map<CostingCache.Key, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < contexts.size(); i++) {
+            groups.computeIfAbsent(CostingCache.Key.of(contexts.get(i)), k -> new ArrayList<>()).add(i);
+        }
+
+        // Eligibility and briefing only depend on metro and era: evaluate them once per pair
+        Map<List<String>, List<StrategyEligibility>> eligibilities = new HashMap<>();
+        groups.forEach((key, indexes) -> eligibilities.computeIfAbsent(
+                Arrays.asList(key.metroCode(), key.era()),
+                k -> evaluateEligibilities(data, contexts.get(indexes.get(0)))));
+        Map<List<String>, VerdictDTOs.ContextBriefing> briefings = new ConcurrentHashMap<>();
+
+        groups.entrySet().parallelStream().forEach(group -> {
+            List<Integer> indexes = group.getValue();
+            UserContext first = contexts.get(indexes.get(0));
+            List<StrategyEligibility> allEligibilities = eligibilities
+                    .get(Arrays.asList(group.getKey().metroCode(), group.getKey().era()));
+            List<BaseCostItem> costedItems = isAnyEligible(allEligibilities) ? costedItems(data, first) : null;
+            Map<PlanKey, StrategyPlans> plans = new HashMap<>();
+
+            for (int index : indexes) {
+                // Each verdict gets its own copy of the shared briefing
+                verdicts[index] = generateVerdict(data, contexts.get(index), allEligibilities, costedItems,
+                        () -> briefings.computeIfAbsent(
+                                Arrays.asList(group.getKey().metroCode(), group.getKey().era()),
+                                k -> buildContextBriefing(data, first)).toBuilder().build(),
+                        plans);
+            }
+        });
+
+        return Arrays.asList(verdicts);
+    }
+
+    /**
+     * Single verdict with its pipeline stages kept for what-ifs (see
+     * {@link StagedVerdict}). The verdict equals {@link #generateVerdict(UserContext)}
+     * for the same context.
+     */
+    public StagedVerdict stageVerdict(UserContext context) {
+        return stage(currentData(), context, null, Stage.ELIGIBILITY);
+    }
+
+    /**
+     * The staged verdict's context with a new budget, relationship and/or sqft (null
+     * keeps the current value, sqft <= 0 means metro average), rerunning only the
+     * stages the change invalidates. Everything is recomputed when the engine data
+     * changed since the base was staged.
+     */
+    public StagedVerdict whatIf(StagedVerdict base, Double budget, RelationshipToHouse relationship, Integer sqft) {
+        UserContext context = base.context.toBuilder()
+                .budget(budget != null ? budget : base.context.getBudget())
+                .relationship(relationship != null ? relationship : base.context.getRelationship())
+                .sqft(sqft != null ? sqft : base.context.getSqft())
+                .build();
+
+        EngineDataSnapshot data = currentData();
+        Stage from;
+        if (data != base.data) {
+            return stage(data, context, null, Stage.ELIGIBILITY);
+        } else if (!CostingCache.Key.of(context).equals(CostingCache.Key.of(base.context))) {
+            from = Stage.COSTING;
+        } else if (context.getRelationship() != base.context.getRelationship()) {
+            // Step 4 only reads the relationship to apply repair history for owner-occupants
+            boolean repairHistory = (context.getCoreSystemHistory() != null && !context.getCoreSystemHistory().isEmpty())
+                    || (context.getLivingSpaceHistory() != null && !context.getLivingSpaceHistory().isEmpty());
+            from = repairHistory ? Stage.RISK_FILTER : Stage.STRATEGY;
+        } else {
+            from = Stage.DECISION;
+        }
+        return stage(data, context, base, from);
+    }
+
+    /**
+     * Runs the pipeline from the given stage; earlier stages are taken from the base.
+     */
+    private StagedVerdict stage(EngineDataSnapshot data, UserContext context, StagedVerdict base, Stage from) {
+        boolean fresh = from == Stage.ELIGIBILITY;
+        List<StrategyEligibility> eligibilities = fresh ? evaluateEligibilities(data, context) : base.eligibilities;
+        boolean eligible = isAnyEligible(eligibilities);
+        VerdictDTOs.ContextBriefing briefing = fresh ? (eligible ? buildContextBriefing(data, context) : null)
+                : base.briefing;
+
+        // Steps 0-3
+        List<BaseCostItem> candidates = from.compareTo(Stage.CANDIDATES) <= 0
+                ? (eligible ? List.copyOf(step0_candidateGenerator(data, context)) : null)
+                : base.candidates;
+        boolean costing = from.compareTo(Stage.COSTING) <= 0;
+        List<BaseCostItem> costedItems = costing
+                ? (candidates != null ? data.getCostingCache().get(context, () -> step3_preliminaryCosting(data,
+                        candidates, step2_autoScale(data, context), context.getMetroCode())) : null)
+                : base.costedItems;
+        Map<StrategyType, Double> modernCosts = costing ? new ConcurrentHashMap<>() : base.modernCosts;
+        if (costedItems == null) {
+            return new StagedVerdict(data, context, eligibilities, briefing, candidates, null, null, null, null, null,
+                    modernCosts, buildInsufficientDataVerdict(eligibilities, context), from);
+        }
+
+        // Step 4
+        List<String> exclusionNotes = base != null ? base.exclusionNotes : null;
+        List<RiskAdjustedItem> riskAdjustedItems = base != null ? base.riskAdjustedItems : null;
+        if (from.compareTo(Stage.RISK_FILTER) <= 0) {
+            List<String> notes = new ArrayList<>();
+            riskAdjustedItems = List.copyOf(step4_riskFilter(data, costedItems, context, notes));
+            exclusionNotes = List.copyOf(notes);
+        }
+
+        // Step 5
+        StrategyEligibility chosenEligibility = base != null ? base.chosenEligibility : null;
+        StrategyPlans plans = base != null ? base.plans : null;
+        if (from.compareTo(Stage.STRATEGY) <= 0) {
+            chosenEligibility = selectBestEligibleStrategy(eligibilities, context);
+            log.info("Strategy Selected | chosen={} era={} metro={} relationship={}",
+                    chosenEligibility.getStrategyType(), context.getEra(),
+                    context.getMetroCode(), context.getRelationship());
+            plans = planOptions(context, eligibilities, chosenEligibility, riskAdjustedItems, exclusionNotes);
+        }
+
+        // Phase 3
+        Verdict verdict = decide(context, eligibilities, chosenEligibility, plans, costedItems.size(),
+                () -> briefing.toBuilder().build(),
+                strategyType -> modernCosts.computeIfAbsent(strategyType,
+                        type -> modernBenchmarkCost(data, context, type)),
+                true);
+        return new StagedVerdict(data, context, eligibilities, briefing, candidates, costedItems, exclusionNotes,
+                riskAdjustedItems, chosenEligibility, plans, modernCosts, verdict, from);
+    }
+
+    private List<StrategyEligibility> evaluateEligibilities(EngineDataSnapshot data, UserContext context) {
+        return Arrays.asList(
+                evaluateEligibility(data, StrategyType.SAFETY_FLIP, context),
+                evaluateEligibility(data, StrategyType.STANDARD_LIVING, context),
+                evaluateEligibility(data, StrategyType.FOREVER_HOME, context));
+    }
+
+    private boolean isAnyEligible(List<StrategyEligibility> eligibilities) {
+        return eligibilities.stream().anyMatch(StrategyEligibility::isEligible);
+    }
+
+    /**
+     * Step 4-5 inputs besides metro, era and scale: everything in the context except
+     * the budget (which only drives Phase 3).
+     */
+    private record PlanKey(RelationshipToHouse relationship, Boolean isFpePanel, Boolean isPolyB,
+            Boolean isAluminum, Boolean isChineseDrywall, List<String> coreSystemHistory,
+            List<String> livingSpaceHistory, List<String> history, String condition) {
+
+        static PlanKey of(UserContext context) {
+            return new PlanKey(context.getRelationship(), context.getIsFpePanel(), context.getIsPolyB(),
+                    context.getIsAluminum(), context.getIsChineseDrywall(), context.getCoreSystemHistory(),
+                    context.getLivingSpaceHistory(), context.getHistory(), context.getCondition());
+        }
+    }
+
+    /**
+     * Phase 2 output: Step 4 exclusions plus the chosen and SAFETY_FLIP options.
+     */
+    record StrategyPlans(List<String> exclusionNotes, StrategyOption chosenOption,
+            StrategyOption safetyOption) {
+    }
+
+    /**
+     * Phases 2-3 for one context, given its eligibilities and Steps 0-3 output
+     * (null when no strategy is eligible). With a plan memo (batch path), Phase 2
+     * is shared between contexts with the same {@link PlanKey}.
+     */
+    private Verdict generateVerdict(EngineDataSnapshot data, UserContext context,
+            List<StrategyEligibility> allEligibilities,
+            List<BaseCostItem> costedItems, Supplier<VerdictDTOs.ContextBriefing> contextBriefing,
+            Map<PlanKey, StrategyPlans> planMemo) {
         // Select best eligible strategy
         StrategyEligibility chosenEligibility = selectBestEligibleStrategy(allEligibilities, context);
 
@@ -75,36 +510,29 @@ public class VerdictEngineService {
                 context.getMetroCode(), context.getRelationship());
 
         // === PHASE 2: COST CALCULATION (Only for eligible strategy) ===
-        // Common Steps (0-2)
-        List<BaseCostItem> candidates = step0_candidateGenerator(context);
-        EstimatedScale scale = step2_autoScale(context);
-
-        // Optimization: Step 3 & 4 are strategy-agnostic - run them ONCE
-        List<BaseCostItem> costedItems = step3_preliminaryCosting(candidates, scale);
-
-        // Pass exclusionNotes list to be populated during filtering
-        List<String> exclusionNotes = new ArrayList<>();
-        List<RiskAdjustedItem> baseRiskAdjustedItems = step4_riskFilter(costedItems, context, exclusionNotes);
-
-        // Generate ONLY the chosen eligible strategy
-        StrategyOption chosenOption = generateStrategyOption(
-                chosenEligibility.getStrategyType(),
-                baseRiskAdjustedItems,
-                context);
-
-        // Also generate SAFETY_FLIP for minimum cost calculation (if different from
-        // chosen)
-        StrategyOption safetyOption = chosenOption;
-        if (chosenEligibility.getStrategyType() != StrategyType.SAFETY_FLIP) {
-            // Check if SAFETY_FLIP is eligible - if not, use chosen strategy as minimum
-            Optional<StrategyEligibility> safetyEligibility = allEligibilities.stream()
-                    .filter(e -> e.getStrategyType() == StrategyType.SAFETY_FLIP && e.isEligible())
-                    .findFirst();
+        StrategyEligibility chosen = chosenEligibility;
+        StrategyPlans plans = planMemo != null
+                ? planMemo.computeIfAbsent(PlanKey.of(context),
+                        k -> planStrategies(data, context, allEligibilities, chosen, costedItems))
+                : planStrategies(data, context, allEligibilities, chosen, costedItems);
+        return decide(context, allEligibilities, chosenEligibility, plans, costedItems.size(), contextBriefing,
+                strategyType -> modernBenchmarkCost(data, context, strategyType), planMemo != null);
+    }
 
-            if (safetyEligibility.isPresent()) {
-                safetyOption = generateStrategyOption(StrategyType.SAFETY_FLIP, baseRiskAdjustedItems, context);
-            }
-        }
+    /**
+     * Phase 3 (budget): tier, headline and the auto-downgrade to SAFETY_FLIP, given
+     * the Phase 2 plans. With shared plans (batch and staged paths), each verdict
+     * gets its own plan lists.
+     *
+     * @param modernCost 2010+ benchmark total of a strategy, for the comparison data
+     */
+    private Verdict decide(UserContext context, List<StrategyEligibility> allEligibilities,
+            StrategyEligibility chosenEligibility, StrategyPlans plans, int itemsAnalyzed,
+            Supplier<VerdictDTOs.ContextBriefing> contextBriefing, ToDoubleFunction<StrategyType> modernCost,
+            boolean sharedPlans) {
+        List<String> exclusionNotes = new ArrayList<>(plans.exclusionNotes());
+        StrategyOption chosenOption = plans.chosenOption();
+        StrategyOption safetyOption = plans.safetyOption();
 
         // === PHASE 3: VERDICT DETERMINATION ===
         // FIX: For LIVING users, use chosenOption to surface catastrophic promoted
@@ -196,6 +624,14 @@ public class VerdictEngineService {
         boolean isDealKiller = isDealKiller(context);
         String dealKillerMessage = getDealKillerMessage(context); // Now "Leverage Point" message
         SortedPlan plan = displayPlan; // Using displayPlan as plan
+        if (sharedPlans) {
+            // Shared Phase 2 output: give each verdict its own plan lists
+            plan = SortedPlan.builder()
+                    .mustDo(new ArrayList<>(displayPlan.getMustDo()))
+                    .shouldDo(new ArrayList<>(displayPlan.getShouldDo()))
+                    .skipForNow(new ArrayList<>(displayPlan.getSkipForNow()))
+                    .build();
+        }
 
         return Verdict.builder()
                 .tier(tier) // Correct variable
@@ -210,7 +646,7 @@ public class VerdictEngineService {
                 .costRange(costRange)
                 .costRangeLabel(costRangeLabel)
                 .primaryCostDriver(primaryDriver) // Correct variable
-                .itemsAnalyzed(candidates.size())
+                .itemsAnalyzed(itemsAnalyzed)
                 .exactCostEstimate(minRequired)
                 .mustDoExplanation(Collections.emptyList())
                 .optionalActions(Collections.emptyList())
@@ -218,12 +654,61 @@ public class VerdictEngineService {
                 .upgradeScenario(Collections.emptyList())
                 .isDealKiller(isDealKiller)
                 .dealKillerMessage(dealKillerMessage)
-                .contextBriefing(buildContextBriefing(context))
-                .comparisonData(calculateComparisonData(context, minRequired, chosenOption.getStrategyType()))
+                .contextBriefing(contextBriefing.get())
+                .comparisonData(comparisonData(context, minRequired, chosenOption.getStrategyType(), modernCost))
                 .build();
     }
 
-    private ComparisonData calculateComparisonData(UserContext context, double currentCost, StrategyType strategyType) {
+    private StrategyPlans planStrategies(EngineDataSnapshot data, UserContext context, List<StrategyEligibility> allEligibilities,
+            StrategyEligibility chosenEligibility, List<BaseCostItem> costedItems) {
+        // Steps 0-3 are strategy-agnostic and user-agnostic (resolved by the caller)
+        // Pass exclusionNotes list to be populated during filtering
+        List<String> exclusionNotes = new ArrayList<>();
+        List<RiskAdjustedItem> baseRiskAdjustedItems = step4_riskFilter(data, costedItems, context, exclusionNotes);
+        return planOptions(context, allEligibilities, chosenEligibility, baseRiskAdjustedItems, exclusionNotes);
+    }
+
+    /**
+     * Step 5 for the chosen strategy and the SAFETY_FLIP minimum, given the Step 4
+     * output (not modified).
+     */
+    private StrategyPlans planOptions(UserContext context, List<StrategyEligibility> allEligibilities,
+            StrategyEligibility chosenEligibility, List<RiskAdjustedItem> baseRiskAdjustedItems,
+            List<String> exclusionNotes) {
+        // Generate ONLY the chosen eligible strategy
+        StrategyOption chosenOption = generateStrategyOption(
+                chosenEligibility.getStrategyType(),
+                baseRiskAdjustedItems,
+                context);
+
+        // Also generate SAFETY_FLIP for minimum cost calculation (if different from
+        // chosen)
+        StrategyOption safetyOption = chosenOption;
+        if (chosenEligibility.getStrategyType() != StrategyType.SAFETY_FLIP) {
+            // Check if SAFETY_FLIP is eligible - if not, use chosen strategy as minimum
+            Optional<StrategyEligibility> safetyEligibility = allEligibilities.stream()
+                    .filter(e -> e.getStrategyType() == StrategyType.SAFETY_FLIP && e.isEligible())
+                    .findFirst();
+
+            if (safetyEligibility.isPresent()) {
+                // Financial risk promotions made for STANDARD_LIVING also count toward the
+                // safety minimum (catastrophic items stay must-do)
+                List<RiskAdjustedItem> safetyInputs = chosenEligibility.getStrategyType() == StrategyType.STANDARD_LIVING
+                        ? applyFinancialRiskPromotion(baseRiskAdjustedItems)
+                        : baseRiskAdjustedItems;
+                safetyOption = generateStrategyOption(StrategyType.SAFETY_FLIP, safetyInputs, context);
+            }
+        }
+
+        return new StrategyPlans(exclusionNotes, chosenOption, safetyOption);
+    }
+
+    ComparisonData calculateComparisonData(EngineDataSnapshot data, UserContext context, double currentCost, StrategyType strategyType) {
+        return comparisonData(context, currentCost, strategyType, type -> modernBenchmarkCost(data, context, type));
+    }
+
+    private ComparisonData comparisonData(UserContext context, double currentCost, StrategyType strategyType,
+            ToDoubleFunction<StrategyType> modernBenchmark) {
         try {
             if (context == null || "2010_PRESENT".equals(context.getEra())) {
                 return ComparisonData.builder()
@@ -234,31 +719,7 @@ public class VerdictEngineService {
                         .build();
             }
 
-            // 1. Create Modern Benchmark Context
-            UserContext benchmarkContext = UserContext.builder()
-                    .metroCode(context.getMetroCode())
-                    .era("2010_PRESENT")
-                    .sqft(context.getSqft())
-                    .budget(-1.0) // Benchmark mode
-                    .relationship(RelationshipToHouse.LIVING)
-                    .build();
-
-            // 2. Run simplified calculation (Step 0-4)
-            List<BaseCostItem> candidates = step0_candidateGenerator(benchmarkContext);
-            EstimatedScale scale = step2_autoScale(benchmarkContext);
-            List<BaseCostItem> costedItems = step3_preliminaryCosting(candidates, scale);
-
-            // Pass a fresh exclusion list for benchmark
-            List<RiskAdjustedItem> adjustedRange = step4_riskFilter(costedItems, benchmarkContext, new ArrayList<>());
-
-            // Use SAME strategy as user for apples-to-apples comparison
-            StrategyOption modernOption = generateStrategyOption(strategyType, adjustedRange,
-                    benchmarkContext);
-
-            if (modernOption == null)
-                return null;
-
-            double modernCost = modernOption.getTotalCost();
+            double modernCost = modernBenchmark.applyAsDouble(strategyType);
             double delta = currentCost - modernCost;
             double pct = modernCost > 0 ? (delta / modernCost) * 100 : 0;
 
@@ -274,6 +735,42 @@ public class VerdictEngineService {
         }
     }
 
+    /**
+     * 2010+ benchmark total of the strategy at the context's scale: precomputed for
+     * metro-average scale, computed on demand for custom sqft.
+     */
+    private double modernBenchmarkCost(EngineDataSnapshot data, UserContext context, StrategyType strategyType) {
+        boolean customScale = context.getSqft() != null && context.getSqft() > 0;
+        Double baseline = customScale ? null : data.getModernBaselineTable().get(context.getMetroCode(), strategyType);
+        return baseline != null
+                ? baseline
+                : computeModernBenchmarkCost(data, context.getMetroCode(), context.getSqft(), strategyType);
+    }
+
+    /**
+     * Total cost of the same strategy for a 2010+ home of the given size (benchmark
+     * mode, no forensic flags or history). Package-private for the baseline table tests.
+     */
+    double computeModernBenchmarkCost(EngineDataSnapshot data, String metroCode, Integer sqft, StrategyType strategyType) {
+        // 1. Create Modern Benchmark Context
+        UserContext benchmarkContext = UserContext.builder()
+                .metroCode(metroCode)
+                .era("2010_PRESENT")
+                .sqft(sqft)
+                .budget(-1.0) // Benchmark mode
+                .relationship(RelationshipToHouse.LIVING)
+                .build();
+
+        // 2. Run simplified calculation (Step 0-4)
+        List<BaseCostItem> costedItems = costedItems(data, benchmarkContext);
+
+        // Pass a fresh exclusion list for benchmark
+        List<RiskAdjustedItem> adjustedRange = step4_riskFilter(data, costedItems, benchmarkContext, new ArrayList<>());
+
+        // Use SAME strategy as user for apples-to-apples comparison
+        return generateStrategyOption(strategyType, adjustedRange, benchmarkContext).getTotalCost();
+    }
+
     private boolean isDealKiller(UserContext context) {
         return Boolean.TRUE.equals(context.getIsChineseDrywall()) ||
                 Boolean.TRUE.equals(context.getIsFpePanel()) ||
@@ -291,15 +788,21 @@ public class VerdictEngineService {
     }
 
     public VerdictDTOs.ContextBriefing getPrecalcBriefing(String metro, String era) {
+        // Same briefing as the benchmark verdicts (it only depends on metro and era)
+        EngineDataSnapshot data = currentData();
+        Verdict benchmark = verdictCube(data).get(metro, era, null);
+        if (benchmark != null && benchmark.getContextBriefing() != null) {
+            return benchmark.getContextBriefing(); // the cube hands out copies
+        }
         UserContext minimalContext = UserContext.builder()
                 .metroCode(metro)
                 .era(era)
                 .build();
-        return buildContextBriefing(minimalContext);
+        return buildContextBriefing(data, minimalContext);
     }
 
-    private VerdictDTOs.ContextBriefing buildContextBriefing(UserContext context) {
-        MetroCityData city = metroMasterData.getData().get(context.getMetroCode());
+    private VerdictDTOs.ContextBriefing buildContextBriefing(EngineDataSnapshot data, UserContext context) {
+        MetroCityData city = data.getMetroMasterData().getData().get(context.getMetroCode());
         String laborRateDesc = String.format("Local Labor: %.0f%% of National Avg", city.getLaborMult() * 100);
 
         // Era Feature Logic
@@ -390,14 +893,15 @@ public class VerdictEngineService {
      * This prevents strategies from executing cost calculations when data is
      * insufficient.
      */
-    private StrategyEligibility evaluateEligibility(StrategyType strategyType, UserContext context) {
+    private StrategyEligibility evaluateEligibility(EngineDataSnapshot data, StrategyType strategyType,
+            UserContext context) {
         switch (strategyType) {
             case SAFETY_FLIP:
-                return evaluateSafetyEligibility(context);
+                return evaluateSafetyEligibility(data, context);
             case STANDARD_LIVING:
-                return evaluateStandardEligibility(context);
+                return evaluateStandardEligibility(data, context);
             case FOREVER_HOME:
-                return evaluateForeverHomeEligibility(context);
+                return evaluateForeverHomeEligibility(data, context);
             default:
                 throw new IllegalArgumentException("Unknown strategy: " + strategyType);
         }
@@ -407,17 +911,17 @@ public class VerdictEngineService {
      * SAFETY_FLIP requires era-specific critical risk data.
      * This is the most strict strategy as it focuses on code-mandatory repairs.
      */
-    private StrategyEligibility evaluateSafetyEligibility(UserContext context) {
+    private StrategyEligibility evaluateSafetyEligibility(EngineDataSnapshot data, UserContext context) {
         List<String> missing = new ArrayList<>();
 
         // Check 1: Era risk data exists and has critical risks defined
-        EraData eraData = riskFactorsData.getEras().get(context.getEra());
+        EraData eraData = data.getRiskFactorsData().getEras().get(context.getEra());
         if (eraData == null || eraData.getCriticalRisks() == null || eraData.getCriticalRisks().isEmpty()) {
             missing.add("criticalRisks for era " + context.getEra());
         }
 
         // Check 2: Metro data exists for localization
-        if (!metroMasterData.getData().containsKey(context.getMetroCode())) {
+        if (!data.getMetroMasterData().getData().containsKey(context.getMetroCode())) {
             missing.add("metro localization data for " + context.getMetroCode());
         }
 
@@ -444,17 +948,17 @@ public class VerdictEngineService {
      * STANDARD_LIVING is more lenient - only needs cost library and metro data.
      * It can work without era-specific risk data by using general assumptions.
      */
-    private StrategyEligibility evaluateStandardEligibility(UserContext context) {
+    private StrategyEligibility evaluateStandardEligibility(EngineDataSnapshot data, UserContext context) {
         List<String> missing = new ArrayList<>();
 
         // Check 1: Cost library exists
-        if (costLibraryData == null || costLibraryData.getConstructionItemLibrary() == null
-                || costLibraryData.getConstructionItemLibrary().isEmpty()) {
+        if (data.getCostLibraryData() == null || data.getCostLibraryData().getConstructionItemLibrary() == null
+                || data.getCostLibraryData().getConstructionItemLibrary().isEmpty()) {
             missing.add("construction cost library");
         }
 
         // Check 2: Metro data exists
-        if (!metroMasterData.getData().containsKey(context.getMetroCode())) {
+        if (!data.getMetroMasterData().getData().containsKey(context.getMetroCode())) {
             missing.add("metro localization data for " + context.getMetroCode());
         }
 
@@ -478,9 +982,9 @@ public class VerdictEngineService {
      * FOREVER_HOME has same requirements as STANDARD_LIVING for now.
      * Future: May require additional data for premium recommendations.
      */
-    private StrategyEligibility evaluateForeverHomeEligibility(UserContext context) {
+    private StrategyEligibility evaluateForeverHomeEligibility(EngineDataSnapshot data, UserContext context) {
         // For now, FOREVER_HOME has the same requirements as STANDARD_LIVING
-        StrategyEligibility standardEligibility = evaluateStandardEligibility(context);
+        StrategyEligibility standardEligibility = evaluateStandardEligibility(data, context);
 
         return StrategyEligibility.builder()
                 .strategyType(StrategyType.FOREVER_HOME)
@@ -624,7 +1128,7 @@ public class VerdictEngineService {
     /**
      * Generate a single strategic option based on strategy type
      */
-    private StrategyOption generateStrategyOption(
+    StrategyOption generateStrategyOption(
             StrategyType strategyType,
             List<RiskAdjustedItem> riskAdjustedItems,
             UserContext context) {
@@ -751,8 +1255,21 @@ public class VerdictEngineService {
                 .build();
     }
 
+    /**
+     * Steps 0-3 for the context. The returned list is shared and immutable:
+     * downstream steps must build new items instead of mutating these.
+     */
+    private List<BaseCostItem> costedItems(EngineDataSnapshot data, UserContext context) {
+        return data.getCostingCache().get(context,
+                () -> step3_preliminaryCosting(data, step0_candidateGenerator(data, context), step2_autoScale(data, context),
+                        context.getMetroCode()));
+    }
+
+    // Pipeline stages below are package-private so the JMH benchmarks (src/jmh) can
+    // measure them in isolation.
+
     // --- STEP 0: Candidate Generator ---
-    private List<BaseCostItem> step0_candidateGenerator(UserContext context) {
+    List<BaseCostItem> step0_candidateGenerator(EngineDataSnapshot data, UserContext context) {
         List<BaseCostItem> candidates = new ArrayList<>();
 
         // 1. Add All Standard Library Items
@@ -812,8 +1329,8 @@ public class VerdictEngineService {
             excludedKeywords.add("ROOFING_ASPHALT");
         }
 
-        if (costLibraryData.getConstructionItemLibrary() != null) {
-            costLibraryData.getConstructionItemLibrary().forEach((category, items) -> {
+        if (data.getCostLibraryData().getConstructionItemLibrary() != null) {
+            data.getCostLibraryData().getConstructionItemLibrary().forEach((category, items) -> {
                 items.forEach((key, item) -> {
                     // FILTER: Check if itemCode contains any excluded keyword
                     boolean isExcluded = excludedKeywords.stream().anyMatch(key::contains);
@@ -835,11 +1352,11 @@ public class VerdictEngineService {
     }
 
     // --- STEP 1 & 2: Automated Scale & Localization ---
-    private EstimatedScale step2_autoScale(UserContext context) {
-        if (!metroMasterData.getData().containsKey(context.getMetroCode())) {
+    EstimatedScale step2_autoScale(EngineDataSnapshot data, UserContext context) {
+        if (!data.getMetroMasterData().getData().containsKey(context.getMetroCode())) {
             throw new IllegalArgumentException("Invalid Metro Code: " + context.getMetroCode());
         }
-        MetroCityData city = metroMasterData.getData().get(context.getMetroCode());
+        MetroCityData city = data.getMetroMasterData().getData().get(context.getMetroCode());
 
         // Use User Input if available, else fallback to Metro Avg
         double avgHouse = (context.getSqft() != null && context.getSqft() > 0)
@@ -875,154 +1392,38 @@ public class VerdictEngineService {
     }
 
     // --- STEP 3: Preliminary Costing ---
-    private List<BaseCostItem> step3_preliminaryCosting(List<BaseCostItem> candidates, EstimatedScale scale) {
-        List<BaseCostItem> results = new ArrayList<>();
+    // Unit rates come from the per-metro matrix compiled in loadData; only quantities
+    // are derived per request
+    List<BaseCostItem> step3_preliminaryCosting(EngineDataSnapshot data, List<BaseCostItem> candidates, EstimatedScale scale,
+            String metroCode) {
+        UnitCostMatrix unitCostMatrix = data.getUnitCostMatrix();
+        int metroId = unitCostMatrix.metroId(metroCode);
+        if (metroId < 0) {
+            throw new IllegalArgumentException("Incomplete localization data for metro: " + metroCode);
+        }
+
+        List<BaseCostItem> results = new ArrayList<>(candidates.size());
+        double[] cost = new double[5]; // material, labor, mobilization, disposal, subtotal
 
         for (BaseCostItem candidate : candidates) {
             ConstructionItem itemDef = (ConstructionItem) candidate.getRawData().get("itemDef");
+            int itemId = unitCostMatrix.itemId(candidate.getItemCode());
 
-            // Determine Quantity
-            double quantity = 0.0;
-            switch (itemDef.getMeasureUnit()) {
-                case "SQUARE":
-                    if (candidate.getItemCode().contains("ROOF")) {
-                        quantity = scale.getRoofingSquares();
-                    } else if (candidate.getItemCode().contains("SIDING")) {
-                        // Wall Area Approx = Floor Sqft * 1.2 (assuming single story box) / 100
-                        quantity = (scale.getInteriorSqft() * 1.2) / 100.0;
-                    } else {
-                        quantity = scale.getInteriorSqft() / 100.0;
-                    }
-                    break; // Roofing/Siding 100 sqft unit
-                case "UNIT":
-                    quantity = 1.0;
-                    break; // Default unit
-                case "SQFT":
-                    // Guessing logic based on category
-                    if (candidate.getCategory().contains("INTERIOR") && candidate.getItemCode().contains("FLOOR")) {
-                        quantity = scale.getInteriorSqft() * 0.85; // 85% coverage
-                    } else if (candidate.getItemCode().contains("DECK")) {
-                        // FIX V1.5: Decking should NOT use the whole yard or whole house.
-                        // Standard deck is ~400 sqft. Cap it at 600 for large homes.
-                        double houseSqft = scale.getInteriorSqft();
-                        quantity = Math.min(Math.max(houseSqft * 0.15, 300.0), 600.0);
-                    } else if (candidate.getCategory().contains("LANDSCAPING")) {
-                        // FIX V1.5: Landscaping maintenance shouldn't be the core yard cost if it's
-                        // high.
-                        // Use a fractional approach.
-                        quantity = 1.0; // Maintenance often quoted per project baseline unless ACRE
-                    } else {
-                        quantity = scale.getInteriorSqft(); // Fallback
-                    }
-                    break;
-                case "ACRE":
-                    quantity = Math.max(0.1, scale.getExteriorSqft() / 43560.0); // Convert sqft to acres, min 0.1
-                    break;
-                case "SQFT_WALL":
-                    if (candidate.getItemCode().contains("EXTERIOR")) {
-                        quantity = scale.getInteriorSqft() * 1.2; // Exterior wall approx
-                    } else {
-                        quantity = scale.getInteriorSqft() * 3.5; // Interior wall + ceiling (more accurate)
-                    }
-                    break;
-                case "LF":
-                    if (candidate.getItemCode().contains("CABINET")) {
-                        quantity = 35.0; // Avg kitchen cabinet run
-                    } else if (candidate.getItemCode().contains("GUTTER")) {
-                        quantity = Math.sqrt(scale.getInteriorSqft()) * 4.0 * 1.15; // Perimeter + waste
-                    } else {
-                        quantity = scale.getExteriorSqft() * 0.1;
-                    }
-                    break; // Very rough
-                case "EACH":
-                    if (candidate.getItemCode().contains("WINDOW")) {
-                        quantity = 12.0;
-                    } else if (candidate.getItemCode().contains("DOOR")) {
-                        quantity = 8.0;
-                    } else if (candidate.getItemCode().contains("BATH")) {
-                        quantity = (double) scale.getBathrooms(); // Accurate bathroom count
-                    } else if (candidate.getItemCode().contains("PANEL")) {
-                        quantity = 1.0;
-                    } else {
-                        quantity = 1.0; // Safety default
-                    }
-                    break;
-                default:
-                    quantity = 1.0;
-            }
-
-            // Special overrides for known items
-            if ("HVAC_HEAT_PUMP_CENTRAL".equals(candidate.getItemCode()))
-                quantity = 1.0; // SPEC Line 30: HVAC is ONE system (tonnage is capacity, not units)
-            if ("ROOFING_ASPHALT_ARCHITECTURAL".equals(candidate.getItemCode()))
-                quantity = scale.getRoofingSquares();
-            if ("PLUMBING_WHOLE_HOUSE_REPIPE".equals(candidate.getItemCode()))
-                quantity = Math.max(150, scale.getInteriorSqft() * 0.15); // Min 150 LF per JSON min_project_size
-
-            // --- 1. Small Job Penalty Logic (JSON Compliance) ---
-            double penaltyMult = 1.0;
-            Double minSize = itemDef.getMinProjectSize();
-            Double shortMult = itemDef.getShortOrderMultiplier();
-            if (minSize != null && quantity < minSize && shortMult != null) {
-                penaltyMult = shortMult;
-            }
-
-            // Material Cost - SPEC Line 36: ALWAYS avg(low, high)
-            // Strategy = Scope (what work), NOT Grade (material quality)
-            // Material quality differences = different items in JSON (Asphalt vs Metal)
-            double matBase = (itemDef.getMaterialCostRange().getLow() +
-                    itemDef.getMaterialCostRange().getHigh()) / 2.0;
-            double matCost = matBase * scale.getMatLogistics() * quantity;
-
-            // Labor Cost (penalty will be applied to total subtotal, not here)
-            double laborRate = itemDef.getBaseLaborRateNational() * scale.getLaborMult();
-            double laborCost = itemDef.getLaborHoursPerUnit() * laborRate * quantity;
-
-            // Mobilization - JSON business_logic:
-            // PRIMARY: Item_Fee * City_Labor_Mult
-            // SECONDARY: City_Base_Fee + (Item_Fee * 0.5)
-            double itemMob = itemDef.getMobilizationBaseFee() != null ? itemDef.getMobilizationBaseFee() : 0.0;
-            double mobilization = 0.0;
-            String mobPriority = itemDef.getMobilizationPriority();
-
-            if ("PRIMARY".equalsIgnoreCase(mobPriority)) {
-                // Large jobs (roofing, siding): scale with city labor rates
-                mobilization = itemMob * scale.getLaborMult();
-            } else {
-                // Small jobs (windows, panels): city base + 50% item fee
-                mobilization = scale.getMobFee() + (itemMob * 0.5);
-            }
-
-            // Disposal - JSON business_logic: "Units * waste_tons_per_unit *
-            // (City_Disposal_Tax_Rate * 100)"
-            // disp_tax = 0.04 means $4 per ton (needs × 100 to get dollar amount)
-            double wasteTons = itemDef.getWasteTonsPerUnit() != null ? itemDef.getWasteTonsPerUnit() : 0.0;
-            double disposal = quantity * wasteTons * (scale.getDispTax() * 100.0);
-
-            // Calculate initial subtotal
-            double subtotal = matCost + laborCost + mobilization + disposal;
-
-            // --- Apply Small Job Penalty to ALL FIELDS (JSON business_logic) ---
-            // JSON: "If Units < min_project_size, Total_Cost * short_order_multiplier"
-            // Sync all component fields with the penalty so step4 stays accurate
-            if (minSize != null && quantity < minSize && shortMult != null) {
-                matCost *= penaltyMult;
-                laborCost *= penaltyMult;
-                mobilization *= penaltyMult;
-                disposal *= penaltyMult;
-                subtotal *= penaltyMult;
-            }
+            // Quantity (measure unit + code heuristics), then rates x quantity
+            // (small job penalty applied to ALL fields, see UnitCostMatrix#cost)
+            double quantity = unitCostMatrix.quantity(itemId, scale);
+            unitCostMatrix.cost(metroId, itemId, quantity, cost);
 
             results.add(BaseCostItem.builder()
                     .itemCode(candidate.getItemCode())
                     .category(candidate.getCategory())
                     .description(candidate.getDescription())
-                    .materialCost(matCost)
-                    .laborCost(laborCost)
-                    .mobilization(mobilization)
-                    .disposal(disposal)
-                    .subtotal(subtotal)
-                    .wasteTons(wasteTons)
+                    .materialCost(cost[0])
+                    .laborCost(cost[1])
+                    .mobilization(cost[2])
+                    .disposal(cost[3])
+                    .subtotal(cost[4])
+                    .wasteTons(unitCostMatrix.wasteTons(itemId))
                     .mobilizationPriority(itemDef.getMobilizationPriority())
                     .rawData(candidate.getRawData())
                     .build());
@@ -1030,61 +1431,76 @@ public class VerdictEngineService {
 
         // --- Mobilization Grouping (Audit: Charge City_Base_Fee only ONCE per trade)
         // ---
-        applyTradeMobilizationDiscounts(results, scale);
-
-        return results;
+        return applyTradeMobilizationDiscounts(results, scale);
     }
 
-    private void applyTradeMobilizationDiscounts(List<BaseCostItem> items, EstimatedScale scale) {
-        // Group by trade (ROOFING, ELECTRICAL, etc.)
-        Map<String, List<BaseCostItem>> byTrade = items.stream()
-                .collect(Collectors.groupingBy(i -> {
-                    String code = i.getItemCode();
-                    int idx = code.indexOf('_');
-                    return (idx > 0) ? code.substring(0, idx) : code;
-                }));
+    private List<BaseCostItem> applyTradeMobilizationDiscounts(List<BaseCostItem> items, EstimatedScale scale) {
+        // Items are shared through the costing cache: discount into a copy, never in place
+        List<BaseCostItem> discounted = new ArrayList<>(items);
+
+        // Group positions by trade (ROOFING, ELECTRICAL, etc.)
+        Map<String, List<Integer>> byTrade = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            String code = items.get(i).getItemCode();
+            int idx = code.indexOf('_');
+            byTrade.computeIfAbsent((idx > 0) ? code.substring(0, idx) : code, trade -> new ArrayList<>(2)).add(i);
+        }
 
-        for (List<BaseCostItem> group : byTrade.values()) {
+        for (List<Integer> group : byTrade.values()) {
             if (group.size() <= 1)
                 continue;
 
-            // Find the anchor (Primary item or highest mobilization)
-            BaseCostItem anchor = group.stream()
-                    .max(Comparator.comparingDouble(i -> {
-                        double score = i.getMobilization();
-                        if ("PRIMARY".equalsIgnoreCase(i.getMobilizationPriority()))
-                            score += 1000000;
-                        return score;
-                    }))
-                    .orElse(group.get(0));
+            // Find the anchor (Primary item or highest mobilization; first one wins ties)
+            int anchor = group.get(0);
+            double anchorScore = mobilizationAnchorScore(items.get(anchor));
+            for (int position : group) {
+                double score = mobilizationAnchorScore(items.get(position));
+                if (score > anchorScore) {
+                    anchor = position;
+                    anchorScore = score;
+                }
+            }
 
             // For all OTHER items in this trade, remove the redundant scale.getMobFee()
-            for (BaseCostItem item : group) {
-                if (item == anchor)
+            for (int position : group) {
+                if (position == anchor)
                     continue;
 
                 // Only remove if it's a secondary item that actually contains the fee
+                BaseCostItem item = items.get(position);
                 if (item.getMobilization() >= scale.getMobFee()) {
                     double newMob = Math.max(0, item.getMobilization() - scale.getMobFee());
-                    item.setMobilization(newMob);
-                    // Recalculate subtotal
-                    item.setSubtotal(
-                            item.getMaterialCost() + item.getLaborCost() + item.getMobilization() + item.getDisposal());
+                    discounted.set(position, item.toBuilder()
+                            .mobilization(newMob)
+                            // Recalculate subtotal
+                            .subtotal(item.getMaterialCost() + item.getLaborCost() + newMob + item.getDisposal())
+                            .build());
                 }
             }
         }
+
+        return discounted;
+    }
+
+    private static double mobilizationAnchorScore(BaseCostItem item) {
+        double score = item.getMobilization();
+        if ("PRIMARY".equalsIgnoreCase(item.getMobilizationPriority()))
+            score += 1000000;
+        return score;
     }
 
     // --- STEP 4: Risk & History Filter ---
-    private List<RiskAdjustedItem> step4_riskFilter(List<BaseCostItem> items, UserContext context,
+    List<RiskAdjustedItem> step4_riskFilter(EngineDataSnapshot data, List<BaseCostItem> items, UserContext context,
             List<String> exclusionNotes) {
         List<RiskAdjustedItem> adjustedItems = new ArrayList<>();
 
-        EraData eraData = riskFactorsData.getEras().getOrDefault(context.getEra(), new EraData());
-        List<RiskItem> eraRisks = eraData.getCriticalRisks() != null ? eraData.getCriticalRisks()
-                : Collections.emptyList();
+        // Effective age is a property of the era, not the item (compiled in loadData)
+        RiskDecisionTable riskDecisionTable = data.getRiskDecisionTable();
+        int eraAge = riskDecisionTable.effectiveAge(context.getEra());
 
         for (BaseCostItem item : items) {
+            RiskDecisionTable.ItemRule rule = riskDecisionTable.rule(item.getItemCode(), item.getCategory());
+
             double finalCost = item.getSubtotal();
             List<String> riskFlags = new ArrayList<>();
             boolean mandatory = false;
@@ -1095,7 +1511,7 @@ public class VerdictEngineService {
             // These override statistical guessing with explicit user confirmation
             boolean forensicMatch = false;
 
-            if (Boolean.TRUE.equals(context.getIsFpePanel()) && item.getItemCode().contains("ELECTRICAL_PANEL")) {
+            if (Boolean.TRUE.equals(context.getIsFpePanel()) && rule.isFpePanelTarget()) {
                 riskFlags.add("FORENSIC_CONFIRMATION: FEDERAL_PACIFIC_PANEL");
                 finalCost *= 2.0; // High failure rate, insurance risk
                 mandatory = true;
@@ -1104,7 +1520,7 @@ public class VerdictEngineService {
                 forensicMatch = true;
             }
 
-            if (Boolean.TRUE.equals(context.getIsPolyB()) && item.getItemCode().contains("PLUMBING")) {
+            if (Boolean.TRUE.equals(context.getIsPolyB()) && rule.isPolyBTarget()) {
                 riskFlags.add("FORENSIC_CONFIRMATION: POLYBUTYLENE");
                 finalCost *= 1.5; // Known for brittle failure
                 mandatory = true;
@@ -1113,7 +1529,7 @@ public class VerdictEngineService {
                 forensicMatch = true;
             }
 
-            if (Boolean.TRUE.equals(context.getIsAluminum()) && item.getItemCode().contains("ELECTRICAL")) {
+            if (Boolean.TRUE.equals(context.getIsAluminum()) && rule.isAluminumTarget()) {
                 riskFlags.add("FORENSIC_CONFIRMATION: ALUMINUM_WIRING");
                 finalCost *= 1.8; // Fire hazard
                 mandatory = true;
@@ -1122,7 +1538,7 @@ public class VerdictEngineService {
                 forensicMatch = true;
             }
 
-            if (Boolean.TRUE.equals(context.getIsChineseDrywall()) && item.getItemCode().contains("DRYWALL")) {
+            if (Boolean.TRUE.equals(context.getIsChineseDrywall()) && rule.isDrywallTarget()) {
                 riskFlags.add("FORENSIC_CONFIRMATION: CHINESE_DRYWALL");
                 finalCost *= 4.0; // Entire home gut required
                 mandatory = true;
@@ -1132,96 +1548,64 @@ public class VerdictEngineService {
             }
 
             // 1. Risk Overlay (MUST BE DONE FIRST)
+            // Only the era risks mapped to this item code (see RiskDecisionTable)
             RiskItem matchedRisk = null; // Store matched risk for explanation building
-            for (RiskItem risk : eraRisks) {
-                boolean isRiskMatch = false;
-
-                // Hardcoded Mapping for MVP
-                if ("POLYBUTYLENE_PLUMBING".equals(risk.getItem()) && item.getItemCode().contains("PLUMBING"))
-                    isRiskMatch = true;
-                if ("KNOB_AND_TUBE_WIRING".equals(risk.getItem()) && item.getItemCode().contains("ELECTRICAL"))
-                    isRiskMatch = true;
-                if ("ALUMINUM_WIRING".equals(risk.getItem()) && item.getItemCode().contains("ELECTRICAL"))
-                    isRiskMatch = true;
-                if ("LP_INNER_SEAL_SIDING".equals(risk.getItem()) && item.getItemCode().contains("SIDING"))
-                    isRiskMatch = true;
-                if ("SYNTHETIC_STUCCO_EIFS".equals(risk.getItem()) && item.getItemCode().contains("STUCCO"))
-                    isRiskMatch = true;
-                if ("FEDERAL_PACIFIC_PANELS".equals(risk.getItem()) && item.getItemCode().contains("ELECTRICAL_PANEL"))
-                    isRiskMatch = true;
-
-                // Missing Mappings Added
-                if ("CHINESE_DRYWALL".equals(risk.getItem()) && item.getItemCode().contains("DRYWALL"))
-                    isRiskMatch = true;
-                if ("PEX_A_FITTING_RECALLS".equals(risk.getItem()) && item.getItemCode().contains("PLUMBING"))
-                    isRiskMatch = true;
-                if ("HVAC_REFRIGERANT_PHASE_OUT".equals(risk.getItem()) && item.getItemCode().contains("HVAC"))
-                    isRiskMatch = true;
-
-                if (isRiskMatch) {
-                    matchedRisk = risk; // Store for explanation building
-                    riskFlags.add("ERA_RISK: " + risk.getItem());
-
-                    // Build evidence-based explanation
-                    StringBuilder evidenceExplanation = new StringBuilder();
-
-                    if (risk.getDefinition() != null && !risk.getDefinition().isEmpty()) {
-                        evidenceExplanation.append(risk.getDefinition()).append(" ");
-                    }
+            for (RiskItem risk : rule.risksFor(context.getEra())) {
+                matchedRisk = risk; // Store for explanation building
+                riskFlags.add("ERA_RISK: " + risk.getItem());
 
-                    if (risk.getDamageScenario() != null && !risk.getDamageScenario().isEmpty()) {
-                        evidenceExplanation.append(risk.getDamageScenario()).append(" ");
-                    }
+                // Build evidence-based explanation
+                StringBuilder evidenceExplanation = new StringBuilder();
 
-                    explanation = evidenceExplanation.toString();
+                if (risk.getDefinition() != null && !risk.getDefinition().isEmpty()) {
+                    evidenceExplanation.append(risk.getDefinition()).append(" ");
+                }
 
-                    // SPEC Line 40: "Era Adjustment: Labor * RFY.remedy_cost_factor"
-                    if (risk.getRemedyMultiplier() != null && risk.getRemedyMultiplier() > 0) {
-                        double totalComponents = item.getMaterialCost() + item.getLaborCost()
-                                + item.getMobilization() + item.getDisposal();
-                        double laborProportion = totalComponents > 0
-                                ? item.getLaborCost() / totalComponents
-                                : 0.0;
-                        double laborImpact = item.getSubtotal() * laborProportion * (risk.getRemedyMultiplier() - 1.0);
-                        finalCost = item.getSubtotal() + laborImpact;
+                if (risk.getDamageScenario() != null && !risk.getDamageScenario().isEmpty()) {
+                    evidenceExplanation.append(risk.getDamageScenario()).append(" ");
+                }
 
-                        riskFlags.add("ERA_LABOR_ADJUSTMENT: " + risk.getRemedyMultiplier() + "x");
-                    }
+                explanation = evidenceExplanation.toString();
 
-                    // THEN apply CRITICAL severity multiplier to TOTAL
-                    if ("CRITICAL".equals(risk.getSeverity())) {
-                        finalCost *= 1.3;
-                        riskFlags.add("CRITICAL_SEVERITY_SURCHARGE");
-                        compoundingBadge = "HISTORICAL RISK COMPOUNDING APPLIED (1.3x)";
-                    }
+                // SPEC Line 40: "Era Adjustment: Labor * RFY.remedy_cost_factor"
+                if (risk.getRemedyMultiplier() != null && risk.getRemedyMultiplier() > 0) {
+                    double totalComponents = item.getMaterialCost() + item.getLaborCost()
+                            + item.getMobilization() + item.getDisposal();
+                    double laborProportion = totalComponents > 0
+                            ? item.getLaborCost() / totalComponents
+                            : 0.0;
+                    double laborImpact = item.getSubtotal() * laborProportion * (risk.getRemedyMultiplier() - 1.0);
+                    finalCost = item.getSubtotal() + laborImpact;
 
-                    if (Boolean.TRUE.equals(risk.getInspectionMandatory())) {
-                        finalCost += 650.0;
-                        riskFlags.add("MANDATORY_INSPECTION");
-                    }
-                    if ("HIGH".equals(risk.getRemovalCost())) {
-                        finalCost += 2800.0;
-                        riskFlags.add("HAZMAT_REMOVAL");
-                    }
-                    if ("CRITICAL".equals(risk.getSeverity()) || Boolean.TRUE.equals(risk.getInspectionMandatory())) {
-                        mandatory = true;
-                    }
+                    riskFlags.add("ERA_LABOR_ADJUSTMENT: " + risk.getRemedyMultiplier() + "x");
+                }
+
+                // THEN apply CRITICAL severity multiplier to TOTAL
+                if ("CRITICAL".equals(risk.getSeverity())) {
+                    finalCost *= 1.3;
+                    riskFlags.add("CRITICAL_SEVERITY_SURCHARGE");
+                    compoundingBadge = "HISTORICAL RISK COMPOUNDING APPLIED (1.3x)";
+                }
+
+                if (Boolean.TRUE.equals(risk.getInspectionMandatory())) {
+                    finalCost += 650.0;
+                    riskFlags.add("MANDATORY_INSPECTION");
+                }
+                if ("HIGH".equals(risk.getRemovalCost())) {
+                    finalCost += 2800.0;
+                    riskFlags.add("HAZMAT_REMOVAL");
+                }
+                if ("CRITICAL".equals(risk.getSeverity()) || Boolean.TRUE.equals(risk.getInspectionMandatory())) {
+                    mandatory = true;
                 }
             }
 
             // Determine Category
             // STRUCTURAL: Strict Core Integrity (Roof, Foundation, Sewer ONLY)
-            if (item.getItemCode().contains("ROOF") || item.getItemCode().contains("FOUNDATION")
-                    || item.getItemCode().contains("SEWER")) {
-                category = "STRUCTURAL";
-            }
             // MECHANICAL: Essential Systems
-            else if (item.getItemCode().contains("HVAC") || item.getItemCode().contains("PLUMBING")
-                    || item.getItemCode().contains("ELECTRICAL")) {
-                category = "MECHANICAL";
-            }
             // COSMETIC is default (Includes SIDING, WINDOWS unless mapped otherwise or
             // Critical)
+            category = rule.getBaseCategory();
 
             // Safety Override (Dynamic Promotion)
             if (mandatory || riskFlags.stream().anyMatch(f -> f.contains("CRITICAL"))) {
@@ -1230,41 +1614,16 @@ public class VerdictEngineService {
             }
 
             // --- PHASE 6: LIFESPAN & HISTORY PRECISION LOGIC (V2.1) ---
-            String itemSubsystem = null;
-            if (item.getItemCode().contains("ROOF"))
-                itemSubsystem = "ROOFING";
-            else if (item.getItemCode().contains("HVAC"))
-                itemSubsystem = "HVAC";
-            else if (item.getItemCode().contains("PLUMBING"))
-                itemSubsystem = "PLUMBING";
-            else if (item.getItemCode().contains("PANEL") || item.getItemCode().contains("ELECTRICAL"))
-                itemSubsystem = "ELECTRICAL";
-            else if (item.getItemCode().contains("WINDOW"))
-                itemSubsystem = "WINDOWS";
-            else if (item.getItemCode().contains("WATER_HEATER"))
-                itemSubsystem = "WATER_HEATER";
-
-            if (itemSubsystem != null && lifespanData != null && lifespanData.getItems().containsKey(itemSubsystem)) {
-                LifespanData.ItemLifespan life = lifespanData.getItems().get(itemSubsystem);
-
-                // 1. Calculate Effective Age
-                int startYear = 1900;
-                try {
-                    String startYearStr = context.getEra().split("_")[0];
-                    startYear = "PRE".equals(startYearStr) ? 1920 : Integer.parseInt(startYearStr);
-                } catch (Exception e) {
-                }
-
-                int currentAge = 2026 - startYear;
+            LifespanData.ItemLifespan life = rule.getLifespan();
+            if (life != null) {
+                // 1. Effective Age (precomputed per era)
+                int currentAge = eraAge;
 
                 // Combine core and living history for aging check
-                List<String> combinedHistory = new ArrayList<>();
-                if (context.getCoreSystemHistory() != null)
-                    combinedHistory.addAll(context.getCoreSystemHistory());
-                if (context.getLivingSpaceHistory() != null)
-                    combinedHistory.addAll(context.getLivingSpaceHistory());
-
-                boolean updatedByUser = combinedHistory.contains(itemSubsystem);
+                boolean updatedByUser = (context.getCoreSystemHistory() != null
+                        && context.getCoreSystemHistory().contains(rule.getSubsystem()))
+                        || (context.getLivingSpaceHistory() != null
+                                && context.getLivingSpaceHistory().contains(rule.getSubsystem()));
 
                 if (updatedByUser) {
                     currentAge = 3; // Reset to 3 years old if user confirmed update
@@ -1313,14 +1672,12 @@ public class VerdictEngineService {
                 // Only downgrade if confirmed updated AND no conflicting forensic flags
                 if (context.getCoreSystemHistory() != null) {
                     boolean isCoreUpdated = false;
-                    if (item.getItemCode().contains("ROOF") && context.getCoreSystemHistory().contains("ROOFING"))
-                        isCoreUpdated = true;
-                    if (item.getItemCode().contains("HVAC") && context.getCoreSystemHistory().contains("HVAC"))
-                        isCoreUpdated = true;
-                    if (item.getItemCode().contains("PLUMBING") && context.getCoreSystemHistory().contains("PLUMBING"))
-                        isCoreUpdated = true;
-                    if (item.getItemCode().contains("PANEL") && context.getCoreSystemHistory().contains("ELEC_PANEL"))
-                        isCoreUpdated = true;
+                    for (String key : rule.getCoreHistoryKeys()) {
+                        if (context.getCoreSystemHistory().contains(key)) {
+                            isCoreUpdated = true;
+                            break;
+                        }
+                    }
 
                     if (isCoreUpdated) {
                         boolean forensicOverride = riskFlags.stream()
@@ -1329,12 +1686,8 @@ public class VerdictEngineService {
                         if (!forensicOverride) {
                             // Valid update, no forensic risk -> Exclude
                             // Use generic category name instead of specific item description
-                            String categoryName = item.getItemCode().contains("ROOF") ? "Roofing"
-                                    : item.getItemCode().contains("HVAC") ? "HVAC System"
-                                            : item.getItemCode().contains("PLUMB") ? "Plumbing"
-                                                    : item.getItemCode().contains("PANEL") ? "Electrical Panel"
-                                                            : "System";
-                            exclusionNotes.add("Recent Major System Update: " + categoryName + " (user-confirmed)");
+                            exclusionNotes.add("Recent Major System Update: " + rule.getCoreCategoryName()
+                                    + " (user-confirmed)");
                             continue;
                         } else {
                             // Forensic flag overrides history
@@ -1367,21 +1720,11 @@ public class VerdictEngineService {
                 // STRICT CHECK: Category must be COSMETIC, Not Mandatory, No Risk Flags
                 if (context.getLivingSpaceHistory() != null) {
                     boolean isLivingUpdated = false;
-
-                    if (item.getCategory().contains("INTERIOR") || item.getItemCode().contains("CABINET")
-                            || item.getItemCode().contains("FLOOR")) {
-                        if (item.getItemCode().contains("KITCHEN")
-                                && context.getLivingSpaceHistory().contains("KITCHEN_REMODEL"))
-                            isLivingUpdated = true;
-                        if (item.getItemCode().contains("BATH")
-                                && context.getLivingSpaceHistory().contains("BATH_REMODEL"))
-                            isLivingUpdated = true;
-                        if (item.getItemCode().contains("FLOOR")
-                                && context.getLivingSpaceHistory().contains("FLOORING"))
-                            isLivingUpdated = true;
-                        if (item.getItemCode().contains("WINDOW")
-                                && context.getLivingSpaceHistory().contains("WINDOWS"))
+                    for (String key : rule.getLivingHistoryKeys()) {
+                        if (context.getLivingSpaceHistory().contains(key)) {
                             isLivingUpdated = true;
+                            break;
+                        }
                     }
 
                     if (isLivingUpdated) {
@@ -1391,12 +1734,8 @@ public class VerdictEngineService {
 
                         if (isCosmetic && !mandatory && !hasRisk) {
                             // Use generic space name instead of specific item description
-                            String spaceName = item.getItemCode().contains("KITCHEN") ? "Kitchen"
-                                    : item.getItemCode().contains("BATH") ? "Bathroom"
-                                            : item.getItemCode().contains("FLOOR") ? "Interior Flooring"
-                                                    : item.getItemCode().contains("WINDOW") ? "Windows"
-                                                            : "Interior Space";
-                            exclusionNotes.add("Cosmetic Excluded: " + spaceName + " (Recently Updated)");
+                            exclusionNotes.add("Cosmetic Excluded: " + rule.getLivingSpaceName()
+                                    + " (Recently Updated)");
                             continue;
                         }
                     }
@@ -1425,8 +1764,12 @@ public class VerdictEngineService {
     }
 
     // --- STEP 5 (NEW): Strategic Filtering ---
-    private SortedPlan step5_strategicFiltering(List<RiskAdjustedItem> items, UserContext context,
+    SortedPlan step5_strategicFiltering(List<RiskAdjustedItem> items, UserContext context,
             StrategyType strategyType) {
+        if (strategyType == StrategyType.STANDARD_LIVING) {
+            items = applyFinancialRiskPromotion(items);
+        }
+
         List<RiskAdjustedItem> mustDo = new ArrayList<>();
         List<RiskAdjustedItem> shouldDo = new ArrayList<>();
         List<RiskAdjustedItem> skip = new ArrayList<>();
@@ -1486,19 +1829,10 @@ public class VerdictEngineService {
 
                 case STANDARD_LIVING:
                     // Safety + Functional + Standards
-                    boolean isCatastrophic = item.getAdjustedCost() >= 25000.0;
-                    boolean isHighRiskCrash = item.getAdjustedCost() >= 8000.0 &&
-                            item.getRiskFlags().stream().anyMatch(f -> f.contains("CRITICAL") || f.contains("HAZMAT")); // Simplified
-                                                                                                                        // logic
-
+                    // Catastrophic financial risks were already promoted to mandatory
+                    // (see applyFinancialRiskPromotion)
                     if (isSafety || isCritical) {
                         mustDo.add(item);
-                    } else if (isCatastrophic || isHighRiskCrash) {
-                        // PROMOTION RULE: Catastrophic Financial Risk -> Must Do
-                        item.setExplanation("[FINANCIAL RISK PROMOTION] High liability detected ($"
-                                + String.format("%,.0f", item.getAdjustedCost()) + "). " + item.getExplanation());
-                        item.setMandatory(true);
-                        mustDo.add(item);
                     } else if (isStructural || isMechanical) {
                         mustDo.add(item);
                     } else {
@@ -1536,6 +1870,34 @@ public class VerdictEngineService {
                 .build();
     }
 
+    /**
+     * PROMOTION RULE (STANDARD_LIVING): Catastrophic Financial Risk -> Must Do.
+     * Returns a new list; promoted items are copies, the input is left untouched.
+     */
+    private List<RiskAdjustedItem> applyFinancialRiskPromotion(List<RiskAdjustedItem> items) {
+        List<RiskAdjustedItem> promoted = new ArrayList<>(items.size());
+        for (RiskAdjustedItem item : items) {
+            boolean isSafety = "SAFETY".equals(item.getCategory());
+            boolean isCritical = item.isMandatory()
+                    || item.getRiskFlags().stream().anyMatch(f -> f.contains("CRITICAL"));
+            boolean isCatastrophic = item.getAdjustedCost() >= 25000.0;
+            boolean isHighRiskCrash = item.getAdjustedCost() >= 8000.0 &&
+                    item.getRiskFlags().stream().anyMatch(f -> f.contains("CRITICAL") || f.contains("HAZMAT")); // Simplified
+                                                                                                                // logic
+
+            if (!isSafety && !isCritical && (isCatastrophic || isHighRiskCrash)) {
+                promoted.add(item.toBuilder()
+                        .explanation("[FINANCIAL RISK PROMOTION] High liability detected ($"
+                                + String.format("%,.0f", item.getAdjustedCost()) + "). " + item.getExplanation())
+                        .mandatory(true)
+                        .build());
+            } else {
+                promoted.add(item);
+            }
+        }
+        return promoted;
+    }
+
     // --- NEGOTIATION COPY GENERATOR (PHASE 3) ---
     private String generateNegotiationCopy(SortedPlan plan, UserContext context) {
         StringBuilder copy = new StringBuilder();
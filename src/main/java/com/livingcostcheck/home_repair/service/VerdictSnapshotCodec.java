@@ -0,0 +1,44 @@
+package com.livingcostcheck.home_repair.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.Verdict;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stored form of a computed {@link Verdict} (VerdictHistory.verdictSnapshot):
+ * gzipped JSON, typically 2-4 KB.
+ */
+@Component
+@RequiredArgsConstructor
+public class VerdictSnapshotCodec {
+
+    private final ObjectMapper objectMapper;
+
+    public byte[] encode(Verdict verdict) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, verdict);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IOException when the snapshot is corrupt or no longer matches the DTOs
+     *                     (callers recompute the verdict)
+     */
+    public Verdict decode(byte[] snapshot) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(snapshot))) {
+            return objectMapper.readValue(gzip, Verdict.class);
+        }
+    }
+}
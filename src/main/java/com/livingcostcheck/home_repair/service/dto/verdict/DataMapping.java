@@ -42,6 +42,9 @@ public class DataMapping {
         private String risk;
         @JsonProperty("climate_zone")
         private String climateZone;
+        // Principal city coordinates (nearby-metro links), null when not in the data
+        private Double lat;
+        private Double lon;
         // other fields optional/ignored
     }
 
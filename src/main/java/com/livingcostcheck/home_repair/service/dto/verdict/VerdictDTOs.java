@@ -71,7 +71,7 @@ public class VerdictDTOs {
     }
 
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class UserContext {
@@ -123,7 +123,7 @@ public class VerdictDTOs {
     }
 
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class BaseCostItem {
@@ -143,7 +143,7 @@ public class VerdictDTOs {
     }
 
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class RiskAdjustedItem {
@@ -176,7 +176,7 @@ public class VerdictDTOs {
 
     // Strategic Option representing one of three tiers
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class StrategyOption {
@@ -207,7 +207,7 @@ public class VerdictDTOs {
     }
 
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class Verdict {
@@ -248,7 +248,7 @@ public class VerdictDTOs {
     }
 
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class ComparisonData {
@@ -259,7 +259,7 @@ public class VerdictDTOs {
     }
 
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class ContextBriefing {
@@ -0,0 +1,117 @@
+package com.livingcostcheck.home_repair.service.engine;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.BaseCostItem;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.UserContext;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Memo of the strategy-agnostic part of the pipeline (Steps 0-3).
+ *
+ * Candidate generation, scaling and preliminary costing only depend on
+ * metro, era, sqft, stories, bathrooms and roof type. Results are stored as
+ * immutable lists so Step 4/5 can share them between requests.
+ *
+ * Bounded by the total number of cached items (not entries), evicting the
+ * least recently used entry first.
+ */
+public final class CostingCache {
+
+    public static final long DEFAULT_MAX_ITEMS = 200_000;
+
+    private final long maxItems;
+    private final LinkedHashMap<Key, List<BaseCostItem>> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long weight;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CostingCache(long maxItems) {
+        if (maxItems <= 0) {
+            throw new IllegalArgumentException("maxItems must be positive: " + maxItems);
+        }
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Cached costed items for the context, computing them on a miss.
+     * Exceptions from the loader (e.g. invalid metro) are propagated and not cached.
+     */
+    public List<BaseCostItem> get(UserContext context, Supplier<List<BaseCostItem>> loader) {
+        Key key = Key.of(context);
+        synchronized (this) {
+            List<BaseCostItem> cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+
+        // Compute outside the lock; a concurrent miss on the same key just computes twice
+        misses.incrementAndGet();
+        List<BaseCostItem> computed = List.copyOf(loader.get());
+
+        synchronized (this) {
+            List<BaseCostItem> raced = entries.get(key);
+            if (raced != null) {
+                return raced;
+            }
+            if (computed.size() <= maxItems) {
+                entries.put(key, computed);
+                weight += computed.size();
+                evictToBudget();
+            }
+        }
+        return computed;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits.get(), misses.get(), evictions.get(), entries.size(), weight, maxItems);
+    }
+
+    private void evictToBudget() {
+        Iterator<Map.Entry<Key, List<BaseCostItem>>> eldest = entries.entrySet().iterator();
+        while (weight > maxItems && eldest.hasNext()) {
+            weight -= eldest.next().getValue().size();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Normalized Step 0-3 inputs. Defaults mirror step0/step2: sqft null or <= 0
+     * means metro average, 1 story, 2 bathrooms, ASPHALT roof.
+     */
+    public record Key(String metroCode, String era, Integer sqft, int stories, int bathrooms, String roofType) {
+
+        public static Key of(UserContext context) {
+            Integer sqft = context.getSqft() != null && context.getSqft() > 0 ? context.getSqft() : null;
+            return new Key(
+                    context.getMetroCode(),
+                    context.getEra(),
+                    sqft,
+                    context.getStories() != null ? context.getStories() : 1,
+                    context.getBathrooms() != null ? context.getBathrooms() : 2,
+                    context.getRoofType() != null ? context.getRoofType() : "ASPHALT");
+        }
+    }
+
+    public record Stats(long hits, long misses, long evictions, int entries, long cachedItems, long maxItems) {
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+}
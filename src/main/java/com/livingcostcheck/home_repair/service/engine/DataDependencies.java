@@ -0,0 +1,88 @@
+package com.livingcostcheck.home_repair.service.engine;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.livingcostcheck.home_repair.util.ContentHash;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Names of the engine data entities a page can read, and their fingerprints.
+ *
+ * An entity is one metro entry (metro:AUSTIN_TX), the risk factors of one era
+ * (era:1970_1980), one cost library item (cost:ROOFING_ASPHALT) or one lifespan
+ * entry (lifespan:ROOFING). Comparing the fingerprints of two snapshots gives the
+ * entities a data change touched; only pages that read one of them need to be
+ * rebuilt.
+ */
+public final class DataDependencies {
+
+    public static final String METRO = "metro:";
+    public static final String ERA = "era:";
+    public static final String COST = "cost:";
+    public static final String LIFESPAN = "lifespan:";
+
+    // Own mapper: fingerprints must not depend on how the caller's mapper is configured
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private DataDependencies() {
+    }
+
+    public static String metro(String metroCode) {
+        return METRO + metroCode;
+    }
+
+    public static String era(String era) {
+        return ERA + era;
+    }
+
+    public static String cost(String itemCode) {
+        return COST + itemCode;
+    }
+
+    public static String lifespan(String subsystem) {
+        return LIFESPAN + subsystem;
+    }
+
+    /**
+     * Fingerprint of every entity in the snapshot, by entity name (sorted).
+     * Cost items include their library category.
+     */
+    public static Map<String, String> fingerprints(EngineDataSnapshot data) {
+        Map<String, String> fingerprints = new TreeMap<>();
+        data.getMetroMasterData().getData()
+                .forEach((code, city) -> fingerprints.put(metro(code), fingerprint(city)));
+        data.getRiskFactorsData().getEras()
+                .forEach((era, eraData) -> fingerprints.put(era(era), fingerprint(eraData)));
+        data.getCostLibraryData().getConstructionItemLibrary().forEach((category, items) -> items
+                .forEach((code, item) -> fingerprints.put(cost(code), ContentHash.of(category, fingerprint(item)))));
+        data.getLifespanData().getItems()
+                .forEach((subsystem, lifespan) -> fingerprints.put(lifespan(subsystem), fingerprint(lifespan)));
+        return fingerprints;
+    }
+
+    /**
+     * Entities added, removed or changed between two sets of fingerprints.
+     */
+    public static Set<String> changed(Map<String, String> before, Map<String, String> after) {
+        Set<String> changed = new HashSet<>();
+        before.forEach((entity, fingerprint) -> {
+            if (!fingerprint.equals(after.get(entity))) {
+                changed.add(entity);
+            }
+        });
+        after.keySet().stream().filter(entity -> !before.containsKey(entity)).forEach(changed::add);
+        return changed;
+    }
+
+    private static String fingerprint(Object entity) {
+        try {
+            return ContentHash.of(JSON.writeValueAsString(entity));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Engine data entity not serializable: " + entity, e);
+        }
+    }
+}
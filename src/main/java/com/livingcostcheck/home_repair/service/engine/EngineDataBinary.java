@@ -0,0 +1,639 @@
+package com.livingcostcheck.home_repair.service.engine;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping.*;
+import com.livingcostcheck.home_repair.service.dto.verdict.LifespanData;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Compiled form of the four engine data files (JSON stays the source of truth).
+ *
+ * Layout: header (magic, format, content version, payload length, CRC32), then a
+ * string dictionary followed by one section per file. Records are stored
+ * column-wise: string columns as dictionary ids, numbers as double/int arrays
+ * (NaN / Integer.MIN_VALUE / -1 for null). Decoding allocates each distinct
+ * string once and reads numeric columns in bulk, instead of tokenizing ~115 KB
+ * of JSON through Jackson.
+ *
+ * The content version is the {@link EngineDataSnapshot#digest} of the JSON
+ * sources the file was compiled from, so a stale file is detected by comparing
+ * versions before decoding.
+ */
+public final class EngineDataBinary {
+
+    public static final String FILE_NAME = "engine-data.bin";
+
+    private static final int MAGIC = 0x48524544; // "HRED"
+    private static final int FORMAT = 2;
+    private static final int VERSION_LENGTH = 16;
+    private static final int HEADER_BYTES = 4 + 4 + VERSION_LENGTH + 4 + 4;
+
+    private static final int NULL = -1;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+
+    // Tags for the free-form meta maps
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_INT = 2;
+    private static final byte TAG_LONG = 3;
+    private static final byte TAG_DOUBLE = 4;
+    private static final byte TAG_TRUE = 5;
+    private static final byte TAG_FALSE = 6;
+    private static final byte TAG_MAP = 7;
+    private static final byte TAG_LIST = 8;
+
+    private EngineDataBinary() {
+    }
+
+    /**
+     * Decoded data files, plus the content version they were compiled from.
+     */
+    public record Contents(String version, MetroMasterData metroMasterData, RiskFactorsData riskFactorsData,
+            CostLibraryData costLibraryData, LifespanData lifespanData) {
+    }
+
+    // --- Writing ---
+
+    public static byte[] write(String version, MetroMasterData metroMasterData, RiskFactorsData riskFactorsData,
+            CostLibraryData costLibraryData, LifespanData lifespanData) {
+        if (version.length() != VERSION_LENGTH) {
+            throw new IllegalArgumentException("Content version must be " + VERSION_LENGTH + " chars: " + version);
+        }
+        try {
+            Encoder body = new Encoder();
+            body.value(metroMasterData.getMeta());
+            body.metros(metroMasterData.getData());
+
+            body.value(riskFactorsData.getMeta());
+            body.eras(riskFactorsData.getEras());
+
+            body.value(costLibraryData.getProjectMeta());
+            body.metros(costLibraryData.getMetroIndexData());
+            body.library(costLibraryData.getConstructionItemLibrary());
+
+            body.lifespans(lifespanData.getItems());
+
+            // Dictionary first so the reader can resolve ids while decoding the sections
+            ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+            DataOutputStream payload = new DataOutputStream(payloadBytes);
+            payload.writeInt(body.strings.size());
+            for (String s : body.strings.keySet()) {
+                byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+                payload.writeInt(utf8.length);
+                payload.write(utf8);
+            }
+            body.out.flush();
+            body.bytes.writeTo(payload);
+            payload.flush();
+            byte[] payloadArray = payloadBytes.toByteArray();
+
+            CRC32 crc = new CRC32();
+            crc.update(payloadArray);
+
+            ByteBuffer file = ByteBuffer.allocate(HEADER_BYTES + payloadArray.length);
+            file.putInt(MAGIC);
+            file.putInt(FORMAT);
+            file.put(version.getBytes(StandardCharsets.US_ASCII));
+            file.putInt(payloadArray.length);
+            file.putInt((int) crc.getValue());
+            file.put(payloadArray);
+            return file.array();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Encoder {
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+
+        int id(String s) {
+            return s == null ? NULL : strings.computeIfAbsent(s, k -> strings.size());
+        }
+
+        void count(Collection<?> values) throws IOException {
+            out.writeInt(values == null ? NULL : values.size());
+        }
+
+        <T> void strings(List<T> rows, Function<T, String> field) throws IOException {
+            for (T row : rows) {
+                out.writeInt(id(field.apply(row)));
+            }
+        }
+
+        <T> void doubles(List<T> rows, Function<T, Double> field) throws IOException {
+            for (T row : rows) {
+                Double value = field.apply(row);
+                out.writeDouble(value != null ? value : Double.NaN);
+            }
+        }
+
+        <T> void ints(List<T> rows, Function<T, Integer> field) throws IOException {
+            for (T row : rows) {
+                Integer value = field.apply(row);
+                out.writeInt(value != null ? value : NULL_INT);
+            }
+        }
+
+        <T> void booleans(List<T> rows, Function<T, Boolean> field) throws IOException {
+            for (T row : rows) {
+                Boolean value = field.apply(row);
+                out.writeByte(value == null ? NULL : value ? 1 : 0);
+            }
+        }
+
+        void metros(Map<String, MetroCityData> metros) throws IOException {
+            count(metros == null ? null : metros.keySet());
+            if (metros == null) {
+                return;
+            }
+            strings(new ArrayList<>(metros.keySet()), Function.identity());
+            List<MetroCityData> rows = new ArrayList<>(metros.values());
+            doubles(rows, MetroCityData::getLaborMult);
+            doubles(rows, MetroCityData::getMatLogistics);
+            doubles(rows, MetroCityData::getMobFee);
+            doubles(rows, MetroCityData::getDispTax);
+            doubles(rows, MetroCityData::getAvgHouse);
+            doubles(rows, MetroCityData::getAvgLot);
+            strings(rows, MetroCityData::getFoundation);
+            strings(rows, MetroCityData::getRisk);
+            strings(rows, MetroCityData::getClimateZone);
+            doubles(rows, MetroCityData::getLat);
+            doubles(rows, MetroCityData::getLon);
+        }
+
+        void eras(Map<String, EraData> eras) throws IOException {
+            count(eras == null ? null : eras.keySet());
+            if (eras == null) {
+                return;
+            }
+            List<RiskItem> risks = new ArrayList<>();
+            for (Map.Entry<String, EraData> era : eras.entrySet()) {
+                out.writeInt(id(era.getKey()));
+                out.writeInt(id(era.getValue().getEraName()));
+                List<RiskItem> criticalRisks = era.getValue().getCriticalRisks();
+                count(criticalRisks);
+                if (criticalRisks != null) {
+                    risks.addAll(criticalRisks);
+                }
+            }
+
+            // Risk items of all eras, in era order
+            strings(risks, RiskItem::getItem);
+            strings(risks, RiskItem::getSeverity);
+            strings(risks, RiskItem::getIssue);
+            doubles(risks, RiskItem::getRemedyCostFactor);
+            booleans(risks, RiskItem::getInspectionMandatory);
+            strings(risks, RiskItem::getRemovalCost);
+            strings(risks, RiskItem::getDefinition);
+            strings(risks, RiskItem::getDamageScenario);
+            doubles(risks, RiskItem::getRemedyMultiplier);
+        }
+
+        void library(Map<String, Map<String, ConstructionItem>> library) throws IOException {
+            count(library == null ? null : library.keySet());
+            if (library == null) {
+                return;
+            }
+            List<String> codes = new ArrayList<>();
+            List<ConstructionItem> items = new ArrayList<>();
+            for (Map.Entry<String, Map<String, ConstructionItem>> category : library.entrySet()) {
+                out.writeInt(id(category.getKey()));
+                out.writeInt(category.getValue().size());
+                codes.addAll(category.getValue().keySet());
+                items.addAll(category.getValue().values());
+            }
+
+            // Items of all categories, in category order
+            strings(codes, Function.identity());
+            strings(items, ConstructionItem::getDescription);
+            strings(items, ConstructionItem::getMeasureUnit);
+            booleans(items, item -> item.getMaterialCostRange() != null);
+            doubles(items, item -> item.getMaterialCostRange() != null ? item.getMaterialCostRange().getLow() : null);
+            doubles(items, item -> item.getMaterialCostRange() != null ? item.getMaterialCostRange().getHigh() : null);
+            doubles(items, ConstructionItem::getLaborHoursPerUnit);
+            doubles(items, ConstructionItem::getBaseLaborRateNational);
+            doubles(items, ConstructionItem::getMobilizationBaseFee);
+            doubles(items, ConstructionItem::getWasteTonsPerUnit);
+            strings(items, ConstructionItem::getMobilizationPriority);
+            doubles(items, ConstructionItem::getMinProjectSize);
+            doubles(items, ConstructionItem::getShortOrderMultiplier);
+            booleans(items, ConstructionItem::getTaxCreditEligible);
+            ints(items, ConstructionItem::getMandatoryIfAgeGt);
+        }
+
+        void lifespans(Map<String, LifespanData.ItemLifespan> lifespans) throws IOException {
+            count(lifespans == null ? null : lifespans.keySet());
+            if (lifespans == null) {
+                return;
+            }
+            strings(new ArrayList<>(lifespans.keySet()), Function.identity());
+            List<LifespanData.ItemLifespan> rows = new ArrayList<>(lifespans.values());
+            ints(rows, LifespanData.ItemLifespan::getStandard_lifespan);
+            ints(rows, LifespanData.ItemLifespan::getWarning_threshold);
+            ints(rows, LifespanData.ItemLifespan::getCritical_threshold);
+            strings(rows, LifespanData.ItemLifespan::getPretty_name);
+            strings(rows, LifespanData.ItemLifespan::getImpact_description);
+        }
+
+        // Free-form JSON values (meta sections)
+        void value(Object value) throws IOException {
+            if (value == null) {
+                out.writeByte(TAG_NULL);
+            } else if (value instanceof String s) {
+                out.writeByte(TAG_STRING);
+                out.writeInt(id(s));
+            } else if (value instanceof Integer i) {
+                out.writeByte(TAG_INT);
+                out.writeInt(i);
+            } else if (value instanceof Long l) {
+                out.writeByte(TAG_LONG);
+                out.writeLong(l);
+            } else if (value instanceof Double d) {
+                out.writeByte(TAG_DOUBLE);
+                out.writeDouble(d);
+            } else if (value instanceof Boolean b) {
+                out.writeByte(b ? TAG_TRUE : TAG_FALSE);
+            } else if (value instanceof Map<?, ?> map) {
+                out.writeByte(TAG_MAP);
+                out.writeInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    out.writeInt(id((String) entry.getKey()));
+                    value(entry.getValue());
+                }
+            } else if (value instanceof List<?> list) {
+                out.writeByte(TAG_LIST);
+                out.writeInt(list.size());
+                for (Object element : list) {
+                    value(element);
+                }
+            } else {
+                throw new IllegalArgumentException("Unsupported meta value type: " + value.getClass().getName());
+            }
+        }
+    }
+
+    // --- Reading ---
+
+    /**
+     * Memory-maps a compiled file (read-only; the mapping outlives the channel).
+     */
+    public static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Content version recorded in the header, without decoding or checksumming
+     * the payload.
+     *
+     * @throws IllegalStateException when the buffer is not a compiled engine data file
+     *                               of this format
+     */
+    public static String version(ByteBuffer buffer) {
+        ByteBuffer header = buffer.duplicate();
+        if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+            throw new IllegalStateException("Not a compiled engine data file");
+        }
+        int format = header.getInt();
+        if (format != FORMAT) {
+            throw new IllegalStateException("Unsupported engine data format " + format + " (expected " + FORMAT + ")");
+        }
+        byte[] version = new byte[VERSION_LENGTH];
+        header.get(version);
+        return new String(version, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @throws IllegalStateException when the header or checksum is invalid
+     */
+    public static Contents read(ByteBuffer buffer) {
+        String version = version(buffer);
+        ByteBuffer in = buffer.duplicate();
+        in.position(in.position() + 4 + 4 + VERSION_LENGTH);
+        int payloadLength = in.getInt();
+        int checksum = in.getInt();
+        if (in.remaining() < payloadLength) {
+            throw new IllegalStateException("Truncated engine data file");
+        }
+        ByteBuffer payload = in.slice(in.position(), payloadLength);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            throw new IllegalStateException("Engine data file checksum mismatch");
+        }
+
+        try {
+            Decoder decoder = new Decoder(payload);
+
+            MetroMasterData metroMasterData = new MetroMasterData();
+            metroMasterData.setMeta(decoder.map());
+            metroMasterData.setData(decoder.metros());
+
+            RiskFactorsData riskFactorsData = new RiskFactorsData();
+            riskFactorsData.setMeta(decoder.map());
+            riskFactorsData.setEras(decoder.eras());
+
+            CostLibraryData costLibraryData = new CostLibraryData();
+            costLibraryData.setProjectMeta(decoder.map());
+            costLibraryData.setMetroIndexData(decoder.metros());
+            costLibraryData.setConstructionItemLibrary(decoder.library());
+
+            LifespanData lifespanData = new LifespanData();
+            lifespanData.setItems(decoder.lifespans());
+
+            return new Contents(version, metroMasterData, riskFactorsData, costLibraryData, lifespanData);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Corrupt engine data file: " + e.getMessage(), e);
+        }
+    }
+
+    private static final class Decoder {
+        final ByteBuffer in;
+        final String[] dictionary;
+
+        Decoder(ByteBuffer in) {
+            this.in = in;
+            this.dictionary = new String[in.getInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                int length = in.getInt();
+                dictionary[i] = new String(bytes(length), StandardCharsets.UTF_8);
+            }
+        }
+
+        byte[] bytes(int length) {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            return bytes;
+        }
+
+        String string(int id) {
+            return id == NULL ? null : dictionary[id];
+        }
+
+        String[] strings(int n) {
+            String[] column = new String[n];
+            int[] ids = ints(n);
+            for (int i = 0; i < n; i++) {
+                column[i] = string(ids[i]);
+            }
+            return column;
+        }
+
+        int[] ints(int n) {
+            int[] column = new int[n];
+            in.asIntBuffer().get(column);
+            in.position(in.position() + n * Integer.BYTES);
+            return column;
+        }
+
+        double[] doubles(int n) {
+            double[] column = new double[n];
+            in.asDoubleBuffer().get(column);
+            in.position(in.position() + n * Double.BYTES);
+            return column;
+        }
+
+        byte[] booleans(int n) {
+            return bytes(n);
+        }
+
+        static Double boxed(double value) {
+            return Double.isNaN(value) ? null : value;
+        }
+
+        static Integer boxed(int value) {
+            return value == NULL_INT ? null : value;
+        }
+
+        static Boolean boxed(byte value) {
+            return value == NULL ? null : value == 1;
+        }
+
+        Map<String, MetroCityData> metros() {
+            int n = in.getInt();
+            if (n == NULL) {
+                return null;
+            }
+            String[] codes = strings(n);
+            double[] laborMult = doubles(n);
+            double[] matLogistics = doubles(n);
+            double[] mobFee = doubles(n);
+            double[] dispTax = doubles(n);
+            double[] avgHouse = doubles(n);
+            double[] avgLot = doubles(n);
+            String[] foundation = strings(n);
+            String[] risk = strings(n);
+            String[] climateZone = strings(n);
+            double[] lat = doubles(n);
+            double[] lon = doubles(n);
+
+            Map<String, MetroCityData> metros = new LinkedHashMap<>(n * 2);
+            for (int i = 0; i < n; i++) {
+                MetroCityData city = new MetroCityData();
+                city.setLaborMult(boxed(laborMult[i]));
+                city.setMatLogistics(boxed(matLogistics[i]));
+                city.setMobFee(boxed(mobFee[i]));
+                city.setDispTax(boxed(dispTax[i]));
+                city.setAvgHouse(boxed(avgHouse[i]));
+                city.setAvgLot(boxed(avgLot[i]));
+                city.setFoundation(foundation[i]);
+                city.setRisk(risk[i]);
+                city.setClimateZone(climateZone[i]);
+                city.setLat(boxed(lat[i]));
+                city.setLon(boxed(lon[i]));
+                metros.put(codes[i], city);
+            }
+            return metros;
+        }
+
+        Map<String, EraData> eras() {
+            int n = in.getInt();
+            if (n == NULL) {
+                return null;
+            }
+            String[] keys = new String[n];
+            EraData[] eras = new EraData[n];
+            int[] riskCounts = new int[n];
+            int totalRisks = 0;
+            for (int i = 0; i < n; i++) {
+                keys[i] = string(in.getInt());
+                eras[i] = new EraData();
+                eras[i].setEraName(string(in.getInt()));
+                riskCounts[i] = in.getInt();
+                totalRisks += Math.max(riskCounts[i], 0);
+            }
+
+            String[] item = strings(totalRisks);
+            String[] severity = strings(totalRisks);
+            String[] issue = strings(totalRisks);
+            double[] remedyCostFactor = doubles(totalRisks);
+            byte[] inspectionMandatory = booleans(totalRisks);
+            String[] removalCost = strings(totalRisks);
+            String[] definition = strings(totalRisks);
+            String[] damageScenario = strings(totalRisks);
+            double[] remedyMultiplier = doubles(totalRisks);
+
+            Map<String, EraData> byKey = new LinkedHashMap<>(n * 2);
+            int r = 0;
+            for (int i = 0; i < n; i++) {
+                if (riskCounts[i] != NULL) {
+                    List<RiskItem> risks = new ArrayList<>(riskCounts[i]);
+                    for (int j = 0; j < riskCounts[i]; j++, r++) {
+                        RiskItem risk = new RiskItem();
+                        risk.setItem(item[r]);
+                        risk.setSeverity(severity[r]);
+                        risk.setIssue(issue[r]);
+                        risk.setRemedyCostFactor(boxed(remedyCostFactor[r]));
+                        risk.setInspectionMandatory(boxed(inspectionMandatory[r]));
+                        risk.setRemovalCost(removalCost[r]);
+                        risk.setDefinition(definition[r]);
+                        risk.setDamageScenario(damageScenario[r]);
+                        risk.setRemedyMultiplier(boxed(remedyMultiplier[r]));
+                        risks.add(risk);
+                    }
+                    eras[i].setCriticalRisks(risks);
+                }
+                byKey.put(keys[i], eras[i]);
+            }
+            return byKey;
+        }
+
+        Map<String, Map<String, ConstructionItem>> library() {
+            int n = in.getInt();
+            if (n == NULL) {
+                return null;
+            }
+            String[] categories = new String[n];
+            int[] sizes = new int[n];
+            int total = 0;
+            for (int i = 0; i < n; i++) {
+                categories[i] = string(in.getInt());
+                sizes[i] = in.getInt();
+                total += sizes[i];
+            }
+
+            String[] codes = strings(total);
+            String[] description = strings(total);
+            String[] measureUnit = strings(total);
+            byte[] hasRange = booleans(total);
+            double[] low = doubles(total);
+            double[] high = doubles(total);
+            double[] laborHours = doubles(total);
+            double[] laborRate = doubles(total);
+            double[] mobilizationFee = doubles(total);
+            double[] wasteTons = doubles(total);
+            String[] mobilizationPriority = strings(total);
+            double[] minProjectSize = doubles(total);
+            double[] shortOrderMultiplier = doubles(total);
+            byte[] taxCreditEligible = booleans(total);
+            int[] mandatoryIfAgeGt = ints(total);
+
+            Map<String, Map<String, ConstructionItem>> library = new LinkedHashMap<>(n * 2);
+            int k = 0;
+            for (int i = 0; i < n; i++) {
+                Map<String, ConstructionItem> items = new LinkedHashMap<>(sizes[i] * 2);
+                for (int j = 0; j < sizes[i]; j++, k++) {
+                    ConstructionItem item = new ConstructionItem();
+                    item.setDescription(description[k]);
+                    item.setMeasureUnit(measureUnit[k]);
+                    if (hasRange[k] == 1) {
+                        CostRange range = new CostRange();
+                        range.setLow(boxed(low[k]));
+                        range.setHigh(boxed(high[k]));
+                        item.setMaterialCostRange(range);
+                    }
+                    item.setLaborHoursPerUnit(boxed(laborHours[k]));
+                    item.setBaseLaborRateNational(boxed(laborRate[k]));
+                    item.setMobilizationBaseFee(boxed(mobilizationFee[k]));
+                    item.setWasteTonsPerUnit(boxed(wasteTons[k]));
+                    item.setMobilizationPriority(mobilizationPriority[k]);
+                    item.setMinProjectSize(boxed(minProjectSize[k]));
+                    item.setShortOrderMultiplier(boxed(shortOrderMultiplier[k]));
+                    item.setTaxCreditEligible(boxed(taxCreditEligible[k]));
+                    item.setMandatoryIfAgeGt(boxed(mandatoryIfAgeGt[k]));
+                    items.put(codes[k], item);
+                }
+                library.put(categories[i], items);
+            }
+            return library;
+        }
+
+        Map<String, LifespanData.ItemLifespan> lifespans() {
+            int n = in.getInt();
+            if (n == NULL) {
+                return null;
+            }
+            String[] codes = strings(n);
+            int[] standard = ints(n);
+            int[] warning = ints(n);
+            int[] critical = ints(n);
+            String[] prettyName = strings(n);
+            String[] impact = strings(n);
+
+            Map<String, LifespanData.ItemLifespan> lifespans = new LinkedHashMap<>(n * 2);
+            for (int i = 0; i < n; i++) {
+                lifespans.put(codes[i], new LifespanData.ItemLifespan(standard[i], warning[i], critical[i],
+                        prettyName[i], impact[i]));
+            }
+            return lifespans;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> map() {
+            return (Map<String, Object>) value();
+        }
+
+        Object value() {
+            byte tag = in.get();
+            switch (tag) {
+                case TAG_NULL:
+                    return null;
+                case TAG_STRING:
+                    return string(in.getInt());
+                case TAG_INT:
+                    return in.getInt();
+                case TAG_LONG:
+                    return in.getLong();
+                case TAG_DOUBLE:
+                    return in.getDouble();
+                case TAG_TRUE:
+                    return Boolean.TRUE;
+                case TAG_FALSE:
+                    return Boolean.FALSE;
+                case TAG_MAP: {
+                    int n = in.getInt();
+                    Map<String, Object> map = new LinkedHashMap<>(n * 2);
+                    for (int i = 0; i < n; i++) {
+                        String key = string(in.getInt());
+                        map.put(key, value());
+                    }
+                    return map;
+                }
+                case TAG_LIST: {
+                    int n = in.getInt();
+                    List<Object> list = new ArrayList<>(n);
+                    for (int i = 0; i < n; i++) {
+                        list.add(value());
+                    }
+                    return list;
+                }
+                default:
+                    throw new IllegalStateException("Unknown value tag " + tag);
+            }
+        }
+    }
+}
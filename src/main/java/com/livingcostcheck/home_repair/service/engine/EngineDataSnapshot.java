@@ -0,0 +1,249 @@
+package com.livingcostcheck.home_repair.service.engine;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping.*;
+import com.livingcostcheck.home_repair.service.dto.verdict.LifespanData;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * One consistent generation of the engine data (metro, risk, cost library,
+ * lifespan) plus everything derived from it.
+ *
+ * A verdict resolves the current snapshot once and uses it for every stage, so a
+ * reload never mixes generations. Derived caches live here too: they are
+ * invalidated simply by the snapshot being replaced.
+ *
+ * Read-only by contract, not by type: {@link #build} makes every map and list
+ * unmodifiable, but the parsed beans inside them (MetroCityData, EraData and
+ * RiskItem, ConstructionItem and CostRange, ItemLifespan) are mutable Lombok
+ * DTOs shared by all requests and by the derived tables, which copied values
+ * out of them at build time. Code reading a snapshot must never call their
+ * setters; VerdictEngineTest checks that a full verdict workload leaves them
+ * equal to a fresh parse.
+ */
+public final class EngineDataSnapshot {
+
+    private final String version;
+    private final long sequence;
+    private final String source;
+    private final Instant loadedAt;
+
+    private final MetroMasterData metroMasterData;
+    private final RiskFactorsData riskFactorsData;
+    private final CostLibraryData costLibraryData;
+    private final LifespanData lifespanData;
+
+    private final RiskDecisionTable riskDecisionTable;
+    private final UnitCostMatrix unitCostMatrix;
+    private final RegionIndex regionIndex;
+    private final CostingCache costingCache;
+    private final ModernBaselineTable modernBaselineTable;
+    // Built on first use, see getVerdictCube
+    private volatile VerdictCube verdictCube;
+
+    private EngineDataSnapshot(String version, long sequence, String source, MetroMasterData metroMasterData,
+            RiskFactorsData riskFactorsData, CostLibraryData costLibraryData, LifespanData lifespanData,
+            long costingCacheMaxItems, Function<EngineDataSnapshot, ModernBaselineTable> baselines) {
+        this.version = version;
+        this.sequence = sequence;
+        this.source = source;
+        this.loadedAt = Instant.now();
+        this.metroMasterData = metroMasterData;
+        this.riskFactorsData = riskFactorsData;
+        this.costLibraryData = costLibraryData;
+        this.lifespanData = lifespanData;
+        this.riskDecisionTable = RiskDecisionTable.compile(riskFactorsData, costLibraryData, lifespanData);
+        this.unitCostMatrix = UnitCostMatrix.compile(metroMasterData, costLibraryData);
+        this.regionIndex = RegionIndex.compile(metroMasterData.getData());
+        this.costingCache = new CostingCache(costingCacheMaxItems);
+        // Baselines run the pipeline against this snapshot: keep this assignment last
+        this.modernBaselineTable = baselines.apply(this);
+    }
+
+    /**
+     * Validates and freezes the parsed data, then compiles the derived tables.
+     *
+     * @throws IllegalStateException when the data is incomplete (the caller keeps its
+     *                               previous snapshot)
+     */
+    public static EngineDataSnapshot build(String version, long sequence, String source,
+            MetroMasterData metroMasterData, RiskFactorsData riskFactorsData, CostLibraryData costLibraryData,
+            LifespanData lifespanData, Function<EngineDataSnapshot, ModernBaselineTable> baselines) {
+        List<String> problems = validate(metroMasterData, riskFactorsData, costLibraryData, lifespanData);
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Invalid engine data (" + source + "): " + String.join("; ", problems));
+        }
+
+        freeze(metroMasterData, riskFactorsData, costLibraryData, lifespanData);
+        return new EngineDataSnapshot(version, sequence, source, metroMasterData, riskFactorsData, costLibraryData,
+                lifespanData, CostingCache.DEFAULT_MAX_ITEMS, baselines);
+    }
+
+    /**
+     * Content version: SHA-256 over the source files (in load order), first 16 hex chars.
+     * Identical data gives the identical version across restarts.
+     */
+    public static String digest(List<byte[]> sources) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            for (byte[] source : sources) {
+                sha256.update(source);
+                sha256.update("\n".getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(sha256.digest()).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static List<String> validate(MetroMasterData metroMasterData, RiskFactorsData riskFactorsData,
+            CostLibraryData costLibraryData, LifespanData lifespanData) {
+        List<String> problems = new ArrayList<>();
+
+        if (metroMasterData == null || metroMasterData.getData() == null || metroMasterData.getData().isEmpty()) {
+            problems.add("no metro data");
+        } else {
+            metroMasterData.getData().forEach((metroCode, city) -> {
+                if (city == null || city.getLaborMult() == null || city.getMatLogistics() == null
+                        || city.getMobFee() == null || city.getDispTax() == null) {
+                    problems.add("incomplete localization factors for " + metroCode);
+                }
+            });
+        }
+
+        if (riskFactorsData == null || riskFactorsData.getEras() == null || riskFactorsData.getEras().isEmpty()) {
+            problems.add("no era risk data");
+        }
+
+        if (costLibraryData == null || costLibraryData.getConstructionItemLibrary() == null
+                || costLibraryData.getConstructionItemLibrary().isEmpty()) {
+            problems.add("empty construction cost library");
+        } else {
+            costLibraryData.getConstructionItemLibrary().forEach((category, items) -> items.forEach((code, item) -> {
+                if (item == null || item.getMaterialCostRange() == null
+                        || item.getMaterialCostRange().getLow() == null
+                        || item.getMaterialCostRange().getHigh() == null
+                        || item.getLaborHoursPerUnit() == null || item.getBaseLaborRateNational() == null) {
+                    problems.add("incomplete cost definition for " + code);
+                }
+            }));
+        }
+
+        if (lifespanData == null || lifespanData.getItems() == null || lifespanData.getItems().isEmpty()) {
+            problems.add("no lifespan data");
+        }
+
+        return problems;
+    }
+
+    // Unmodifiable views of every container (not the beans, see the class comment).
+    // Views keep the JSON (LinkedHashMap) order that page links depend on.
+    private static void freeze(MetroMasterData metroMasterData, RiskFactorsData riskFactorsData,
+            CostLibraryData costLibraryData, LifespanData lifespanData) {
+        metroMasterData.setMeta(unmodifiable(metroMasterData.getMeta()));
+        metroMasterData.setData(Collections.unmodifiableMap(metroMasterData.getData()));
+
+        riskFactorsData.getEras().values().forEach(era -> {
+            if (era != null && era.getCriticalRisks() != null) {
+                era.setCriticalRisks(Collections.unmodifiableList(era.getCriticalRisks()));
+            }
+        });
+        riskFactorsData.setMeta(unmodifiable(riskFactorsData.getMeta()));
+        riskFactorsData.setEras(Collections.unmodifiableMap(riskFactorsData.getEras()));
+
+        Map<String, Map<String, ConstructionItem>> library = new LinkedHashMap<>();
+        costLibraryData.getConstructionItemLibrary()
+                .forEach((category, items) -> library.put(category, Collections.unmodifiableMap(items)));
+        costLibraryData.setConstructionItemLibrary(Collections.unmodifiableMap(library));
+        costLibraryData.setProjectMeta(unmodifiable(costLibraryData.getProjectMeta()));
+        costLibraryData.setMetroIndexData(unmodifiable(costLibraryData.getMetroIndexData()));
+
+        lifespanData.setItems(Collections.unmodifiableMap(lifespanData.getItems()));
+    }
+
+    private static <V> Map<String, V> unmodifiable(Map<String, V> map) {
+        return map != null ? Collections.unmodifiableMap(map) : null;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public MetroMasterData getMetroMasterData() {
+        return metroMasterData;
+    }
+
+    public RiskFactorsData getRiskFactorsData() {
+        return riskFactorsData;
+    }
+
+    public CostLibraryData getCostLibraryData() {
+        return costLibraryData;
+    }
+
+    public LifespanData getLifespanData() {
+        return lifespanData;
+    }
+
+    public RiskDecisionTable getRiskDecisionTable() {
+        return riskDecisionTable;
+    }
+
+    public UnitCostMatrix getUnitCostMatrix() {
+        return unitCostMatrix;
+    }
+
+    public RegionIndex getRegionIndex() {
+        return regionIndex;
+    }
+
+    public CostingCache getCostingCache() {
+        return costingCache;
+    }
+
+    public ModernBaselineTable getModernBaselineTable() {
+        return modernBaselineTable;
+    }
+
+    /**
+     * The benchmark verdict cube of this snapshot, built by the builder on first
+     * use; concurrent first callers wait for that one build.
+     */
+    public VerdictCube getVerdictCube(Function<EngineDataSnapshot, VerdictCube> builder) {
+        VerdictCube cube = verdictCube;
+        if (cube == null) {
+            synchronized (this) {
+                cube = verdictCube;
+                if (cube == null) {
+                    cube = builder.apply(this);
+                    verdictCube = cube;
+                }
+            }
+        }
+        return cube;
+    }
+
+    /**
+     * The verdict cube if it has been built, otherwise null.
+     */
+    public VerdictCube peekVerdictCube() {
+        return verdictCube;
+    }
+}
@@ -0,0 +1,181 @@
+package com.livingcostcheck.home_repair.service.engine;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping.MetroCityData;
+
+import java.util.*;
+
+/**
+ * k-nearest-metro queries over the metro coordinates (principal city lat/lon),
+ * compiled once per snapshot.
+ *
+ * Points are stored as unit vectors on the sphere in a 3-d tree (implicit,
+ * median-split, in flat arrays): straight-line distance between unit vectors
+ * orders metros the same as great-circle distance, so neighbors are exact
+ * across state lines, Alaska and Hawaii included. Metros without coordinates
+ * are left out.
+ */
+public final class MetroGeoIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    public record Neighbor(String metroCode, double distanceKm) {
+    }
+
+    // Tree order: the node of range [from, to) is at (from + to) / 2, split on axis depth % 3
+    private final String[] codes;
+    private final double[][] points;
+    private final Map<String, Integer> positions;
+
+    private MetroGeoIndex(String[] codes, double[][] points) {
+        this.codes = codes;
+        this.points = points;
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < codes.length; i++) {
+            positions.put(codes[i], i);
+        }
+        this.positions = Collections.unmodifiableMap(positions);
+    }
+
+    public static MetroGeoIndex compile(Map<String, MetroCityData> metros) {
+        List<String> codes = new ArrayList<>();
+        List<double[]> points = new ArrayList<>();
+        if (metros != null) {
+            metros.forEach((code, city) -> {
+                if (city != null && city.getLat() != null && city.getLon() != null) {
+                    codes.add(code);
+                    points.add(unitVector(city.getLat(), city.getLon()));
+                }
+            });
+        }
+        Integer[] order = new Integer[codes.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        build(order, 0, order.length, 0, points);
+
+        String[] treeCodes = new String[order.length];
+        double[][] treePoints = new double[order.length][];
+        for (int i = 0; i < order.length; i++) {
+            treeCodes[i] = codes.get(order[i]);
+            treePoints[i] = points.get(order[i]);
+        }
+        return new MetroGeoIndex(treeCodes, treePoints);
+    }
+
+    private static void build(Integer[] order, int from, int to, int depth, List<double[]> points) {
+        if (to - from <= 1) {
+            return;
+        }
+        int axis = depth % 3;
+        // Ties broken by data order, so the tree (and equidistant results) are stable
+        Arrays.sort(order, from, to, Comparator.<Integer>comparingDouble(i -> points.get(i)[axis])
+                .thenComparingInt(i -> i));
+        int mid = (from + to) >>> 1;
+        build(order, from, mid, depth + 1, points);
+        build(order, mid + 1, to, depth + 1, points);
+    }
+
+    /**
+     * The k metros closest to the metro, nearest first (itself excluded); empty
+     * when the metro has no coordinates.
+     */
+    public List<Neighbor> nearest(String metroCode, int k) {
+        Integer position = positions.get(metroCode);
+        return position == null ? List.of() : search(points[position], k, position);
+    }
+
+    /** The k metros closest to the point, nearest first. */
+    public List<Neighbor> nearest(double lat, double lon, int k) {
+        return search(unitVector(lat, lon), k, -1);
+    }
+
+    public boolean contains(String metroCode) {
+        return positions.containsKey(metroCode);
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    private List<Neighbor> search(double[] target, int k, int excluded) {
+        if (k <= 0) {
+            return List.of();
+        }
+        Best best = new Best(k);
+        search(target, 0, codes.length, 0, excluded, best);
+        List<Neighbor> neighbors = new ArrayList<>(best.size);
+        for (int i = 0; i < best.size; i++) {
+            // Chord length -> great-circle distance
+            double chord = Math.sqrt(best.distances[i]);
+            neighbors.add(new Neighbor(codes[best.positions[i]],
+                    2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, chord / 2))));
+        }
+        return neighbors;
+    }
+
+    private void search(double[] target, int from, int to, int depth, int excluded, Best best) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        if (mid != excluded) {
+            best.offer(mid, squaredDistance(target, points[mid]));
+        }
+        int axis = depth % 3;
+        double delta = target[axis] - points[mid][axis];
+        boolean left = delta < 0;
+        search(target, left ? from : mid + 1, left ? mid : to, depth + 1, excluded, best);
+        // The far side can only hold closer points if the splitting plane is within reach
+        if (!best.full() || delta * delta <= best.worst()) {
+            search(target, left ? mid + 1 : from, left ? to : mid, depth + 1, excluded, best);
+        }
+    }
+
+    private static double squaredDistance(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static double[] unitVector(double lat, double lon) {
+        double phi = Math.toRadians(lat);
+        double lambda = Math.toRadians(lon);
+        return new double[] { Math.cos(phi) * Math.cos(lambda), Math.cos(phi) * Math.sin(lambda), Math.sin(phi) };
+    }
+
+    /** The k best candidates so far, kept sorted by distance (k is small: insertion beats a heap). */
+    private static final class Best {
+
+        final int[] positions;
+        final double[] distances;
+        int size;
+
+        Best(int k) {
+            positions = new int[k];
+            distances = new double[k];
+        }
+
+        boolean full() {
+            return size == positions.length;
+        }
+
+        double worst() {
+            return distances[size - 1];
+        }
+
+        void offer(int position, double distance) {
+            if (full() && distance >= worst()) {
+                return;
+            }
+            int i = full() ? size - 1 : size++;
+            while (i > 0 && distances[i - 1] > distance) {
+                distances[i] = distances[i - 1];
+                positions[i] = positions[i - 1];
+                i--;
+            }
+            distances[i] = distance;
+            positions[i] = position;
+        }
+    }
+}
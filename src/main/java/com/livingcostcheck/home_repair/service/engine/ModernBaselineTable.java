@@ -0,0 +1,64 @@
+package com.livingcostcheck.home_repair.service.engine;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.StrategyType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Precomputed 2010+ benchmark costs (comparison data) per metro x strategy at
+ * metro-average scale.
+ *
+ * The modern benchmark ignores the user's forensic flags, history and budget,
+ * so at the default scale it is a constant per metro and strategy. Custom sqft
+ * falls back to a live computation in the engine.
+ */
+@Slf4j
+public final class ModernBaselineTable {
+
+    @FunctionalInterface
+    public interface BaselineCalculator {
+        double totalCost(String metroCode, StrategyType strategyType);
+    }
+
+    private static final StrategyType[] STRATEGIES = StrategyType.values();
+
+    private final Map<String, double[]> costsByMetro;
+
+    private ModernBaselineTable(Map<String, double[]> costsByMetro) {
+        this.costsByMetro = costsByMetro;
+    }
+
+    public static ModernBaselineTable compute(Collection<String> metroCodes, BaselineCalculator calculator) {
+        Map<String, double[]> costs = new HashMap<>();
+        for (String metroCode : metroCodes) {
+            double[] row = new double[STRATEGIES.length];
+            try {
+                for (StrategyType strategy : STRATEGIES) {
+                    row[strategy.ordinal()] = calculator.totalCost(metroCode, strategy);
+                }
+            } catch (RuntimeException e) {
+                // Incomplete metro data: leave it out, the engine computes (and reports) per request
+                log.warn("No modern baseline for metro {}, computed per request instead", metroCode, e);
+                continue;
+            }
+            costs.put(metroCode, row);
+        }
+        return new ModernBaselineTable(Collections.unmodifiableMap(costs));
+    }
+
+    /**
+     * Benchmark total for the metro at average scale, or null when the metro is unknown.
+     */
+    public Double get(String metroCode, StrategyType strategyType) {
+        double[] row = costsByMetro.get(metroCode);
+        return row != null ? row[strategyType.ordinal()] : null;
+    }
+
+    public int size() {
+        return costsByMetro.size() * STRATEGIES.length;
+    }
+}
@@ -0,0 +1,146 @@
+package com.livingcostcheck.home_repair.service.engine;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping.MetroCityData;
+import com.livingcostcheck.home_repair.util.TextUtil;
+
+import java.util.*;
+
+/**
+ * Geography of the metro data, compiled once per snapshot: the state of each
+ * metro (the trailing two-letter part of its code), the metros of each state,
+ * their display names and URL slugs, and the nearest metros by distance
+ * (MetroGeoIndex).
+ *
+ * Link and hub builders look metros up here instead of scanning and parsing
+ * every metro code per page. Metros keep the data (JSON) order, which the page
+ * links depend on; states are sorted.
+ */
+public final class RegionIndex {
+
+    /**
+     * @param stateCode two-letter state code as written in the metro code, null when it has none
+     * @param slug      URL segment (austin-round-rock-tx)
+     * @param name      display name with state (Austin Round Rock, TX)
+     * @param cityName  display name without state (Austin Round Rock)
+     */
+    public record Metro(String code, String stateCode, String slug, String name, String cityName) {
+    }
+
+    private static final Map<String, String> STATE_NAMES = Map.ofEntries(
+            Map.entry("AL", "Alabama"), Map.entry("AK", "Alaska"), Map.entry("AZ", "Arizona"),
+            Map.entry("AR", "Arkansas"), Map.entry("CA", "California"), Map.entry("CO", "Colorado"),
+            Map.entry("CT", "Connecticut"), Map.entry("DE", "Delaware"), Map.entry("FL", "Florida"),
+            Map.entry("GA", "Georgia"), Map.entry("HI", "Hawaii"), Map.entry("ID", "Idaho"),
+            Map.entry("IL", "Illinois"), Map.entry("IN", "Indiana"), Map.entry("IA", "Iowa"),
+            Map.entry("KS", "Kansas"), Map.entry("KY", "Kentucky"), Map.entry("LA", "Louisiana"),
+            Map.entry("ME", "Maine"), Map.entry("MD", "Maryland"), Map.entry("MA", "Massachusetts"),
+            Map.entry("MI", "Michigan"), Map.entry("MN", "Minnesota"), Map.entry("MS", "Mississippi"),
+            Map.entry("MO", "Missouri"), Map.entry("MT", "Montana"), Map.entry("NE", "Nebraska"),
+            Map.entry("NV", "Nevada"), Map.entry("NH", "New Hampshire"), Map.entry("NJ", "New Jersey"),
+            Map.entry("NM", "New Mexico"), Map.entry("NY", "New York"), Map.entry("NC", "North Carolina"),
+            Map.entry("ND", "North Dakota"), Map.entry("OH", "Ohio"), Map.entry("OK", "Oklahoma"),
+            Map.entry("OR", "Oregon"), Map.entry("PA", "Pennsylvania"), Map.entry("RI", "Rhode Island"),
+            Map.entry("SC", "South Carolina"), Map.entry("SD", "South Dakota"), Map.entry("TN", "Tennessee"),
+            Map.entry("TX", "Texas"), Map.entry("UT", "Utah"), Map.entry("VT", "Vermont"),
+            Map.entry("VA", "Virginia"), Map.entry("WA", "Washington"), Map.entry("WV", "West Virginia"),
+            Map.entry("WI", "Wisconsin"), Map.entry("WY", "Wyoming"), Map.entry("DC", "District of Columbia"));
+
+    private final Map<String, Metro> metros;
+    private final Map<String, List<Metro>> metrosByState;
+    private final MetroGeoIndex geo;
+
+    private RegionIndex(Map<String, Metro> metros, Map<String, List<Metro>> metrosByState, MetroGeoIndex geo) {
+        this.metros = metros;
+        this.metrosByState = metrosByState;
+        this.geo = geo;
+    }
+
+    public static RegionIndex compile(Map<String, MetroCityData> metros) {
+        return compile(metros.keySet(), MetroGeoIndex.compile(metros));
+    }
+
+    /** Index without coordinates: no metro has neighbors. */
+    public static RegionIndex compile(Collection<String> metroCodes) {
+        return compile(metroCodes, MetroGeoIndex.compile(Map.of()));
+    }
+
+    private static RegionIndex compile(Collection<String> metroCodes, MetroGeoIndex geo) {
+        Map<String, Metro> metros = new LinkedHashMap<>();
+        Map<String, List<Metro>> byState = new TreeMap<>();
+        for (String code : metroCodes) {
+            Metro metro = parse(code);
+            metros.put(code, metro);
+            if (metro.stateCode() != null) {
+                byState.computeIfAbsent(metro.stateCode(), k -> new ArrayList<>()).add(metro);
+            }
+        }
+        Map<String, List<Metro>> frozen = new TreeMap<>();
+        byState.forEach((state, list) -> frozen.put(state, List.copyOf(list)));
+        return new RegionIndex(Collections.unmodifiableMap(metros), Collections.unmodifiableMap(frozen), geo);
+    }
+
+    private static Metro parse(String code) {
+        String[] parts = code.split("_");
+        String last = parts[parts.length - 1];
+        String state = parts.length > 1 && last.length() == 2 && Character.isLetter(last.charAt(0))
+                && Character.isLetter(last.charAt(1)) ? last : null;
+        StringBuilder city = new StringBuilder();
+        for (int i = 0; i < (state != null ? parts.length - 1 : parts.length); i++) {
+            if (!parts[i].isEmpty()) {
+                if (!city.isEmpty()) {
+                    city.append(' ');
+                }
+                city.append(Character.toUpperCase(parts[i].charAt(0))).append(parts[i].substring(1).toLowerCase());
+            }
+        }
+        return new Metro(code, state, code.toLowerCase().replace("_", "-"), TextUtil.formatMetroName(code),
+                city.toString());
+    }
+
+    /** The metro, or null when it is not in the data. */
+    public Metro metro(String metroCode) {
+        return metros.get(metroCode);
+    }
+
+    /** State code of a metro, parsed from the code when it is not in the data. */
+    public String stateOf(String metroCode) {
+        Metro metro = metros.get(metroCode);
+        return (metro != null ? metro : parse(metroCode)).stateCode();
+    }
+
+    /** Every metro, in data order. */
+    public Collection<Metro> metros() {
+        return metros.values();
+    }
+
+    /** Metros of a state in data order, empty for an unknown state. */
+    public List<Metro> metrosInState(String stateCode) {
+        return stateCode == null ? List.of() : metrosByState.getOrDefault(stateCode, List.of());
+    }
+
+    /**
+     * The k metros closest to the metro, nearest first, whatever their state;
+     * empty when it has no coordinates.
+     */
+    public List<Metro> nearest(String metroCode, int k) {
+        return geo.nearest(metroCode, k).stream().map(neighbor -> metros.get(neighbor.metroCode())).toList();
+    }
+
+    public MetroGeoIndex geo() {
+        return geo;
+    }
+
+    /** States with at least one metro, sorted. */
+    public Set<String> states() {
+        return metrosByState.keySet();
+    }
+
+    public int size() {
+        return metros.size();
+    }
+
+    /** Full state name (Texas), or the code itself when unknown. */
+    public static String stateName(String stateCode) {
+        return STATE_NAMES.getOrDefault(stateCode, stateCode);
+    }
+}
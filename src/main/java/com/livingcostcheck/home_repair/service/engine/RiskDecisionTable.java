@@ -0,0 +1,237 @@
+package com.livingcostcheck.home_repair.service.engine;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping.*;
+import com.livingcostcheck.home_repair.service.dto.verdict.LifespanData;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Compiled form of the Step 4 risk/history rules.
+ *
+ * Every keyword check that used to run per item and per request
+ * (risk item -> item code, item code -> category / lifespan subsystem,
+ * era -> effective age) is evaluated ONCE when the engine data is loaded.
+ * Step 4 then resolves an {@link ItemRule} per item with a single index lookup.
+ */
+public final class RiskDecisionTable {
+
+    // Risk item -> item code keyword (Hardcoded Mapping for MVP, formerly inlined in step4)
+    private static final Map<String, String> RISK_ITEM_KEYWORDS = Map.of(
+            "POLYBUTYLENE_PLUMBING", "PLUMBING",
+            "KNOB_AND_TUBE_WIRING", "ELECTRICAL",
+            "ALUMINUM_WIRING", "ELECTRICAL",
+            "LP_INNER_SEAL_SIDING", "SIDING",
+            "SYNTHETIC_STUCCO_EIFS", "STUCCO",
+            "FEDERAL_PACIFIC_PANELS", "ELECTRICAL_PANEL",
+            "CHINESE_DRYWALL", "DRYWALL",
+            "PEX_A_FITTING_RECALLS", "PLUMBING",
+            "HVAC_REFRIGERANT_PHASE_OUT", "HVAC");
+
+    private static final int CURRENT_YEAR = 2026;
+
+    private final ItemRule[] rules; // indexed by item id (library order)
+    private final Map<String, Integer> idsByItemCode;
+    private final Map<String, List<RiskItem>> risksByEra;
+    private final Map<String, Integer> effectiveAgeByEra;
+    private final Map<String, LifespanData.ItemLifespan> lifespans;
+
+    private RiskDecisionTable(List<ItemRule> rules, Map<String, List<RiskItem>> risksByEra,
+            Map<String, LifespanData.ItemLifespan> lifespans) {
+        this.rules = rules.toArray(new ItemRule[0]);
+        this.risksByEra = risksByEra;
+        this.lifespans = lifespans;
+
+        Map<String, Integer> ids = new HashMap<>();
+        for (ItemRule rule : rules) {
+            ids.putIfAbsent(rule.itemCode, rule.id);
+        }
+        this.idsByItemCode = Collections.unmodifiableMap(ids);
+
+        Map<String, Integer> ages = new HashMap<>();
+        for (String era : risksByEra.keySet()) {
+            ages.put(era, computeEffectiveAge(era));
+        }
+        this.effectiveAgeByEra = Collections.unmodifiableMap(ages);
+    }
+
+    public static RiskDecisionTable compile(RiskFactorsData riskFactorsData, CostLibraryData costLibraryData,
+            LifespanData lifespanData) {
+        Map<String, List<RiskItem>> risksByEra = new HashMap<>();
+        if (riskFactorsData != null && riskFactorsData.getEras() != null) {
+            riskFactorsData.getEras().forEach((era, eraData) -> risksByEra.put(era,
+                    eraData != null && eraData.getCriticalRisks() != null
+                            ? List.copyOf(eraData.getCriticalRisks())
+                            : List.of()));
+        }
+
+        Map<String, LifespanData.ItemLifespan> lifespans = lifespanData != null && lifespanData.getItems() != null
+                ? Map.copyOf(lifespanData.getItems())
+                : Map.of();
+
+        List<ItemRule> rules = new ArrayList<>();
+        if (costLibraryData != null && costLibraryData.getConstructionItemLibrary() != null) {
+            costLibraryData.getConstructionItemLibrary().forEach((category, items) -> items.keySet()
+                    .forEach(code -> rules.add(compileRule(rules.size(), code, category, risksByEra, lifespans))));
+        }
+
+        return new RiskDecisionTable(rules, Collections.unmodifiableMap(risksByEra), lifespans);
+    }
+
+    /**
+     * Rule for an item code. Codes outside the library (never produced by step0,
+     * but possible for hand-built items) are compiled on the fly.
+     */
+    public ItemRule rule(String itemCode, String libraryCategory) {
+        Integer id = idsByItemCode.get(itemCode);
+        if (id != null) {
+            return rules[id];
+        }
+        return compileRule(-1, itemCode, libraryCategory, risksByEra, lifespans);
+    }
+
+    public ItemRule rule(int itemId) {
+        return rules[itemId];
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    /**
+     * Age of a home built at the start of the given era (PRE_1950 counts as 1920).
+     */
+    public int effectiveAge(String era) {
+        Integer age = effectiveAgeByEra.get(era);
+        return age != null ? age : computeEffectiveAge(era);
+    }
+
+    private static int computeEffectiveAge(String era) {
+        int startYear = 1900;
+        try {
+            String startYearStr = era.split("_")[0];
+            startYear = "PRE".equals(startYearStr) ? 1920 : Integer.parseInt(startYearStr);
+        } catch (Exception e) {
+        }
+        return CURRENT_YEAR - startYear;
+    }
+
+    private static ItemRule compileRule(int id, String code, String libraryCategory,
+            Map<String, List<RiskItem>> risksByEra, Map<String, LifespanData.ItemLifespan> lifespans) {
+        // Risk Overlay: keep the era's declaration order (multipliers compound in order)
+        Map<String, List<RiskItem>> matchedRisks = new HashMap<>();
+        risksByEra.forEach((era, risks) -> {
+            List<RiskItem> matches = new ArrayList<>();
+            for (RiskItem risk : risks) {
+                String keyword = RISK_ITEM_KEYWORDS.get(risk.getItem());
+                if (keyword != null && code.contains(keyword)) {
+                    matches.add(risk);
+                }
+            }
+            if (!matches.isEmpty()) {
+                matchedRisks.put(era, List.copyOf(matches));
+            }
+        });
+
+        // Category: STRUCTURAL (Roof, Foundation, Sewer) > MECHANICAL > COSMETIC
+        String baseCategory = "COSMETIC";
+        if (code.contains("ROOF") || code.contains("FOUNDATION") || code.contains("SEWER")) {
+            baseCategory = "STRUCTURAL";
+        } else if (code.contains("HVAC") || code.contains("PLUMBING") || code.contains("ELECTRICAL")) {
+            baseCategory = "MECHANICAL";
+        }
+
+        // Lifespan subsystem
+        String subsystem = null;
+        if (code.contains("ROOF"))
+            subsystem = "ROOFING";
+        else if (code.contains("HVAC"))
+            subsystem = "HVAC";
+        else if (code.contains("PLUMBING"))
+            subsystem = "PLUMBING";
+        else if (code.contains("PANEL") || code.contains("ELECTRICAL"))
+            subsystem = "ELECTRICAL";
+        else if (code.contains("WINDOW"))
+            subsystem = "WINDOWS";
+        else if (code.contains("WATER_HEATER"))
+            subsystem = "WATER_HEATER";
+        LifespanData.ItemLifespan lifespan = subsystem != null ? lifespans.get(subsystem) : null;
+
+        // Logic A: Core Systems history keys (LIVING only)
+        List<String> coreHistoryKeys = new ArrayList<>();
+        if (code.contains("ROOF"))
+            coreHistoryKeys.add("ROOFING");
+        if (code.contains("HVAC"))
+            coreHistoryKeys.add("HVAC");
+        if (code.contains("PLUMBING"))
+            coreHistoryKeys.add("PLUMBING");
+        if (code.contains("PANEL"))
+            coreHistoryKeys.add("ELEC_PANEL");
+        String coreCategoryName = code.contains("ROOF") ? "Roofing"
+                : code.contains("HVAC") ? "HVAC System"
+                        : code.contains("PLUMB") ? "Plumbing"
+                                : code.contains("PANEL") ? "Electrical Panel"
+                                        : "System";
+
+        // Logic B: Living Spaces history keys (interior / cabinet / floor items only)
+        List<String> livingHistoryKeys = new ArrayList<>();
+        if ((libraryCategory != null && libraryCategory.contains("INTERIOR")) || code.contains("CABINET")
+                || code.contains("FLOOR")) {
+            if (code.contains("KITCHEN"))
+                livingHistoryKeys.add("KITCHEN_REMODEL");
+            if (code.contains("BATH"))
+                livingHistoryKeys.add("BATH_REMODEL");
+            if (code.contains("FLOOR"))
+                livingHistoryKeys.add("FLOORING");
+            if (code.contains("WINDOW"))
+                livingHistoryKeys.add("WINDOWS");
+        }
+        String livingSpaceName = code.contains("KITCHEN") ? "Kitchen"
+                : code.contains("BATH") ? "Bathroom"
+                        : code.contains("FLOOR") ? "Interior Flooring"
+                                : code.contains("WINDOW") ? "Windows"
+                                        : "Interior Space";
+
+        return new ItemRule(id, code,
+                code.contains("ELECTRICAL_PANEL"), code.contains("PLUMBING"),
+                code.contains("ELECTRICAL"), code.contains("DRYWALL"),
+                Collections.unmodifiableMap(matchedRisks), baseCategory, lifespan, subsystem,
+                List.copyOf(coreHistoryKeys), coreCategoryName,
+                List.copyOf(livingHistoryKeys), livingSpaceName);
+    }
+
+    /**
+     * One row of the decision table: everything Step 4 needs to know about an item
+     * code, independent of the user.
+     */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class ItemRule {
+        private final int id;
+        private final String itemCode;
+        // Forensic targets (Phase 4)
+        private final boolean fpePanelTarget;
+        private final boolean polyBTarget;
+        private final boolean aluminumTarget;
+        private final boolean drywallTarget;
+        @Getter(AccessLevel.NONE)
+        private final Map<String, List<RiskItem>> risksByEra;
+        private final String baseCategory;
+        /** Lifespan entry for the item's subsystem, or null when the item is not aged. */
+        private final LifespanData.ItemLifespan lifespan;
+        private final String subsystem;
+        private final List<String> coreHistoryKeys;
+        private final String coreCategoryName;
+        private final List<String> livingHistoryKeys;
+        private final String livingSpaceName;
+
+        /**
+         * Era risks matching this item, in the era's declaration order.
+         */
+        public List<RiskItem> risksFor(String era) {
+            return risksByEra.getOrDefault(era, List.of());
+        }
+    }
+}
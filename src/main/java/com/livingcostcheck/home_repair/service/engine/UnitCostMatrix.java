@@ -0,0 +1,325 @@
+package com.livingcostcheck.home_repair.service.engine;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping.*;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.EstimatedScale;
+
+import java.util.*;
+
+/**
+ * Per-metro unit rates for every library item, compiled at data load.
+ *
+ * Material, labor, mobilization and disposal rates only depend on the item
+ * definition and the metro factors; only the quantity depends on the house.
+ * Rates are kept in flat metro-major double[] arrays (index metro * items + item)
+ * so costing an item is a multiply-add over its quantity.
+ *
+ * Products are grouped exactly as Step 3 historically evaluated them
+ * ((matBase * matLogistics) * qty, (hours * (rate * laborMult)) * qty,
+ * (qty * wasteTons) * (dispTax * 100)) so results stay bit-identical.
+ */
+public final class UnitCostMatrix {
+
+    // Library items (item id = library order, same as RiskDecisionTable)
+    private final String[] itemCodes;
+    private final Map<String, Integer> itemIds;
+    private final QuantityRule[] quantityRules;
+    private final double[] wasteTons;
+    private final double[] minProjectSize; // NaN when the item has no small-job penalty
+    private final double[] shortOrderMultiplier;
+
+    // Metros (JSON order)
+    private final String[] metroCodes;
+    private final Map<String, Integer> metroIds;
+    private final double[] metroMobFee;
+    private final double[] metroDisposalFactor; // disp_tax * 100 ($ per ton)
+
+    // metro x item
+    private final double[] materialPerUnit;
+    private final double[] laborPerUnit;
+    private final double[] mobilization;
+
+    private UnitCostMatrix(String[] itemCodes, QuantityRule[] quantityRules, double[] wasteTons,
+            double[] minProjectSize, double[] shortOrderMultiplier, String[] metroCodes, double[] metroMobFee,
+            double[] metroDisposalFactor, double[] materialPerUnit, double[] laborPerUnit, double[] mobilization) {
+        this.itemCodes = itemCodes;
+        this.itemIds = indexOf(itemCodes);
+        this.quantityRules = quantityRules;
+        this.wasteTons = wasteTons;
+        this.minProjectSize = minProjectSize;
+        this.shortOrderMultiplier = shortOrderMultiplier;
+        this.metroCodes = metroCodes;
+        this.metroIds = indexOf(metroCodes);
+        this.metroMobFee = metroMobFee;
+        this.metroDisposalFactor = metroDisposalFactor;
+        this.materialPerUnit = materialPerUnit;
+        this.laborPerUnit = laborPerUnit;
+        this.mobilization = mobilization;
+    }
+
+    public static UnitCostMatrix compile(MetroMasterData metroMasterData, CostLibraryData costLibraryData) {
+        List<String> codes = new ArrayList<>();
+        List<String> categories = new ArrayList<>();
+        List<ConstructionItem> defs = new ArrayList<>();
+        if (costLibraryData != null && costLibraryData.getConstructionItemLibrary() != null) {
+            costLibraryData.getConstructionItemLibrary().forEach((category, items) -> items.forEach((code, def) -> {
+                codes.add(code);
+                categories.add(category);
+                defs.add(def);
+            }));
+        }
+
+        int itemCount = codes.size();
+        QuantityRule[] quantityRules = new QuantityRule[itemCount];
+        double[] wasteTons = new double[itemCount];
+        double[] minProjectSize = new double[itemCount];
+        double[] shortOrderMultiplier = new double[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            ConstructionItem def = defs.get(i);
+            quantityRules[i] = QuantityRule.of(codes.get(i), categories.get(i), def.getMeasureUnit());
+            wasteTons[i] = def.getWasteTonsPerUnit() != null ? def.getWasteTonsPerUnit() : 0.0;
+            boolean penalized = def.getMinProjectSize() != null && def.getShortOrderMultiplier() != null;
+            minProjectSize[i] = penalized ? def.getMinProjectSize() : Double.NaN;
+            shortOrderMultiplier[i] = penalized ? def.getShortOrderMultiplier() : Double.NaN;
+        }
+
+        // Metros with incomplete localization factors are left out (costing them fails per request)
+        List<String> metros = new ArrayList<>();
+        List<MetroCityData> cities = new ArrayList<>();
+        if (metroMasterData != null && metroMasterData.getData() != null) {
+            metroMasterData.getData().forEach((metroCode, city) -> {
+                if (city != null && city.getLaborMult() != null && city.getMatLogistics() != null
+                        && city.getMobFee() != null && city.getDispTax() != null) {
+                    metros.add(metroCode);
+                    cities.add(city);
+                }
+            });
+        }
+
+        int metroCount = metros.size();
+        double[] metroMobFee = new double[metroCount];
+        double[] metroDisposalFactor = new double[metroCount];
+        double[] materialPerUnit = new double[metroCount * itemCount];
+        double[] laborPerUnit = new double[metroCount * itemCount];
+        double[] mobilization = new double[metroCount * itemCount];
+
+        for (int m = 0; m < metroCount; m++) {
+            MetroCityData city = cities.get(m);
+            double laborMult = city.getLaborMult();
+            metroMobFee[m] = city.getMobFee();
+            metroDisposalFactor[m] = city.getDispTax() * 100.0;
+
+            for (int i = 0; i < itemCount; i++) {
+                ConstructionItem def = defs.get(i);
+                int cell = m * itemCount + i;
+
+                // Material: ALWAYS avg(low, high)
+                double matBase = (def.getMaterialCostRange().getLow() + def.getMaterialCostRange().getHigh()) / 2.0;
+                materialPerUnit[cell] = matBase * city.getMatLogistics();
+
+                double laborRate = def.getBaseLaborRateNational() * laborMult;
+                laborPerUnit[cell] = def.getLaborHoursPerUnit() * laborRate;
+
+                // PRIMARY: Item_Fee * City_Labor_Mult, SECONDARY: City_Base_Fee + (Item_Fee * 0.5)
+                double itemMob = def.getMobilizationBaseFee() != null ? def.getMobilizationBaseFee() : 0.0;
+                mobilization[cell] = "PRIMARY".equalsIgnoreCase(def.getMobilizationPriority())
+                        ? itemMob * laborMult
+                        : metroMobFee[m] + (itemMob * 0.5);
+            }
+        }
+
+        return new UnitCostMatrix(codes.toArray(new String[0]), quantityRules, wasteTons, minProjectSize,
+                shortOrderMultiplier, metros.toArray(new String[0]), metroMobFee, metroDisposalFactor,
+                materialPerUnit, laborPerUnit, mobilization);
+    }
+
+    private static Map<String, Integer> indexOf(String[] keys) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            index.putIfAbsent(keys[i], i);
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Metro row index, or -1 when the metro is unknown or has incomplete factors.
+     */
+    public int metroId(String metroCode) {
+        Integer id = metroIds.get(metroCode);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Item column index, or -1 when the code is not in the library.
+     */
+    public int itemId(String itemCode) {
+        Integer id = itemIds.get(itemCode);
+        return id != null ? id : -1;
+    }
+
+    public int metroCount() {
+        return metroCodes.length;
+    }
+
+    public int itemCount() {
+        return itemCodes.length;
+    }
+
+    public String metroCode(int metroId) {
+        return metroCodes[metroId];
+    }
+
+    public String itemCode(int itemId) {
+        return itemCodes[itemId];
+    }
+
+    public double mobFee(int metroId) {
+        return metroMobFee[metroId];
+    }
+
+    public double quantity(int itemId, EstimatedScale scale) {
+        return quantityRules[itemId].quantity(scale);
+    }
+
+    /**
+     * Costs one item for a metro and quantity into {@code out}
+     * (material, labor, mobilization, disposal, subtotal), small-job penalty included.
+     */
+    public void cost(int metroId, int itemId, double quantity, double[] out) {
+        int cell = metroId * itemCodes.length + itemId;
+
+        double matCost = materialPerUnit[cell] * quantity;
+        double laborCost = laborPerUnit[cell] * quantity;
+        double mob = mobilization[cell];
+        double disposal = quantity * wasteTons[itemId] * metroDisposalFactor[metroId];
+        double subtotal = matCost + laborCost + mob + disposal;
+
+        // Small Job Penalty: "If Units < min_project_size, Total_Cost * short_order_multiplier"
+        if (quantity < minProjectSize[itemId]) {
+            double penaltyMult = shortOrderMultiplier[itemId];
+            matCost *= penaltyMult;
+            laborCost *= penaltyMult;
+            mob *= penaltyMult;
+            disposal *= penaltyMult;
+            subtotal *= penaltyMult;
+        }
+
+        out[0] = matCost;
+        out[1] = laborCost;
+        out[2] = mob;
+        out[3] = disposal;
+        out[4] = subtotal;
+    }
+
+    public double wasteTons(int itemId) {
+        return wasteTons[itemId];
+    }
+
+    /**
+     * How Step 3 derives an item's quantity from the estimated scale
+     * (measure unit + item code heuristics, resolved once per item).
+     */
+    enum QuantityRule {
+        ROOFING_SQUARES,
+        SIDING_SQUARES,
+        FLOOR_SQUARES,
+        ONE,
+        INTERIOR_FLOOR_SQFT,
+        DECK_SQFT,
+        INTERIOR_SQFT,
+        LOT_ACRES,
+        EXTERIOR_WALL_SQFT,
+        INTERIOR_WALL_SQFT,
+        CABINET_LF,
+        GUTTER_LF,
+        PERIMETER_LF,
+        WINDOWS,
+        DOORS,
+        BATHROOMS,
+        REPIPE_LF;
+
+        static QuantityRule of(String code, String category, String measureUnit) {
+            // Special overrides for known items
+            if ("HVAC_HEAT_PUMP_CENTRAL".equals(code))
+                return ONE; // SPEC Line 30: HVAC is ONE system (tonnage is capacity, not units)
+            if ("ROOFING_ASPHALT_ARCHITECTURAL".equals(code))
+                return ROOFING_SQUARES;
+            if ("PLUMBING_WHOLE_HOUSE_REPIPE".equals(code))
+                return REPIPE_LF; // Min 150 LF per JSON min_project_size
+
+            switch (measureUnit != null ? measureUnit : "") {
+                case "SQUARE":
+                    if (code.contains("ROOF"))
+                        return ROOFING_SQUARES;
+                    return code.contains("SIDING") ? SIDING_SQUARES : FLOOR_SQUARES;
+                case "UNIT":
+                    return ONE;
+                case "SQFT":
+                    if (category.contains("INTERIOR") && code.contains("FLOOR"))
+                        return INTERIOR_FLOOR_SQFT;
+                    if (code.contains("DECK"))
+                        return DECK_SQFT;
+                    if (category.contains("LANDSCAPING"))
+                        return ONE; // Maintenance often quoted per project baseline unless ACRE
+                    return INTERIOR_SQFT;
+                case "ACRE":
+                    return LOT_ACRES;
+                case "SQFT_WALL":
+                    return code.contains("EXTERIOR") ? EXTERIOR_WALL_SQFT : INTERIOR_WALL_SQFT;
+                case "LF":
+                    if (code.contains("CABINET"))
+                        return CABINET_LF;
+                    return code.contains("GUTTER") ? GUTTER_LF : PERIMETER_LF;
+                case "EACH":
+                    if (code.contains("WINDOW"))
+                        return WINDOWS;
+                    if (code.contains("DOOR"))
+                        return DOORS;
+                    return code.contains("BATH") ? BATHROOMS : ONE;
+                default:
+                    return ONE;
+            }
+        }
+
+        double quantity(EstimatedScale scale) {
+            switch (this) {
+                case ROOFING_SQUARES:
+                    return scale.getRoofingSquares();
+                case SIDING_SQUARES:
+                    // Wall Area Approx = Floor Sqft * 1.2 (assuming single story box) / 100
+                    return (scale.getInteriorSqft() * 1.2) / 100.0;
+                case FLOOR_SQUARES:
+                    return scale.getInteriorSqft() / 100.0;
+                case INTERIOR_FLOOR_SQFT:
+                    return scale.getInteriorSqft() * 0.85; // 85% coverage
+                case DECK_SQFT:
+                    // Standard deck is ~400 sqft. Cap it at 600 for large homes.
+                    return Math.min(Math.max(scale.getInteriorSqft() * 0.15, 300.0), 600.0);
+                case INTERIOR_SQFT:
+                    return scale.getInteriorSqft();
+                case LOT_ACRES:
+                    return Math.max(0.1, scale.getExteriorSqft() / 43560.0); // min 0.1
+                case EXTERIOR_WALL_SQFT:
+                    return scale.getInteriorSqft() * 1.2;
+                case INTERIOR_WALL_SQFT:
+                    return scale.getInteriorSqft() * 3.5; // Interior wall + ceiling
+                case CABINET_LF:
+                    return 35.0; // Avg kitchen cabinet run
+                case GUTTER_LF:
+                    return Math.sqrt(scale.getInteriorSqft()) * 4.0 * 1.15; // Perimeter + waste
+                case PERIMETER_LF:
+                    return scale.getExteriorSqft() * 0.1;
+                case WINDOWS:
+                    return 12.0;
+                case DOORS:
+                    return 8.0;
+                case BATHROOMS:
+                    return (double) scale.getBathrooms();
+                case REPIPE_LF:
+                    return Math.max(150, scale.getInteriorSqft() * 0.15);
+                case ONE:
+                default:
+                    return 1.0;
+            }
+        }
+    }
+}
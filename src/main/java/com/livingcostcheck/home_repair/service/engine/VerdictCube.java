@@ -0,0 +1,354 @@
+package com.livingcostcheck.home_repair.service.engine;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.ContextBriefing;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.RelationshipToHouse;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.RiskAdjustedItem;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.SortedPlan;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.StrategyOption;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.UserContext;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.Verdict;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Every benchmark-mode verdict of a snapshot: metro x era x relationship at
+ * metro-average scale, no forensic flags or history, budget -1 (cost estimate
+ * without an affordability judgement). Static verdict pages, L2 risk pages,
+ * state hubs and the step 2 briefing all read this finite space.
+ *
+ * Cells sit in one flat array indexed by (metroId, eraId, relationship); ids
+ * are the positions in the snapshot's metro and era order. Relationship has
+ * one slot per {@link RelationshipToHouse} plus one for none (the static page
+ * tree does not set it). Within a metro/era the slots share their briefing and
+ * equal plan items; {@link #get} hands every caller its own deep copy, so the
+ * cells are never visible (or mutable) outside the cube.
+ *
+ * Retained only when its estimated footprint fits the budget (117 metros take
+ * about 7 MB); otherwise, and for metros whose verdicts fail, callers compute
+ * per request.
+ */
+public final class VerdictCube {
+
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final RelationshipToHouse[] RELATIONSHIPS = RelationshipToHouse.values();
+    private static final int SLOTS = RELATIONSHIPS.length + 1;
+
+    private final Map<String, Integer> metroIds;
+    private final Map<String, Integer> eraIds;
+    private final Verdict[] cells;
+    private final int builtCells;
+    private final long buildMillis;
+    private final long footprintBytes;
+    private final long maxBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private VerdictCube(Map<String, Integer> metroIds, Map<String, Integer> eraIds, Verdict[] cells,
+            int builtCells, long buildMillis, long footprintBytes, long maxBytes) {
+        this.metroIds = metroIds;
+        this.eraIds = eraIds;
+        this.cells = cells;
+        this.builtCells = builtCells;
+        this.buildMillis = buildMillis;
+        this.footprintBytes = footprintBytes;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Benchmark context of a cell.
+     */
+    public static UserContext context(String metroCode, String era, RelationshipToHouse relationship) {
+        return UserContext.builder()
+                .metroCode(metroCode)
+                .era(era)
+                .budget(-1.0)
+                .relationship(relationship)
+                .build();
+    }
+
+    /**
+     * Computes every cell, one batch per metro (in parallel). A metro whose batch
+     * fails is left empty.
+     *
+     * @param batch verdicts for the contexts, in order (the engine's batch entry point)
+     */
+    public static VerdictCube build(List<String> metroCodes, List<String> eras, long maxBytes,
+            Function<List<UserContext>, List<Verdict>> batch) {
+        long start = System.nanoTime();
+        Verdict[] cells = new Verdict[metroCodes.size() * eras.size() * SLOTS];
+
+        Map<String, Integer> metroIds = new HashMap<>();
+        for (int i = 0; i < metroCodes.size(); i++) {
+            metroIds.put(metroCodes.get(i), i);
+        }
+        Map<String, Integer> eraIds = new HashMap<>();
+        for (int i = 0; i < eras.size(); i++) {
+            eraIds.put(eras.get(i), i);
+        }
+
+        metroIds.entrySet().parallelStream().forEach(metro -> {
+            List<UserContext> contexts = new ArrayList<>(eras.size() * SLOTS);
+            for (String era : eras) {
+                contexts.add(context(metro.getKey(), era, null));
+                for (RelationshipToHouse relationship : RELATIONSHIPS) {
+                    contexts.add(context(metro.getKey(), era, relationship));
+                }
+            }
+            List<Verdict> verdicts;
+            try {
+                verdicts = batch.apply(contexts);
+            } catch (RuntimeException e) {
+                // Incomplete metro data: leave it out, the engine computes (and reports) per request
+                return;
+            }
+            int base = metro.getValue() * eras.size() * SLOTS;
+            for (int era = 0; era < eras.size(); era++) {
+                share(verdicts.subList(era * SLOTS, (era + 1) * SLOTS));
+            }
+            for (int i = 0; i < verdicts.size(); i++) {
+                cells[base + i] = verdicts.get(i);
+            }
+        });
+
+        int built = (int) Arrays.stream(cells).filter(Objects::nonNull).count();
+        long footprint = Footprint.of(cells);
+        long buildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new VerdictCube(Collections.unmodifiableMap(metroIds), Collections.unmodifiableMap(eraIds),
+                footprint <= maxBytes ? cells : null, built, buildMillis, footprint, maxBytes);
+    }
+
+    /**
+     * The slots of one metro/era: one briefing object and one instance per distinct plan item.
+     */
+    private static void share(List<Verdict> slots) {
+        ContextBriefing briefing = slots.get(0).getContextBriefing();
+        Map<RiskAdjustedItem, RiskAdjustedItem> items = new HashMap<>();
+        for (Verdict verdict : slots) {
+            if (Objects.equals(verdict.getContextBriefing(), briefing)) {
+                verdict.setContextBriefing(briefing);
+            }
+            SortedPlan plan = verdict.getPlan();
+            if (plan != null) {
+                plan.setMustDo(intern(plan.getMustDo(), items));
+                plan.setShouldDo(intern(plan.getShouldDo(), items));
+                plan.setSkipForNow(intern(plan.getSkipForNow(), items));
+            }
+        }
+    }
+
+    private static List<RiskAdjustedItem> intern(List<RiskAdjustedItem> list,
+            Map<RiskAdjustedItem, RiskAdjustedItem> items) {
+        if (list == null) {
+            return null;
+        }
+        List<RiskAdjustedItem> shared = new ArrayList<>(list.size());
+        for (RiskAdjustedItem item : list) {
+            shared.add(items.computeIfAbsent(item, k -> k));
+        }
+        return shared;
+    }
+
+    public Integer metroId(String metroCode) {
+        return metroIds.get(metroCode);
+    }
+
+    public Integer eraId(String era) {
+        return eraIds.get(era);
+    }
+
+    /**
+     * A copy of the cell's verdict, or null when the cube is over budget or the metro failed.
+     */
+    public Verdict get(int metroId, int eraId, RelationshipToHouse relationship) {
+        Verdict verdict = cells != null
+                ? cells[(metroId * eraIds.size() + eraId) * SLOTS + (relationship != null ? relationship.ordinal() + 1 : 0)]
+                : null;
+        (verdict != null ? hits : misses).incrementAndGet();
+        return verdict != null ? copy(verdict) : null;
+    }
+
+    /**
+     * A copy of the cell's verdict, or null when it is outside the cube (unknown
+     * metro or era) or not retained.
+     */
+    public Verdict get(String metroCode, String era, RelationshipToHouse relationship) {
+        Integer metroId = metroIds.get(metroCode);
+        Integer eraId = eraIds.get(era);
+        if (metroId == null || eraId == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        return get(metroId, eraId, relationship);
+    }
+
+    /**
+     * Deep copy down to the strings and enums (immutable): the DTOs are mutable
+     * Lombok beans, and the cells' briefing and plan items are shared between slots.
+     */
+    static Verdict copy(Verdict verdict) {
+        return verdict.toBuilder()
+                .strategyOptions(copy(verdict.getStrategyOptions(), VerdictCube::copy))
+                .exclusionNote(copy(verdict.getExclusionNote()))
+                .mustDoExplanation(copy(verdict.getMustDoExplanation()))
+                .optionalActions(copy(verdict.getOptionalActions()))
+                .futureCostWarning(copy(verdict.getFutureCostWarning()))
+                .upgradeScenario(copy(verdict.getUpgradeScenario()))
+                .plan(copy(verdict.getPlan()))
+                .skippedStrategies(copy(verdict.getSkippedStrategies()))
+                .contextBriefing(verdict.getContextBriefing() != null
+                        ? verdict.getContextBriefing().toBuilder().build()
+                        : null)
+                .comparisonData(verdict.getComparisonData() != null
+                        ? verdict.getComparisonData().toBuilder().build()
+                        : null)
+                .build();
+    }
+
+    private static StrategyOption copy(StrategyOption option) {
+        return option.toBuilder()
+                .plan(copy(option.getPlan()))
+                .includedCategories(copy(option.getIncludedCategories()))
+                .keyHighlights(copy(option.getKeyHighlights()))
+                .build();
+    }
+
+    private static SortedPlan copy(SortedPlan plan) {
+        if (plan == null) {
+            return null;
+        }
+        return SortedPlan.builder()
+                .mustDo(copy(plan.getMustDo(), VerdictCube::copy))
+                .shouldDo(copy(plan.getShouldDo(), VerdictCube::copy))
+                .skipForNow(copy(plan.getSkipForNow(), VerdictCube::copy))
+                .build();
+    }
+
+    private static RiskAdjustedItem copy(RiskAdjustedItem item) {
+        return item.toBuilder()
+                .riskFlags(copy(item.getRiskFlags()))
+                .build();
+    }
+
+    private static List<String> copy(List<String> strings) {
+        return strings != null ? new ArrayList<>(strings) : null;
+    }
+
+    private static <T> List<T> copy(List<T> list, Function<T, T> element) {
+        if (list == null) {
+            return null;
+        }
+        List<T> copy = new ArrayList<>(list.size());
+        for (T value : list) {
+            copy.add(value != null ? element.apply(value) : null);
+        }
+        return copy;
+    }
+
+    public Stats stats() {
+        return new Stats(metroIds.size() * eraIds.size() * SLOTS, builtCells, cells != null, buildMillis,
+                footprintBytes, maxBytes, hits.get(), misses.get());
+    }
+
+    /**
+     * @param footprintBytes estimated heap retained by the verdicts (see {@link Footprint})
+     * @param retained       false when the footprint is over maxBytes (cells were dropped)
+     */
+    public record Stats(int cells, int builtCells, boolean retained, long buildMillis, long footprintBytes,
+            long maxBytes, long hits, long misses) {
+    }
+
+    /**
+     * Shallow-size walk of the verdict graph, counting each object once: 12-byte
+     * headers, 4-byte references (compressed oops), 8-byte alignment. JDK strings
+     * and collections are sized from their length instead of their internals.
+     */
+    static final class Footprint {
+
+        private final Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        private long bytes;
+
+        static long of(Object root) {
+            Footprint footprint = new Footprint();
+            footprint.visit(root);
+            return footprint.bytes;
+        }
+
+        private void visit(Object object) {
+            if (object == null || object instanceof Enum<?> || object instanceof Class<?> || !seen.add(object)) {
+                return;
+            }
+            if (object instanceof String string) {
+                bytes += 24 + align(16 + string.length());
+            } else if (object instanceof Number || object instanceof Boolean || object instanceof Character) {
+                bytes += 16;
+            } else if (object instanceof Collection<?> collection) {
+                bytes += 24 + align(16 + 4L * collection.size());
+                collection.forEach(this::visit);
+            } else if (object instanceof Map<?, ?> map) {
+                bytes += 48 + align(16 + 4L * map.size()) + 32L * map.size();
+                map.forEach((key, value) -> {
+                    visit(key);
+                    visit(value);
+                });
+            } else if (object.getClass().isArray()) {
+                int length = Array.getLength(object);
+                Class<?> component = object.getClass().getComponentType();
+                bytes += align(16 + (long) length * (component.isPrimitive() ? primitiveSize(component) : 4));
+                if (!component.isPrimitive()) {
+                    for (int i = 0; i < length; i++) {
+                        visit(Array.get(object, i));
+                    }
+                }
+            } else {
+                visitFields(object);
+            }
+        }
+
+        private void visitFields(Object object) {
+            long size = 12;
+            List<Object> references = new ArrayList<>();
+            for (Class<?> type = object.getClass(); type != Object.class; type = type.getSuperclass()) {
+                for (Field field : type.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    if (field.getType().isPrimitive()) {
+                        size += primitiveSize(field.getType());
+                        continue;
+                    }
+                    size += 4;
+                    try {
+                        field.setAccessible(true);
+                        references.add(field.get(object));
+                    } catch (ReflectiveOperationException | RuntimeException e) {
+                        // Not introspectable (JDK internals): count the reference only
+                    }
+                }
+            }
+            bytes += align(size);
+            references.forEach(this::visit);
+        }
+
+        private static int primitiveSize(Class<?> type) {
+            if (type == long.class || type == double.class) {
+                return 8;
+            }
+            if (type == int.class || type == float.class) {
+                return 4;
+            }
+            return type == short.class || type == char.class ? 2 : 1;
+        }
+
+        private static long align(long size) {
+            return (size + 7) & ~7L;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.livingcostcheck.home_repair.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Short content hashes (first 16 hex chars of SHA-256) used as cache validators.
+ */
+public final class ContentHash {
+
+    private ContentHash() {
+    }
+
+    public static String of(byte[]... parts) {
+        MessageDigest sha256 = sha256();
+        for (byte[] part : parts) {
+            sha256.update(part);
+            sha256.update((byte) '\n');
+        }
+        return HexFormat.of().formatHex(sha256.digest()).substring(0, 16);
+    }
+
+    /** Same hash as {@code of(Arrays.copyOfRange(bytes, offset, offset + length))}, without the copy. */
+    public static String of(byte[] bytes, int offset, int length) {
+        MessageDigest sha256 = sha256();
+        sha256.update(bytes, offset, length);
+        sha256.update((byte) '\n');
+        return HexFormat.of().formatHex(sha256.digest()).substring(0, 16);
+    }
+
+    public static String of(String... parts) {
+        MessageDigest sha256 = sha256();
+        for (String part : parts) {
+            sha256.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            sha256.update((byte) '\n');
+        }
+        return HexFormat.of().formatHex(sha256.digest()).substring(0, 16);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.livingcostcheck.home_repair.util;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ *
+ * Producers claim a slot by CAS on the tail and publish the element into it;
+ * a full buffer rejects the offer instead of blocking. The consumer takes
+ * published slots in order and frees them by advancing the head. A claimed
+ * slot that is not yet published ends the current drain (it is picked up by
+ * the next one).
+ */
+public final class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity out of range: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return false when the buffer is full (the element is not queued)
+     */
+    public boolean offer(E element) {
+        Objects.requireNonNull(element);
+        long claimed;
+        do {
+            claimed = tail.get();
+            if (claimed - head.get() >= slots.length()) {
+                return false;
+            }
+        } while (!tail.compareAndSet(claimed, claimed + 1));
+        slots.setRelease((int) claimed & mask, element);
+        return true;
+    }
+
+    /**
+     * Hands up to {@code limit} elements to the sink, oldest first.
+     * Single consumer only.
+     *
+     * @return number of elements drained
+     */
+    public int drain(Consumer<? super E> sink, int limit) {
+        long next = head.get();
+        int drained = 0;
+        try {
+            while (drained < limit) {
+                int slot = (int) next & mask;
+                E element = slots.getAcquire(slot);
+                if (element == null) {
+                    break;
+                }
+                slots.setPlain(slot, null);
+                next++;
+                drained++;
+                sink.accept(element);
+            }
+        } finally {
+            // Release: the cleared slots are visible before producers can reuse them
+            head.setRelease(next);
+        }
+        return drained;
+    }
+
+    /** Elements offered so far (including ones not yet drained). */
+    public long produced() {
+        return tail.get();
+    }
+
+    /** Elements drained so far. */
+    public long consumed() {
+        return head.get();
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+}
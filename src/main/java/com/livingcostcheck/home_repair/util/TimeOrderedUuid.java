@@ -0,0 +1,55 @@
+package com.livingcostcheck.home_repair.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Time-ordered UUIDs (RFC 9562 version 7): 48-bit Unix milliseconds, a 12-bit
+ * counter keeping ids monotonic within the millisecond, 62 random bits.
+ * New keys land at the right edge of a B-tree index instead of a random page.
+ */
+public final class TimeOrderedUuid {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int MAX_COUNTER = 0xFFF;
+
+    private static long lastMillis;
+    private static int counter;
+
+    private TimeOrderedUuid() {
+    }
+
+    public static UUID next() {
+        long millis;
+        int sequence;
+        synchronized (TimeOrderedUuid.class) {
+            millis = Math.max(System.currentTimeMillis(), lastMillis);
+            if (millis == lastMillis) {
+                if (counter == MAX_COUNTER) {
+                    // Counter exhausted: borrow the next millisecond
+                    millis++;
+                    counter = RANDOM.nextInt(1024);
+                } else {
+                    counter++;
+                }
+            } else {
+                // Random start leaves room to count up within the millisecond
+                counter = RANDOM.nextInt(1024);
+            }
+            lastMillis = millis;
+            sequence = counter;
+        }
+
+        long msb = (millis << 16) | (0x7L << 12) | sequence;
+        long lsb = (RANDOM.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(msb, lsb);
+    }
+
+    /** Creation time (Unix milliseconds) of a version 7 UUID. */
+    public static long timestamp(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
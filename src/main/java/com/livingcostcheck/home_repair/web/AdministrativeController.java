@@ -1,12 +1,31 @@
 package com.livingcostcheck.home_repair.web;
 
+import com.livingcostcheck.home_repair.repository.WriteBehindQueue;
+import com.livingcostcheck.home_repair.seo.GenerationJob;
+import com.livingcostcheck.home_repair.seo.GenerationJobService;
+import com.livingcostcheck.home_repair.seo.RiskDetailPageCache;
 import com.livingcostcheck.home_repair.seo.StaticPageGeneratorService;
 import com.livingcostcheck.home_repair.service.VerdictEngineService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 @RestController
@@ -14,44 +33,208 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class AdministrativeController {
 
+    private static final String JOBS_PATH = "/admin/p-seo/generate/jobs/";
+    private static final long EVENT_KEEP_ALIVE_MILLIS = 15_000;
+
     private final StaticPageGeneratorService staticPageGeneratorService;
+    private final GenerationJobService generationJobService;
     private final VerdictEngineService verdictEngineService;
-    private final com.livingcostcheck.home_repair.seo.SitemapGenerator sitemapGenerator;
+    private final RiskDetailPageCache riskDetailPageCache;
+    private final WriteBehindQueue writeBehindQueue;
+    private final ClickCounters clickCounters;
 
+    /**
+     * Starts a full generation job (pages, sitemap, precompressed siblings); same
+     * as POST /generate/jobs?mode=full.
+     */
     @GetMapping("/generate")
     public String generate() {
         log.info("ADMIN: Triggering static page generation...");
-        // Path relative to project root
-        String outputPath = "src/main/resources/static/home-repair/verdicts";
+        return startJobMessage(GenerationJob.Mode.FULL, null);
+    }
 
-        var masterData = verdictEngineService.getMetroMasterData();
-        if (masterData == null) {
-            return "ERROR: MetroMasterData is NULL";
+    /**
+     * Starts a generation job: mode full, changed or metro (with metro=CODE).
+     * Mode changed rebuilds only the pages that read data changed since the
+     * last generation (see PageDependencyGraph), refreshes the sitemap and
+     * drops the cached L2 pages of the affected metro/eras.
+     * 202 with the job status, 409 while another job is queued or running.
+     */
+    @PostMapping("/generate/jobs")
+    public ResponseEntity<?> startGenerationJob(@RequestParam(defaultValue = "changed") String mode,
+            @RequestParam(required = false) String metro) {
+        GenerationJob.Mode jobMode;
+        try {
+            jobMode = GenerationJob.Mode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown mode: " + mode));
         }
-        if (masterData.getData() == null) {
-            return "ERROR: MetroMasterData.getData() is NULL";
+        try {
+            GenerationJob job = generationJobService.start(jobMode, metro);
+            return ResponseEntity.accepted().location(URI.create(JOBS_PATH + job.id())).body(job.status());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
-        log.info("DEBUG: Metro Data Size: {}", masterData.getData().size());
+    }
+
+    @GetMapping("/generate/jobs/{id}")
+    public ResponseEntity<GenerationJob.Status> generationJob(@PathVariable long id) {
+        return ResponseEntity.of(generationJobService.job(id).map(GenerationJob::status));
+    }
 
-        java.util.List<String> results = staticPageGeneratorService.generateAllPages(outputPath);
-        long errorCount = results.stream().filter(s -> s.startsWith("ERROR")).count();
+    @PostMapping("/generate/jobs/{id}/cancel")
+    public ResponseEntity<GenerationJob.Status> cancelGenerationJob(@PathVariable long id) {
+        return ResponseEntity.of(generationJobService.job(id).map(job -> {
+            if (job.cancel()) {
+                log.info("ADMIN: Generation job {} cancel requested", id);
+            }
+            return job.status();
+        }));
+    }
 
-        if (errorCount > 0) {
-            String firstError = results.stream().filter(s -> s.startsWith("ERROR")).findFirst().orElse("Unknown Error");
-            return "FAILED: " + errorCount + " errors. First Error: " + firstError;
+    /**
+     * Server-sent events of the job: started, one page event per page (path,
+     * render/write ms, written, error, completed/total) and finished (final
+     * status with the report). Replays from the start, or after Last-Event-ID
+     * on reconnect; the stream ends with the job.
+     */
+    @GetMapping(path = "/generate/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> generationJobEvents(@PathVariable long id,
+            @RequestHeader(name = "Last-Event-ID", required = false) Integer lastEventId) {
+        Optional<GenerationJob> job = generationJobService.job(id);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
         }
+        // No async timeout: the stream lasts as long as the job
+        SseEmitter emitter = new SseEmitter(0L);
+        int from = lastEventId == null ? 0 : lastEventId + 1;
+        Thread.ofVirtual().name("generation-events-" + id).start(() -> streamEvents(job.get(), emitter, from));
+        return ResponseEntity.ok(emitter);
+    }
+
+    /** Live progress of the running generation (or the last one) with its slowest pages. */
+    @GetMapping("/generate/progress")
+    public String generateProgress() {
+        return staticPageGeneratorService.lastRun().map(progress -> progress.report(20))
+                .orElse("No generation has run since startup");
+    }
+
+    /** Cancels the latest generation job; same as POST /generate/jobs/{id}/cancel with its id. */
+    @PostMapping("/generate/cancel")
+    public ResponseEntity<GenerationJob.Status> generateCancel() {
+        return generationJobService.latest().map(job -> cancelGenerationJob(job.id()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
 
+    private String startJobMessage(GenerationJob.Mode mode, String metro) {
         try {
-            // Sitemap path relative to project root (same level as 'static')
-            String sitemapPath = "src/main/resources/static/sitemap.xml";
-            int sitemapCount = sitemapGenerator.generateSitemap(sitemapPath, results);
+            GenerationJob job = generationJobService.start(mode, metro);
+            return "Started generation job " + job.id() + " (" + mode + "). Status: " + JOBS_PATH + job.id()
+                    + ", events: " + JOBS_PATH + job.id() + "/events";
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            return "REJECTED: " + e.getMessage();
+        }
+    }
 
-            return "Generated " + results.size() + " pages to " + outputPath +
-                    " (Metro Count: " + masterData.getData().size() + ").\n" +
-                    "Sitemap updated: " + sitemapCount + " URLs.";
+    private static void streamEvents(GenerationJob job, SseEmitter emitter, int from) {
+        int next = from;
+        try {
+            while (true) {
+                List<GenerationJob.Event> events = job.events(next, EVENT_KEEP_ALIVE_MILLIS);
+                if (events.isEmpty()) {
+                    if (job.isFinished()) {
+                        break;
+                    }
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                    continue;
+                }
+                for (GenerationJob.Event event : events) {
+                    emitter.send(SseEmitter.event().id(String.valueOf(event.id())).name(event.type())
+                            .data(event.data(), MediaType.APPLICATION_JSON));
+                }
+                next = events.get(events.size() - 1).id() + 1;
+            }
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // Client disconnected; the job goes on
+            log.debug("Generation job {} event stream closed at event {}: {}", job.id(), next, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        }
+    }
+
+    @GetMapping("/engine-cache")
+    public String engineCache() {
+        var stats = verdictEngineService.getCostingCacheStats();
+        return String.format(
+                "Costing cache (data %s): %d entries, %d/%d items, hits=%d misses=%d (%.1f%%) evictions=%d",
+                verdictEngineService.getDataVersion(), stats.entries(), stats.cachedItems(), stats.maxItems(),
+                stats.hits(), stats.misses(), stats.hitRate() * 100, stats.evictions());
+    }
+
+    @GetMapping("/verdict-cube")
+    public String verdictCube() {
+        var stats = verdictEngineService.getVerdictCubeStats();
+        if (stats == null) {
+            return "Verdict cube (data " + verdictEngineService.getDataVersion() + "): not built yet";
+        }
+        return String.format(
+                "Verdict cube (data %s): %d/%d cells built in %d ms, ~%d/%d bytes (%s), hits=%d misses=%d",
+                verdictEngineService.getDataVersion(), stats.builtCells(), stats.cells(), stats.buildMillis(),
+                stats.footprintBytes(), stats.maxBytes(), stats.retained() ? "retained" : "over budget, not retained",
+                stats.hits(), stats.misses());
+    }
+
+    @GetMapping("/risk-page-cache")
+    public String riskPageCache() {
+        var stats = riskDetailPageCache.stats();
+        return String.format(
+                "Risk page cache: %d pages, %d/%d bytes, %d slug indexes, hits=%d stale=%d misses=%d (%.1f%%) evictions=%d",
+                stats.pages(), stats.cachedBytes(), stats.maxBytes(), stats.slugIndexes(),
+                stats.hits(), stats.staleHits(), stats.misses(), stats.hitRate() * 100, stats.evictions());
+    }
+
+    @GetMapping("/write-behind")
+    public String writeBehind() {
+        var stats = writeBehindQueue.stats();
+        return String.format(
+                "Write-behind: queued=%d clicks=%d pending=%d enqueued=%d written=%d batches=%d retries=%d "
+                        + "dropped=%d clicksDropped=%d callerRuns=%d failed=%d",
+                stats.queued(), stats.clicks(), stats.pending(), stats.enqueued(), stats.written(), stats.batches(),
+                stats.retries(), stats.dropped(), stats.clicksDropped(), stats.callerRuns(), stats.failed());
+    }
+
+    @GetMapping("/clicks")
+    public String clicks() {
+        var stats = clickCounters.stats();
+        StringBuilder report = new StringBuilder(String.format(
+                "Clicks since startup: ad=%d affiliate=%d keys=%d untracked=%d, rows dropped=%d",
+                stats.adClicks(), stats.affiliateClicks(), stats.keys(), stats.untracked(),
+                writeBehindQueue.stats().clicksDropped()));
+        for (var count : clickCounters.top(20)) {
+            report.append('\n').append(String.format("%8d  %s %s %s", count.clicks(), count.key().type(),
+                    count.key().verdictId(), count.key().target()));
+        }
+        return report.toString();
+    }
+
+    @PostMapping("/engine-reload")
+    public String engineReload() {
+        log.info("ADMIN: Reloading engine data...");
+        String previousVersion = verdictEngineService.getDataVersion();
+        try {
+            var data = verdictEngineService.reload();
+            if (data.getVersion().equals(previousVersion)) {
+                return "Engine data unchanged (version " + previousVersion + ")";
+            }
+            return "Engine data reloaded: " + previousVersion + " -> " + data.getVersion() +
+                    " (#" + data.getSequence() + " from " + data.getSource() + ")";
         } catch (Exception e) {
-            log.error("Sitemap generation failed", e);
-            return "Generated pages but Sitemap FAILED: " + e.getMessage();
+            log.error("Engine data reload failed", e);
+            return "Reload FAILED, still serving version " + previousVersion + ": " + e.getMessage();
         }
     }
 }
@@ -0,0 +1,104 @@
+package com.livingcostcheck.home_repair.web;
+
+import com.livingcostcheck.home_repair.domain.EventLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory click counts since startup, per (verdictId, type, target) and per
+ * type. Counted before the click is queued for event_log, so the counts stay
+ * exact when the write-behind ring drops rows under overload.
+ *
+ * Bounded by the number of keys and by the key size: clicks on keys beyond
+ * max-keys, and clicks on targets longer than max-target-length (the target is
+ * client-supplied, only its prefix is validated), only count in the per-type
+ * totals and in {@code untracked}. A key holds a fixed-size verdict id plus at
+ * most max-target-length chars, so the map stays under about
+ * max-keys x (200 B + 2 B x max-target-length): ~70 MB at the defaults, ~45 MB
+ * for ASCII targets.
+ */
+@Component
+public class ClickCounters {
+
+    public static final int DEFAULT_MAX_KEYS = 100_000;
+    public static final int DEFAULT_MAX_TARGET_LENGTH = 256;
+
+    private final int maxKeys;
+    private final int maxTargetLength;
+    private final Map<Key, LongAdder> counts = new ConcurrentHashMap<>();
+    private final Map<EventLog.EventType, LongAdder> totals = new EnumMap<>(EventLog.EventType.class);
+    private final LongAdder untracked = new LongAdder();
+
+    public ClickCounters(int maxKeys) {
+        this(maxKeys, DEFAULT_MAX_TARGET_LENGTH);
+    }
+
+    @Autowired
+    public ClickCounters(@Value("${app.tracking.max-keys:" + DEFAULT_MAX_KEYS + "}") int maxKeys,
+            @Value("${app.tracking.max-target-length:" + DEFAULT_MAX_TARGET_LENGTH + "}") int maxTargetLength) {
+        this.maxKeys = maxKeys;
+        this.maxTargetLength = maxTargetLength;
+        for (EventLog.EventType type : EventLog.EventType.values()) {
+            totals.put(type, new LongAdder());
+        }
+    }
+
+    public void record(UUID verdictId, EventLog.EventType type, String target) {
+        totals.get(type).increment();
+        if (target != null && target.length() > maxTargetLength) {
+            untracked.increment();
+            return;
+        }
+        Key key = new Key(verdictId, type, target);
+        LongAdder count = counts.get(key);
+        if (count == null) {
+            if (counts.size() >= maxKeys) {
+                untracked.increment();
+                return;
+            }
+            count = counts.computeIfAbsent(key, k -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    public long count(UUID verdictId, EventLog.EventType type, String target) {
+        LongAdder count = counts.get(new Key(verdictId, type, target));
+        return count == null ? 0 : count.sum();
+    }
+
+    public long total(EventLog.EventType type) {
+        return totals.get(type).sum();
+    }
+
+    /** Most clicked keys (a snapshot, sorted on read). */
+    public List<Count> top(int limit) {
+        return counts.entrySet().stream()
+                .map(entry -> new Count(entry.getKey(), entry.getValue().sum()))
+                .sorted(Comparator.comparingLong(Count::clicks).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public Stats stats() {
+        return new Stats(total(EventLog.EventType.CLICK_AD), total(EventLog.EventType.CLICK_AFFILIATE),
+                counts.size(), untracked.sum());
+    }
+
+    public record Key(UUID verdictId, EventLog.EventType type, String target) {
+    }
+
+    public record Count(Key key, long clicks) {
+    }
+
+    public record Stats(long adClicks, long affiliateClicks, int keys, long untracked) {
+    }
+}
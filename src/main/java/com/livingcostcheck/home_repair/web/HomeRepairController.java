@@ -2,21 +2,38 @@ package com.livingcostcheck.home_repair.web;
 
 import com.livingcostcheck.home_repair.domain.EventLog;
 import com.livingcostcheck.home_repair.domain.VerdictHistory;
-import com.livingcostcheck.home_repair.repository.EventLogRepository;
 import com.livingcostcheck.home_repair.repository.HomeRepairRepository;
+import com.livingcostcheck.home_repair.repository.WriteBehindQueue;
+import com.livingcostcheck.home_repair.service.StagedVerdict;
+import com.livingcostcheck.home_repair.service.StagedVerdictCache;
 import com.livingcostcheck.home_repair.service.VerdictEngineService;
+import com.livingcostcheck.home_repair.service.VerdictSnapshotCodec;
 import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.*;
+import com.livingcostcheck.home_repair.service.engine.MetroGeoIndex;
+import com.livingcostcheck.home_repair.service.engine.RegionIndex;
+import com.livingcostcheck.home_repair.service.engine.VerdictCube;
+import com.livingcostcheck.home_repair.seo.RiskDetailPageCache;
 import com.livingcostcheck.home_repair.seo.VerdictSeoService;
+import gg.jte.TemplateEngine;
+import gg.jte.output.Utf8ByteOutput;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.view.RedirectView;
+import com.livingcostcheck.home_repair.util.ContentHash;
 import com.livingcostcheck.home_repair.util.TextUtil;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -29,9 +46,15 @@ import java.util.UUID;
 public class HomeRepairController {
 
     private final HomeRepairRepository repository;
-    private final EventLogRepository eventLogRepository;
+    private final WriteBehindQueue writeBehindQueue;
     private final VerdictEngineService verdictEngineService;
     private final com.livingcostcheck.home_repair.seo.VerdictSeoService verdictSeoService;
+    private final VerdictSnapshotCodec verdictSnapshotCodec;
+    private final RiskDetailPageCache riskDetailPageCache;
+    private final TemplateEngine templateEngine;
+    private final HttpCachePolicy httpCachePolicy;
+    private final ClickCounters clickCounters;
+    private final StagedVerdictCache stagedVerdictCache;
 
     @GetMapping
     public String index(Model model) {
@@ -102,50 +125,36 @@ public class HomeRepairController {
                 log.warn("Invalid relationship param: {}", relationshipStr);
             }
 
-            UserContext context = UserContext.builder()
-                    .metroCode(metroCode)
-                    .era(era)
-                    .budget(budget)
-                    .sqft(sqft.intValue())
-                    .relationship(relationship)
-                    .history(history != null ? history : java.util.Collections.emptyList())
-                    .condition(condition)
-                    .isFpePanel(isFpePanel)
-                    .isPolyB(isPolyB)
-                    .isAluminum(isAluminum)
-                    .isChineseDrywall(isChineseDrywall)
-                    .bathrooms(bathrooms)
-                    .stories(stories)
-                    .roofType(roofType)
-                    .build();
-
-            // 1. Generate Verdict
-            Verdict verdict = verdictEngineService.generateVerdict(context);
-
-            // 2. Persistence (History)
+            // 1. Persistence (History): everything the verdict depends on
             VerdictHistory verdictHistory = new VerdictHistory(
-                    context.getMetroCode(),
-                    String.valueOf(context.getBudget()),
-                    context.getRelationship().name(),
-                    context.getEra(),
-                    verdict.getTier(), // Code/Result
+                    metroCode,
+                    String.valueOf(budget),
+                    relationship.name(),
+                    era,
+                    "PENDING", // Replaced by the verdict tier below
                     "v2026.01",
-                    String.valueOf(context.hashCode()) // Simple hash for context
-            );
+                    "");
             if (!"anonymous".equals(userEmail)) {
                 verdictHistory.setUserEmail(userEmail);
             }
 
             // Save detailed context for re-generation
-            String historyStr = context.getHistory() != null ? String.join(",", context.getHistory()) : "";
-            verdictHistory.setRepairContext(historyStr, context.getCondition());
-            verdictHistory.setForensicClues(
-                    context.getIsFpePanel(),
-                    context.getIsPolyB(),
-                    context.getIsAluminum(),
-                    context.getIsChineseDrywall());
+            String historyStr = history != null ? String.join(",", history) : "";
+            verdictHistory.setRepairContext(historyStr, condition);
+            verdictHistory.setForensicClues(isFpePanel, isPolyB, isAluminum, isChineseDrywall);
+            verdictHistory.setScale(sqft != null ? sqft.intValue() : null, stories, bathrooms, roofType);
+
+            // 2. Generate Verdict from the stored context (exactly what the result page shows)
+            UserContext context = toUserContext(verdictHistory);
+            String dataVersion = verdictEngineService.getDataVersion();
+            Verdict verdict = verdictEngineService.generateVerdict(context);
+
+            verdictHistory.setVerdictCode(verdict.getTier());
+            verdictHistory.setDecisionContextHash(String.valueOf(context.hashCode())); // Simple hash for context
+            verdictHistory.setVerdictSnapshot(verdictSnapshotCodec.encode(verdict), dataVersion);
 
-            repository.save(verdictHistory);
+            // Queued insert; the result page reads it back from the queue until written
+            writeBehindQueue.saveHistory(verdictHistory);
 
             return "redirect:/home-repair/result/" + verdictHistory.getId();
         } catch (Exception e) {
@@ -160,68 +169,34 @@ public class HomeRepairController {
     }
 
     @GetMapping("/result/{uuid}")
-    public String result(@PathVariable("uuid") UUID uuid, Model model) {
+    public String result(@PathVariable("uuid") UUID uuid, ServletWebRequest request, Model model) {
         try {
-            VerdictHistory history = repository.findById(uuid)
+            VerdictHistory history = writeBehindQueue.pendingHistory(uuid)
+                    .or(() -> repository.findById(uuid))
                     .orElseThrow(() -> new IllegalArgumentException("Invalid Verdict ID"));
 
             if (log.isDebugEnabled()) {
                 log.debug("Loading result for ID: {}", uuid);
             }
 
-            // Safe Double Parsing
-            double parsedBudget = 0.0;
-            try {
-                if (history.getBudget() != null && !history.getBudget().equalsIgnoreCase("null")) {
-                    parsedBudget = Double.parseDouble(history.getBudget());
-                }
-            } catch (NumberFormatException e) {
-                log.warn("Failed to parse budget: {}", history.getBudget());
-            }
-
-            // Re-construct Context from History
-            RelationshipToHouse relationship = RelationshipToHouse.LIVING;
-            try {
-                relationship = RelationshipToHouse.valueOf(history.getPurpose());
-            } catch (Exception e) {
-                log.warn("Failed to parse relationship from history: {}", history.getPurpose());
+            // Stored verdict unless the engine data changed since it was computed
+            Verdict verdict = storedVerdict(history);
+            String snapshotHash = history.getSnapshotHash();
+            if (verdict == null) {
+                String dataVersion = verdictEngineService.getDataVersion();
+                verdict = verdictEngineService.generateVerdict(toUserContext(history));
+                // The history may still be queued for insert (read by the writer): refresh by id only
+                byte[] snapshot = verdictSnapshotCodec.encode(verdict);
+                snapshotHash = ContentHash.of(snapshot);
+                writeBehindQueue.updateSnapshot(history.getId(), snapshot, dataVersion, snapshotHash);
             }
 
-            // Split history string back into lists (Simple parsing for MVP)
-            List<String> combinedHistory = history.getRepairHistory() != null && !history.getRepairHistory().isEmpty()
-                    ? java.util.Arrays.asList(history.getRepairHistory().split(","))
-                    : java.util.Collections.emptyList();
-
-            // Distribute based on known prefixes or lists
-            List<String> coreHistory = new java.util.ArrayList<>();
-            List<String> livingHistory = new java.util.ArrayList<>();
-
-            for (String h : combinedHistory) {
-                if (h.contains("ROOF") || h.contains("HVAC") || h.contains("ELEC_PANEL") || h.contains("PLUMBING")) {
-                    coreHistory.add(h);
-                } else {
-                    livingHistory.add(h);
-                }
+            // The page only changes with its snapshot: returning visitors revalidate without a render
+            if (httpCachePolicy.notModified(request, httpCachePolicy.resultPages(),
+                    httpCachePolicy.versionEtag(snapshotHash))) {
+                return null;
             }
 
-            UserContext context = UserContext.builder()
-                    .metroCode(history.getZipCode()) // Storing MetroCode in ZipCode field for now
-                    .era(history.getDecade())
-                    .budget(parsedBudget)
-                    .relationship(relationship)
-                    .purpose(history.getPurpose()) // Deprecated but populated
-                    .history(combinedHistory) // Keep deprecated for compat
-                    .coreSystemHistory(coreHistory)
-                    .livingSpaceHistory(livingHistory)
-                    .condition(history.getHouseCondition() != null ? history.getHouseCondition() : "UNKNOWN")
-                    .isFpePanel(history.getIsFpePanel())
-                    .isPolyB(history.getIsPolyB())
-                    .isAluminum(history.getIsAluminum())
-                    .isChineseDrywall(history.getIsChineseDrywall())
-                    .build();
-
-            Verdict verdict = verdictEngineService.generateVerdict(context);
-
             // CTR Optimization: Verdict-First Titles & Decision-Oriented H1s
             String city = TextUtil.formatMetroName(history.getZipCode());
 
@@ -240,6 +215,85 @@ public class HomeRepairController {
         }
     }
 
+    /**
+     * Snapshot stored with the history row, or null when missing (or stored without
+     * its hash), computed from an older engine data version, or unreadable.
+     */
+    private Verdict storedVerdict(VerdictHistory history) {
+        if (history.getVerdictSnapshot() == null || history.getSnapshotHash() == null
+                || !verdictEngineService.getDataVersion().equals(history.getDataVersion())) {
+            return null;
+        }
+        try {
+            return verdictSnapshotCodec.decode(history.getVerdictSnapshot());
+        } catch (IOException e) {
+            log.warn("Unreadable verdict snapshot for {}: {}", history.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Re-construct the verdict context from a history row.
+     */
+    private UserContext toUserContext(VerdictHistory history) {
+        // Safe Double Parsing
+        double parsedBudget = 0.0;
+        try {
+            if (history.getBudget() != null && !history.getBudget().equalsIgnoreCase("null")) {
+                parsedBudget = Double.parseDouble(history.getBudget());
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Failed to parse budget: {}", history.getBudget());
+        }
+
+        RelationshipToHouse relationship = RelationshipToHouse.LIVING;
+        try {
+            relationship = RelationshipToHouse.valueOf(history.getPurpose());
+        } catch (Exception e) {
+            log.warn("Failed to parse relationship from history: {}", history.getPurpose());
+        }
+
+        // Split history string back into lists (Simple parsing for MVP)
+        List<String> combinedHistory = history.getRepairHistory() != null && !history.getRepairHistory().isEmpty()
+                ? java.util.Arrays.asList(history.getRepairHistory().split(","))
+                : java.util.Collections.emptyList();
+
+        // Distribute based on known prefixes or lists
+        List<String> coreHistory = new java.util.ArrayList<>();
+        List<String> livingHistory = new java.util.ArrayList<>();
+
+        for (String h : combinedHistory) {
+            if (h.contains("ROOF") || h.contains("HVAC") || h.contains("ELEC_PANEL") || h.contains("PLUMBING")) {
+                coreHistory.add(h);
+            } else {
+                livingHistory.add(h);
+            }
+        }
+
+        return UserContext.builder()
+                .metroCode(history.getZipCode()) // Storing MetroCode in ZipCode field for now
+                .era(history.getDecade())
+                .budget(parsedBudget)
+                .relationship(relationship)
+                .purpose(history.getPurpose()) // Deprecated but populated
+                .history(combinedHistory) // Keep deprecated for compat
+                .coreSystemHistory(coreHistory)
+                .livingSpaceHistory(livingHistory)
+                .condition(history.getHouseCondition() != null ? history.getHouseCondition() : "UNKNOWN")
+                .isFpePanel(history.getIsFpePanel())
+                .isPolyB(history.getIsPolyB())
+                .isAluminum(history.getIsAluminum())
+                .isChineseDrywall(history.getIsChineseDrywall())
+                .sqft(history.getSqft())
+                .stories(history.getStories())
+                .bathrooms(history.getBathrooms())
+                .roofType(history.getRoofType())
+                .build();
+    }
+
+    // -------------------------------------------------------------------------
+    // STATIC INFO PAGES
+    // -------------------------------------------------------------------------
     // -------------------------------------------------------------------------
     // STATIC INFO PAGES
     // -------------------------------------------------------------------------
@@ -278,27 +332,46 @@ public class HomeRepairController {
     // DYNAMIC LEVEL 2: RISK DETAIL PSEO
     // -------------------------------------------------------------------------
     @GetMapping("/verdicts/{metro}/{era}/{riskItem}")
-    public String viewRiskDetail(@PathVariable String metro,
+    public ResponseEntity<byte[]> viewRiskDetail(@PathVariable String metro,
             @PathVariable String era,
             @PathVariable String riskItem,
-            Model model) {
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        // Served from the rendered page cache; crawler bursts never reach the engine
+        String dataVersion = verdictEngineService.getDataVersion();
+        RiskDetailPageCache.Page page = riskDetailPageCache.get(new RiskDetailPageCache.Key(metro, era, riskItem),
+                dataVersion, () -> renderRiskDetail(metro, era, riskItem, dataVersion));
+
+        boolean gzip = page.gzipped() && acceptEncoding != null && acceptEncoding.contains("gzip");
+        // Content ETag: recrawls of an unchanged page get a 304 (handled by Spring for ResponseEntity)
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+                .eTag(httpCachePolicy.contentEtag(page.contentHash()))
+                .cacheControl(httpCachePolicy.publicPages())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? page.body() : page.html());
+    }
 
-        // 1. Generate core verdict logic
-        UserContext context = UserContext.builder()
-                .metroCode(metro.replace("-", "_").toUpperCase())
-                .era(era.replace("-", "_").toUpperCase())
-                .budget(0.0) // Info page assumption
-                .relationship(RelationshipToHouse.LIVING)
-                .build();
+    private byte[] renderRiskDetail(String metro, String era, String riskItem, String dataVersion) {
+        Map<String, Object> model = new HashMap<>();
+
+        // 1. Core verdict: benchmark mode for an owner-occupant (copied from the engine's verdict cube)
+        UserContext context = VerdictCube.context(metro.replace("-", "_").toUpperCase(),
+                era.replace("-", "_").toUpperCase(), RelationshipToHouse.LIVING);
 
-        Verdict verdict = verdictEngineService.generateVerdict(context);
+        RiskDetailPageCache.SlugIndex index = riskDetailPageCache.slugIndex(context.getMetroCode(), context.getEra(),
+                dataVersion, () -> verdictEngineService.benchmarkVerdict(context.getMetroCode(), context.getEra(),
+                        context.getRelationship()));
+        Verdict verdict = index.verdict();
 
         // 2. Find specific risk item
-        RiskAdjustedItem targetItem = verdict.getPlan().getMustDo().stream()
-                .filter(item -> item.getItemCode().toLowerCase().replace("_", "-")
-                        .equals(riskItem.replace(".html", "")))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Risk item not found: " + riskItem));
+        RiskAdjustedItem targetItem = index.item(riskItem.replace(".html", ""));
+        if (targetItem == null) {
+            throw new IllegalArgumentException("Risk item not found: " + riskItem);
+        }
 
         // 3. Prepare Model for Template (same as StaticPageGenerator)
         String metroName = TextUtil.formatMetroName(context.getMetroCode());
@@ -322,36 +395,38 @@ public class HomeRepairController {
         String regionalInsight = com.livingcostcheck.home_repair.seo.FragmentLibrary.generateRegionalInsight(
                 climateZone, context.getEra(), laborMult, metroName, seed);
 
-        model.addAttribute("title",
+        model.put("title",
                 String.format("%s in %s: $%,.0f Cost Guide (%s Homes)",
                         targetItem.getPrettyName(), metroName, targetItem.getAdjustedCost(), eraName));
-        model.addAttribute("targetItem", targetItem); // Template expects 'item' or we map it
-        model.addAttribute("item", targetItem); // Mapping to 'item' as per template
-        model.addAttribute("itemSlug", riskItem.replace(".html", ""));
-        model.addAttribute("verdict", verdict);
-        model.addAttribute("metroCode", context.getMetroCode());
-        model.addAttribute("metroName", metroName);
-        model.addAttribute("era", era);
-        model.addAttribute("eraName", eraName);
-        model.addAttribute("baseUrl", "https://lifeverdict.com");
+        model.put("targetItem", targetItem); // Template expects 'item' or we map it
+        model.put("item", targetItem); // Mapping to 'item' as per template
+        model.put("itemSlug", riskItem.replace(".html", ""));
+        model.put("verdict", verdict);
+        model.put("metroCode", context.getMetroCode());
+        model.put("metroName", metroName);
+        model.put("era", era);
+        model.put("eraName", eraName);
+        model.put("baseUrl", "https://lifeverdict.com");
 
         // Injected Data
-        model.addAttribute("regionalInsight", regionalInsight);
-        model.addAttribute("climateZone", climateZone);
-        model.addAttribute("metroRisk", metroRisk);
-        model.addAttribute("foundation", foundation);
+        model.put("regionalInsight", regionalInsight);
+        model.put("climateZone", climateZone);
+        model.put("metroRisk", metroRisk);
+        model.put("foundation", foundation);
 
         // Internal Links (Simplified for Dynamic)
         String parentUrl = "/home-repair/verdicts/" + metro + "/" + era + ".html";
-        model.addAttribute("parentUrl", parentUrl);
-        model.addAttribute("canonicalUrl",
+        model.put("parentUrl", parentUrl);
+        model.put("canonicalUrl",
                 "https://lifeverdict.com/home-repair/verdicts/" + metro + "/" + era + "/" + riskItem + ".html");
 
         // Helper Schemas (Empty for now, can be refactored to shared service)
-        model.addAttribute("faqSchema", "");
-        model.addAttribute("breadcrumbSchema", "");
+        model.put("faqSchema", "");
+        model.put("breadcrumbSchema", "");
 
-        return "seo/static-risk-detail";
+        Utf8ByteOutput output = new Utf8ByteOutput();
+        templateEngine.render("seo/static-risk-detail.jte", model, output);
+        return output.toByteArray();
     }
 
     // -------------------------------------------------------------------------
@@ -362,15 +437,85 @@ public class HomeRepairController {
     @ResponseBody
     public ResponseEntity<String> captureLead(@RequestParam("verdictId") UUID verdictId,
             @RequestParam("email") String email) {
-        VerdictHistory history = repository.findById(verdictId)
-                .orElseThrow(() -> new IllegalArgumentException("Invalid ID"));
+        // Queued UPDATE (no read first); an unknown verdict ID is logged by the writer
+        writeBehindQueue.updateEmail(verdictId, email);
+        writeBehindQueue.logEvent(new EventLog(verdictId, EventLog.EventType.SUBMIT_EMAIL, email));
+
+        return ResponseEntity.ok("Report Sent");
+    }
 
-        history.setUserEmail(email);
-        repository.save(history);
+    /**
+     * Closest metros by distance (any state) for the "compare nearby" widget.
+     * Accepts the metro code or its URL slug; 404 for an unknown metro.
+     */
+    @GetMapping("/api/nearby")
+    @ResponseBody
+    public ResponseEntity<List<NearbyMetro>> nearbyMetros(@RequestParam("metro") String metro,
+            @RequestParam(value = "k", defaultValue = "5") int k) {
+        RegionIndex regions = verdictEngineService.getRegionIndex();
+        String metroCode = metro.replace("-", "_").toUpperCase();
+        if (regions.metro(metroCode) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        int count = Math.max(1, Math.min(k, MAX_NEARBY));
+        List<NearbyMetro> nearby = regions.geo().nearest(metroCode, count).stream()
+                .map(neighbor -> NearbyMetro.of(regions.metro(neighbor.metroCode()), neighbor))
+                .toList();
+        return ResponseEntity.ok()
+                .eTag(httpCachePolicy.versionEtag(verdictEngineService.getDataVersion(), metroCode,
+                        String.valueOf(count)))
+                .cacheControl(httpCachePolicy.publicPages())
+                .body(nearby);
+    }
 
-        eventLogRepository.save(new EventLog(verdictId, EventLog.EventType.SUBMIT_EMAIL, email));
+    private static final int MAX_NEARBY = 20;
 
-        return ResponseEntity.ok("Report Sent");
+    public record NearbyMetro(String metroCode, String name, String slug, double distanceMiles) {
+
+        static NearbyMetro of(RegionIndex.Metro metro, MetroGeoIndex.Neighbor neighbor) {
+            return new NearbyMetro(metro.code(), metro.name(), metro.slug(),
+                    Math.round(neighbor.distanceKm() / 1.609344 * 10) / 10.0);
+        }
+    }
+
+    /**
+     * Result page what-if (budget slider, relationship toggle, size field): the
+     * stored verdict's context with the given inputs replaced. Only the pipeline
+     * stages the change invalidates are rerun, from the verdict's staged form
+     * (see StagedVerdictCache). 404 for an unknown verdict.
+     */
+    @GetMapping("/api/what-if/{uuid}")
+    @ResponseBody
+    public ResponseEntity<WhatIfResult> whatIf(@PathVariable("uuid") UUID uuid,
+            @RequestParam(value = "budget", required = false) Double budget,
+            @RequestParam(value = "relationship", required = false) RelationshipToHouse relationship,
+            @RequestParam(value = "sqft", required = false) Integer sqft) {
+        return stagedVerdictCache.get(uuid, id -> writeBehindQueue.pendingHistory(id)
+                .or(() -> repository.findById(id))
+                .map(this::toUserContext))
+                .map(base -> ResponseEntity.ok()
+                        .cacheControl(httpCachePolicy.resultPages())
+                        .body(WhatIfResult.of(verdictEngineService.whatIf(base, budget, relationship, sqft))))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * @param recomputedFrom first pipeline stage the what-if had to run again
+     */
+    public record WhatIfResult(String tier, String headline, String strategyUsed, Double exactCostEstimate,
+            String costRangeLabel, String primaryCostDriver, int mustDoCount, int shouldDoCount,
+            Double budget, RelationshipToHouse relationship, Integer sqft, StagedVerdict.Stage recomputedFrom) {
+
+        static WhatIfResult of(StagedVerdict staged) {
+            Verdict verdict = staged.getVerdict();
+            UserContext context = staged.getContext();
+            SortedPlan plan = verdict.getPlan();
+            return new WhatIfResult(verdict.getTier(), verdict.getHeadline(), verdict.getStrategyUsed(),
+                    verdict.getExactCostEstimate(), verdict.getCostRangeLabel(), verdict.getPrimaryCostDriver(),
+                    plan != null && plan.getMustDo() != null ? plan.getMustDo().size() : 0,
+                    plan != null && plan.getShouldDo() != null ? plan.getShouldDo().size() : 0,
+                    context.getBudget(), context.getRelationship(), context.getSqft(), staged.getRecomputedFrom());
+        }
     }
 
     @GetMapping("/track")
@@ -385,11 +530,9 @@ public class HomeRepairController {
 
         EventLog.EventType eventType = "AD".equalsIgnoreCase(type) ? EventLog.EventType.CLICK_AD
                 : EventLog.EventType.CLICK_AFFILIATE;
-        try {
-            eventLogRepository.save(new EventLog(verdictId, eventType, target));
-        } catch (Exception e) {
-            log.error("Error logging tracking event", e);
-        }
+        // In-memory counter + lock-free ring buffer: the redirect never waits on the database
+        clickCounters.record(verdictId, eventType, target);
+        writeBehindQueue.logEvent(new EventLog(verdictId, eventType, target));
 
         return new RedirectView(target);
     }
@@ -0,0 +1,114 @@
+package com.livingcostcheck.home_repair.web;
+
+import com.livingcostcheck.home_repair.service.VerdictEngineService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Conditional requests for pages that are not handled in their controller:
+ * the generated static verdict tree, the CSS and the hub/index/info views.
+ *
+ * Also declares the {@link HttpCachePolicy}. It only reads configuration, so web
+ * slices get it with this config; the engine data version is looked up per
+ * request and version ETags are skipped when no engine is loaded.
+ */
+@Configuration
+public class HttpCacheConfig implements WebMvcConfigurer {
+
+    /** Views that only depend on their path, the engine data and the templates. */
+    static final String[] VERSIONED_PAGES = {
+            "/", "/privacy-policy", "/terms-of-service", "/disclaimer",
+            "/home-repair", "/home-repair/about", "/home-repair/methodology", "/home-repair/editorial-policy",
+            "/home-repair/data-sources", "/home-repair/disclaimer" };
+
+    private final HttpCachePolicy httpCachePolicy;
+    private final Supplier<String> dataVersion;
+
+    public HttpCacheConfig(@Value("${gg.jte.templateLocation:src/main/jte}") String templateLocation,
+            @Value("${app.http-cache.max-age:1h}") Duration maxAge,
+            @Value("${app.http-cache.stale-while-revalidate:1d}") Duration staleWhileRevalidate,
+            ObjectProvider<VerdictEngineService> verdictEngineService) {
+        this.httpCachePolicy = new HttpCachePolicy(templatePatterns(templateLocation), maxAge, staleWhileRevalidate);
+        this.dataVersion = () -> {
+            VerdictEngineService engine = verdictEngineService.getIfAvailable();
+            return engine != null ? engine.getDataVersion() : null;
+        };
+    }
+
+    @Bean
+    public HttpCachePolicy httpCachePolicy() {
+        return httpCachePolicy;
+    }
+
+    /**
+     * Precompiled templates, then the template sources (development mode). No
+     * source directory is scanned when templateLocation is empty (prod profile),
+     * which would otherwise resolve against the filesystem root.
+     */
+    static List<String> templatePatterns(String templateLocation) {
+        List<String> patterns = new ArrayList<>(List.of("classpath*:gg/jte/generated/precompiled/**/*.class"));
+        if (StringUtils.hasText(templateLocation)) {
+            patterns.add("file:" + templateLocation + "/**/*.jte");
+        }
+        return patterns;
+    }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // Generated L1 pages and state hubs (more specific than the default /** handler)
+        registry.addResourceHandler("/home-repair/verdicts/**")
+                .addResourceLocations("classpath:/static/home-repair/verdicts/")
+                .setCacheControl(httpCachePolicy.publicPages())
+                .setEtagGenerator(httpCachePolicy::staticEtag)
+                // Serves the generator's .gz siblings (Content-Encoding + Vary: Accept-Encoding)
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+
+        registry.addResourceHandler("/css/**")
+                .addResourceLocations("classpath:/static/css/")
+                .setCacheControl(httpCachePolicy.publicPages())
+                .setEtagGenerator(httpCachePolicy::staticEtag)
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+
+        // Sitemap index and shards at the root (sitemap.xml, sitemap-tx.xml, sitemap-verdicts-2.xml)
+        registry.addResourceHandler("/sitemap*.xml")
+                .addResourceLocations("classpath:/static/")
+                .setCacheControl(httpCachePolicy.publicPages())
+                .setEtagGenerator(httpCachePolicy::staticEtag)
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                String version = dataVersion.get();
+                if (version == null) {
+                    return true;
+                }
+                String etag = httpCachePolicy.versionEtag(request.getRequestURI(), version);
+                return !httpCachePolicy.notModified(new ServletWebRequest(request, response),
+                        httpCachePolicy.publicPages(), etag);
+            }
+        }).addPathPatterns(VERSIONED_PAGES);
+    }
+}
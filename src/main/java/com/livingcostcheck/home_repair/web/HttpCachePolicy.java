@@ -0,0 +1,132 @@
+package com.livingcostcheck.home_repair.web;
+
+import com.livingcostcheck.home_repair.util.ContentHash;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Validators and Cache-Control per route.
+ *
+ * Content ETags hash the bytes served (L2 risk pages, static verdict tree).
+ * Version ETags hash the inputs of a rendered view plus the template
+ * fingerprint, so a 304 can be answered before rendering: hub/index/info
+ * pages (path + engine data version) and result pages (verdict snapshot).
+ * ETags are weak since the same page may be served gzipped or not.
+ *
+ * Declared in {@link HttpCacheConfig}.
+ */
+@Slf4j
+public class HttpCachePolicy {
+
+    private final String templateFingerprint;
+    private final CacheControl publicPages;
+    private final CacheControl resultPages = CacheControl.noCache().cachePrivate();
+
+    private final Map<String, StaticEtag> staticEtags = new ConcurrentHashMap<>();
+
+    /**
+     * @param templatePatterns resource patterns of the deployed templates, tried in
+     *                         order (the first one matching is fingerprinted)
+     */
+    public HttpCachePolicy(List<String> templatePatterns, Duration maxAge, Duration staleWhileRevalidate) {
+        this.templateFingerprint = templateFingerprint(templatePatterns);
+        this.publicPages = CacheControl.maxAge(maxAge).cachePublic().staleWhileRevalidate(staleWhileRevalidate);
+        log.info("HTTP cache: template fingerprint {}, public pages '{}'", templateFingerprint,
+                publicPages.getHeaderValue());
+    }
+
+    /** Static verdict tree, L2 risk pages, hub/index/info pages. */
+    public CacheControl publicPages() {
+        return publicPages;
+    }
+
+    /** Result pages hold user input: private, revalidated on every visit. */
+    public CacheControl resultPages() {
+        return resultPages;
+    }
+
+    public String contentEtag(String contentHash) {
+        return "W/\"" + contentHash + "\"";
+    }
+
+    /** ETag of a view rendered from the given inputs with the deployed templates. */
+    public String versionEtag(String... inputs) {
+        String[] parts = Arrays.copyOf(inputs, inputs.length + 1);
+        parts[inputs.length] = templateFingerprint;
+        return contentEtag(ContentHash.of(parts));
+    }
+
+    /**
+     * Applies the Cache-Control and ETag headers; true when the client copy is
+     * current and a 304 has been set (the caller must not render).
+     */
+    public boolean notModified(ServletWebRequest request, CacheControl cacheControl, String etag) {
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        }
+        return request.checkNotModified(etag);
+    }
+
+    /**
+     * Content ETag of a static file, hashed once per file version (last modified
+     * and length). Null (no ETag, Last-Modified only) when unreadable.
+     */
+    public String staticEtag(Resource resource) {
+        try {
+            String key = resource.getURL().toString();
+            long lastModified = resource.lastModified();
+            long length = resource.contentLength();
+            StaticEtag cached = staticEtags.get(key);
+            if (cached != null && cached.lastModified() == lastModified && cached.length() == length) {
+                return cached.etag();
+            }
+            String etag = contentEtag(ContentHash.of(resource.getContentAsByteArray()));
+            staticEtags.put(key, new StaticEtag(lastModified, length, etag));
+            return etag;
+        } catch (IOException e) {
+            log.debug("No ETag for {}: {}", resource, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Digest of the first pattern's templates that exist; the startup time when
+     * none is found.
+     */
+    private static String templateFingerprint(List<String> patterns) {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        for (String pattern : patterns) {
+            try {
+                Resource[] templates = resolver.getResources(pattern);
+                if (templates.length == 0) {
+                    continue;
+                }
+                Arrays.sort(templates, Comparator.comparing(Resource::getDescription));
+                List<byte[]> parts = new ArrayList<>();
+                for (Resource template : templates) {
+                    parts.add(template.getContentAsByteArray());
+                }
+                return ContentHash.of(parts.toArray(byte[][]::new));
+            } catch (IOException e) {
+                log.warn("Could not fingerprint templates ({}): {}", pattern, e.getMessage());
+            }
+        }
+        return Long.toHexString(System.currentTimeMillis());
+    }
+
+    private record StaticEtag(long lastModified, long length, String etag) {
+    }
+}
@@ -1,12 +1,22 @@
 package com.livingcostcheck.home_repair;
 
+import com.livingcostcheck.home_repair.seo.RiskDetailPageCache;
+import com.livingcostcheck.home_repair.service.VerdictEngineService;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.junit.jupiter.api.Test;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
@@ -17,6 +27,9 @@ class HomeRepairApplicationTests {
 	@Autowired
 	private MockMvc mockMvc;
 
+	@Autowired
+	private VerdictEngineService verdictEngineService;
+
 	@Test
 	void contextLoads() {
 	}
@@ -35,4 +48,86 @@ class HomeRepairApplicationTests {
 				.andExpect(view().name("redirect:/home-repair"));
 	}
 
+	@Test
+	void testIndexPageRevalidates() throws Exception {
+		String etag = revalidate("/home-repair");
+		assertNotNull(etag);
+	}
+
+	@Test
+	void testStaticVerdictPageRevalidates() throws Exception {
+		revalidate("/home-repair/verdicts/fayetteville-nc/1970-1980.html");
+	}
+
+	@Test
+	void testRiskDetailPageRevalidates() throws Exception {
+		Verdict verdict = verdictEngineService.generateVerdict(UserContext.builder()
+				.metroCode("AUSTIN_ROUND_ROCK_TX")
+				.era("1970_1980")
+				.budget(0.0)
+				.relationship(RelationshipToHouse.LIVING)
+				.build());
+		String slug = RiskDetailPageCache.slugOf(verdict.getPlan().getMustDo().get(0));
+
+		revalidate("/home-repair/verdicts/austin-round-rock-tx/1970-1980/" + slug);
+	}
+
+	@Test
+	void testStaticVerdictPageServesPrecompressedSibling() throws Exception {
+		mockMvc.perform(get("/home-repair/verdicts/fayetteville-nc/1970-1980.html")
+				.header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+
+		mockMvc.perform(get("/css/styles.css").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+	}
+
+	@Test
+	void testSitemapsServePrecompressedSiblings() throws Exception {
+		for (String sitemap : new String[] { "/sitemap.xml", "/sitemap-tx.xml" }) {
+			mockMvc.perform(get(sitemap).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+					.andExpect(status().isOk())
+					.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+					.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+					.andExpect(content().contentTypeCompatibleWith("application/xml"));
+
+			mockMvc.perform(get(sitemap))
+					.andExpect(status().isOk())
+					.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+					.andExpect(content().string(containsString("http://www.sitemaps.org/schemas/sitemap/0.9")));
+		}
+	}
+
+	@Test
+	void testResultPageRevalidates() throws Exception {
+		String resultUrl = mockMvc.perform(post("/home-repair/verdict")
+				.param("metroCode", "AUSTIN_ROUND_ROCK_TX")
+				.param("era", "1970_1980")
+				.param("budget", "40000"))
+				.andExpect(status().is3xxRedirection())
+				.andReturn().getResponse().getRedirectedUrl();
+
+		mockMvc.perform(get(resultUrl))
+				.andExpect(view().name("pages/result"))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"));
+		revalidate(resultUrl);
+	}
+
+	/** Second request with the ETag of the first gets a 304. */
+	private String revalidate(String url) throws Exception {
+		MvcResult first = mockMvc.perform(get(url))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.CACHE_CONTROL))
+				.andReturn();
+		String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotNull(etag, "ETag for " + url);
+
+		mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		return etag;
+	}
+
 }
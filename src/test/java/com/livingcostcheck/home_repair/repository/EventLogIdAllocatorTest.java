@@ -0,0 +1,39 @@
+package com.livingcostcheck.home_repair.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class EventLogIdAllocatorTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testSequenceMovedPastIdentityRows() {
+        // Row written by the old identity column, far ahead of the sequence
+        long legacyId = 1_000_000;
+        jdbcTemplate.update("INSERT INTO event_log (id, verdict_id, event_type, target, created_at) "
+                + "VALUES (?, ?, 'CLICK_AD', 'legacy', CURRENT_TIMESTAMP)", legacyId, UUID.randomUUID());
+
+        EventLogIdAllocator allocator = new EventLogIdAllocator(dataSource, jdbcTemplate, entityManagerFactory);
+
+        long first = allocator.nextId();
+        assertTrue(first > legacyId, "first id " + first);
+        assertEquals(first + 1, allocator.nextId());
+    }
+}
@@ -0,0 +1,264 @@
+package com.livingcostcheck.home_repair.repository;
+
+import com.livingcostcheck.home_repair.domain.EventLog;
+import com.livingcostcheck.home_repair.domain.VerdictHistory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class WriteBehindQueueTest {
+
+    @Autowired
+    private WriteBehindQueue writeBehindQueue;
+
+    @Autowired
+    private HomeRepairRepository repository;
+
+    @Autowired
+    private EventLogRepository eventLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EventLogIdAllocator eventIds;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static VerdictHistory history() {
+        VerdictHistory history = new VerdictHistory("AUSTIN_ROUND_ROCK_TX", "40000.0", "LIVING", "1970_1980",
+                "LOW_RISK", "v2026.01", "42");
+        history.setRepairContext("ROOFING", "UNKNOWN");
+        history.setForensicClues(true, false, null, false);
+        history.setScale(2600, 2, null, "ASPHALT");
+        history.setVerdictSnapshot(new byte[] { 1, 2, 3 }, "0123456789abcdef");
+        return history;
+    }
+
+    private int events(UUID verdictId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM event_log WHERE verdict_id = ?", Integer.class,
+                verdictId);
+    }
+
+    @Test
+    void testQueuedHistoryIsReadableThenWritten() throws TimeoutException {
+        VerdictHistory history = history();
+
+        writeBehindQueue.saveHistory(history);
+        writeBehindQueue.updateEmail(history.getId(), "owner@example.com");
+        writeBehindQueue.logEvent(new EventLog(history.getId(), EventLog.EventType.SUBMIT_EMAIL, "owner@example.com"));
+        writeBehindQueue.logEvent(new EventLog(history.getId(), EventLog.EventType.CLICK_AD, "https://example.com"));
+        assertTrue(writeBehindQueue.pendingHistory(history.getId()).isPresent()
+                || repository.existsById(history.getId()));
+
+        writeBehindQueue.flush(Duration.ofSeconds(10));
+
+        assertTrue(writeBehindQueue.pendingHistory(history.getId()).isEmpty());
+        VerdictHistory stored = repository.findById(history.getId()).orElseThrow();
+        assertEquals("owner@example.com", stored.getUserEmail());
+        assertEquals("ROOFING", stored.getRepairHistory());
+        assertEquals(Boolean.TRUE, stored.getIsFpePanel());
+        assertNull(stored.getIsAluminum());
+        assertEquals(2600, stored.getSqft());
+        assertArrayEquals(new byte[] { 1, 2, 3 }, stored.getVerdictSnapshot());
+        assertEquals(history.getSnapshotHash(), stored.getSnapshotHash());
+        assertNotNull(stored.getCreatedAt());
+        assertEquals(2, events(history.getId()));
+    }
+
+    @Test
+    void testBackpressureWhenNotQueueing() {
+        WriteBehindQueue closed = new WriteBehindQueue(jdbcTemplate, eventIds, transactionManager, 1, 10, 16,
+                Duration.ofMillis(10), Duration.ofSeconds(5));
+        closed.close();
+        VerdictHistory history = history();
+
+        // Critical writes run on the caller, clicks are dropped
+        closed.saveHistory(history);
+        closed.logEvent(new EventLog(history.getId(), EventLog.EventType.CLICK_AFFILIATE, "https://example.com"));
+
+        assertTrue(repository.existsById(history.getId()));
+        assertEquals(0, events(history.getId()));
+        WriteBehindQueue.Stats stats = closed.stats();
+        assertEquals(1, stats.callerRuns());
+        assertEquals(1, stats.clicksDropped());
+    }
+
+    @Test
+    void testCallerRunWaitsForEarlierWrites() throws Exception {
+        // Holds the first history insert until released: the writer stalls, the queue (capacity 1) fills
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean held = new AtomicBoolean();
+        JdbcTemplate stalling = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                    ParameterizedPreparedStatementSetter<T> pss) {
+                if (sql.equals(WriteBehindQueue.INSERT_HISTORY) && held.compareAndSet(false, true)) {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.batchUpdate(sql, batchArgs, batchSize, pss);
+            }
+        };
+        WriteBehindQueue small = new WriteBehindQueue(stalling, eventIds, transactionManager, 1, 10, 16,
+                Duration.ofMillis(50), Duration.ofSeconds(5));
+        VerdictHistory first = history();
+        VerdictHistory second = history();
+        small.saveHistory(first);
+        while (!held.get()) {
+            Thread.sleep(5);
+        }
+        small.saveHistory(second);
+
+        // Queue full: the email must not be written before the second history's insert
+        Thread lead = Thread.ofVirtual().start(() -> small.updateEmail(second.getId(), "lead@example.com"));
+        Thread.sleep(200);
+        release.countDown();
+        lead.join(10_000);
+        small.flush(Duration.ofSeconds(10));
+        small.close();
+
+        assertEquals("lead@example.com", repository.findById(second.getId()).orElseThrow().getUserEmail());
+        assertTrue(repository.existsById(first.getId()));
+    }
+
+    @Test
+    void testTransientFailureWhileIsolatingRowsIsRetried() throws TimeoutException {
+        // Batch fails permanently (row by row), then the row hits a database blip, then succeeds
+        AtomicInteger attempts = new AtomicInteger();
+        JdbcTemplate flaky = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                    ParameterizedPreparedStatementSetter<T> pss) {
+                if (sql.equals(WriteBehindQueue.INSERT_HISTORY)) {
+                    switch (attempts.incrementAndGet()) {
+                        case 1 -> throw new DataIntegrityViolationException("batch");
+                        case 2 -> throw new TransientDataAccessResourceException("blip");
+                        default -> {
+                        }
+                    }
+                }
+                return super.batchUpdate(sql, batchArgs, batchSize, pss);
+            }
+        };
+        WriteBehindQueue queue = new WriteBehindQueue(flaky, eventIds, transactionManager, 10, 10, 16,
+                Duration.ofMillis(50), Duration.ofSeconds(5));
+        VerdictHistory history = history();
+        queue.saveHistory(history);
+        queue.flush(Duration.ofSeconds(10));
+        queue.close();
+
+        assertTrue(repository.existsById(history.getId()));
+        WriteBehindQueue.Stats stats = queue.stats();
+        assertEquals(0, stats.failed());
+        assertTrue(stats.retries() >= 1);
+    }
+
+    @Test
+    void testUnbindableRowIsDroppedAndForgotten() throws TimeoutException {
+        VerdictHistory bad = history();
+        VerdictHistory good = history();
+        JdbcTemplate failing = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                    ParameterizedPreparedStatementSetter<T> pss) {
+                if (batchArgs.contains(bad)) {
+                    throw new IllegalArgumentException("unbindable row");
+                }
+                return super.batchUpdate(sql, batchArgs, batchSize, pss);
+            }
+        };
+        WriteBehindQueue queue = new WriteBehindQueue(failing, eventIds, transactionManager, 10, 10, 16,
+                Duration.ofMillis(50), Duration.ofSeconds(5));
+        queue.saveHistory(bad);
+        queue.saveHistory(good);
+        queue.flush(Duration.ofSeconds(10));
+        queue.close();
+
+        assertTrue(repository.existsById(good.getId()));
+        assertFalse(repository.existsById(bad.getId()));
+        assertTrue(queue.pendingHistory(bad.getId()).isEmpty());
+        assertEquals(1, queue.stats().failed());
+    }
+
+    @Test
+    void testFailedCallerRunIsForgotten() {
+        JdbcTemplate failing = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                    ParameterizedPreparedStatementSetter<T> pss) {
+                throw new DataIntegrityViolationException("rejected");
+            }
+        };
+        WriteBehindQueue closed = new WriteBehindQueue(failing, eventIds, transactionManager, 1, 10, 16,
+                Duration.ofMillis(10), Duration.ofSeconds(5));
+        closed.close();
+        VerdictHistory history = history();
+
+        assertThrows(DataIntegrityViolationException.class, () -> closed.saveHistory(history));
+        assertTrue(closed.pendingHistory(history.getId()).isEmpty());
+        assertEquals(1, closed.stats().failed());
+    }
+
+    @Test
+    void testEventIdsShareSequenceWithHibernate() throws TimeoutException {
+        VerdictHistory history = history();
+        writeBehindQueue.saveHistory(history);
+        for (int i = 0; i < EventLog.ID_ALLOCATION_SIZE + 5; i++) {
+            writeBehindQueue.logEvent(new EventLog(history.getId(), EventLog.EventType.CLICK_AD, "ad-" + i));
+        }
+        writeBehindQueue.flush(Duration.ofSeconds(10));
+        EventLog saved = eventLogRepository.saveAndFlush(
+                new EventLog(history.getId(), EventLog.EventType.CLICK_AFFILIATE, "https://example.com"));
+
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM event_log WHERE verdict_id = ? ORDER BY id",
+                Long.class, history.getId());
+        assertEquals(EventLog.ID_ALLOCATION_SIZE + 6, ids.size());
+        assertEquals(ids.size(), ids.stream().distinct().count());
+        assertTrue(ids.contains(saved.getId()));
+    }
+
+    @Test
+    void testFullClickRingDropsNewestClicks() throws TimeoutException {
+        WriteBehindQueue small = new WriteBehindQueue(jdbcTemplate, eventIds, transactionManager, 10, 10, 4,
+                Duration.ofMillis(10), Duration.ofSeconds(5));
+        VerdictHistory history = history();
+        small.saveHistory(history);
+        small.flush(Duration.ofSeconds(10));
+
+        // The writer drains at most every 100 ms; a burst beyond the ring is dropped, never blocks
+        int burst = 1000;
+        for (int i = 0; i < burst; i++) {
+            small.logEvent(new EventLog(history.getId(), EventLog.EventType.CLICK_AD, "ad-" + i));
+        }
+        small.flush(Duration.ofSeconds(10));
+        small.close();
+
+        WriteBehindQueue.Stats stats = small.stats();
+        assertTrue(stats.clicksDropped() > 0);
+        assertEquals(burst, events(history.getId()) + stats.clicksDropped());
+        assertEquals(0, stats.clicks());
+    }
+}
@@ -0,0 +1,74 @@
+package com.livingcostcheck.home_repair.seo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneratedFilesTest {
+
+    private static byte[] gunzip(byte[] gzipped) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return gzip.readAllBytes();
+        }
+    }
+
+    @Test
+    void testCommittedSiblingsAreUpToDate() throws IOException {
+        List<Path> siblings;
+        try (Stream<Path> walk = Files.walk(Paths.get("src/main/resources/static"))) {
+            siblings = walk.filter(path -> path.toString().endsWith(GeneratedFiles.GZIP_SUFFIX)).toList();
+        }
+        assertFalse(siblings.isEmpty());
+
+        for (Path sibling : siblings) {
+            String name = sibling.getFileName().toString();
+            Path source = sibling.resolveSibling(name.substring(0, name.length() - GeneratedFiles.GZIP_SUFFIX.length()));
+            assertArrayEquals(Files.readAllBytes(source), gunzip(Files.readAllBytes(sibling)),
+                    sibling + " is stale: regenerate the pages or run GeneratedFiles.precompressTree");
+        }
+    }
+
+    @Test
+    void testUnchangedPageIsNotRewritten(@TempDir Path dir) throws IOException {
+        Path page = dir.resolve("austin-tx/1970-1980.html");
+        String html = "<html>" + "<p>Roof replacement</p>".repeat(100) + "</html>";
+
+        assertTrue(GeneratedFiles.writeIfChanged(page, html));
+        Path sibling = GeneratedFiles.gzipSibling(page);
+        assertEquals(html, new String(gunzip(Files.readAllBytes(sibling))));
+
+        FileTime written = FileTime.fromMillis(1_000_000L);
+        Files.setLastModifiedTime(page, written);
+        assertFalse(GeneratedFiles.writeIfChanged(page, html));
+        assertEquals(written, Files.getLastModifiedTime(page));
+
+        assertTrue(GeneratedFiles.writeIfChanged(page, html + "\n"));
+        assertEquals(html + "\n", new String(gunzip(Files.readAllBytes(sibling))));
+    }
+
+    @Test
+    void testPrecompressTreeSkipsSmallAndBinaryFiles(@TempDir Path dir) throws IOException {
+        Files.writeString(dir.resolve("styles.css"), "body { margin: 0; }\n".repeat(100));
+        Files.writeString(dir.resolve("robots.txt"), "User-agent: *\n");
+        Files.write(dir.resolve("logo.png"), new byte[4096]);
+
+        assertEquals(1, GeneratedFiles.precompressTree(dir));
+        assertTrue(Files.exists(dir.resolve("styles.css.gz")));
+        assertFalse(Files.exists(dir.resolve("robots.txt.gz")));
+        assertFalse(Files.exists(dir.resolve("logo.png.gz")));
+
+        // Already up to date
+        assertEquals(0, GeneratedFiles.precompressTree(dir));
+    }
+}
@@ -0,0 +1,106 @@
+package com.livingcostcheck.home_repair.seo;
+
+import com.livingcostcheck.home_repair.seo.GenerationJob.Mode;
+import com.livingcostcheck.home_repair.seo.GenerationJob.State;
+import com.livingcostcheck.home_repair.seo.GenerationProgress.PageResult;
+import com.livingcostcheck.home_repair.service.VerdictEngineService;
+import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GenerationJobServiceTest {
+
+    private ExecutorService runner;
+    private GenerationJobService jobs;
+
+    @BeforeEach
+    void setUp() {
+        VerdictEngineService engine = Mockito.mock(VerdictEngineService.class);
+        DataMapping.MetroMasterData masterData = new DataMapping.MetroMasterData();
+        masterData.setData(Map.of("AUSTIN_TX", new DataMapping.MetroCityData()));
+        when(engine.getMetroMasterData()).thenReturn(masterData);
+        // Jobs stay queued until the test runs them
+        runner = Mockito.mock(ExecutorService.class);
+        jobs = new GenerationJobService(Mockito.mock(StaticPageGeneratorService.class), engine,
+                Mockito.mock(SitemapGenerator.class), Mockito.mock(RiskDetailPageCache.class), runner);
+    }
+
+    private Runnable queued() {
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(runner, Mockito.atLeastOnce()).execute(task.capture());
+        return task.getValue();
+    }
+
+    @Test
+    void testSecondJobRejectedWhileOneIsQueued() {
+        GenerationJob first = jobs.start(Mode.FULL, null);
+
+        IllegalStateException rejected = assertThrows(IllegalStateException.class,
+                () -> jobs.start(Mode.CHANGED, null));
+        assertTrue(rejected.getMessage().contains("job " + first.id()));
+        assertEquals(State.QUEUED, first.state());
+        assertSame(first, jobs.job(first.id()).orElseThrow());
+    }
+
+    @Test
+    void testMetroJobNeedsKnownMetro() {
+        assertThrows(IllegalArgumentException.class, () -> jobs.start(Mode.METRO, "NOWHERE_ZZ"));
+        assertThrows(IllegalArgumentException.class, () -> jobs.start(Mode.METRO, null));
+
+        GenerationJob job = jobs.start(Mode.METRO, "AUSTIN_TX");
+        assertEquals("AUSTIN_TX", job.metroCode());
+    }
+
+    @Test
+    void testJobCancelledBeforeItStartsNeverRuns() throws InterruptedException {
+        GenerationJob job = jobs.start(Mode.FULL, null);
+        assertTrue(job.cancel());
+
+        queued().run();
+
+        assertEquals(State.CANCELLED, job.state());
+        assertFalse(job.cancel());
+        List<GenerationJob.Event> events = job.events(0, 0);
+        assertEquals(List.of("finished"), events.stream().map(GenerationJob.Event::type).toList());
+        // A finished job can be replaced
+        assertNotEquals(job.id(), jobs.start(Mode.CHANGED, null).id());
+        assertTrue(jobs.job(job.id()).isEmpty());
+    }
+
+    @Test
+    void testEventLogReplaysFromAnyPoint() throws InterruptedException {
+        GenerationJob job = jobs.start(Mode.CHANGED, null);
+        GenerationProgress progress = new GenerationProgress("changed", 2, job);
+        job.started(progress);
+        progress.record(new PageResult("/a.html", 2_000_000, 500_000, true, null));
+        progress.record(new PageResult("/b.html", 1_000_000, 0, false, "no verdict"));
+
+        List<GenerationJob.Event> events = job.events(0, 0);
+        assertEquals(List.of("started", "page", "page"), events.stream().map(GenerationJob.Event::type).toList());
+        GenerationJob.PageEvent page = (GenerationJob.PageEvent) events.get(2).data();
+        assertEquals("/b.html", page.path());
+        assertEquals("no verdict", page.error());
+        assertEquals(2, page.completed());
+
+        // Nothing new yet: times out empty while the job runs
+        assertTrue(job.events(3, 10).isEmpty());
+        job.cancel();
+        assertTrue(progress.isCancelled());
+
+        job.finish(State.CANCELLED, "CANCELLED");
+        List<GenerationJob.Event> rest = job.events(2, 1000);
+        assertEquals(List.of(2, 3), rest.stream().map(GenerationJob.Event::id).toList());
+        assertEquals(State.CANCELLED, ((GenerationJob.Status) rest.get(1).data()).state());
+        assertTrue(job.events(4, 1000).isEmpty());
+    }
+}
@@ -0,0 +1,102 @@
+package com.livingcostcheck.home_repair.seo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationManifestTest {
+
+    private static final String PAGE = "/home-repair/verdicts/austin-tx/1970-1980.html";
+    private static final String HTML = "<html>" + "<p>Roof replacement</p>".repeat(100) + "</html>";
+
+    @Test
+    void testUnchangedPageKeepsFileAndLastModified(@TempDir Path dir) throws IOException {
+        Path manifestFile = dir.resolve("manifest.tsv");
+        Path page = dir.resolve("static/austin-tx/1970-1980.html");
+
+        GenerationManifest first = GenerationManifest.load(manifestFile);
+        assertTrue(first.write(PAGE, page, HTML, "v1", "t1"));
+        assertEquals(LocalDate.now(), first.lastModified(PAGE).orElseThrow());
+        first.save();
+
+        // Pretend the page was generated a while ago
+        Files.writeString(manifestFile, Files.readString(manifestFile).replace(LocalDate.now().toString(),
+                "2026-01-15"));
+        FileTime written = FileTime.fromMillis(1_000_000L);
+        Files.setLastModifiedTime(page, written);
+
+        GenerationManifest second = GenerationManifest.load(manifestFile);
+        assertFalse(second.write(PAGE, page, HTML, "v2", "t1"));
+        assertEquals(written, Files.getLastModifiedTime(page));
+        assertEquals(LocalDate.parse("2026-01-15"), second.lastModified(PAGE).orElseThrow());
+        assertEquals("v2", second.entry(PAGE).orElseThrow().dataVersion());
+
+        assertTrue(second.write(PAGE, page, HTML + "<!-- changed -->", "v2", "t2"));
+        assertEquals(LocalDate.now(), second.lastModified(PAGE).orElseThrow());
+        assertEquals(1, second.written());
+        assertEquals(1, second.unchanged());
+    }
+
+    @Test
+    void testMissingFileIsRewritten(@TempDir Path dir) throws IOException {
+        Path page = dir.resolve("page.html");
+        GenerationManifest manifest = GenerationManifest.empty();
+        manifest.write(PAGE, page, HTML, "v1", "t1");
+        Files.delete(page);
+
+        assertTrue(manifest.write(PAGE, page, HTML, "v1", "t1"));
+        assertEquals(HTML, Files.readString(page));
+    }
+
+    @Test
+    void testTemplateHashFollowsCalledTemplates(@TempDir Path dir) throws IOException {
+        Files.createDirectories(dir.resolve("layout"));
+        Files.createDirectories(dir.resolve("seo"));
+        Files.writeString(dir.resolve("layout/_footer.jte"), "<footer>v1</footer>");
+        Files.writeString(dir.resolve("seo/page.jte"), "<main/>@template.layout._footer()");
+        Files.writeString(dir.resolve("seo/other.jte"), "<main/>");
+
+        String before = GenerationManifest.templateHash(dir, "seo/page.jte");
+        String other = GenerationManifest.templateHash(dir, "seo/other.jte");
+        Files.writeString(dir.resolve("layout/_footer.jte"), "<footer>v2</footer>");
+
+        assertNotEquals(before, GenerationManifest.templateHash(dir, "seo/page.jte"));
+        assertEquals(other, GenerationManifest.templateHash(dir, "seo/other.jte"));
+        assertEquals("precompiled", GenerationManifest.templateHash(dir.resolve("missing"), "seo/page.jte"));
+    }
+
+    @Test
+    void testSitemapUsesManifestLastModified(@TempDir Path dir) throws IOException {
+        Path manifestFile = dir.resolve("manifest.tsv");
+        Files.writeString(manifestFile, PAGE + "\tabc\tv1\tt1\t2026-01-15\n");
+        GenerationManifest manifest = GenerationManifest.load(manifestFile);
+        Path sitemap = dir.resolve("sitemap.xml");
+
+        new SitemapGenerator().generateSitemap(sitemap.toString(),
+                List.of("https://lifeverdict.com" + PAGE, "https://lifeverdict.com/home-repair/verdicts/new.html"),
+                manifest);
+
+        String xml = Files.readString(dir.resolve("sitemap-tx.xml"));
+        assertTrue(xml.contains("<loc>https://lifeverdict.com" + PAGE + "</loc>\n    <lastmod>2026-01-15</lastmod>"));
+        String core = Files.readString(dir.resolve("sitemap-core.xml"));
+        assertTrue(core.contains("<loc>https://lifeverdict.com/</loc>\n    <lastmod>2026-01-15</lastmod>"));
+        // No content history: no lastmod rather than the generation date
+        assertTrue(Files.readString(dir.resolve("sitemap-other.xml")).contains("new.html</loc>\n    <changefreq>"));
+    }
+
+    @Test
+    void testCommittedManifestCoversGeneratedPages() throws IOException {
+        GenerationManifest manifest = GenerationManifest.load(Path.of(GenerationManifest.DEFAULT_PATH));
+
+        assertTrue(manifest.entry(PAGE.replace("austin-tx", "austin-round-rock-tx")).isPresent());
+        assertTrue(manifest.entry("/home-repair/verdicts/states/tx.html").isPresent());
+    }
+}
@@ -0,0 +1,124 @@
+package com.livingcostcheck.home_repair.seo;
+
+import com.livingcostcheck.home_repair.seo.GenerationProgress.PageResult;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationSchedulerTest {
+
+    private record Page(String sitePath) implements GenerationScheduler.Task {
+    }
+
+    private static List<Page> pages(int n) {
+        return IntStream.range(0, n).mapToObj(i -> new Page("/p/" + i + ".html")).toList();
+    }
+
+    @Test
+    void testEveryPageRenderedWrittenAndReportedInOrder() {
+        List<Page> pages = pages(200);
+        Map<String, String> written = new ConcurrentHashMap<>();
+        GenerationProgress progress = new GenerationProgress("test", pages.size());
+
+        List<PageResult> results = new GenerationScheduler(4).run(pages,
+                (page, buffer) -> buffer.writeBytes(page.sitePath().getBytes(StandardCharsets.UTF_8)),
+                (page, buffer) -> {
+                    written.put(page.sitePath(), new String(buffer.bytes(), 0, buffer.size(), StandardCharsets.UTF_8));
+                    return !page.sitePath().endsWith("0.html");
+                },
+                progress);
+
+        assertEquals(pages.stream().map(Page::sitePath).toList(), results.stream().map(PageResult::sitePath).toList());
+        pages.forEach(page -> assertEquals(page.sitePath(), written.get(page.sitePath())));
+        GenerationProgress.Snapshot snapshot = progress.snapshot();
+        assertTrue(snapshot.done());
+        assertEquals(200, snapshot.completed());
+        assertEquals(180, snapshot.written());
+        assertEquals(0, snapshot.failed());
+        assertEquals(10, progress.slowest(10).size());
+    }
+
+    @Test
+    void testFailuresAreRecordedPerPage() {
+        List<Page> pages = pages(20);
+        GenerationProgress progress = new GenerationProgress("test", pages.size());
+
+        List<PageResult> results = new GenerationScheduler(2).run(pages,
+                (page, buffer) -> {
+                    if (page.sitePath().equals("/p/3.html")) {
+                        throw new IllegalStateException("no verdict");
+                    }
+                },
+                (page, buffer) -> {
+                    if (page.sitePath().equals("/p/7.html")) {
+                        throw new java.io.IOException("disk full");
+                    }
+                    return true;
+                },
+                progress);
+
+        assertEquals(20, results.size());
+        assertEquals("no verdict", results.get(3).error());
+        assertEquals(0, results.get(3).writeNanos());
+        assertEquals("disk full", results.get(7).error());
+        assertEquals(2, progress.snapshot().failed());
+        assertEquals(18, progress.snapshot().written());
+        assertTrue(progress.report(5).contains("FAILED: no verdict"));
+    }
+
+    @Test
+    void testCancelStopsNewPages() {
+        List<Page> pages = pages(500);
+        GenerationProgress progress = new GenerationProgress("test", pages.size());
+        AtomicInteger rendered = new AtomicInteger();
+
+        List<PageResult> results = new GenerationScheduler(2).run(pages,
+                (page, buffer) -> {
+                    if (rendered.incrementAndGet() == 50) {
+                        progress.cancel();
+                    }
+                },
+                (page, buffer) -> true,
+                progress);
+
+        // Pages already taken by the other render thread still finish
+        assertTrue(results.size() >= 50 && results.size() <= 51, "ran " + results.size());
+        assertEquals(results.size(), rendered.get());
+        assertTrue(progress.snapshot().cancelled());
+        assertTrue(progress.isDone());
+    }
+
+    @Test
+    void testInFlightWritesAreBoundedByBuffers() throws Exception {
+        List<Page> pages = pages(100);
+        GenerationProgress progress = new GenerationProgress("test", pages.size());
+        AtomicInteger inFlight = new AtomicInteger();
+        List<Integer> observed = new ArrayList<>();
+
+        new GenerationScheduler(2).run(pages,
+                (page, buffer) -> {
+                },
+                (page, buffer) -> {
+                    int now = inFlight.incrementAndGet();
+                    synchronized (observed) {
+                        observed.add(now);
+                    }
+                    Thread.sleep(2);
+                    inFlight.decrementAndGet();
+                    return true;
+                },
+                progress);
+
+        // Two render threads, two buffers each
+        assertTrue(observed.stream().allMatch(n -> n <= 4), "max in flight " + observed.stream().max(Integer::compare));
+        assertEquals(100, progress.snapshot().completed());
+    }
+}
@@ -0,0 +1,76 @@
+package com.livingcostcheck.home_repair.seo;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinifyingHtmlOutputTest {
+
+    private static String minify(String... chunks) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MinifyingHtmlOutput output = new MinifyingHtmlOutput(bytes);
+        for (String chunk : chunks) {
+            output.writeContent(chunk);
+        }
+        output.finish();
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    // The regex passes the generator used before
+    private static String regexMinify(String html) {
+        return html.replaceAll("(?s)<!--.*?-->", "").replaceAll(">\\s+<", "><").replaceAll("\\s{2,}", " ").trim();
+    }
+
+    @Test
+    void testMarkupMinifiedLikeRegexPasses() {
+        String html = "\n  <html>\n <head>  <title>Roof  cost\tin\nAustin</title> </head>\n"
+                + "<body class=\"a  b\"> <!-- hero -->\n <p>Pay  <b>$12,000</b> now</p>\n"
+                + "  text <!-- a --> <!-- b -->  more<br/>\n<p>x</p><!--\n multi\n --> </body></html>\n  ";
+
+        assertEquals(regexMinify(html), minify(html));
+    }
+
+    @Test
+    void testRawElementsKeepTheirWhitespace() {
+        String jsonLd = "{\n  \"@type\": \"FAQPage\",\n  \"text\": \"a  <b>  c\"\n}";
+        String html = "<head>\n  <script type=\"application/ld+json\">" + jsonLd + "</script>\n"
+                + "  <STYLE>\n  p  { margin: 0 }\n</STYLE>\n</head>\n<body>\n"
+                + "  <pre>  line 1\n    line 2  </pre>\n  <textarea>\n a  b </textarea>\n"
+                + "  <script>if (a <!-- b) { x = '  y  '; }</script>  <p>done</p>\n</body>";
+
+        assertEquals("<head><script type=\"application/ld+json\">" + jsonLd + "</script>"
+                + "<STYLE>\n  p  { margin: 0 }\n</STYLE></head><body>"
+                + "<pre>  line 1\n    line 2  </pre><textarea>\n a  b </textarea>"
+                + "<script>if (a <!-- b) { x = '  y  '; }</script><p>done</p></body>", minify(html));
+    }
+
+    @Test
+    void testElementsThatOnlyStartLikeRawOnesAreMinified() {
+        String html = "<p>  a  </p> <span>  b </span> <prefix>  c  </prefix> <s>  d  </s>";
+
+        assertEquals(regexMinify(html), minify(html));
+    }
+
+    @Test
+    void testMarkupSplitAcrossWrites() {
+        String html = "<div>  <!-- note -->  <script>  var a =  1;  </script>  <p>  x  </p></div>";
+        String expected = minify(html);
+
+        for (int split = 1; split < html.length(); split++) {
+            assertEquals(expected, minify(html.substring(0, split), html.substring(split)), "split at " + split);
+        }
+        assertEquals("<div><script>  var a =  1;  </script><p> x </p></div>", expected);
+    }
+
+    @Test
+    void testEncodesUtf8() {
+        String html = "<p>Café  — 🏠 $1,200</p>";
+
+        assertArrayEquals(regexMinify(html).getBytes(StandardCharsets.UTF_8),
+                minify(html).getBytes(StandardCharsets.UTF_8));
+        assertEquals("<p>Café — 🏠 $1,200</p>", minify(html));
+    }
+}
@@ -0,0 +1,76 @@
+package com.livingcostcheck.home_repair.seo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageDependencyGraphTest {
+
+    private static final String AUSTIN = "/home-repair/verdicts/austin-tx/1970-1980.html";
+    private static final String DALLAS = "/home-repair/verdicts/dallas-tx/1970-1980.html";
+    private static final String DALLAS_MODERN = "/home-repair/verdicts/dallas-tx/2010-present.html";
+    private static final String TEXAS = "/home-repair/verdicts/states/tx.html";
+
+    private static PageDependencyGraph recorded(Path file) throws IOException {
+        PageDependencyGraph graph = PageDependencyGraph.load(file);
+        graph.record(AUSTIN, Set.of("metro:AUSTIN_TX", "state:TX", "era:1970_1980", "cost:ROOF", "fragments"));
+        graph.record(DALLAS, Set.of("metro:DALLAS_TX", "state:TX", "era:1970_1980", "cost:ROOF", "fragments"));
+        graph.record(DALLAS_MODERN, Set.of("metro:DALLAS_TX", "state:TX", "era:2010_PRESENT", "fragments"));
+        graph.record(TEXAS, Set.of("state:TX"));
+        graph.update("v1", Map.of("metro:AUSTIN_TX", "a", "metro:DALLAS_TX", "d", "era:1970_1980", "e",
+                "era:2010_PRESENT", "m", "cost:ROOF", "r", "state:TX", "t", "fragments", "f"));
+        return graph;
+    }
+
+    @Test
+    void testSavedGraphSharesEraGroups(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("dependencies.tsv");
+        recorded(file).save();
+
+        String tsv = Files.readString(file);
+        assertTrue(tsv.contains("page\t" + AUSTIN + "\tmetro:AUSTIN_TX state:TX @g1\n"));
+        assertTrue(tsv.contains("page\t" + DALLAS + "\tmetro:DALLAS_TX state:TX @g1\n"));
+        assertTrue(tsv.contains("page\t" + TEXAS + "\tstate:TX\n"));
+        assertTrue(tsv.contains("group\t@g1\tcost:ROOF era:1970_1980 fragments\n"));
+
+        PageDependencyGraph loaded = PageDependencyGraph.load(file);
+        assertEquals("v1", loaded.dataVersion());
+        assertEquals(Set.of("metro:AUSTIN_TX", "state:TX", "era:1970_1980", "cost:ROOF", "fragments"),
+                loaded.dependencies(AUSTIN));
+        assertEquals(Set.of(AUSTIN, DALLAS, DALLAS_MODERN, TEXAS), loaded.pages());
+
+        // Same graph, same bytes
+        loaded.save();
+        assertEquals(tsv, Files.readString(file));
+    }
+
+    @Test
+    void testChangedEntitiesSelectReadingPages(@TempDir Path dir) throws IOException {
+        PageDependencyGraph graph = recorded(dir.resolve("dependencies.tsv"));
+
+        Set<String> changed = graph.changedSince(Map.of("metro:AUSTIN_TX", "a", "metro:DALLAS_TX", "d",
+                "era:1970_1980", "e", "era:2010_PRESENT", "m", "cost:ROOF", "r2", "state:TX", "t",
+                "fragments", "f", "cost:DECK", "k")).orElseThrow();
+
+        assertEquals(Set.of("cost:ROOF", "cost:DECK"), changed);
+        assertEquals(Set.of(AUSTIN, DALLAS), graph.pagesReading(changed));
+        assertEquals(Set.of(DALLAS, DALLAS_MODERN), graph.pagesReading(Set.of("metro:DALLAS_TX")));
+        assertEquals(Set.of(AUSTIN, DALLAS, DALLAS_MODERN, TEXAS), graph.pagesReading(Set.of("state:TX")));
+    }
+
+    @Test
+    void testNothingRecordedMeansEverythingChanged(@TempDir Path dir) throws IOException {
+        PageDependencyGraph graph = PageDependencyGraph.load(dir.resolve("missing.tsv"));
+
+        assertTrue(graph.changedSince(Map.of("metro:AUSTIN_TX", "a")).isEmpty());
+        assertNull(graph.dataVersion());
+        assertEquals(Set.of(), graph.dependencies(AUSTIN));
+    }
+}
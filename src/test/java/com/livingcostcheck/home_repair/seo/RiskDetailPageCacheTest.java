@@ -0,0 +1,138 @@
+package com.livingcostcheck.home_repair.seo;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.RiskAdjustedItem;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.SortedPlan;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.Verdict;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiskDetailPageCacheTest {
+
+    private static final RiskDetailPageCache.Key KEY = new RiskDetailPageCache.Key("austin-tx", "1970-1980",
+            "roof-replacement");
+
+    private static byte[] html(String body) {
+        return ("<html>" + body + "</html>").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testHitServesCachedBytes() throws IOException {
+        RiskDetailPageCache cache = new RiskDetailPageCache(1024 * 1024, true, Runnable::run);
+        AtomicInteger renders = new AtomicInteger();
+
+        RiskDetailPageCache.Page first = cache.get(KEY, "v1", () -> html("page " + renders.incrementAndGet()));
+        RiskDetailPageCache.Page second = cache.get(KEY, "v1", () -> html("page " + renders.incrementAndGet()));
+
+        assertEquals(1, renders.get());
+        assertSame(first, second);
+        assertTrue(first.gzipped());
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(first.body()))) {
+            assertArrayEquals(html("page 1"), gzip.readAllBytes());
+        }
+        assertArrayEquals(html("page 1"), first.html());
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void testStaleWhileRevalidate() {
+        List<Runnable> refreshes = new ArrayList<>();
+        RiskDetailPageCache cache = new RiskDetailPageCache(1024 * 1024, false, refreshes::add);
+        cache.get(KEY, "v1", () -> html("v1"));
+
+        // New data version: the old page is served while one refresh is queued
+        RiskDetailPageCache.Page stale = cache.get(KEY, "v2", () -> html("v2"));
+        cache.get(KEY, "v2", () -> html("v2"));
+        assertArrayEquals(html("v1"), stale.html());
+        assertEquals(1, refreshes.size());
+
+        refreshes.get(0).run();
+        RiskDetailPageCache.Page fresh = cache.get(KEY, "v2", () -> fail("should not render again"));
+        assertArrayEquals(html("v2"), fresh.html());
+        assertEquals("v2", fresh.dataVersion());
+        assertEquals(2, cache.stats().staleHits());
+    }
+
+    @Test
+    void testRevalidateKeepsUnaffectedPages() {
+        RiskDetailPageCache cache = new RiskDetailPageCache(1024 * 1024, false, runnable -> fail("no refresh"));
+        RiskDetailPageCache.Key dallas = new RiskDetailPageCache.Key("dallas-tx", "1970-1980", "roof-replacement");
+        RiskDetailPageCache.Key older = new RiskDetailPageCache.Key("austin-tx", "pre-1950", "roof-replacement");
+        cache.get(KEY, "v1", () -> html("austin"));
+        cache.get(dallas, "v1", () -> html("dallas"));
+        cache.get(older, "v0", () -> html("older"));
+
+        int kept = cache.revalidate("v1", "v2", (metro, era) -> metro.equals("AUSTIN_TX") && era.equals("1970_1980"));
+
+        assertEquals(1, kept);
+        assertEquals("v2", cache.get(dallas, "v2", () -> fail("should not render again")).dataVersion());
+        assertArrayEquals(html("austin v2"), cache.get(KEY, "v2", () -> html("austin v2")).html());
+        assertEquals("v0", cache.get(older, "v0", () -> fail("should not render again")).dataVersion());
+        assertEquals(3, cache.stats().pages());
+    }
+
+    @Test
+    void testFailedRefreshDropsStalePage() {
+        RiskDetailPageCache cache = new RiskDetailPageCache(1024 * 1024, false, Runnable::run);
+        cache.get(KEY, "v1", () -> html("v1"));
+
+        cache.get(KEY, "v2", () -> {
+            throw new IllegalArgumentException("Risk item not found");
+        });
+
+        assertEquals(0, cache.stats().pages());
+        assertThrows(IllegalArgumentException.class, () -> cache.get(KEY, "v2", () -> {
+            throw new IllegalArgumentException("Risk item not found");
+        }));
+        assertEquals(0, cache.stats().pages());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedByBytes() {
+        RiskDetailPageCache cache = new RiskDetailPageCache(1000, false, Runnable::run);
+        byte[] page = new byte[400];
+
+        for (int i = 0; i < 3; i++) {
+            cache.get(new RiskDetailPageCache.Key("metro", "era", "item-" + i), "v1", () -> page);
+        }
+
+        RiskDetailPageCache.Stats stats = cache.stats();
+        assertEquals(2, stats.pages());
+        assertEquals(800, stats.cachedBytes());
+        assertEquals(1, stats.evictions());
+    }
+
+    @Test
+    void testSlugIndexBuiltOncePerVersion() {
+        RiskDetailPageCache cache = new RiskDetailPageCache(1024 * 1024, false, Runnable::run);
+        AtomicInteger verdicts = new AtomicInteger();
+        Verdict verdict = new Verdict();
+        verdict.setPlan(SortedPlan.builder()
+                .mustDo(List.of(
+                        RiskAdjustedItem.builder().itemCode("ROOF_REPLACEMENT").build(),
+                        RiskAdjustedItem.builder().itemCode("MAIN_PANEL").build()))
+                .build());
+
+        RiskDetailPageCache.SlugIndex index = cache.slugIndex("AUSTIN_TX", "1970_1980", "v1", () -> {
+            verdicts.incrementAndGet();
+            return verdict;
+        });
+        cache.slugIndex("AUSTIN_TX", "1970_1980", "v1", () -> {
+            verdicts.incrementAndGet();
+            return verdict;
+        });
+
+        assertEquals(1, verdicts.get());
+        assertEquals("MAIN_PANEL", index.item("main-panel").getItemCode());
+        assertNull(index.item("missing-item"));
+    }
+}
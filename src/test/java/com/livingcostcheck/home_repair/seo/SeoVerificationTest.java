@@ -1,6 +1,7 @@
 package com.livingcostcheck.home_repair.seo;
 
 import com.livingcostcheck.home_repair.service.VerdictEngineService;
+import com.livingcostcheck.home_repair.service.engine.RegionIndex;
 import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.*;
 import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping;
 import gg.jte.ContentType;
@@ -55,6 +56,7 @@ public class SeoVerificationTest {
         chicagoData.setFoundation("Slab");
         masterData.setData(Collections.singletonMap("chicago_il", chicagoData));
         when(verdictService.getMetroMasterData()).thenReturn(masterData);
+        when(verdictService.getRegionIndex()).thenReturn(RegionIndex.compile(masterData.getData().keySet()));
 
         // Create Service
         com.livingcostcheck.home_repair.seo.VerdictSeoService verdictSeoService = new com.livingcostcheck.home_repair.seo.VerdictSeoService();
@@ -110,7 +112,7 @@ public class SeoVerificationTest {
         // ContextBriefing is NULL to verify robust handling
         mockVerdict.setContextBriefing(null);
 
-        when(verdictService.generateVerdict(any())).thenReturn(mockVerdict);
+        when(verdictService.benchmarkVerdict(any(), any(), any())).thenReturn(mockVerdict);
 
         // When
         try {
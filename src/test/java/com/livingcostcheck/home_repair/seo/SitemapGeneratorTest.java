@@ -0,0 +1,104 @@
+package com.livingcostcheck.home_repair.seo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SitemapGeneratorTest {
+
+    private static final String BASE = "https://lifeverdict.com/home-repair/verdicts/";
+    private static final List<String> URLS = List.of(
+            BASE + "states/tx.html",
+            BASE + "austin-round-rock-tx/1970-1980.html",
+            BASE + "austin-round-rock-tx/1970-1980/roof.html",
+            BASE + "philadelphia-pa-nj/pre-1950.html",
+            "ERROR: ABILENE_TX / PRE_1950 - no verdict");
+
+    private static List<String> files(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Test
+    void testShardsByStateWithIndex(@TempDir Path dir) throws IOException {
+        Path index = dir.resolve("sitemap.xml");
+
+        int count = new SitemapGenerator().generateSitemap(index.toString(), URLS, GenerationManifest.empty());
+
+        assertEquals(9, count);
+        assertEquals(List.of("sitemap-core.xml", "sitemap-nj.xml", "sitemap-tx.xml", "sitemap.xml"),
+                files(dir));
+        String tx = Files.readString(dir.resolve("sitemap-tx.xml"));
+        assertTrue(tx.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<urlset"));
+        assertTrue(tx.endsWith("</urlset>"));
+        assertEquals(3, tx.split("<url>").length - 1);
+        assertTrue(tx.contains("states/tx.html</loc>\n    <changefreq>weekly</changefreq>\n    <priority>0.9"));
+        String indexXml = Files.readString(index);
+        assertTrue(indexXml.contains("<sitemapindex"));
+        assertTrue(indexXml.contains("<loc>https://lifeverdict.com/sitemap-nj.xml</loc>"));
+        assertFalse(indexXml.contains("<lastmod>"));
+    }
+
+    @Test
+    void testShardsByLevelGzipped(@TempDir Path dir) throws IOException {
+        Path manifestFile = dir.resolve("manifest.tsv");
+        Files.writeString(manifestFile,
+                "/home-repair/verdicts/austin-round-rock-tx/1970-1980/roof.html\ta\tv1\tt1\t2026-02-01\n"
+                        + "/home-repair/verdicts/philadelphia-pa-nj/pre-1950.html\tb\tv1\tt1\t2026-01-15\n");
+        Path index = dir.resolve("sitemap.xml");
+
+        new SitemapGenerator("level", true).generateSitemap(index.toString(), URLS,
+                GenerationManifest.load(manifestFile));
+
+        assertTrue(files(dir).containsAll(List.of("sitemap-core.xml.gz", "sitemap-risks.xml.gz",
+                "sitemap-states.xml.gz", "sitemap-verdicts.xml.gz")));
+        String verdicts;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(dir.resolve("sitemap-verdicts.xml.gz")))) {
+            verdicts = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals(2, verdicts.split("<url>").length - 1);
+        assertTrue(verdicts.contains("pre-1950.html</loc>\n    <lastmod>2026-01-15</lastmod>"));
+        String indexXml = Files.readString(index);
+        assertTrue(indexXml.contains("<loc>https://lifeverdict.com/sitemap-verdicts.xml.gz</loc>\n"
+                + "    <lastmod>2026-01-15</lastmod>"));
+        assertTrue(indexXml.contains("sitemap-core.xml.gz</loc>\n    <lastmod>2026-02-01</lastmod>"));
+    }
+
+    @Test
+    void testUnchangedShardsKeptAndStaleShardsRemoved(@TempDir Path dir) throws IOException {
+        Path index = dir.resolve("sitemap.xml");
+        SitemapGenerator generator = new SitemapGenerator();
+        generator.generateSitemap(index.toString(), URLS, GenerationManifest.empty());
+        FileTime old = FileTime.fromMillis(1_000_000_000L);
+        Files.setLastModifiedTime(dir.resolve("sitemap-tx.xml"), old);
+        Files.setLastModifiedTime(dir.resolve("sitemap-core.xml"), old);
+
+        generator.generateSitemap(index.toString(), URLS.subList(0, 3), GenerationManifest.empty());
+
+        assertEquals(old, Files.getLastModifiedTime(dir.resolve("sitemap-tx.xml")));
+        assertFalse(Files.exists(dir.resolve("sitemap-nj.xml")));
+        assertFalse(Files.readString(index).contains("sitemap-nj.xml"));
+    }
+
+    @Test
+    void testStateOfPagePath() {
+        SitemapGenerator generator = new SitemapGenerator();
+
+        assertEquals("tx", generator.shardName("/home-repair/verdicts/states/tx.html"));
+        assertEquals("nj", generator.shardName("/home-repair/verdicts/philadelphia-pa-nj/pre-1950/roof.html"));
+        assertEquals("other", generator.shardName("/home-repair/verdicts/new.html"));
+        assertEquals("other", generator.shardName("/methodology"));
+    }
+}
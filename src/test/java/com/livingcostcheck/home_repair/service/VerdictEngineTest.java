@@ -1,14 +1,29 @@
 package com.livingcostcheck.home_repair.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping;
+import com.livingcostcheck.home_repair.service.dto.verdict.LifespanData;
 import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.*;
+import com.livingcostcheck.home_repair.service.engine.EngineDataSnapshot;
+import com.livingcostcheck.home_repair.service.engine.ModernBaselineTable;
+import com.livingcostcheck.home_repair.service.engine.VerdictCube;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import org.junit.jupiter.api.BeforeEach;
@@ -129,4 +144,391 @@ public class VerdictEngineTest {
                 Assertions.assertTrue(panelItem.getAdjustedCost() > 3000,
                                 "Panel cost should be elevated by forensic risk");
         }
+
+        @Test
+        public void testBatchMatchesSingleCalls() {
+                // Mix of shared groups (same metro/era/scale) and one-offs, incl. an unknown metro
+                List<UserContext> contexts = new ArrayList<>();
+                String[] eras = { "PRE_1950", "1970_1980", "1980_1995", "2010_PRESENT" };
+                for (int i = 0; i < 40; i++) {
+                        contexts.add(UserContext.builder()
+                                        .metroCode(i % 3 == 0 ? "AUSTIN_ROUND_ROCK_TX" : "AKRON_OH")
+                                        .era(eras[i % eras.length])
+                                        .budget(i % 2 == 0 ? 30000.0 : -1.0)
+                                        .sqft(i % 5 == 0 ? 2800 : null)
+                                        .relationship(RelationshipToHouse.values()[i % 3])
+                                        .isFpePanel(i % 7 == 0 ? true : null)
+                                        .coreSystemHistory(i % 4 == 0 ? Arrays.asList("ROOFING") : null)
+                                        .build());
+                }
+                contexts.add(UserContext.builder().metroCode("NOWHERE_ZZ").era("1980_1995").budget(10000.0)
+                                .relationship(RelationshipToHouse.BUYING).build());
+
+                List<Verdict> batch = engineService.generateVerdicts(contexts);
+
+                Assertions.assertEquals(contexts.size(), batch.size());
+                for (int i = 0; i < contexts.size(); i++) {
+                        Assertions.assertEquals(engineService.generateVerdict(contexts.get(i)), batch.get(i),
+                                        "Batch verdict differs at index " + i);
+                }
+        }
+
+        @Test
+        public void testBenchmarkVerdictsComeFromCube() {
+                Verdict verdict = engineService.benchmarkVerdict("AUSTIN_ROUND_ROCK_TX", "1980_1995", null);
+
+                Assertions.assertEquals(engineService.generateVerdict(
+                                VerdictCube.context("AUSTIN_ROUND_ROCK_TX", "1980_1995", null)), verdict);
+                Verdict again = engineService.benchmarkVerdict("AUSTIN_ROUND_ROCK_TX", "1980_1995", null);
+                Assertions.assertEquals(verdict, again);
+                Assertions.assertNotSame(verdict, again);
+                Assertions.assertEquals(verdict.getContextBriefing(),
+                                engineService.getPrecalcBriefing("AUSTIN_ROUND_ROCK_TX", "1980_1995"));
+                VerdictCube.Stats stats = engineService.getVerdictCubeStats();
+                Assertions.assertTrue(stats.retained());
+                Assertions.assertEquals(stats.cells(), stats.builtCells());
+                Assertions.assertTrue(stats.footprintBytes() > 0 && stats.footprintBytes() <= stats.maxBytes());
+
+                // Outside the cube: computed like a single verdict
+                Assertions.assertEquals(engineService.generateVerdict(VerdictCube.context("NOWHERE_ZZ", "1980_1995", null)),
+                                engineService.benchmarkVerdict("NOWHERE_ZZ", "1980_1995", null));
+                Assertions.assertEquals(1, engineService.getVerdictCubeStats().misses());
+        }
+
+        @Test
+        public void testBenchmarkVerdictsWithoutCube() {
+                ReflectionTestUtils.setField(engineService, "verdictCubeMaxBytes", 0L);
+
+                Verdict verdict = engineService.benchmarkVerdict("AKRON_OH", "PRE_1950", RelationshipToHouse.BUYING);
+
+                Assertions.assertEquals(engineService.generateVerdict(
+                                VerdictCube.context("AKRON_OH", "PRE_1950", RelationshipToHouse.BUYING)), verdict);
+                Assertions.assertFalse(engineService.getVerdictCubeStats().retained());
+        }
+
+        @Test
+        public void testPreliminaryCostingMatchesLegacyRates() {
+                EngineDataSnapshot data = engineService.currentData();
+                // Metro average, then small (small job penalties), large and multi-story custom houses
+                List<UserContext.UserContextBuilder> scales = List.of(
+                                UserContext.builder(),
+                                UserContext.builder().sqft(600).bathrooms(1).stories(1),
+                                UserContext.builder().sqft(1850).bathrooms(2).stories(2).roofType("METAL"),
+                                UserContext.builder().sqft(5200).bathrooms(4).stories(3).roofType("TILE"));
+
+                int compared = 0;
+                for (String metroCode : data.getMetroMasterData().getData().keySet()) {
+                        for (String era : data.getRiskFactorsData().getEras().keySet()) {
+                                for (UserContext.UserContextBuilder scale : scales) {
+                                        UserContext context = scale.metroCode(metroCode).era(era).build();
+                                        List<BaseCostItem> candidates = engineService.step0_candidateGenerator(data,
+                                                        context);
+                                        EstimatedScale estimatedScale = engineService.step2_autoScale(data, context);
+                                        String where = metroCode + "/" + era + "/" + context.getSqft();
+
+                                        List<BaseCostItem> legacy;
+                                        try {
+                                                legacy = LegacyCosting.cost(candidates, estimatedScale);
+                                        } catch (RuntimeException e) {
+                                                // Incomplete metro factors fail both ways
+                                                Assertions.assertThrows(RuntimeException.class,
+                                                                () -> engineService.step3_preliminaryCosting(data,
+                                                                                candidates, estimatedScale, metroCode),
+                                                                where);
+                                                continue;
+                                        }
+                                        Assertions.assertEquals(legacy, engineService.step3_preliminaryCosting(data,
+                                                        candidates, estimatedScale, metroCode), where);
+                                        compared++;
+                                }
+                        }
+                }
+                Assertions.assertTrue(compared > 2_000, "Compared " + compared + " houses");
+        }
+
+        @Test
+        public void testRiskFilterMatchesLegacyRules() {
+                EngineDataSnapshot data = engineService.currentData();
+                List<UserContext.UserContextBuilder> variants = List.of(
+                                UserContext.builder(),
+                                UserContext.builder().isFpePanel(true).isPolyB(true).isAluminum(true)
+                                                .isChineseDrywall(true),
+                                UserContext.builder().isAluminum(true),
+                                UserContext.builder()
+                                                .coreSystemHistory(List.of("ROOFING", "HVAC", "PLUMBING", "ELEC_PANEL"))
+                                                .livingSpaceHistory(List.of("KITCHEN_REMODEL", "BATH_REMODEL",
+                                                                "FLOORING", "WINDOWS")),
+                                UserContext.builder().isFpePanel(true).isPolyB(true)
+                                                .coreSystemHistory(List.of("PLUMBING", "ELEC_PANEL"))
+                                                .livingSpaceHistory(List.of("FLOORING")),
+                                UserContext.builder().history(List.of("ROOF", "HVAC", "SIDING")).condition("NONE"));
+                List<RelationshipToHouse> relationships = new ArrayList<>(Arrays.asList(RelationshipToHouse.values()));
+                relationships.add(null);
+
+                int compared = 0;
+                for (String metroCode : data.getMetroMasterData().getData().keySet()) {
+                        for (String era : data.getRiskFactorsData().getEras().keySet()) {
+                                List<BaseCostItem> costedItems = engineService.stageVerdict(UserContext.builder()
+                                                .metroCode(metroCode).era(era).budget(-1.0).build()).costedItems;
+                                if (costedItems == null) {
+                                        continue;
+                                }
+                                for (UserContext.UserContextBuilder variant : variants) {
+                                        for (RelationshipToHouse relationship : relationships) {
+                                                UserContext context = variant.metroCode(metroCode).era(era)
+                                                                .relationship(relationship).build();
+                                                List<String> legacyNotes = new ArrayList<>();
+                                                List<String> notes = new ArrayList<>();
+
+                                                List<RiskAdjustedItem> legacy = LegacyRiskFilter.filter(
+                                                                data.getRiskFactorsData(), data.getLifespanData(),
+                                                                costedItems, context, legacyNotes);
+                                                List<RiskAdjustedItem> compiled = engineService.step4_riskFilter(data,
+                                                                costedItems, context, notes);
+
+                                                String where = metroCode + "/" + era + "/" + relationship + "/"
+                                                                + variants.indexOf(variant);
+                                                Assertions.assertEquals(legacy, compiled, where);
+                                                Assertions.assertEquals(legacyNotes, notes, where);
+                                                compared++;
+                                        }
+                                }
+                        }
+                }
+                Assertions.assertTrue(compared > 10_000, "Compared " + compared + " contexts");
+        }
+
+        @Test
+        public void testModernBaselinesMatchLiveComputation() {
+                EngineDataSnapshot data = engineService.currentData();
+                ModernBaselineTable baselines = data.getModernBaselineTable();
+
+                int compared = 0;
+                for (String metroCode : data.getMetroMasterData().getData().keySet()) {
+                        for (StrategyType strategy : StrategyType.values()) {
+                                String where = metroCode + "/" + strategy;
+                                Double baseline = baselines.get(metroCode, strategy);
+                                if (baseline == null) {
+                                        // Left out at load only when the live computation fails too
+                                        Assertions.assertThrows(RuntimeException.class,
+                                                        () -> engineService.computeModernBenchmarkCost(data, metroCode,
+                                                                        null, strategy),
+                                                        where);
+                                        continue;
+                                }
+                                Assertions.assertEquals(engineService.computeModernBenchmarkCost(data, metroCode, null,
+                                                strategy), baseline, 0.0, where);
+                                compared++;
+                        }
+                }
+                Assertions.assertEquals(baselines.size(), compared);
+                Assertions.assertTrue(compared > 300, "Compared " + compared + " baselines");
+
+                // Metro average reads the table, custom sqft is computed live
+                UserContext.UserContextBuilder austin = UserContext.builder().metroCode("AUSTIN_ROUND_ROCK_TX")
+                                .era("1980_1995");
+                int resized = 0;
+                for (StrategyType strategy : StrategyType.values()) {
+                        double tableCost = baselines.get("AUSTIN_ROUND_ROCK_TX", strategy);
+                        Assertions.assertEquals(tableCost, engineService.calculateComparisonData(data,
+                                        austin.sqft(null).build(), 0, strategy).getModernBenchmarkCost(), 0.0);
+
+                        double customCost = engineService.calculateComparisonData(data, austin.sqft(3200).build(), 0,
+                                        strategy).getModernBenchmarkCost();
+                        Assertions.assertEquals(engineService.computeModernBenchmarkCost(data, "AUSTIN_ROUND_ROCK_TX",
+                                        3200, strategy), customCost, 0.0);
+                        if (customCost != tableCost) {
+                                resized++;
+                        }
+                }
+                // Scope-only strategies may not depend on size, the others must not read the table
+                Assertions.assertTrue(resized > 0);
+        }
+
+        @Test
+        public void testWhatIfRerunsOnlyInvalidatedStages() {
+                UserContext context = UserContext.builder()
+                                .metroCode("AUSTIN_ROUND_ROCK_TX")
+                                .era("1970_1980")
+                                .budget(1000000.0)
+                                .relationship(RelationshipToHouse.LIVING)
+                                .coreSystemHistory(List.of())
+                                .livingSpaceHistory(List.of())
+                                .isAluminum(true)
+                                .build();
+                StagedVerdict base = engineService.stageVerdict(context);
+                Assertions.assertEquals(engineService.generateVerdict(context), base.getVerdict());
+
+                StagedVerdict budget = engineService.whatIf(base, 5000.0, null, null);
+                Assertions.assertEquals(StagedVerdict.Stage.DECISION, budget.getRecomputedFrom());
+                Assertions.assertEquals(engineService.generateVerdict(context.toBuilder().budget(5000.0).build()),
+                                budget.getVerdict());
+                Assertions.assertNotEquals(base.getVerdict().getTier(), budget.getVerdict().getTier());
+
+                StagedVerdict investing = engineService.whatIf(budget, null, RelationshipToHouse.INVESTING, null);
+                Assertions.assertEquals(StagedVerdict.Stage.STRATEGY, investing.getRecomputedFrom());
+                Assertions.assertEquals(engineService.generateVerdict(context.toBuilder().budget(5000.0)
+                                .relationship(RelationshipToHouse.INVESTING).build()), investing.getVerdict());
+
+                StagedVerdict sqft = engineService.whatIf(investing, null, null, 3100);
+                Assertions.assertEquals(StagedVerdict.Stage.COSTING, sqft.getRecomputedFrom());
+                Assertions.assertEquals(engineService.generateVerdict(context.toBuilder().budget(5000.0)
+                                .relationship(RelationshipToHouse.INVESTING).sqft(3100).build()), sqft.getVerdict());
+
+                // Back to metro average
+                Assertions.assertEquals(engineService.generateVerdict(context.toBuilder().budget(5000.0)
+                                .relationship(RelationshipToHouse.INVESTING).build()),
+                                engineService.whatIf(sqft, null, null, 0).getVerdict());
+        }
+
+        @Test
+        public void testWhatIfWithRepairHistoryRerunsRiskFilter() {
+                UserContext context = UserContext.builder()
+                                .metroCode("AKRON_OH")
+                                .era("1950_1970")
+                                .budget(20000.0)
+                                .relationship(RelationshipToHouse.BUYING)
+                                .coreSystemHistory(List.of("ROOFING", "HVAC"))
+                                .livingSpaceHistory(List.of("KITCHEN"))
+                                .build();
+                StagedVerdict base = engineService.stageVerdict(context);
+
+                StagedVerdict living = engineService.whatIf(base, null, RelationshipToHouse.LIVING, null);
+
+                Assertions.assertEquals(StagedVerdict.Stage.RISK_FILTER, living.getRecomputedFrom());
+                Assertions.assertEquals(engineService.generateVerdict(
+                                context.toBuilder().relationship(RelationshipToHouse.LIVING).build()),
+                                living.getVerdict());
+
+                // Nothing eligible: an unknown metro stays an insufficient data verdict
+                UserContext unknown = context.toBuilder().metroCode("NOWHERE_ZZ").build();
+                StagedVerdict insufficient = engineService.whatIf(engineService.stageVerdict(unknown), 90000.0, null, 2000);
+                Assertions.assertEquals(engineService.generateVerdict(
+                                unknown.toBuilder().budget(90000.0).sqft(2000).build()), insufficient.getVerdict());
+        }
+
+        @Test
+        public void testVerdictsLeaveEngineDataUnchanged() throws Exception {
+                EngineDataSnapshot data = engineService.currentData();
+
+                // Read-only containers
+                Assertions.assertThrows(UnsupportedOperationException.class,
+                                () -> data.getMetroMasterData().getData().remove("AUSTIN_ROUND_ROCK_TX"));
+                Assertions.assertThrows(UnsupportedOperationException.class,
+                                () -> data.getRiskFactorsData().getEras().values().iterator().next().getCriticalRisks()
+                                                .clear());
+                Assertions.assertThrows(UnsupportedOperationException.class,
+                                () -> data.getCostLibraryData().getConstructionItemLibrary().values().iterator().next()
+                                                .clear());
+                Assertions.assertThrows(UnsupportedOperationException.class,
+                                () -> data.getLifespanData().getItems().clear());
+
+                // Every benchmark cell, then forensic, history, custom scale and what-if verdicts
+                for (String metroCode : data.getMetroMasterData().getData().keySet()) {
+                        for (String era : data.getRiskFactorsData().getEras().keySet()) {
+                                engineService.benchmarkVerdict(metroCode, era, RelationshipToHouse.BUYING);
+                                engineService.getPrecalcBriefing(metroCode, era);
+                        }
+                }
+                List<UserContext> contexts = new ArrayList<>();
+                for (String metroCode : List.of("AUSTIN_ROUND_ROCK_TX", "AKRON_OH", "FRESNO_CA")) {
+                        for (String era : data.getRiskFactorsData().getEras().keySet()) {
+                                contexts.add(UserContext.builder().metroCode(metroCode).era(era).budget(20000.0)
+                                                .relationship(RelationshipToHouse.LIVING).sqft(900).bathrooms(1)
+                                                .isFpePanel(true).isPolyB(true).isAluminum(true).isChineseDrywall(true)
+                                                .build());
+                                contexts.add(UserContext.builder().metroCode(metroCode).era(era).budget(250000.0)
+                                                .relationship(RelationshipToHouse.INVESTING).sqft(4200).stories(2)
+                                                .coreSystemHistory(List.of("ROOFING", "HVAC"))
+                                                .livingSpaceHistory(List.of("KITCHEN_REMODEL")).condition("MINOR")
+                                                .build());
+                        }
+                }
+                contexts.forEach(engineService::generateVerdict);
+                engineService.generateVerdicts(contexts);
+                engineService.whatIf(engineService.stageVerdict(contexts.get(0)), 5000.0, RelationshipToHouse.BUYING,
+                                2600);
+
+                // Shared beans still equal a fresh parse of the same files
+                ObjectMapper objectMapper = new ObjectMapper();
+                objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+                List<Class<?>> types = List.of(DataMapping.MetroMasterData.class, DataMapping.RiskFactorsData.class,
+                                DataMapping.CostLibraryData.class, LifespanData.class);
+                List<Object> loaded = List.of(data.getMetroMasterData(), data.getRiskFactorsData(),
+                                data.getCostLibraryData(), data.getLifespanData());
+                for (int i = 0; i < types.size(); i++) {
+                        try (var in = new ClassPathResource("data/" + VerdictEngineService.DATA_FILES.get(i))
+                                        .getInputStream()) {
+                                Assertions.assertEquals(objectMapper.readValue(in, types.get(i)), loaded.get(i),
+                                                VerdictEngineService.DATA_FILES.get(i));
+                        }
+                }
+        }
+
+        @Test
+        public void testStagedVerdictCacheIsClearedOnReload(@TempDir Path dataDir) throws Exception {
+                UserContext context = UserContext.builder()
+                                .metroCode("AUSTIN_ROUND_ROCK_TX")
+                                .era("1980_1995")
+                                .budget(30000.0)
+                                .relationship(RelationshipToHouse.LIVING)
+                                .build();
+                StagedVerdictCache cache = new StagedVerdictCache(engineService, 2);
+                UUID id = UUID.randomUUID();
+
+                StagedVerdict staged = cache.get(id, unused -> Optional.of(context)).orElseThrow();
+                Assertions.assertSame(staged, cache.get(id, unused -> Optional.empty()).orElseThrow());
+                Assertions.assertTrue(cache.get(UUID.randomUUID(), unused -> Optional.empty()).isEmpty());
+
+                ObjectMapper mapper = new ObjectMapper();
+                ObjectNode metros = (ObjectNode) mapper.readTree(
+                                new ClassPathResource("data/2026_US_Metro_Master_Data.json").getInputStream());
+                ((ObjectNode) metros.get("data").get("AUSTIN_ROUND_ROCK_TX")).put("labor_mult", 3.0);
+                mapper.writeValue(dataDir.resolve("2026_US_Metro_Master_Data.json").toFile(), metros);
+                ReflectionTestUtils.setField(engineService, "dataDir", dataDir.toString());
+                engineService.reload();
+
+                // The old snapshot is no longer referenced; the next what-if restages on the new data
+                Assertions.assertEquals(0, cache.size());
+                StagedVerdict restaged = cache.get(id, unused -> Optional.of(context)).orElseThrow();
+                Assertions.assertEquals(engineService.getDataVersion(), restaged.getDataVersion());
+                Assertions.assertNotEquals(staged.getDataVersion(), restaged.getDataVersion());
+        }
+
+        @Test
+        public void testReloadSwapsSnapshot(@TempDir Path dataDir) throws Exception {
+                UserContext context = UserContext.builder()
+                                .metroCode("AUSTIN_ROUND_ROCK_TX")
+                                .era("1980_1995")
+                                .budget(-1.0)
+                                .relationship(RelationshipToHouse.LIVING)
+                                .build();
+                EngineDataSnapshot original = engineService.currentData();
+                double originalCost = engineService.generateVerdict(context).getExactCostEstimate();
+
+                // Same content: no new generation, caches stay warm
+                Assertions.assertSame(original, engineService.reload());
+
+                // Override the metro file only: labor costs double in Austin
+                ObjectMapper mapper = new ObjectMapper();
+                ObjectNode metros = (ObjectNode) mapper.readTree(
+                                new ClassPathResource("data/2026_US_Metro_Master_Data.json").getInputStream());
+                ObjectNode austin = (ObjectNode) metros.get("data").get("AUSTIN_ROUND_ROCK_TX");
+                austin.put("labor_mult", austin.get("labor_mult").asDouble() * 2);
+                mapper.writeValue(dataDir.resolve("2026_US_Metro_Master_Data.json").toFile(), metros);
+                ReflectionTestUtils.setField(engineService, "dataDir", dataDir.toString());
+
+                EngineDataSnapshot reloaded = engineService.reload();
+                Assertions.assertNotEquals(original.getVersion(), reloaded.getVersion());
+                Assertions.assertEquals(original.getSequence() + 1, reloaded.getSequence());
+                Assertions.assertTrue(engineService.generateVerdict(context).getExactCostEstimate() > originalCost,
+                                "Reloaded labor multiplier should raise the estimate");
+                Assertions.assertNotSame(original.getCostingCache(), reloaded.getCostingCache(),
+                                "Derived caches belong to their snapshot");
+
+                // Invalid data is rejected and the current snapshot keeps serving
+                Files.writeString(dataDir.resolve("item_lifespan_db.json"), "{\"items\": {}}");
+                Assertions.assertThrows(IllegalStateException.class, () -> engineService.reload());
+                Assertions.assertSame(reloaded, engineService.currentData());
+        }
 }
@@ -0,0 +1,54 @@
+package com.livingcostcheck.home_repair.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerdictSnapshotCodecTest {
+
+    private VerdictEngineService engineService;
+    private VerdictSnapshotCodec codec;
+
+    @BeforeEach
+    void setup() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        engineService = new VerdictEngineService(new DefaultResourceLoader(), objectMapper);
+        engineService.loadData();
+        codec = new VerdictSnapshotCodec(objectMapper);
+    }
+
+    @Test
+    void testRoundTripPreservesVerdict() throws IOException {
+        for (RelationshipToHouse relationship : RelationshipToHouse.values()) {
+            Verdict verdict = engineService.generateVerdict(UserContext.builder()
+                    .metroCode("AUSTIN_ROUND_ROCK_TX")
+                    .era("1970_1980")
+                    .budget(40000.0)
+                    .sqft(2600)
+                    .stories(2)
+                    .relationship(relationship)
+                    .isFpePanel(true)
+                    .coreSystemHistory(Arrays.asList("ROOFING"))
+                    .build());
+
+            byte[] snapshot = codec.encode(verdict);
+
+            assertEquals(verdict, codec.decode(snapshot), "Snapshot round trip for " + relationship);
+            assertTrue(snapshot.length < 16 * 1024, "Snapshot should stay compact: " + snapshot.length + " bytes");
+        }
+    }
+
+    @Test
+    void testCorruptSnapshotIsRejected() {
+        assertThrows(IOException.class, () -> codec.decode(new byte[] { 1, 2, 3 }));
+    }
+}
@@ -0,0 +1,71 @@
+package com.livingcostcheck.home_repair.service.engine;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.BaseCostItem;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.UserContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CostingCacheTest {
+
+    private static List<BaseCostItem> items(int count) {
+        List<BaseCostItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(BaseCostItem.builder().itemCode("ITEM_" + i).build());
+        }
+        return items;
+    }
+
+    @Test
+    void testDefaultsShareOneEntry() {
+        CostingCache cache = new CostingCache(100);
+        AtomicInteger loads = new AtomicInteger();
+
+        UserContext metroAverage = UserContext.builder().metroCode("AUSTIN_ROUND_ROCK_TX").era("1980_1995").build();
+        UserContext explicitDefaults = UserContext.builder().metroCode("AUSTIN_ROUND_ROCK_TX").era("1980_1995")
+                .sqft(0).stories(1).bathrooms(2).roofType("ASPHALT").budget(50000.0).build();
+
+        cache.get(metroAverage, () -> {
+            loads.incrementAndGet();
+            return items(3);
+        });
+        cache.get(explicitDefaults, () -> {
+            loads.incrementAndGet();
+            return items(3);
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void testCachedListIsImmutable() {
+        CostingCache cache = new CostingCache(100);
+        UserContext context = UserContext.builder().metroCode("AUSTIN_ROUND_ROCK_TX").era("2010_PRESENT").build();
+
+        List<BaseCostItem> cached = cache.get(context, () -> items(2));
+
+        assertThrows(UnsupportedOperationException.class, () -> cached.add(BaseCostItem.builder().build()));
+    }
+
+    @Test
+    void testEvictsByItemWeight() {
+        CostingCache cache = new CostingCache(10);
+
+        for (int sqft = 1000; sqft < 1004; sqft++) {
+            UserContext context = UserContext.builder().metroCode("AUSTIN_ROUND_ROCK_TX").era("1980_1995")
+                    .sqft(sqft).build();
+            cache.get(context, () -> items(4));
+        }
+
+        CostingCache.Stats stats = cache.stats();
+        assertEquals(2, stats.entries());
+        assertEquals(8, stats.cachedItems());
+        assertEquals(2, stats.evictions());
+    }
+}
@@ -0,0 +1,77 @@
+package com.livingcostcheck.home_repair.service.engine;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.livingcostcheck.home_repair.service.VerdictEngineService;
+import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping.*;
+import com.livingcostcheck.home_repair.service.dto.verdict.LifespanData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineDataBinaryTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private List<byte[]> sources;
+
+    private static byte[] resource(String fileName) throws IOException {
+        try (InputStream in = new ClassPathResource("data/" + fileName).getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    @BeforeEach
+    void setup() throws IOException {
+        sources = new ArrayList<>();
+        for (String fileName : VerdictEngineService.DATA_FILES) {
+            sources.add(resource(fileName));
+        }
+    }
+
+    @Test
+    void testCommittedBinaryIsUpToDate() throws IOException {
+        ByteBuffer compiled = ByteBuffer.wrap(resource(EngineDataBinary.FILE_NAME));
+
+        assertEquals(EngineDataSnapshot.digest(sources), EngineDataBinary.version(compiled),
+                "engine-data.bin is stale: run ./gradlew compileEngineData");
+    }
+
+    @Test
+    void testRoundTripMatchesJson() throws IOException {
+        MetroMasterData metro = objectMapper.readValue(sources.get(0), MetroMasterData.class);
+        RiskFactorsData risk = objectMapper.readValue(sources.get(1), RiskFactorsData.class);
+        CostLibraryData cost = objectMapper.readValue(sources.get(2), CostLibraryData.class);
+        LifespanData lifespan = objectMapper.readValue(sources.get(3), LifespanData.class);
+
+        EngineDataBinary.Contents decoded = EngineDataBinary.read(
+                ByteBuffer.wrap(EngineDataBinary.write("0123456789abcdef", metro, risk, cost, lifespan)));
+
+        assertEquals("0123456789abcdef", decoded.version());
+        assertEquals(metro, decoded.metroMasterData());
+        assertEquals(risk, decoded.riskFactorsData());
+        assertEquals(cost, decoded.costLibraryData());
+        assertEquals(lifespan, decoded.lifespanData());
+        // Same iteration order as the JSON (page links depend on it)
+        assertEquals(List.copyOf(metro.getData().keySet()), List.copyOf(decoded.metroMasterData().getData().keySet()));
+    }
+
+    @Test
+    void testRejectsCorruptFile() throws IOException {
+        byte[] compiled = resource(EngineDataBinary.FILE_NAME);
+        compiled[compiled.length / 2] ^= 0x5A;
+        assertThrows(IllegalStateException.class, () -> EngineDataBinary.read(ByteBuffer.wrap(compiled)));
+
+        byte[] notCompiled = sources.get(0);
+        assertThrows(IllegalStateException.class, () -> EngineDataBinary.version(ByteBuffer.wrap(notCompiled)));
+    }
+}
@@ -0,0 +1,86 @@
+package com.livingcostcheck.home_repair.service.engine;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping.MetroCityData;
+import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping.MetroMasterData;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetroGeoIndexTest {
+
+    private static Map<String, MetroCityData> metros;
+    private static MetroGeoIndex index;
+
+    @BeforeAll
+    static void load() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        metros = objectMapper.readValue(Path.of("src/main/resources/data/2026_US_Metro_Master_Data.json").toFile(),
+                MetroMasterData.class).getData();
+        index = MetroGeoIndex.compile(metros);
+    }
+
+    private static List<String> codes(List<MetroGeoIndex.Neighbor> neighbors) {
+        return neighbors.stream().map(MetroGeoIndex.Neighbor::metroCode).toList();
+    }
+
+    private static double haversineKm(MetroCityData a, MetroCityData b) {
+        double dLat = Math.toRadians(b.getLat() - a.getLat());
+        double dLon = Math.toRadians(b.getLon() - a.getLon());
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2) + Math.cos(Math.toRadians(a.getLat()))
+                * Math.cos(Math.toRadians(b.getLat())) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * 6371.0 * Math.asin(Math.sqrt(h));
+    }
+
+    @Test
+    void testEveryMetroHasCoordinates() {
+        assertEquals(metros.size(), index.size());
+    }
+
+    @Test
+    void testNearestMatchesBruteForce() {
+        for (String code : metros.keySet()) {
+            List<String> expected = metros.keySet().stream().filter(other -> !other.equals(code))
+                    .sorted(Comparator.comparingDouble(other -> haversineKm(metros.get(code), metros.get(other))))
+                    .limit(8).toList();
+
+            List<MetroGeoIndex.Neighbor> nearest = index.nearest(code, 8);
+
+            assertEquals(expected, codes(nearest), code);
+            assertEquals(haversineKm(metros.get(code), metros.get(expected.get(0))), nearest.get(0).distanceKm(), 0.01);
+        }
+    }
+
+    @Test
+    void testNeighborsCrossStateLines() {
+        assertEquals(List.of("ALLENTOWN_BETHLEHEM_PA", "NYC_NEWARK_JERSEY_CITY_NY_NJ", "BALTIMORE_COLUMBIA_MD"),
+                codes(index.nearest("PHILADELPHIA_PA_NJ", 3)));
+        assertEquals(List.of("BALTIMORE_COLUMBIA_MD", "HARRISBURG_CARLISLE_PA", "RICHMOND_VA"),
+                codes(index.nearest("WASHINGTON_ARLINGTON_DC_VA", 3)));
+        assertEquals(List.of("SEATTLE_TACOMA_BELLEVUE_WA"), codes(index.nearest("ANCHORAGE_AK", 1)));
+    }
+
+    @Test
+    void testPointQueriesAndMissingCoordinates() {
+        // Downtown Dallas
+        assertEquals("DALLAS_FT_WORTH_ARLINGTON_TX", index.nearest(32.78, -96.80, 1).get(0).metroCode());
+        assertTrue(index.nearest("NOWHERE_ZZ", 5).isEmpty());
+        assertTrue(index.nearest("AUSTIN_ROUND_ROCK_TX", 0).isEmpty());
+        assertEquals(metros.size() - 1, index.nearest("AUSTIN_ROUND_ROCK_TX", 500).size());
+
+        Map<String, MetroCityData> partial = new LinkedHashMap<>();
+        partial.put("AUSTIN_ROUND_ROCK_TX", metros.get("AUSTIN_ROUND_ROCK_TX"));
+        partial.put("NOWHERE_ZZ", new MetroCityData());
+        MetroGeoIndex small = MetroGeoIndex.compile(partial);
+        assertEquals(1, small.size());
+        assertFalse(small.contains("NOWHERE_ZZ"));
+        assertTrue(small.nearest("AUSTIN_ROUND_ROCK_TX", 3).isEmpty());
+    }
+}
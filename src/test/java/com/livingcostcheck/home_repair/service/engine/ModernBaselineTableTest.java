@@ -0,0 +1,30 @@
+package com.livingcostcheck.home_repair.service.engine;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.StrategyType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModernBaselineTableTest {
+
+    @Test
+    void leavesOutMetrosThatFailToCompute() {
+        ModernBaselineTable table = ModernBaselineTable.compute(List.of("A", "BROKEN", "B"), (metroCode, strategy) -> {
+            if ("BROKEN".equals(metroCode) && strategy == StrategyType.FOREVER_HOME) {
+                throw new IllegalArgumentException("Incomplete localization data for metro: " + metroCode);
+            }
+            return metroCode.length() * 1000.0 + strategy.ordinal();
+        });
+
+        assertEquals(2 * StrategyType.values().length, table.size());
+        for (StrategyType strategy : StrategyType.values()) {
+            assertEquals(1000.0 + strategy.ordinal(), table.get("A", strategy));
+            assertEquals(1000.0 + strategy.ordinal(), table.get("B", strategy));
+            // No partial row either: the whole metro falls back to the live computation
+            assertNull(table.get("BROKEN", strategy));
+            assertNull(table.get("UNKNOWN", strategy));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.livingcostcheck.home_repair.service.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegionIndexTest {
+
+    private static final RegionIndex REGIONS = RegionIndex.compile(List.of(
+            "SAN_ANTONIO_NEW_BRAUNFELS_TX", "AUSTIN_ROUND_ROCK_TX", "PHILADELPHIA_PA_NJ",
+            "WASHINGTON_ARLINGTON_DC_VA", "ABILENE_TX"));
+
+    @Test
+    void testStatesKeepDataOrderOfMetros() {
+        assertEquals(Set.of("NJ", "TX", "VA"), REGIONS.states());
+        assertEquals(List.of("SAN_ANTONIO_NEW_BRAUNFELS_TX", "AUSTIN_ROUND_ROCK_TX", "ABILENE_TX"),
+                REGIONS.metrosInState("TX").stream().map(RegionIndex.Metro::code).toList());
+        assertTrue(REGIONS.metrosInState("CA").isEmpty());
+        assertTrue(REGIONS.metrosInState(null).isEmpty());
+        assertEquals(5, REGIONS.size());
+    }
+
+    @Test
+    void testNamesAndSlugs() {
+        RegionIndex.Metro metro = REGIONS.metro("WASHINGTON_ARLINGTON_DC_VA");
+
+        assertEquals("VA", metro.stateCode());
+        assertEquals("washington-arlington-dc-va", metro.slug());
+        assertEquals("Washington Arlington Dc, VA", metro.name());
+        assertEquals("Washington Arlington Dc", metro.cityName());
+        assertEquals("Texas", RegionIndex.stateName("TX"));
+        assertEquals("ZZ", RegionIndex.stateName("ZZ"));
+    }
+
+    @Test
+    void testStateOfUnknownMetroIsParsed() {
+        assertNull(REGIONS.metro("CHICAGO_NAPERVILLE_IL"));
+        assertEquals("IL", REGIONS.stateOf("CHICAGO_NAPERVILLE_IL"));
+        assertNull(REGIONS.stateOf("NOWHERE"));
+        assertNull(REGIONS.stateOf("METRO_123"));
+    }
+}
@@ -0,0 +1,161 @@
+package com.livingcostcheck.home_repair.service.engine;
+
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.ComparisonData;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.ContextBriefing;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.RelationshipToHouse;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.RiskAdjustedItem;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.SortedPlan;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.StrategyOption;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.UserContext;
+import com.livingcostcheck.home_repair.service.dto.verdict.VerdictDTOs.Verdict;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerdictCubeTest {
+
+    private static final List<String> METROS = List.of("AUSTIN_ROUND_ROCK_TX", "AKRON_OH", "BROKEN_ZZ");
+    private static final List<String> ERAS = List.of("PRE_1950", "2010_PRESENT");
+
+    // Verdict naming its context; every verdict of a batch gets its own (equal) briefing and items
+    private static final Function<List<UserContext>, List<Verdict>> BATCH = contexts -> {
+        if (contexts.get(0).getMetroCode().equals("BROKEN_ZZ")) {
+            throw new IllegalStateException("incomplete metro");
+        }
+        List<Verdict> verdicts = new ArrayList<>();
+        for (UserContext context : contexts) {
+            verdicts.add(Verdict.builder()
+                    .headline(context.getMetroCode() + "/" + context.getEra() + "/" + context.getRelationship()
+                            + "/" + context.getBudget())
+                    .contextBriefing(ContextBriefing.builder().eraFeature(context.getEra()).build())
+                    .plan(SortedPlan.builder()
+                            .mustDo(List.of(RiskAdjustedItem.builder().itemCode("ROOF").adjustedCost(100).build()))
+                            .shouldDo(List.of())
+                            .skipForNow(List.of())
+                            .build())
+                    .build());
+        }
+        return verdicts;
+    };
+
+    @Test
+    void testCellsByIdAndCode() {
+        VerdictCube cube = VerdictCube.build(METROS, ERAS, VerdictCube.DEFAULT_MAX_BYTES, BATCH);
+
+        assertEquals("AKRON_OH/2010_PRESENT/BUYING/-1.0",
+                cube.get(cube.metroId("AKRON_OH"), cube.eraId("2010_PRESENT"), RelationshipToHouse.BUYING)
+                        .getHeadline());
+        assertEquals("AUSTIN_ROUND_ROCK_TX/PRE_1950/null/-1.0",
+                cube.get("AUSTIN_ROUND_ROCK_TX", "PRE_1950", null).getHeadline());
+        assertNull(cube.get("NOWHERE_ZZ", "PRE_1950", null));
+        assertNull(cube.get("AKRON_OH", "1950_1970", null));
+
+        // A failing metro is left out, the rest of the cube is kept
+        assertNull(cube.get("BROKEN_ZZ", "PRE_1950", RelationshipToHouse.LIVING));
+        VerdictCube.Stats stats = cube.stats();
+        assertEquals(3 * 2 * 4, stats.cells());
+        assertEquals(2 * 2 * 4, stats.builtCells());
+        assertTrue(stats.retained());
+        assertEquals(2, stats.hits());
+        assertEquals(3, stats.misses());
+    }
+
+    @Test
+    void testSlotsShareBriefingAndItems() {
+        VerdictCube cube = VerdictCube.build(METROS, ERAS, VerdictCube.DEFAULT_MAX_BYTES, BATCH);
+
+        // Same verdicts as the cube holds, each with its own briefing and items
+        List<Verdict> unshared = new ArrayList<>();
+        for (String metro : METROS.subList(0, 2)) {
+            List<UserContext> contexts = new ArrayList<>();
+            for (String era : ERAS) {
+                contexts.add(VerdictCube.context(metro, era, null));
+                for (RelationshipToHouse relationship : RelationshipToHouse.values()) {
+                    contexts.add(VerdictCube.context(metro, era, relationship));
+                }
+            }
+            unshared.addAll(BATCH.apply(contexts));
+        }
+        assertTrue(cube.stats().footprintBytes() < VerdictCube.Footprint.of(unshared));
+    }
+
+    @Test
+    void testCallersGetIndependentCopies() {
+        VerdictCube cube = VerdictCube.build(METROS, ERAS, VerdictCube.DEFAULT_MAX_BYTES, BATCH);
+
+        Verdict none = cube.get("AKRON_OH", "PRE_1950", null);
+        Verdict investing = cube.get("AKRON_OH", "PRE_1950", RelationshipToHouse.INVESTING);
+        assertNotSame(none.getContextBriefing(), investing.getContextBriefing());
+        assertNotSame(none.getPlan().getMustDo().get(0), investing.getPlan().getMustDo().get(0));
+
+        Verdict first = cube.get("AKRON_OH", "PRE_1950", null);
+        assertEquals(none, first);
+        first.setHeadline("changed");
+        first.getContextBriefing().setEraFeature("changed");
+        first.getPlan().getMustDo().get(0).setAdjustedCost(0);
+        first.getPlan().getMustDo().clear();
+
+        Verdict second = cube.get("AKRON_OH", "PRE_1950", null);
+        assertEquals(none, second);
+        assertEquals("PRE_1950", investing.getContextBriefing().getEraFeature());
+        assertEquals(100, second.getPlan().getMustDo().get(0).getAdjustedCost());
+    }
+
+    @Test
+    void testCopyIsDeep() {
+        RiskAdjustedItem item = RiskAdjustedItem.builder().itemCode("ROOF").riskFlags(new ArrayList<>(List.of("A")))
+                .build();
+        SortedPlan plan = SortedPlan.builder().mustDo(new ArrayList<>(List.of(item))).build();
+        Verdict verdict = Verdict.builder()
+                .strategyOptions(new ArrayList<>(List.of(StrategyOption.builder()
+                        .plan(plan)
+                        .keyHighlights(new ArrayList<>(List.of("cheap")))
+                        .build())))
+                .exclusionNote(new ArrayList<>(List.of("note")))
+                .plan(plan)
+                .comparisonData(ComparisonData.builder().modernBenchmarkCost(10).build())
+                .build();
+
+        Verdict copy = VerdictCube.copy(verdict);
+        assertEquals(verdict, copy);
+        assertNotSame(verdict.getStrategyOptions(), copy.getStrategyOptions());
+        assertNotSame(verdict.getStrategyOptions().get(0), copy.getStrategyOptions().get(0));
+        assertNotSame(item, copy.getStrategyOptions().get(0).getPlan().getMustDo().get(0));
+        assertNotSame(item.getRiskFlags(), copy.getPlan().getMustDo().get(0).getRiskFlags());
+        assertNotSame(verdict.getExclusionNote(), copy.getExclusionNote());
+        assertNotSame(verdict.getComparisonData(), copy.getComparisonData());
+        assertNull(copy.getPlan().getShouldDo());
+        assertNull(copy.getContextBriefing());
+    }
+
+    @Test
+    void testOverBudgetIsNotRetained() {
+        AtomicInteger batches = new AtomicInteger();
+        VerdictCube cube = VerdictCube.build(METROS, ERAS, 1024, contexts -> {
+            batches.incrementAndGet();
+            return BATCH.apply(contexts);
+        });
+
+        assertEquals(3, batches.get());
+        assertNull(cube.get("AKRON_OH", "PRE_1950", null));
+        VerdictCube.Stats stats = cube.stats();
+        assertFalse(stats.retained());
+        assertTrue(stats.footprintBytes() > 1024);
+    }
+
+    @Test
+    void testFootprintCountsSharedObjectsOnce() {
+        String text = "x".repeat(100);
+        long one = VerdictCube.Footprint.of(new Object[] { text });
+        long twice = VerdictCube.Footprint.of(new Object[] { text, text });
+
+        // Both arrays take 24 bytes; the string is counted once
+        assertEquals(one, twice);
+        assertTrue(VerdictCube.Footprint.of(new Object[] { text, "y".repeat(100) }) > twice);
+    }
+}
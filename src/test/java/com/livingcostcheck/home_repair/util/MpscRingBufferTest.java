@@ -0,0 +1,79 @@
+package com.livingcostcheck.home_repair.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpscRingBufferTest {
+
+    @Test
+    void testRejectsWhenFull() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(3);
+        assertEquals(4, ring.capacity());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, ring.drain(drained::add, 2));
+        assertTrue(ring.offer(5));
+        ring.drain(drained::add, 10);
+        assertEquals(List.of(0, 1, 2, 3, 5), drained);
+        assertTrue(ring.isEmpty());
+        assertEquals(5, ring.consumed());
+    }
+
+    @Test
+    void testConcurrentProducersDeliverEachElementOnce() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<Long> ring = new MpscRingBuffer<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        boolean[] seen = new boolean[producers * perProducer];
+        long[] lastPerProducer = new long[producers];
+        Arrays.fill(lastPerProducer, -1);
+        int received = 0;
+        start.countDown();
+        while (received < seen.length) {
+            received += ring.drain(value -> {
+                int producer = (int) (value / perProducer);
+                assertFalse(seen[value.intValue()], "duplicate " + value);
+                assertTrue(value > lastPerProducer[producer], "out of order " + value);
+                seen[value.intValue()] = true;
+                lastPerProducer[producer] = value;
+            }, 256);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(ring.isEmpty());
+        assertEquals(seen.length, ring.consumed());
+    }
+}
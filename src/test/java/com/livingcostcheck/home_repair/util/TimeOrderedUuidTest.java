@@ -0,0 +1,39 @@
+package com.livingcostcheck.home_repair.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedUuidTest {
+
+    @Test
+    void testVersionAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = TimeOrderedUuid.next();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertTrue(TimeOrderedUuid.timestamp(uuid) >= before);
+        assertTrue(TimeOrderedUuid.timestamp(uuid) <= System.currentTimeMillis() + 1);
+        assertEquals(uuid, UUID.fromString(uuid.toString()));
+    }
+
+    @Test
+    void testMonotonicWithinMillisecond() {
+        UUID previous = TimeOrderedUuid.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = TimeOrderedUuid.next();
+            // Unsigned order of the high bits is the index order of the 16-byte key
+            assertTrue(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()) > 0,
+                    previous + " before " + next);
+            previous = next;
+        }
+    }
+
+    @Test
+    void testRejectsRandomUuid() {
+        assertThrows(IllegalArgumentException.class, () -> TimeOrderedUuid.timestamp(UUID.randomUUID()));
+    }
+}
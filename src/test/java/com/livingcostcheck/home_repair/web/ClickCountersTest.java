@@ -0,0 +1,57 @@
+package com.livingcostcheck.home_repair.web;
+
+import com.livingcostcheck.home_repair.domain.EventLog.EventType;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClickCountersTest {
+
+    @Test
+    void testCountsPerKeyAndType() {
+        ClickCounters counters = new ClickCounters(100);
+        UUID verdict = UUID.randomUUID();
+
+        counters.record(verdict, EventType.CLICK_AD, "https://example.com/a");
+        counters.record(verdict, EventType.CLICK_AD, "https://example.com/a");
+        counters.record(verdict, EventType.CLICK_AFFILIATE, "https://example.com/b");
+
+        assertEquals(2, counters.count(verdict, EventType.CLICK_AD, "https://example.com/a"));
+        assertEquals(0, counters.count(verdict, EventType.CLICK_AD, "https://example.com/b"));
+        assertEquals(2, counters.total(EventType.CLICK_AD));
+        assertEquals(1, counters.total(EventType.CLICK_AFFILIATE));
+        assertEquals(2, counters.top(10).get(0).clicks());
+    }
+
+    @Test
+    void testKeysBeyondLimitOnlyCountInTotals() {
+        ClickCounters counters = new ClickCounters(2);
+        for (int i = 0; i < 5; i++) {
+            counters.record(UUID.randomUUID(), EventType.CLICK_AFFILIATE, "https://example.com");
+        }
+
+        ClickCounters.Stats stats = counters.stats();
+        assertEquals(5, stats.affiliateClicks());
+        assertEquals(2, stats.keys());
+        assertEquals(3, stats.untracked());
+    }
+
+    @Test
+    void testOversizedTargetsOnlyCountInTotals() {
+        ClickCounters counters = new ClickCounters(100, 40);
+        UUID verdict = UUID.randomUUID();
+        String longTarget = "https://example.com/" + "x".repeat(5_000);
+
+        counters.record(verdict, EventType.CLICK_AD, longTarget);
+        counters.record(verdict, EventType.CLICK_AD, "https://example.com/short");
+
+        assertEquals(0, counters.count(verdict, EventType.CLICK_AD, longTarget));
+        assertEquals(1, counters.count(verdict, EventType.CLICK_AD, "https://example.com/short"));
+        ClickCounters.Stats stats = counters.stats();
+        assertEquals(2, stats.adClicks());
+        assertEquals(1, stats.keys());
+        assertEquals(1, stats.untracked());
+    }
+}
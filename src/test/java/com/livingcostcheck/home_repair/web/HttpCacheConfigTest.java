@@ -0,0 +1,18 @@
+package com.livingcostcheck.home_repair.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpCacheConfigTest {
+
+    @Test
+    void testNoTemplateSourceScanWithoutTemplateLocation() {
+        assertEquals(List.of("classpath*:gg/jte/generated/precompiled/**/*.class"),
+                HttpCacheConfig.templatePatterns(""));
+        assertEquals(HttpCacheConfig.templatePatterns(""), HttpCacheConfig.templatePatterns(null));
+        assertEquals("file:src/main/jte/**/*.jte", HttpCacheConfig.templatePatterns("src/main/jte").get(1));
+    }
+}
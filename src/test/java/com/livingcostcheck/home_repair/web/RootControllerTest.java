@@ -1,10 +1,18 @@
 package com.livingcostcheck.home_repair.web;
 
+import com.livingcostcheck.home_repair.service.VerdictEngineService;
+import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping.MetroCityData;
+import com.livingcostcheck.home_repair.service.dto.verdict.DataMapping.MetroMasterData;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -14,10 +22,20 @@ public class RootControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @MockitoBean
+    private VerdictEngineService verdictEngineService;
+
     @Test
     void rootShouldServeHubPage() throws Exception {
+        MetroMasterData metros = new MetroMasterData();
+        metros.setData(Map.of("AUSTIN_ROUND_ROCK_TX", new MetroCityData()));
+        when(verdictEngineService.getMetroMasterData()).thenReturn(metros);
+        when(verdictEngineService.getDataVersion()).thenReturn("0123456789abcdef");
+
         mockMvc.perform(get("/"))
                 .andExpect(status().isOk())
-                .andExpect(view().name("pages/hub"));
+                .andExpect(view().name("pages/hub"))
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().string("Cache-Control", containsString("public")));
     }
 }